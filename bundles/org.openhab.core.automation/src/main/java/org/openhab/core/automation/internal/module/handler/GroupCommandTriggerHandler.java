@@ -29,8 +29,6 @@ import org.openhab.core.items.events.ItemAddedEvent;
 import org.openhab.core.items.events.ItemCommandEvent;
 import org.openhab.core.items.events.ItemRemovedEvent;
 import org.openhab.core.types.Command;
-import org.osgi.framework.BundleContext;
-import org.osgi.framework.ServiceRegistration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,7 +48,7 @@ public class GroupCommandTriggerHandler extends BaseTriggerModuleHandler impleme
     private final @Nullable String command;
 
     private final Set<String> types;
-    private final BundleContext bundleContext;
+    private final ItemTriggerDispatcher dispatcher;
     private final ItemRegistry itemRegistry;
 
     public static final String MODULE_TYPE_ID = "core.GroupCommandTrigger";
@@ -59,18 +57,16 @@ public class GroupCommandTriggerHandler extends BaseTriggerModuleHandler impleme
     public static final String CFG_COMMAND = "command";
     private final String ruleUID;
 
-    private ServiceRegistration<?> eventSubscriberRegistration;
-
-    public GroupCommandTriggerHandler(Trigger module, String ruleUID, BundleContext bundleContext,
+    public GroupCommandTriggerHandler(Trigger module, String ruleUID, ItemTriggerDispatcher dispatcher,
             ItemRegistry itemRegistry) {
         super(module);
         this.groupName = (String) module.getConfiguration().get(CFG_GROUPNAME);
         this.command = (String) module.getConfiguration().get(CFG_COMMAND);
         this.types = Set.of(ItemCommandEvent.TYPE, ItemAddedEvent.TYPE, ItemRemovedEvent.TYPE);
-        this.bundleContext = bundleContext;
+        this.dispatcher = dispatcher;
         this.itemRegistry = itemRegistry;
         this.ruleUID = ruleUID;
-        eventSubscriberRegistration = this.bundleContext.registerService(EventSubscriber.class.getName(), this, null);
+        dispatcher.registerGroupTrigger(groupName, this);
 
         if (itemRegistry.get(groupName) == null) {
             logger.warn("Group '{}' needed for rule '{}' is missing. Trigger '{}' will not work.", groupName, ruleUID,
@@ -125,11 +121,11 @@ public class GroupCommandTriggerHandler extends BaseTriggerModuleHandler impleme
     }
 
     /**
-     * do the cleanup: unregistering eventSubscriber...
+     * do the cleanup: unregistering from the dispatcher...
      */
     @Override
     public void dispose() {
         super.dispose();
-        eventSubscriberRegistration.unregister();
+        dispatcher.unregisterGroupTrigger(groupName, this);
     }
 }
@@ -31,8 +31,6 @@ import org.openhab.core.items.events.ItemRemovedEvent;
 import org.openhab.core.items.events.ItemStateChangedEvent;
 import org.openhab.core.items.events.ItemStateUpdatedEvent;
 import org.openhab.core.types.State;
-import org.osgi.framework.BundleContext;
-import org.osgi.framework.ServiceRegistration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,12 +58,10 @@ public class GroupStateTriggerHandler extends BaseTriggerModuleHandler implement
     private final String previousState;
     private final String ruleUID;
     private Set<String> types;
-    private final BundleContext bundleContext;
+    private final ItemTriggerDispatcher dispatcher;
     private ItemRegistry itemRegistry;
 
-    private ServiceRegistration<?> eventSubscriberRegistration;
-
-    public GroupStateTriggerHandler(Trigger module, String ruleUID, BundleContext bundleContext,
+    public GroupStateTriggerHandler(Trigger module, String ruleUID, ItemTriggerDispatcher dispatcher,
             ItemRegistry itemRegistry) {
         super(module);
         this.groupName = (String) module.getConfiguration().get(CFG_GROUPNAME);
@@ -77,10 +73,10 @@ public class GroupStateTriggerHandler extends BaseTriggerModuleHandler implement
             this.types = Set.of(ItemStateChangedEvent.TYPE, GroupItemStateChangedEvent.TYPE, ItemAddedEvent.TYPE,
                     ItemRemovedEvent.TYPE);
         }
-        this.bundleContext = bundleContext;
+        this.dispatcher = dispatcher;
         this.ruleUID = ruleUID;
         this.itemRegistry = itemRegistry;
-        eventSubscriberRegistration = this.bundleContext.registerService(EventSubscriber.class.getName(), this, null);
+        dispatcher.registerGroupTrigger(groupName, this);
 
         if (itemRegistry.get(groupName) == null) {
             logger.warn("Group '{}' needed for rule '{}' is missing. Trigger '{}' will not work.", groupName, ruleUID,
@@ -164,11 +160,11 @@ public class GroupStateTriggerHandler extends BaseTriggerModuleHandler implement
     }
 
     /**
-     * do the cleanup: unregistering eventSubscriber...
+     * do the cleanup: unregistering from the dispatcher...
      */
     @Override
     public void dispose() {
         super.dispose();
-        eventSubscriberRegistration.unregister();
+        dispatcher.unregisterGroupTrigger(groupName, this);
     }
 }
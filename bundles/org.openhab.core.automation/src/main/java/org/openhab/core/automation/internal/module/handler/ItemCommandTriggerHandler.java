@@ -23,16 +23,12 @@ import org.openhab.core.automation.Trigger;
 import org.openhab.core.automation.handler.BaseTriggerModuleHandler;
 import org.openhab.core.automation.handler.TriggerHandlerCallback;
 import org.openhab.core.events.Event;
-import org.openhab.core.events.EventFilter;
 import org.openhab.core.events.EventSubscriber;
-import org.openhab.core.events.TopicPrefixEventFilter;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.items.events.ItemAddedEvent;
 import org.openhab.core.items.events.ItemCommandEvent;
 import org.openhab.core.items.events.ItemRemovedEvent;
 import org.openhab.core.types.Command;
-import org.osgi.framework.BundleContext;
-import org.osgi.framework.ServiceRegistration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,22 +53,18 @@ public class ItemCommandTriggerHandler extends BaseTriggerModuleHandler implemen
     private final @Nullable String command;
 
     private final Set<String> types;
-    private final BundleContext bundleContext;
+    private final ItemTriggerDispatcher dispatcher;
     private final String ruleUID;
-    private final EventFilter eventFilter;
 
-    private final ServiceRegistration<?> eventSubscriberRegistration;
-
-    public ItemCommandTriggerHandler(Trigger module, String ruleUID, BundleContext bundleContext,
+    public ItemCommandTriggerHandler(Trigger module, String ruleUID, ItemTriggerDispatcher dispatcher,
             ItemRegistry itemRegistry) {
         super(module);
         this.itemName = (String) module.getConfiguration().get(CFG_ITEMNAME);
-        this.eventFilter = new TopicPrefixEventFilter("openhab/items/" + itemName + "/");
         this.command = (String) module.getConfiguration().get(CFG_COMMAND);
-        this.bundleContext = bundleContext;
+        this.dispatcher = dispatcher;
         this.ruleUID = ruleUID;
         this.types = Set.of(ItemCommandEvent.TYPE, ItemAddedEvent.TYPE, ItemRemovedEvent.TYPE);
-        eventSubscriberRegistration = this.bundleContext.registerService(EventSubscriber.class.getName(), this, null);
+        dispatcher.registerItemTrigger(itemName, this);
         if (itemRegistry.get(itemName) == null) {
             logger.warn("Item '{}' needed for rule '{}' is missing. Trigger '{}' will not work.", itemName, ruleUID,
                     module.getId());
@@ -84,11 +76,6 @@ public class ItemCommandTriggerHandler extends BaseTriggerModuleHandler implemen
         return types;
     }
 
-    @Override
-    public @Nullable EventFilter getEventFilter() {
-        return eventFilter;
-    }
-
     @Override
     public void receive(Event event) {
         if (event instanceof ItemAddedEvent addedEvent) {
@@ -123,11 +110,11 @@ public class ItemCommandTriggerHandler extends BaseTriggerModuleHandler implemen
     }
 
     /**
-     * do the cleanup: unregistering eventSubscriber...
+     * do the cleanup: unregistering from the dispatcher...
      */
     @Override
     public void dispose() {
         super.dispose();
-        eventSubscriberRegistration.unregister();
+        dispatcher.unregisterItemTrigger(itemName, this);
     }
 }
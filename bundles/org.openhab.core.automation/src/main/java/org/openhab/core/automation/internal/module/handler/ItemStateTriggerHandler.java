@@ -23,9 +23,7 @@ import org.openhab.core.automation.Trigger;
 import org.openhab.core.automation.handler.BaseTriggerModuleHandler;
 import org.openhab.core.automation.handler.TriggerHandlerCallback;
 import org.openhab.core.events.Event;
-import org.openhab.core.events.EventFilter;
 import org.openhab.core.events.EventSubscriber;
-import org.openhab.core.events.TopicPrefixEventFilter;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.items.events.GroupItemStateChangedEvent;
 import org.openhab.core.items.events.GroupStateUpdatedEvent;
@@ -34,8 +32,6 @@ import org.openhab.core.items.events.ItemRemovedEvent;
 import org.openhab.core.items.events.ItemStateChangedEvent;
 import org.openhab.core.items.events.ItemStateUpdatedEvent;
 import org.openhab.core.types.State;
-import org.osgi.framework.BundleContext;
-import org.osgi.framework.ServiceRegistration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,16 +60,12 @@ public class ItemStateTriggerHandler extends BaseTriggerModuleHandler implements
     private final String previousState;
     private final String ruleUID;
     private Set<String> types;
-    private final BundleContext bundleContext;
-    private final EventFilter eventFilter;
+    private final ItemTriggerDispatcher dispatcher;
 
-    private @Nullable ServiceRegistration<?> eventSubscriberRegistration;
-
-    public ItemStateTriggerHandler(Trigger module, String ruleUID, BundleContext bundleContext,
+    public ItemStateTriggerHandler(Trigger module, String ruleUID, ItemTriggerDispatcher dispatcher,
             ItemRegistry itemRegistry) {
         super(module);
         this.itemName = (String) module.getConfiguration().get(CFG_ITEMNAME);
-        this.eventFilter = new TopicPrefixEventFilter("openhab/items/" + itemName + "/");
         this.state = (String) module.getConfiguration().get(CFG_STATE);
         this.previousState = (String) module.getConfiguration().get(CFG_PREVIOUS_STATE);
         this.ruleUID = ruleUID;
@@ -84,8 +76,8 @@ public class ItemStateTriggerHandler extends BaseTriggerModuleHandler implements
             this.types = Set.of(ItemStateChangedEvent.TYPE, GroupItemStateChangedEvent.TYPE, ItemAddedEvent.TYPE,
                     ItemRemovedEvent.TYPE);
         }
-        this.bundleContext = bundleContext;
-        eventSubscriberRegistration = this.bundleContext.registerService(EventSubscriber.class.getName(), this, null);
+        this.dispatcher = dispatcher;
+        dispatcher.registerItemTrigger(itemName, this);
 
         if (itemRegistry.get(itemName) == null) {
             logger.warn("Item '{}' needed for rule '{}' is missing. Trigger '{}' will not work.", itemName, ruleUID,
@@ -98,11 +90,6 @@ public class ItemStateTriggerHandler extends BaseTriggerModuleHandler implements
         return types;
     }
 
-    @Override
-    public @Nullable EventFilter getEventFilter() {
-        return eventFilter;
-    }
-
     @Override
     public void receive(Event event) {
         if (event instanceof ItemAddedEvent addedEvent) {
@@ -158,14 +145,11 @@ public class ItemStateTriggerHandler extends BaseTriggerModuleHandler implements
     }
 
     /**
-     * do the cleanup: unregistering eventSubscriber...
+     * do the cleanup: unregistering from the dispatcher...
      */
     @Override
     public void dispose() {
         super.dispose();
-        if (eventSubscriberRegistration != null) {
-            eventSubscriberRegistration.unregister();
-            eventSubscriberRegistration = null;
-        }
+        dispatcher.unregisterItemTrigger(itemName, this);
     }
 }
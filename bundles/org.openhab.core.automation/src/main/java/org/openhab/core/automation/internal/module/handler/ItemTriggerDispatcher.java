@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.automation.internal.module.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.events.Event;
+import org.openhab.core.events.EventFilter;
+import org.openhab.core.events.EventSubscriber;
+import org.openhab.core.events.TopicPrefixEventFilter;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.items.events.GroupItemStateChangedEvent;
+import org.openhab.core.items.events.GroupStateUpdatedEvent;
+import org.openhab.core.items.events.ItemAddedEvent;
+import org.openhab.core.items.events.ItemCommandEvent;
+import org.openhab.core.items.events.ItemRemovedEvent;
+import org.openhab.core.items.events.ItemStateChangedEvent;
+import org.openhab.core.items.events.ItemStateUpdatedEvent;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link ItemTriggerDispatcher} routes the item events to all item and group based triggers.
+ *
+ * Instead of registering an own event subscriber service per trigger, the triggers register themselves for an item
+ * name or a group name. Every item event is then routed by the item name in its topic to the triggers registered for
+ * this item and for the groups the item is a member of.
+ *
+ * The event handler runs each class of event subscribers on its own executor. The dispatcher therefore registers one
+ * event subscriber of a separate class per kind of trigger (item state, item command, group state and group command),
+ * so that slow rules of one kind do not delay the triggers of the other kinds.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = ItemTriggerDispatcher.class)
+public class ItemTriggerDispatcher {
+
+    private static final String ITEM_TOPIC_PREFIX = "openhab/items/";
+
+    private final ItemTriggers itemStateTriggers = new ItemStateTriggers();
+    private final ItemTriggers itemCommandTriggers = new ItemCommandTriggers();
+    private final GroupTriggers groupStateTriggers;
+    private final GroupTriggers groupCommandTriggers;
+
+    private final List<ServiceRegistration<?>> registrations = new ArrayList<>();
+
+    @Activate
+    public ItemTriggerDispatcher(BundleContext bundleContext, final @Reference ItemRegistry itemRegistry) {
+        this.groupStateTriggers = new GroupStateTriggers(itemRegistry);
+        this.groupCommandTriggers = new GroupCommandTriggers(itemRegistry);
+        for (EventSubscriber subscriber : getEventSubscribers()) {
+            registrations.add(bundleContext.registerService(EventSubscriber.class.getName(), subscriber, null));
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        registrations.forEach(ServiceRegistration::unregister);
+        registrations.clear();
+    }
+
+    /**
+     * @return the event subscribers, one per kind of trigger
+     */
+    List<EventSubscriber> getEventSubscribers() {
+        return List.of(itemStateTriggers, itemCommandTriggers, groupStateTriggers, groupCommandTriggers);
+    }
+
+    /**
+     * Registers a trigger for the events of an item.
+     *
+     * The trigger receives all events of its subscribed types whose topic belongs to the item. Triggers subscribing to
+     * command events are dispatched separately from those subscribing to state events.
+     *
+     * @param itemName the name of the item
+     * @param trigger the trigger
+     */
+    public void registerItemTrigger(String itemName, EventSubscriber trigger) {
+        (isCommandTrigger(trigger) ? itemCommandTriggers : itemStateTriggers).register(itemName, trigger);
+    }
+
+    /**
+     * Unregisters a trigger previously registered by {@link #registerItemTrigger(String, EventSubscriber)}.
+     *
+     * @param itemName the name of the item
+     * @param trigger the trigger
+     */
+    public void unregisterItemTrigger(String itemName, EventSubscriber trigger) {
+        (isCommandTrigger(trigger) ? itemCommandTriggers : itemStateTriggers).unregister(itemName, trigger);
+    }
+
+    /**
+     * Registers a trigger for the events of a group and its direct members.
+     *
+     * The trigger receives all events of its subscribed types whose topic belongs to the group itself or to an item
+     * that is a member of the group. Triggers subscribing to command events are dispatched separately from those
+     * subscribing to state events.
+     *
+     * @param groupName the name of the group
+     * @param trigger the trigger
+     */
+    public void registerGroupTrigger(String groupName, EventSubscriber trigger) {
+        (isCommandTrigger(trigger) ? groupCommandTriggers : groupStateTriggers).register(groupName, trigger);
+    }
+
+    /**
+     * Unregisters a trigger previously registered by {@link #registerGroupTrigger(String, EventSubscriber)}.
+     *
+     * @param groupName the name of the group
+     * @param trigger the trigger
+     */
+    public void unregisterGroupTrigger(String groupName, EventSubscriber trigger) {
+        (isCommandTrigger(trigger) ? groupCommandTriggers : groupStateTriggers).unregister(groupName, trigger);
+    }
+
+    private static boolean isCommandTrigger(EventSubscriber trigger) {
+        return trigger.getSubscribedEventTypes().contains(ItemCommandEvent.TYPE);
+    }
+
+    /**
+     * Extracts the item name from an item event topic ({@code openhab/items/<itemName>/...}).
+     *
+     * @param topic the event topic
+     * @return the item name or {@code null} if the topic is not an item event topic
+     */
+    private static @Nullable String getItemName(String topic) {
+        if (!topic.startsWith(ITEM_TOPIC_PREFIX)) {
+            return null;
+        }
+        int end = topic.indexOf('/', ITEM_TOPIC_PREFIX.length());
+        return end < 0 ? null : topic.substring(ITEM_TOPIC_PREFIX.length(), end);
+    }
+
+    /**
+     * The event subscriber for the triggers of one kind, registered by the name of an item or a group.
+     */
+    private abstract static class Triggers implements EventSubscriber {
+
+        private final Logger logger = LoggerFactory.getLogger(ItemTriggerDispatcher.class);
+
+        private final EventFilter eventFilter = new TopicPrefixEventFilter(ITEM_TOPIC_PREFIX);
+        private final Set<String> types;
+
+        protected final Map<String, Set<EventSubscriber>> triggers = new ConcurrentHashMap<>();
+
+        protected Triggers(Set<String> types) {
+            this.types = types;
+        }
+
+        void register(String name, EventSubscriber trigger) {
+            triggers.computeIfAbsent(name, n -> new CopyOnWriteArraySet<>()).add(trigger);
+        }
+
+        void unregister(String name, EventSubscriber trigger) {
+            triggers.computeIfPresent(name, (n, set) -> {
+                set.remove(trigger);
+                return set.isEmpty() ? null : set;
+            });
+        }
+
+        @Override
+        public Set<String> getSubscribedEventTypes() {
+            return types;
+        }
+
+        @Override
+        public @Nullable EventFilter getEventFilter() {
+            return eventFilter;
+        }
+
+        protected void dispatch(@Nullable Set<EventSubscriber> triggers, Event event) {
+            if (triggers == null) {
+                return;
+            }
+            for (EventSubscriber trigger : triggers) {
+                if (trigger.getSubscribedEventTypes().contains(event.getType())) {
+                    try {
+                        trigger.receive(event);
+                    } catch (RuntimeException e) {
+                        logger.warn("Dispatching event to trigger '{}' failed: {}", trigger, e.getMessage(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    private abstract static class ItemTriggers extends Triggers {
+
+        protected ItemTriggers(Set<String> types) {
+            super(types);
+        }
+
+        @Override
+        public void receive(Event event) {
+            String itemName = getItemName(event.getTopic());
+            if (itemName != null) {
+                dispatch(triggers.get(itemName), event);
+            }
+        }
+    }
+
+    private abstract static class GroupTriggers extends Triggers {
+
+        private final ItemRegistry itemRegistry;
+
+        protected GroupTriggers(Set<String> types, ItemRegistry itemRegistry) {
+            super(types);
+            this.itemRegistry = itemRegistry;
+        }
+
+        @Override
+        public void receive(Event event) {
+            String itemName = getItemName(event.getTopic());
+            if (itemName == null || triggers.isEmpty()) {
+                return;
+            }
+
+            dispatch(triggers.get(itemName), event);
+            try {
+                Item item = itemRegistry.getItem(itemName);
+                for (String groupName : item.getGroupNames()) {
+                    dispatch(triggers.get(groupName), event);
+                }
+            } catch (ItemNotFoundException e) {
+                // the item has been removed, so it cannot be a member of any group
+            }
+        }
+    }
+
+    // the event handler keeps an executor per class of event subscriber, so every kind needs its own class
+
+    private static final class ItemStateTriggers extends ItemTriggers {
+        ItemStateTriggers() {
+            super(Set.of(ItemStateUpdatedEvent.TYPE, ItemStateChangedEvent.TYPE, GroupStateUpdatedEvent.TYPE,
+                    GroupItemStateChangedEvent.TYPE, ItemAddedEvent.TYPE, ItemRemovedEvent.TYPE));
+        }
+    }
+
+    private static final class ItemCommandTriggers extends ItemTriggers {
+        ItemCommandTriggers() {
+            super(Set.of(ItemCommandEvent.TYPE, ItemAddedEvent.TYPE, ItemRemovedEvent.TYPE));
+        }
+    }
+
+    private static final class GroupStateTriggers extends GroupTriggers {
+        GroupStateTriggers(ItemRegistry itemRegistry) {
+            super(Set.of(ItemStateUpdatedEvent.TYPE, ItemStateChangedEvent.TYPE, GroupItemStateChangedEvent.TYPE,
+                    ItemAddedEvent.TYPE, ItemRemovedEvent.TYPE), itemRegistry);
+        }
+    }
+
+    private static final class GroupCommandTriggers extends GroupTriggers {
+        GroupCommandTriggers(ItemRegistry itemRegistry) {
+            super(Set.of(ItemCommandEvent.TYPE, ItemAddedEvent.TYPE, ItemRemovedEvent.TYPE), itemRegistry);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.automation.internal.module.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.events.Event;
+import org.openhab.core.events.EventSubscriber;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.items.events.ItemCommandEvent;
+import org.openhab.core.items.events.ItemEventFactory;
+import org.openhab.core.items.events.ItemStateChangedEvent;
+import org.openhab.core.library.types.OnOffType;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+
+/**
+ * Basic test cases for {@link ItemTriggerDispatcher}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class ItemTriggerDispatcherTest {
+    private @NonNullByDefault({}) ItemRegistry itemRegistryMock;
+    private @NonNullByDefault({}) ItemTriggerDispatcher dispatcher;
+    private @NonNullByDefault({}) BundleContext bundleContextMock;
+    private final ServiceRegistration<?> registrationMock = mock(ServiceRegistration.class);
+
+    private EventSubscriber createTrigger(String... types) {
+        EventSubscriber trigger = mock(EventSubscriber.class);
+        when(trigger.getSubscribedEventTypes()).thenReturn(Set.of(types));
+        return trigger;
+    }
+
+    @BeforeEach
+    public void setUp() throws ItemNotFoundException {
+        itemRegistryMock = mock(ItemRegistry.class);
+        Item item = mock(Item.class);
+        when(item.getGroupNames()).thenReturn(List.of("group"));
+        when(itemRegistryMock.getItem("item")).thenReturn(item);
+        when(itemRegistryMock.getItem("other")).thenThrow(new ItemNotFoundException("other"));
+        bundleContextMock = mock(BundleContext.class);
+        doReturn(registrationMock).when(bundleContextMock).registerService(anyString(), any(), any());
+        dispatcher = new ItemTriggerDispatcher(bundleContextMock, itemRegistryMock);
+    }
+
+    /**
+     * Delivers an event to the subscribers of the dispatcher like the event handler does.
+     */
+    private void receive(Event event) {
+        for (EventSubscriber subscriber : dispatcher.getEventSubscribers()) {
+            if (subscriber.getSubscribedEventTypes().contains(event.getType())) {
+                subscriber.receive(event);
+            }
+        }
+    }
+
+    @Test
+    public void testEventIsRoutedByItemName() {
+        EventSubscriber itemTrigger = createTrigger(ItemCommandEvent.TYPE);
+        EventSubscriber otherTrigger = createTrigger(ItemCommandEvent.TYPE);
+        dispatcher.registerItemTrigger("item", itemTrigger);
+        dispatcher.registerItemTrigger("other", otherTrigger);
+
+        Event event = ItemEventFactory.createCommandEvent("item", OnOffType.ON);
+        receive(event);
+
+        verify(itemTrigger).receive(event);
+        verify(otherTrigger, never()).receive(any());
+    }
+
+    @Test
+    public void testEventIsFilteredByType() {
+        EventSubscriber itemTrigger = createTrigger(ItemStateChangedEvent.TYPE);
+        dispatcher.registerItemTrigger("item", itemTrigger);
+
+        receive(ItemEventFactory.createCommandEvent("item", OnOffType.ON));
+
+        verify(itemTrigger, never()).receive(any());
+    }
+
+    @Test
+    public void testEventIsRoutedToGroupOfItem() {
+        EventSubscriber groupTrigger = createTrigger(ItemCommandEvent.TYPE);
+        dispatcher.registerGroupTrigger("group", groupTrigger);
+
+        Event event = ItemEventFactory.createCommandEvent("item", OnOffType.ON);
+        receive(event);
+        receive(ItemEventFactory.createCommandEvent("other", OnOffType.ON));
+
+        verify(groupTrigger).receive(event);
+        verify(groupTrigger, times(1)).receive(any());
+    }
+
+    @Test
+    public void testUnregisteredTriggerIsNotCalled() {
+        EventSubscriber itemTrigger = createTrigger(ItemCommandEvent.TYPE);
+        dispatcher.registerItemTrigger("item", itemTrigger);
+        dispatcher.unregisterItemTrigger("item", itemTrigger);
+
+        receive(ItemEventFactory.createCommandEvent("item", OnOffType.ON));
+
+        verify(itemTrigger, never()).receive(any());
+    }
+
+    @Test
+    public void testTriggerKindsAreDispatchedBySeparateSubscriberClasses() {
+        verify(bundleContextMock, times(4)).registerService(eq(EventSubscriber.class.getName()), any(), any());
+        assertEquals(4, dispatcher.getEventSubscribers().stream().map(Object::getClass).distinct().count());
+
+        dispatcher.deactivate();
+        verify(registrationMock, times(4)).unregister();
+    }
+
+    @Test
+    public void testStateAndCommandTriggersReceiveTheirEvents() {
+        EventSubscriber stateTrigger = createTrigger(ItemStateChangedEvent.TYPE);
+        EventSubscriber commandTrigger = createTrigger(ItemCommandEvent.TYPE);
+        dispatcher.registerItemTrigger("item", stateTrigger);
+        dispatcher.registerItemTrigger("item", commandTrigger);
+
+        Event stateEvent = ItemEventFactory.createStateChangedEvent("item", OnOffType.ON, OnOffType.OFF);
+        Event commandEvent = ItemEventFactory.createCommandEvent("item", OnOffType.ON);
+        receive(stateEvent);
+        receive(commandEvent);
+
+        verify(stateTrigger).receive(stateEvent);
+        verify(stateTrigger, times(1)).receive(any());
+        verify(commandTrigger).receive(commandEvent);
+        verify(commandTrigger, times(1)).receive(any());
+    }
+}
@@ -26,6 +26,7 @@ import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.ext.MessageBodyWriter;
 
 import org.openhab.core.io.rest.JSONInputStream;
+import org.openhab.core.io.rest.SerializedJSON;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +36,7 @@ import com.google.gson.Gson;
  * A message body writer for JSON using GSON.
  *
  * @author Markus Rathgeb - Initial contribution
+ * @author agent - Write serialized JSON as is
  */
 public class GsonMessageBodyWriter<T> implements MessageBodyWriter<T> {
 
@@ -81,6 +83,8 @@ public class GsonMessageBodyWriter<T> implements MessageBodyWriter<T> {
         try {
             if (object instanceof InputStream stream && object instanceof JSONInputStream) {
                 stream.transferTo(entityStream);
+            } else if (object instanceof SerializedJSON json) {
+                entityStream.write(json.getBytes());
             } else {
                 entityStream.write(gson.toJson(object).getBytes(StandardCharsets.UTF_8));
             }
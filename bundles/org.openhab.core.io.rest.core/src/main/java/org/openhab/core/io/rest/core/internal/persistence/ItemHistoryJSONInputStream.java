@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.rest.core.internal.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.rest.JSONInputStream;
+import org.openhab.core.persistence.dto.ItemHistoryDTO;
+import org.openhab.core.persistence.dto.ItemHistoryDTO.HistoryDataBean;
+
+import com.google.gson.Gson;
+
+/**
+ * This {@link InputStream} streams the history of an item as an {@link ItemHistoryDTO} in JSON, one data point at a
+ * time, so the history is never kept in memory as a whole.
+ * <p>
+ * Since the number of data points is only known at the end, <code>datapoints</code> follows the data. If a cursor for
+ * the next page is supplied after the data has been streamed, it is added as <code>nextCursor</code>.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class ItemHistoryJSONInputStream extends InputStream implements JSONInputStream {
+
+    private enum Part {
+        HEADER,
+        DATA,
+        END
+    }
+
+    private final Gson gson = new Gson();
+
+    private final String name;
+    private final Iterator<HistoryDataBean> iterator;
+    private final Supplier<@Nullable String> nextCursor;
+
+    private InputStream jsonElementStream = new ByteArrayInputStream(new byte[0]);
+    private Part part = Part.HEADER;
+    private long datapoints = 0;
+
+    /**
+     * Creates a new {@link ItemHistoryJSONInputStream}.
+     *
+     * @param name the name of the item
+     * @param data the data points, which are consumed while reading
+     * @param nextCursor supplies the cursor of the next page after all data points have been consumed, or null if
+     *            there is none
+     */
+    ItemHistoryJSONInputStream(String name, Stream<HistoryDataBean> data, Supplier<@Nullable String> nextCursor) {
+        this.name = name;
+        this.iterator = data.iterator();
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int result = jsonElementStream.read();
+        while (result == -1 && fillBuffer()) {
+            result = jsonElementStream.read();
+        }
+        return result;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int result = jsonElementStream.read(b, off, len);
+        while (result == -1 && fillBuffer()) {
+            result = jsonElementStream.read(b, off, len);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        jsonElementStream.close();
+    }
+
+    private boolean fillBuffer() {
+        String json;
+        if (part == Part.HEADER) {
+            json = "{\"name\":" + gson.toJson(name) + ",\"data\":[";
+            part = Part.DATA;
+        } else if (part == Part.DATA && iterator.hasNext()) {
+            json = (datapoints == 0 ? "" : ",") + gson.toJson(iterator.next());
+            datapoints++;
+        } else if (part == Part.DATA) {
+            String cursor = nextCursor.get();
+            json = "],\"datapoints\":\"" + datapoints + "\""
+                    + (cursor != null ? ",\"nextCursor\":" + gson.toJson(cursor) : "") + "}";
+            part = Part.END;
+        } else {
+            return false;
+        }
+        jsonElementStream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        return true;
+    }
+}
@@ -12,12 +12,17 @@
  */
 package org.openhab.core.io.rest.core.internal.persistence;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.security.RolesAllowed;
 import javax.ws.rs.Consumes;
@@ -53,12 +58,14 @@ import org.openhab.core.library.types.OpenClosedType;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.HistoricItemRollup;
 import org.openhab.core.persistence.ModifiablePersistenceService;
 import org.openhab.core.persistence.PersistenceItemInfo;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.PersistenceServiceRegistry;
 import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.dto.ItemHistoryDTO;
+import org.openhab.core.persistence.dto.ItemHistoryDTO.HistoryDataBean;
 import org.openhab.core.persistence.dto.PersistenceServiceConfigurationDTO;
 import org.openhab.core.persistence.dto.PersistenceServiceDTO;
 import org.openhab.core.persistence.registry.ManagedPersistenceServiceConfigurationProvider;
@@ -98,6 +105,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
  * @author Lyubomir Papazov - Change java.util.Date references to be of type java.time.ZonedDateTime
  * @author Markus Rathgeb - Migrated to JAX-RS Whiteboard Specification
  * @author Wouter Born - Migrated to OpenAPI annotations
+ * @author agent - Added rolled up states, streaming and cursors
  */
 @Component
 @JaxrsResource
@@ -274,8 +282,11 @@ public class PersistenceResource implements RESTResource {
                     + DateTimeType.DATE_PATTERN_WITH_TZ_AND_MS + "]") @QueryParam("endtime") @Nullable String endTime,
             @Parameter(description = "Page number of data to return. This parameter will enable paging.") @QueryParam("page") int pageNumber,
             @Parameter(description = "The length of each page.") @QueryParam("pagelength") int pageLength,
-            @Parameter(description = "Gets one value before and after the requested period.") @QueryParam("boundary") boolean boundary) {
-        return getItemHistoryDTO(serviceId, itemName, startTime, endTime, pageNumber, pageLength, boundary);
+            @Parameter(description = "Gets one value before and after the requested period.") @QueryParam("boundary") boolean boundary,
+            @Parameter(description = "Approximate number of values to return. If set, the states are rolled up to their average per interval.") @QueryParam("points") int points,
+            @Parameter(description = "Returns the page following the one that returned this cursor as nextCursor.") @QueryParam("cursor") @Nullable String cursor) {
+        return getItemHistoryDTO(serviceId, itemName, startTime, endTime, pageNumber, pageLength, boundary, points,
+                cursor);
     }
 
     @DELETE
@@ -321,25 +332,44 @@ public class PersistenceResource implements RESTResource {
     }
 
     private Response getItemHistoryDTO(@Nullable String serviceId, String itemName, @Nullable String timeBegin,
-            @Nullable String timeEnd, int pageNumber, int pageLength, boolean boundary) {
+            @Nullable String timeEnd, int pageNumber, int pageLength, boolean boundary, int points,
+            @Nullable String cursor) {
         // Benchmarking timer...
         long timerStart = System.currentTimeMillis();
 
         @Nullable
-        ItemHistoryDTO dto = createDTO(serviceId, itemName, timeBegin, timeEnd, pageNumber, pageLength, boundary);
+        ItemHistoryJSONInputStream history;
+        try {
+            history = createHistoryStream(serviceId, itemName, timeBegin, timeEnd, pageNumber, pageLength, boundary,
+                    points, cursor);
+        } catch (IllegalArgumentException e) {
+            return JSONResponse.createErrorResponse(Status.BAD_REQUEST,
+                    Objects.requireNonNullElse(e.getMessage(), "Invalid request"));
+        }
 
-        if (dto == null) {
+        if (history == null) {
             return JSONResponse.createErrorResponse(Status.BAD_REQUEST,
                     "Persistence service not queryable: " + serviceId);
         }
 
-        logger.debug("Persistence returned {} rows in {}ms", dto.datapoints, System.currentTimeMillis() - timerStart);
+        logger.debug("Persistence query took {}ms", System.currentTimeMillis() - timerStart);
 
-        return JSONResponse.createResponse(Status.OK, dto, "");
+        return Response.ok(history).build();
     }
 
-    protected @Nullable ItemHistoryDTO createDTO(@Nullable String serviceId, String itemName,
-            @Nullable String timeBegin, @Nullable String timeEnd, int pageNumber, int pageLength, boolean boundary) {
+    /**
+     * Creates a stream of the item history in JSON. The persistence service is queried immediately, the data points
+     * are created while the stream is read.
+     *
+     * @param cursor the next cursor of the previous page, or null for the first page
+     * @return the stream, or null if the persistence service is not found or not queryable
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    protected @Nullable ItemHistoryJSONInputStream createHistoryStream(@Nullable String serviceId, String itemName,
+            @Nullable String timeBegin, @Nullable String timeEnd, int pageNumber, int pageLength, boolean boundary,
+            int points, @Nullable String cursor) {
+        HistoryCursor historyCursor = cursor != null ? HistoryCursor.parse(cursor) : null;
+
         // If serviceId is null, then use the default service
         PersistenceService service;
         String effectiveServiceId = serviceId != null ? serviceId : persistenceServiceRegistry.getDefaultId();
@@ -385,18 +415,25 @@ public class PersistenceResource implements RESTResource {
                     timeZoneProvider.getTimeZone());
         }
 
-        Iterable<HistoricItem> result;
-        State state;
-
-        long quantity = 0L;
+        // A cursor continues at the time of the last data point of the previous page. The data points of the previous
+        // page at that time are queried again, so they can be skipped, and the resolution of the first page is kept.
+        Duration resolution = null;
+        if (points > 0) {
+            resolution = Duration.between(dateTimeBegin, dateTimeEnd).dividedBy(points);
+        }
+        if (historyCursor != null) {
+            dateTimeBegin = ZonedDateTime.ofInstant(Instant.ofEpochMilli(historyCursor.time()),
+                    timeZoneProvider.getTimeZone());
+            resolution = historyCursor.resolution();
+        }
 
-        ItemHistoryDTO dto = new ItemHistoryDTO();
-        dto.name = itemName;
+        Iterable<HistoricItem> result;
+        Stream<HistoryDataBean> before = Stream.empty();
 
         // If "boundary" is true then we want to get one value before and after the requested period
         // This is necessary for values that don't change often otherwise data will start after the start of the graph
         // (or not at all if there's no change during the graph period)
-        if (boundary) {
+        if (boundary && historyCursor == null) {
             // Get the value before the start time.
             FilterCriteria filterBeforeStart = new FilterCriteria();
             filterBeforeStart.setItemName(itemName);
@@ -405,16 +442,20 @@ public class PersistenceResource implements RESTResource {
             filterBeforeStart.setOrdering(Ordering.DESCENDING);
             result = qService.query(filterBeforeStart);
             if (result.iterator().hasNext()) {
-                dto.addData(dateTimeBegin.toInstant().toEpochMilli(), result.iterator().next().getState());
-                quantity++;
+                before = Stream.of(ItemHistoryDTO.createData(dateTimeBegin.toInstant().toEpochMilli(),
+                        result.iterator().next().getState()));
             }
         }
 
+        int skip = historyCursor != null ? historyCursor.offset() : 0;
         FilterCriteria filter = new FilterCriteria();
         filter.setItemName(itemName);
         if (pageLength == 0) {
             filter.setPageNumber(0);
             filter.setPageSize(Integer.MAX_VALUE);
+        } else if (historyCursor != null) {
+            filter.setPageNumber(0);
+            filter.setPageSize(pageLength + skip);
         } else {
             filter.setPageNumber(pageNumber);
             filter.setPageSize(pageLength);
@@ -422,45 +463,121 @@ public class PersistenceResource implements RESTResource {
         filter.setBeginDate(dateTimeBegin);
         filter.setEndDate(dateTimeEnd);
         filter.setOrdering(Ordering.ASCENDING);
-        result = qService.query(filter);
-        Iterator<HistoricItem> it = result.iterator();
-
-        // Iterate through the data
-        HistoricItem lastItem = null;
-        while (it.hasNext()) {
-            HistoricItem historicItem = it.next();
-            state = historicItem.getState();
+        if (resolution != null && resolution.toMillis() > 0) {
+            filter.setResolution(resolution);
+        }
+        result = HistoricItemRollup.query(qService, filter);
+        HistoryPage page = new HistoryPage(pageLength, historyCursor, filter.getResolution());
+        Stream<HistoryDataBean> data = StreamSupport.stream(result.spliterator(), false).flatMap(page::add);
+
+        // Get the value after the end time, when all data points of the period have been streamed.
+        ZonedDateTime end = dateTimeEnd;
+        Stream<HistoryDataBean> after = Stream.of(end).filter(time -> boundary && page.getNextCursor() == null)
+                .flatMap(time -> {
+                    FilterCriteria filterAfterEnd = new FilterCriteria();
+                    filterAfterEnd.setItemName(itemName);
+                    filterAfterEnd.setBeginDate(time);
+                    filterAfterEnd.setPageSize(1);
+                    filterAfterEnd.setOrdering(Ordering.ASCENDING);
+                    Iterator<HistoricItem> it = qService.query(filterAfterEnd).iterator();
+                    if (!it.hasNext()) {
+                        return Stream.empty();
+                    }
+                    return Stream.of(ItemHistoryDTO.createData(time.toInstant().toEpochMilli(), it.next().getState()));
+                });
+
+        return new ItemHistoryJSONInputStream(itemName, Stream.concat(Stream.concat(before, data), after),
+                page::getNextCursor);
+    }
 
-            // For 'binary' states, we need to replicate the data
-            // to avoid diagonal lines
-            if (state instanceof OnOffType || state instanceof OpenClosedType) {
-                if (lastItem != null) {
-                    dto.addData(historicItem.getTimestamp().toInstant().toEpochMilli(), lastItem.getState());
-                    quantity++;
+    /**
+     * The position of a following page: the time of the last data point of the previous page, the number of data
+     * points at that time on the previous pages and the resolution of the first page, if the states are rolled up.
+     */
+    private record HistoryCursor(long time, int offset, @Nullable Duration resolution) {
+        static HistoryCursor parse(String cursor) {
+            String[] parts = cursor.split(":");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            try {
+                int offset = Integer.parseInt(parts[1]);
+                if (offset < 0) {
+                    throw new IllegalArgumentException("Invalid cursor: " + cursor);
                 }
+                Duration resolution = parts.length == 3 ? Duration.ofMillis(Long.parseLong(parts[2])) : null;
+                return new HistoryCursor(Long.parseLong(parts[0]), offset, resolution);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
             }
+        }
 
-            dto.addData(historicItem.getTimestamp().toInstant().toEpochMilli(), state);
-            quantity++;
-            lastItem = historicItem;
+        @Override
+        public String toString() {
+            Duration resolution = this.resolution;
+            return time + ":" + offset + (resolution != null ? ":" + resolution.toMillis() : "");
         }
+    }
 
-        if (boundary) {
-            // Get the value after the end time.
-            FilterCriteria filterAfterEnd = new FilterCriteria();
-            filterAfterEnd.setItemName(itemName);
-            filterAfterEnd.setBeginDate(dateTimeEnd);
-            filterAfterEnd.setPageSize(1);
-            filterAfterEnd.setOrdering(Ordering.ASCENDING);
-            result = qService.query(filterAfterEnd);
-            if (result.iterator().hasNext()) {
-                dto.addData(dateTimeEnd.toInstant().toEpochMilli(), result.iterator().next().getState());
-                quantity++;
+    /**
+     * Creates the data points of the persisted states of a page and remembers where the page ends. The data points of
+     * the previous page that are queried again are skipped, but the last one is used to continue binary states.
+     */
+    private static class HistoryPage {
+        private final int pageLength;
+        private final @Nullable Duration resolution;
+        private @Nullable HistoricItem lastItem;
+        private long lastTime;
+        private int lastTimeCount;
+        private int skip;
+        private int count;
+
+        HistoryPage(int pageLength, @Nullable HistoryCursor cursor, @Nullable Duration resolution) {
+            this.pageLength = pageLength;
+            this.resolution = resolution;
+            if (cursor != null) {
+                lastTime = cursor.time();
+                skip = cursor.offset();
             }
         }
 
-        dto.datapoints = Long.toString(quantity);
-        return dto;
+        Stream<HistoryDataBean> add(HistoricItem historicItem) {
+            HistoricItem previousItem = lastItem;
+            lastItem = historicItem;
+
+            State state = historicItem.getState();
+            long time = historicItem.getTimestamp().toInstant().toEpochMilli();
+            if (time == lastTime) {
+                lastTimeCount++;
+            } else {
+                lastTime = time;
+                lastTimeCount = 1;
+            }
+            if (skip > 0) {
+                skip--;
+                return Stream.empty();
+            }
+            count++;
+            HistoryDataBean data = ItemHistoryDTO.createData(time, state);
+
+            // For 'binary' states, we need to replicate the data
+            // to avoid diagonal lines
+            if ((state instanceof OnOffType || state instanceof OpenClosedType) && previousItem != null) {
+                return Stream.of(ItemHistoryDTO.createData(time, previousItem.getState()), data);
+            }
+            return Stream.of(data);
+        }
+
+        /**
+         * @return the cursor of the next page if the page is full, otherwise null
+         */
+        @Nullable
+        String getNextCursor() {
+            if (pageLength <= 0 || count < pageLength) {
+                return null;
+            }
+            return new HistoryCursor(lastTime, lastTimeCount, resolution).toString();
+        }
     }
 
     /**
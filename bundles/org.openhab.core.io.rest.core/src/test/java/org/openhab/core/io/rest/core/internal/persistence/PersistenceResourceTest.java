@@ -19,21 +19,27 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.openhab.core.i18n.TimeZoneProvider;
 import org.openhab.core.io.rest.LocaleService;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceServiceRegistry;
 import org.openhab.core.persistence.QueryablePersistenceService;
@@ -43,6 +49,8 @@ import org.openhab.core.persistence.registry.ManagedPersistenceServiceConfigurat
 import org.openhab.core.persistence.registry.PersistenceServiceConfigurationRegistry;
 import org.openhab.core.types.State;
 
+import com.google.gson.Gson;
+
 /**
  * Tests for PersistenceItem Restresource
  *
@@ -56,6 +64,7 @@ public class PersistenceResourceTest {
 
     private @NonNullByDefault({}) PersistenceResource pResource;
     private @NonNullByDefault({}) List<HistoricItem> items;
+    private @NonNullByDefault({}) QueryablePersistenceService pService;
 
     private @Mock @NonNullByDefault({}) ItemRegistry itemRegistryMock;
     private @Mock @NonNullByDefault({}) LocaleService localeServiceMock;
@@ -97,7 +106,7 @@ public class PersistenceResourceTest {
             });
         }
 
-        QueryablePersistenceService pService = mock(QueryablePersistenceService.class);
+        pService = mock(QueryablePersistenceService.class);
         when(pService.query(any())).thenReturn(items);
 
         when(persistenceServiceRegistryMock.get(PERSISTENCE_SERVICE_ID)).thenReturn(pService);
@@ -105,8 +114,9 @@ public class PersistenceResourceTest {
     }
 
     @Test
-    public void testGetPersistenceItemData() {
-        ItemHistoryDTO dto = pResource.createDTO(PERSISTENCE_SERVICE_ID, "testItem", null, null, 1, 10, false);
+    public void testGetPersistenceItemData() throws IOException {
+        ItemHistoryDTO dto = readDTO(
+                pResource.createHistoryStream(PERSISTENCE_SERVICE_ID, "testItem", null, null, 1, 10, false, 0, null));
 
         assertThat(Integer.parseInt(dto.datapoints), is(5));
         assertThat(dto.data, hasSize(5));
@@ -136,10 +146,107 @@ public class PersistenceResourceTest {
     }
 
     @Test
-    public void testGetPersistenceItemDataWithBoundery() {
-        ItemHistoryDTO dto = pResource.createDTO(PERSISTENCE_SERVICE_ID, "testItem", null, null, 1, 10, true);
+    public void testGetPersistenceItemDataWithBoundery() throws IOException {
+        ItemHistoryDTO dto = readDTO(
+                pResource.createHistoryStream(PERSISTENCE_SERVICE_ID, "testItem", null, null, 1, 10, true, 0, null));
 
         assertThat(Integer.parseInt(dto.datapoints), is(7));
         assertThat(dto.data, hasSize(7));
+        assertNull(dto.nextCursor);
+    }
+
+    @Test
+    public void testGetPersistenceItemDataWithCursor() throws IOException {
+        ItemHistoryDTO dto = readDTO(
+                pResource.createHistoryStream(PERSISTENCE_SERVICE_ID, "testItem", null, null, 0, 3, true, 0, null));
+
+        // a full page has a cursor and no value after the end time
+        long lastTime = items.get(2).getTimestamp().toInstant().toEpochMilli();
+        assertThat(dto.nextCursor, is(lastTime + ":1"));
+        assertThat(dto.data, hasSize(6));
+
+        dto = readDTO(pResource.createHistoryStream(PERSISTENCE_SERVICE_ID, "testItem", null, null, 0, 3, true, 0,
+                dto.nextCursor));
+
+        // the data point of the previous page is queried again, but skipped, so the page is the last one
+        ArgumentCaptor<FilterCriteria> captor = ArgumentCaptor.forClass(FilterCriteria.class);
+        verify(pService, times(4)).query(captor.capture());
+        FilterCriteria filter = captor.getAllValues().get(2);
+        assertNotNull(filter.getBeginDate());
+        assertThat(filter.getBeginDate().toInstant().toEpochMilli(), is(lastTime));
+        assertThat(filter.getPageNumber(), is(0));
+        assertThat(filter.getPageSize(), is(4));
+        // no value before the start time of a following page, but one after the end time of the last page
+        assertThat(dto.data, hasSize(5));
+        assertNull(dto.nextCursor);
+
+        assertThrows(IllegalArgumentException.class, () -> pResource.createHistoryStream(PERSISTENCE_SERVICE_ID,
+                "testItem", null, null, 0, 3, true, 0, "invalid"));
+    }
+
+    @Test
+    public void testGetPersistenceItemDataWithCursorAtSameTime() throws IOException {
+        ZonedDateTime time = ZonedDateTime.now().minusHours(3).withNano(0);
+        List<HistoricItem> items = List.of(createHistoricItem(time, OnOffType.ON),
+                createHistoricItem(time.plusHours(1), OnOffType.OFF),
+                createHistoricItem(time.plusHours(1), OnOffType.ON),
+                createHistoricItem(time.plusHours(2), OnOffType.OFF));
+        when(pService.query(any())).thenAnswer(invocation -> {
+            FilterCriteria filter = invocation.getArgument(0);
+            ZonedDateTime begin = filter.getBeginDate();
+            return items.stream().filter(item -> begin == null || !item.getTimestamp().isBefore(begin))
+                    .skip((long) filter.getPageNumber() * filter.getPageSize()).limit(filter.getPageSize()).toList();
+        });
+
+        ItemHistoryDTO dto = readDTO(
+                pResource.createHistoryStream(PERSISTENCE_SERVICE_ID, "testItem", null, null, 0, 2, false, 0, null));
+        long secondTime = time.plusHours(1).toInstant().toEpochMilli();
+        assertThat(dto.nextCursor, is(secondTime + ":1"));
+
+        // the data point sharing the time of the last data point of the previous page is not skipped, and the first
+        // data point continues the state of the previous page
+        dto = readDTO(pResource.createHistoryStream(PERSISTENCE_SERVICE_ID, "testItem", null, null, 0, 2, false, 0,
+                dto.nextCursor));
+        long thirdTime = time.plusHours(2).toInstant().toEpochMilli();
+        assertThat(dto.data, hasSize(4));
+        assertThat(dto.data.get(0).time, is(secondTime));
+        assertThat(dto.data.get(0).state, is("OFF"));
+        assertThat(dto.data.get(1).time, is(secondTime));
+        assertThat(dto.data.get(1).state, is("ON"));
+        assertThat(dto.data.get(3).time, is(thirdTime));
+        assertThat(dto.data.get(3).state, is("OFF"));
+        assertThat(dto.nextCursor, is(thirdTime + ":1"));
+
+        dto = readDTO(pResource.createHistoryStream(PERSISTENCE_SERVICE_ID, "testItem", null, null, 0, 2, false, 0,
+                dto.nextCursor));
+        assertThat(dto.data, hasSize(0));
+        assertNull(dto.nextCursor);
+    }
+
+    private HistoricItem createHistoricItem(ZonedDateTime timestamp, State state) {
+        return new HistoricItem() {
+            @Override
+            public ZonedDateTime getTimestamp() {
+                return timestamp;
+            }
+
+            @Override
+            public State getState() {
+                return state;
+            }
+
+            @Override
+            public String getName() {
+                return "Test";
+            }
+        };
+    }
+
+    private ItemHistoryDTO readDTO(@Nullable InputStream stream) throws IOException {
+        assertNotNull(stream);
+        try (InputStream in = stream) {
+            String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return new Gson().fromJson(json, ItemHistoryDTO.class);
+        }
     }
 }
@@ -12,10 +12,11 @@
  */
 package org.openhab.core.io.rest.sse;
 
-import static org.openhab.core.io.rest.sse.internal.SseSinkItemInfo.*;
-import static org.openhab.core.io.rest.sse.internal.SseSinkTopicInfo.matchesTopic;
+import static org.openhab.core.io.rest.sse.internal.SseSinkItemInfo.hasConnectionId;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -50,10 +51,12 @@ import org.openhab.core.events.Event;
 import org.openhab.core.io.rest.RESTConstants;
 import org.openhab.core.io.rest.RESTResource;
 import org.openhab.core.io.rest.SseBroadcaster;
+import org.openhab.core.io.rest.sse.internal.SseItemSinkIndex;
 import org.openhab.core.io.rest.sse.internal.SseItemStatesEventBuilder;
 import org.openhab.core.io.rest.sse.internal.SsePublisher;
 import org.openhab.core.io.rest.sse.internal.SseSinkItemInfo;
 import org.openhab.core.io.rest.sse.internal.SseSinkTopicInfo;
+import org.openhab.core.io.rest.sse.internal.SseTopicFilterIndex;
 import org.openhab.core.io.rest.sse.internal.dto.EventDTO;
 import org.openhab.core.io.rest.sse.internal.util.SseUtil;
 import org.openhab.core.items.events.ItemStateChangedEvent;
@@ -83,6 +86,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
  * @author Markus Rathgeb - Drop Glassfish dependency and use API only
  * @author Wouter Born - Rework SSE item state sinks for dropping Glassfish
  * @author Wouter Born - Migrated to OpenAPI annotations
+ * @author agent - Shared topic filter index, tracked item index and conflated state events
  */
 @Component(service = { RESTResource.class, SsePublisher.class })
 @JaxrsResource
@@ -112,8 +116,10 @@ public class SseResource implements RESTResource, SsePublisher {
     private @Context @NonNullByDefault({}) Sse sse;
 
     private final SseBroadcaster<SseSinkItemInfo> itemStatesBroadcaster = new SseBroadcaster<>();
+    private final SseItemSinkIndex itemSinkIndex = new SseItemSinkIndex();
     private final SseItemStatesEventBuilder itemStatesEventBuilder;
     private final SseBroadcaster<SseSinkTopicInfo> topicBroadcaster = new SseBroadcaster<>();
+    private final SseTopicFilterIndex topicFilterIndex = new SseTopicFilterIndex();
 
     private ExecutorService executorService;
 
@@ -121,6 +127,8 @@ public class SseResource implements RESTResource, SsePublisher {
     public SseResource(@Reference SseItemStatesEventBuilder itemStatesEventBuilder) {
         this.executorService = Executors.newSingleThreadExecutor();
         this.itemStatesEventBuilder = itemStatesEventBuilder;
+        topicBroadcaster.addListener((sink, info) -> topicFilterIndex.remove(info));
+        itemStatesBroadcaster.addListener((sink, info) -> info.close());
 
         aliveEventJob = scheduler.scheduleWithFixedDelay(() -> {
             if (sse != null) {
@@ -184,21 +192,34 @@ public class SseResource implements RESTResource, SsePublisher {
             return;
         }
 
-        topicBroadcaster.add(sseEventSink, new SseSinkTopicInfo(eventFilter));
+        SseSinkTopicInfo info = new SseSinkTopicInfo(eventFilter);
+        topicFilterIndex.add(sseEventSink, info);
+        SseSinkTopicInfo previousInfo = topicBroadcaster.add(sseEventSink, info);
+        if (previousInfo != null) {
+            topicFilterIndex.remove(previousInfo);
+        }
 
         addCommonResponseHeaders(response);
     }
 
     private void handleEventBroadcastTopic(Event event) {
+        final Set<SseEventSink> matchingSinks = topicFilterIndex.getMatching(event.getTopic());
+        if (matchingSinks.isEmpty()) {
+            return;
+        }
+
         final EventDTO eventDTO = SseUtil.buildDTO(event);
         final OutboundSseEvent sseEvent = SseUtil.buildEvent(sse.newEventBuilder(), eventDTO);
 
-        topicBroadcaster.sendIf(sseEvent, matchesTopic(eventDTO.topic));
+        topicBroadcaster.sendTo(sseEvent, matchingSinks);
     }
 
     /**
      * Subscribes the connecting client for state updates. It will initially only send a "ready" event with a unique
      * connectionId that the client can use to dynamically alter the list of tracked items.
+     * <p>
+     * If a flush interval is given, the state changes within the interval are collected and sent as one event
+     * containing the latest state of each changed item.
      *
      * @return {@link EventOutput} object associated with the incoming connection.
      */
@@ -206,9 +227,17 @@ public class SseResource implements RESTResource, SsePublisher {
     @Path("/states")
     @Produces(MediaType.SERVER_SENT_EVENTS)
     @Operation(operationId = "initNewStateTacker", summary = "Initiates a new item state tracker connection", responses = {
-            @ApiResponse(responseCode = "200", description = "OK") })
-    public void getStateEvents(@Context final SseEventSink sseEventSink, @Context final HttpServletResponse response) {
-        final SseSinkItemInfo sinkItemInfo = new SseSinkItemInfo();
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Flush interval is negative") })
+    public void getStateEvents(@Context final SseEventSink sseEventSink, @Context final HttpServletResponse response,
+            @QueryParam("flushInterval") @Parameter(description = "interval in milliseconds in which state changes are collected and sent as one event") @Nullable Long flushInterval) {
+        if (flushInterval != null && flushInterval < 0) {
+            response.setStatus(Status.BAD_REQUEST.getStatusCode());
+            return;
+        }
+
+        final SseSinkItemInfo sinkItemInfo = new SseSinkItemInfo(itemSinkIndex, sseEventSink,
+                flushInterval == null ? 0 : flushInterval);
         itemStatesBroadcaster.add(sseEventSink, sinkItemInfo);
 
         addCommonResponseHeaders(response);
@@ -252,21 +281,51 @@ public class SseResource implements RESTResource, SsePublisher {
     }
 
     /**
-     * Broadcasts a state event to all currently listening clients, after transforming it to a simple map.
+     * Broadcasts a state event to all currently listening clients, after transforming it to a simple map. Clients
+     * with a flush interval receive the state with the next flush of their connection.
      *
      * @param stateChangeEvent the {@link ItemStateChangedEvent} containing the new state
      */
     public void handleEventBroadcastItemState(final ItemStateChangedEvent stateChangeEvent) {
         String itemName = stateChangeEvent.getItemName();
-        boolean isTracked = itemStatesBroadcaster.getInfoIf(info -> true).anyMatch(tracksItem(itemName));
-        if (isTracked) {
+        List<SseEventSink> immediateSinks = new ArrayList<>();
+        for (SseEventSink sink : itemSinkIndex.getSinks(itemName)) {
+            SseSinkItemInfo info = itemStatesBroadcaster.getInfo(sink);
+            if (info == null) {
+                continue;
+            }
+            if (info.getFlushInterval() == 0) {
+                immediateSinks.add(sink);
+            } else if (info.addPendingItem(itemName)) {
+                scheduleFlush(sink, info);
+            }
+        }
+        if (!immediateSinks.isEmpty()) {
             OutboundSseEvent event = itemStatesEventBuilder.buildEvent(sse.newEventBuilder(), Set.of(itemName));
             if (event != null) {
-                itemStatesBroadcaster.sendIf(event, tracksItem(itemName));
+                itemStatesBroadcaster.sendTo(event, immediateSinks);
             }
         }
     }
 
+    private void scheduleFlush(SseEventSink sink, SseSinkItemInfo info) {
+        scheduler.schedule(() -> flushItemStates(sink, info), info.getFlushInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends the states of the items that changed during the flush interval of a connection in one event.
+     */
+    private void flushItemStates(SseEventSink sink, SseSinkItemInfo info) {
+        Set<String> itemNames = info.takePendingItems();
+        if (itemNames.isEmpty()) {
+            return;
+        }
+        OutboundSseEvent event = itemStatesEventBuilder.buildEvent(sse.newEventBuilder(), itemNames);
+        if (event != null) {
+            itemStatesBroadcaster.sendTo(event, List.of(sink));
+        }
+    }
+
     private static class AliveEvent {
         public final String type = "ALIVE";
         public final int interval = ALIVE_INTERVAL_SECONDS;
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.rest.sse.internal;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ws.rs.sse.SseEventSink;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * A reverse index from item names to the SSE sinks tracking the state of the item. It is maintained by the
+ * {@link SseSinkItemInfo}s of the sinks, so a state change is only sent to the interested sinks without testing all
+ * connections.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SseItemSinkIndex {
+
+    private final Map<String, Set<SseEventSink>> sinksByItem = new ConcurrentHashMap<>();
+
+    void add(String itemName, SseEventSink sink) {
+        // the sink is added while the entry is locked, so a concurrent removal cannot drop the set it is added to
+        sinksByItem.compute(itemName, (name, sinks) -> {
+            Set<SseEventSink> itemSinks = sinks != null ? sinks : ConcurrentHashMap.newKeySet();
+            itemSinks.add(sink);
+            return itemSinks;
+        });
+    }
+
+    void remove(String itemName, SseEventSink sink) {
+        sinksByItem.computeIfPresent(itemName, (name, sinks) -> {
+            sinks.remove(sink);
+            return sinks.isEmpty() ? null : sinks;
+        });
+    }
+
+    /**
+     * Gets the sinks tracking an item.
+     *
+     * @param itemName the name of the item
+     * @return the sinks tracking the item, or an empty set if no sink tracks it
+     */
+    public Set<SseEventSink> getSinks(String itemName) {
+        return sinksByItem.getOrDefault(itemName, Set.of());
+    }
+}
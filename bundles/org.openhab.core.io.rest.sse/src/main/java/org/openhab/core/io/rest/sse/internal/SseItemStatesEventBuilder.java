@@ -26,6 +26,7 @@ import javax.ws.rs.sse.OutboundSseEvent.Builder;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.io.rest.LocaleService;
+import org.openhab.core.io.rest.SerializedJSON;
 import org.openhab.core.io.rest.sse.internal.dto.StateDTO;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
@@ -46,18 +47,22 @@ import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.Gson;
+
 /**
  * The {@link SseItemStatesEventBuilder} builds {@link OutboundSseEvent}s for connections that listen to item state
  * changes.
  *
  * @author Yannick Schaus - Initial contribution
  * @author Wouter Born - Rework SSE item state sinks for dropping Glassfish
+ * @author agent - Serialize events once for all sinks
  */
 @Component(service = SseItemStatesEventBuilder.class)
 @NonNullByDefault
 public class SseItemStatesEventBuilder {
 
     private final Logger logger = LoggerFactory.getLogger(SseItemStatesEventBuilder.class);
+    private final Gson gson = new Gson();
 
     private final BundleContext bundleContext;
     private final ItemRegistry itemRegistry;
@@ -71,6 +76,14 @@ public class SseItemStatesEventBuilder {
         this.localeService = localeService;
     }
 
+    /**
+     * Builds an event containing the states of the given items. The event data is serialized once, so the event can be
+     * sent to any number of sinks.
+     *
+     * @param eventBuilder the builder that should be used
+     * @param itemNames the names of the items
+     * @return the event, or null if none of the items exists
+     */
     public @Nullable OutboundSseEvent buildEvent(Builder eventBuilder, Set<String> itemNames) {
         Map<String, StateDTO> payload = new HashMap<>(itemNames.size());
         for (String itemName : itemNames) {
@@ -91,7 +104,8 @@ public class SseItemStatesEventBuilder {
         }
 
         if (!payload.isEmpty()) {
-            return eventBuilder.mediaType(MediaType.APPLICATION_JSON_TYPE).data(payload).build();
+            return eventBuilder.mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(new SerializedJSON(gson.toJson(payload))).build();
         }
 
         return null;
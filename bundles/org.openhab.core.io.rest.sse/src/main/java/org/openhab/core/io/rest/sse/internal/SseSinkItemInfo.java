@@ -12,23 +12,56 @@
  */
 package org.openhab.core.io.rest.sse.internal;
 
+import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
+import javax.ws.rs.sse.SseEventSink;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 
 /**
  * The specific information we need to hold for a SSE sink which tracks item state updates.
  *
  * @author Wouter Born - Initial contribution
+ * @author agent - Maintain a reverse index of tracked items, conflate state changes
  */
 @NonNullByDefault
 public class SseSinkItemInfo {
 
     private final String connectionId = UUID.randomUUID().toString();
-    private final Set<String> trackedItems = new CopyOnWriteArraySet<>();
+    private final Set<String> trackedItems = ConcurrentHashMap.newKeySet();
+    private final SseItemSinkIndex index;
+    private final SseEventSink sink;
+    private final long flushInterval;
+    private final Set<String> pendingItems = new HashSet<>();
+    private boolean closed = false;
+
+    /**
+     * Creates the information of a sink that is sent state changes immediately.
+     *
+     * @param index the index to register the tracked items of the sink in
+     * @param sink the sink
+     */
+    public SseSinkItemInfo(SseItemSinkIndex index, SseEventSink sink) {
+        this(index, sink, 0);
+    }
+
+    /**
+     * Creates the information of a sink.
+     *
+     * @param index the index to register the tracked items of the sink in
+     * @param sink the sink
+     * @param flushInterval the interval in milliseconds in which state changes are collected and sent as one event,
+     *            or 0 to send each state change immediately
+     */
+    public SseSinkItemInfo(SseItemSinkIndex index, SseEventSink sink, long flushInterval) {
+        this.index = index;
+        this.sink = sink;
+        this.flushInterval = flushInterval;
+    }
 
     /**
      * Gets the connection identifier of this {@link SseSinkItemInfo}
@@ -44,16 +77,66 @@ public class SseSinkItemInfo {
      *
      * @param itemNames the item names to track
      */
-    public void updateTrackedItems(Set<String> itemNames) {
-        trackedItems.clear();
-        trackedItems.addAll(itemNames);
+    public synchronized void updateTrackedItems(Set<String> itemNames) {
+        if (closed) {
+            return;
+        }
+        Set<String> removedItems = new HashSet<>(trackedItems);
+        removedItems.removeAll(itemNames);
+        trackedItems.removeAll(removedItems);
+        removedItems.forEach(itemName -> index.remove(itemName, sink));
+
+        for (String itemName : itemNames) {
+            if (trackedItems.add(itemName)) {
+                index.add(itemName, sink);
+            }
+        }
     }
 
-    public static Predicate<SseSinkItemInfo> hasConnectionId(String connectionId) {
-        return info -> info.connectionId.equals(connectionId);
+    /**
+     * Removes the tracked items of a sink that has been closed from the index. Later updates are ignored.
+     */
+    public synchronized void close() {
+        updateTrackedItems(Set.of());
+        pendingItems.clear();
+        closed = true;
     }
 
-    public static Predicate<SseSinkItemInfo> tracksItem(String itemName) {
-        return info -> info.trackedItems.contains(itemName);
+    /**
+     * @return the interval in milliseconds in which state changes are collected, or 0 if they are sent immediately
+     */
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Adds an item whose state changed to the items that are sent with the next flush. Several changes of the same
+     * item before the flush are sent once, with the state at the time of the flush.
+     *
+     * @param itemName the name of the item
+     * @return true if this is the first pending item, i.e. a flush needs to be scheduled
+     */
+    public synchronized boolean addPendingItem(String itemName) {
+        if (closed) {
+            return false;
+        }
+        boolean first = pendingItems.isEmpty();
+        pendingItems.add(itemName);
+        return first;
+    }
+
+    /**
+     * Removes and returns the items that changed since the last flush.
+     *
+     * @return the names of the items
+     */
+    public synchronized Set<String> takePendingItems() {
+        Set<String> itemNames = Set.copyOf(pendingItems);
+        pendingItems.clear();
+        return itemNames;
+    }
+
+    public static Predicate<SseSinkItemInfo> hasConnectionId(String connectionId) {
+        return info -> info.connectionId.equals(connectionId);
     }
 }
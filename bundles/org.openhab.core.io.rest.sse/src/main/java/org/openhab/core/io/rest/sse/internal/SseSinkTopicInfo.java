@@ -12,27 +12,108 @@
  */
 package org.openhab.core.io.rest.sse.internal;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
-import org.openhab.core.io.rest.sse.internal.util.SseUtil;
+import org.eclipse.jdt.annotation.Nullable;
 
 /**
  * The specific information we need to hold for a SSE sink which subscribes to event topics.
+ * <p>
+ * The topic filter is compiled once when the sink is added: filters without wildcards are kept as exact topics, the
+ * others as {@link WildcardFilter}s.
  *
  * @author Markus Rathgeb - Initial contribution
+ * @author agent - Precompiled topic filters
  */
 @NonNullByDefault
 public class SseSinkTopicInfo {
 
-    private final List<String> regexFilters;
+    private final Set<String> exactTopics = new HashSet<>();
+    private final List<WildcardFilter> wildcardFilters = new ArrayList<>();
 
-    public SseSinkTopicInfo(String topicFilter) {
-        this.regexFilters = SseUtil.convertToRegex(topicFilter);
+    public SseSinkTopicInfo(@Nullable String topicFilter) {
+        if (topicFilter == null || topicFilter.isEmpty()) {
+            wildcardFilters.add(new WildcardFilter("*"));
+        } else {
+            StringTokenizer tokenizer = new StringTokenizer(topicFilter, ",");
+            while (tokenizer.hasMoreElements()) {
+                String filter = tokenizer.nextToken().trim();
+                if (filter.contains("*")) {
+                    wildcardFilters.add(new WildcardFilter(filter));
+                } else {
+                    exactTopics.add(filter);
+                }
+            }
+        }
     }
 
-    public static Predicate<SseSinkTopicInfo> matchesTopic(final String topic) {
-        return info -> info.regexFilters.stream().anyMatch(topic::matches);
+    /**
+     * @return the topics without wildcards this sink subscribes to
+     */
+    public Set<String> getExactTopics() {
+        return exactTopics;
+    }
+
+    /**
+     * @return the topic filters with wildcards this sink subscribes to
+     */
+    public List<WildcardFilter> getWildcardFilters() {
+        return wildcardFilters;
+    }
+
+    /**
+     * Checks if the topic filter of this sink matches a topic. Wildcards (*) match any sequence of characters, all
+     * other characters match literally, and the whole topic must match.
+     *
+     * @param topic the topic of an event
+     * @return true if any of the comma separated filters matches the topic
+     */
+    public boolean matches(String topic) {
+        return exactTopics.contains(topic) || wildcardFilters.stream().anyMatch(filter -> filter.matches(topic));
+    }
+
+    /**
+     * A topic filter containing wildcards (*), which match any sequence of characters, including "/".
+     */
+    public static class WildcardFilter {
+        private final String prefix;
+        private final @Nullable Pattern remainder;
+
+        WildcardFilter(String filter) {
+            int wildcard = filter.indexOf('*');
+            this.prefix = filter.substring(0, wildcard);
+            // a filter with a single trailing wildcard matches all topics starting with its prefix
+            String rest = filter.substring(wildcard);
+            this.remainder = "*".equals(rest) ? null
+                    : Pattern.compile(Pattern.quote(rest).replace("*", "\\E.*\\Q"));
+        }
+
+        /**
+         * @return the literal part of the filter before the first wildcard
+         */
+        public String getPrefix() {
+            return prefix;
+        }
+
+        /**
+         * Checks the part of a topic after the prefix of this filter.
+         *
+         * @param topic the topic, which must start with the prefix of this filter
+         * @return true if the topic matches this filter
+         */
+        public boolean matchesRemainder(String topic) {
+            Pattern remainder = this.remainder;
+            return remainder == null || remainder.matcher(topic).region(prefix.length(), topic.length()).matches();
+        }
+
+        public boolean matches(String topic) {
+            return topic.startsWith(prefix) && matchesRemainder(topic);
+        }
     }
 }
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.rest.sse.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.ws.rs.sse.SseEventSink;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.rest.sse.internal.SseSinkTopicInfo.WildcardFilter;
+
+/**
+ * An index of the topic filters of all SSE sinks subscribing to event topics, so the sinks interested in an event can
+ * be found without evaluating the filters of every sink.
+ * <p>
+ * Exact topics are looked up in a map. Filters with wildcards are stored in a trie by their literal prefix, so only the
+ * filters with a prefix of the topic are evaluated.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SseTopicFilterIndex {
+
+    private final Map<SseSinkTopicInfo, SseEventSink> sinks = new HashMap<>();
+    private final Map<String, Set<SseSinkTopicInfo>> exactTopics = new HashMap<>();
+    private final Node root = new Node();
+
+    /**
+     * Adds the topic filters of a sink.
+     *
+     * @param sink the sink
+     * @param info the information of the sink
+     */
+    public synchronized void add(SseEventSink sink, SseSinkTopicInfo info) {
+        sinks.put(info, sink);
+        for (String topic : info.getExactTopics()) {
+            exactTopics.computeIfAbsent(topic, t -> new HashSet<>()).add(info);
+        }
+        for (WildcardFilter filter : info.getWildcardFilters()) {
+            Node node = root;
+            String prefix = filter.getPrefix();
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+            }
+            node.filters.add(new Entry(filter, info));
+        }
+    }
+
+    /**
+     * Removes the topic filters of a sink.
+     *
+     * @param info the information of the sink
+     */
+    public synchronized void remove(SseSinkTopicInfo info) {
+        sinks.remove(info);
+        for (String topic : info.getExactTopics()) {
+            Set<SseSinkTopicInfo> infos = exactTopics.get(topic);
+            if (infos != null) {
+                infos.remove(info);
+                if (infos.isEmpty()) {
+                    exactTopics.remove(topic);
+                }
+            }
+        }
+        for (WildcardFilter filter : info.getWildcardFilters()) {
+            remove(root, filter.getPrefix(), 0, info);
+        }
+    }
+
+    /**
+     * Removes the filters of a sink from a node and its descendants along the prefix, pruning empty nodes.
+     *
+     * @return true if the node is empty and can be removed from its parent
+     */
+    private boolean remove(Node node, String prefix, int index, SseSinkTopicInfo info) {
+        if (index == prefix.length()) {
+            node.filters.removeIf(entry -> entry.info == info);
+        } else {
+            char c = prefix.charAt(index);
+            @Nullable
+            Node child = node.children.get(c);
+            if (child != null && remove(child, prefix, index + 1, info)) {
+                node.children.remove(c);
+            }
+        }
+        return node.filters.isEmpty() && node.children.isEmpty();
+    }
+
+    /**
+     * Returns the sinks having a topic filter that matches a topic.
+     *
+     * @param topic the topic of an event
+     * @return the matching sinks
+     */
+    public synchronized Set<SseEventSink> getMatching(String topic) {
+        Set<SseSinkTopicInfo> matching = new HashSet<>();
+        Set<SseSinkTopicInfo> infos = exactTopics.get(topic);
+        if (infos != null) {
+            matching.addAll(infos);
+        }
+        @Nullable
+        Node node = root;
+        for (int i = 0; node != null; i++) {
+            for (Entry entry : node.filters) {
+                if (!matching.contains(entry.info) && entry.filter.matchesRemainder(topic)) {
+                    matching.add(entry.info);
+                }
+            }
+            node = i < topic.length() ? node.children.get(topic.charAt(i)) : null;
+        }
+        return matching.stream().map(sinks::get).collect(Collectors.toSet());
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Entry> filters = new ArrayList<>();
+    }
+
+    private static class Entry {
+        private final WildcardFilter filter;
+        private final SseSinkTopicInfo info;
+
+        Entry(WildcardFilter filter, SseSinkTopicInfo info) {
+            this.filter = filter;
+            this.info = info;
+        }
+    }
+}
@@ -12,29 +12,31 @@
  */
 package org.openhab.core.io.rest.sse.internal.util;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.StringTokenizer;
-
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.sse.OutboundSseEvent;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.events.Event;
+import org.openhab.core.io.rest.SerializedJSON;
 import org.openhab.core.io.rest.sse.internal.dto.EventDTO;
 
+import com.google.gson.Gson;
+
 /**
  * Utility class containing helper methods for the SSE implementation.
  *
  * @author Ivan Iliev - Initial contribution
  * @author Dennis Nobel - Changed EventBean
  * @author Markus Rathgeb - Don't depend on specific application but use APIs if possible
+ * @author agent - Serialize events once for all sinks
  */
 @NonNullByDefault
 public class SseUtil {
     static final String TOPIC_VALIDATE_PATTERN = "(\\w*\\*?\\/?,?:?-?\\s*)*";
 
+    private static final Gson GSON = new Gson();
+
     public static EventDTO buildDTO(final Event event) {
         EventDTO dto = new EventDTO();
         dto.topic = event.getTopic();
@@ -45,6 +47,7 @@ public class SseUtil {
 
     /**
      * Creates a new {@link OutboundSseEvent} object containing an {@link EventDTO} created for the given {@link Event}.
+     * The event data is serialized once, so the event can be sent to any number of sinks.
      *
      * @param eventBuilder the builder that should be used
      * @param event the event data transfer object
@@ -53,7 +56,7 @@ public class SseUtil {
     public static OutboundSseEvent buildEvent(OutboundSseEvent.Builder eventBuilder, EventDTO event) {
         return eventBuilder.name("message") //
                 .mediaType(MediaType.APPLICATION_JSON_TYPE) //
-                .data(event) //
+                .data(new SerializedJSON(GSON.toJson(event))) //
                 .build();
     }
 
@@ -67,27 +70,4 @@ public class SseUtil {
     public static boolean isValidTopicFilter(@Nullable String topicFilter) {
         return topicFilter == null || topicFilter.isEmpty() || topicFilter.matches(TOPIC_VALIDATE_PATTERN);
     }
-
-    /**
-     * Splits the given topicFilter at any commas (",") and for each token replaces any wildcards(*) with the regex
-     * pattern (.*)
-     *
-     * @param topicFilter
-     * @return
-     */
-    public static List<String> convertToRegex(@Nullable String topicFilter) {
-        List<String> filters = new ArrayList<>();
-
-        if (topicFilter == null || topicFilter.isEmpty()) {
-            filters.add(".*");
-        } else {
-            StringTokenizer tokenizer = new StringTokenizer(topicFilter, ",");
-            while (tokenizer.hasMoreElements()) {
-                String regex = tokenizer.nextToken().trim().replace("*", ".*") + "$";
-                filters.add(regex);
-            }
-        }
-
-        return filters;
-    }
 }
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.rest.sse.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.sse.SseEventSink;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link SseItemSinkIndex} class
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SseItemSinkIndexTest {
+
+    private final SseItemSinkIndex index = new SseItemSinkIndex();
+
+    @Test
+    public void indexFollowsTrackedItems() {
+        SseEventSink sink1 = mock(SseEventSink.class);
+        SseEventSink sink2 = mock(SseEventSink.class);
+        SseSinkItemInfo info1 = new SseSinkItemInfo(index, sink1);
+        SseSinkItemInfo info2 = new SseSinkItemInfo(index, sink2);
+
+        info1.updateTrackedItems(Set.of("item1", "item2"));
+        info2.updateTrackedItems(Set.of("item2", "item3"));
+        assertThat(index.getSinks("item1"), contains(sink1));
+        assertThat(index.getSinks("item2"), containsInAnyOrder(sink1, sink2));
+        assertThat(index.getSinks("item4"), is(empty()));
+
+        info1.updateTrackedItems(Set.of("item2", "item4"));
+        assertThat(index.getSinks("item1"), is(empty()));
+        assertThat(index.getSinks("item2"), containsInAnyOrder(sink1, sink2));
+        assertThat(index.getSinks("item4"), contains(sink1));
+    }
+
+    @Test
+    public void closedSinksAreRemovedFromTheIndex() {
+        SseEventSink sink = mock(SseEventSink.class);
+        SseSinkItemInfo info = new SseSinkItemInfo(index, sink);
+
+        info.updateTrackedItems(Set.of("item1", "item2"));
+        info.close();
+        assertThat(index.getSinks("item1"), is(empty()));
+
+        // an update racing with the removal of the sink is ignored
+        info.updateTrackedItems(Set.of("item1"));
+        assertThat(index.getSinks("item1"), is(empty()));
+    }
+
+    @Test
+    public void concurrentlyAddedSinksAreNotLost() throws InterruptedException {
+        SseEventSink sink = mock(SseEventSink.class);
+        SseEventSink otherSink = mock(SseEventSink.class);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                String itemName = "item" + i;
+                index.add(itemName, otherSink);
+                CountDownLatch start = new CountDownLatch(1);
+                // removing the last sink of an item races with adding another one
+                executor.execute(() -> {
+                    awaitUninterruptibly(start);
+                    index.remove(itemName, otherSink);
+                });
+                executor.execute(() -> {
+                    awaitUninterruptibly(start);
+                    index.add(itemName, sink);
+                });
+                start.countDown();
+            }
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(index.getSinks("item" + i), contains(sink));
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.rest.sse.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import javax.ws.rs.sse.SseEventSink;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link SseSinkItemInfo} class
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SseSinkItemInfoTest {
+
+    private final SseSinkItemInfo info = new SseSinkItemInfo(new SseItemSinkIndex(), mock(SseEventSink.class), 500);
+
+    @Test
+    public void pendingItemsAreConflatedUntilTheFlush() {
+        assertThat(info.getFlushInterval(), is(500L));
+
+        // only the first change requires a flush to be scheduled
+        assertTrue(info.addPendingItem("item1"));
+        assertFalse(info.addPendingItem("item2"));
+        assertFalse(info.addPendingItem("item1"));
+        assertThat(info.takePendingItems(), containsInAnyOrder("item1", "item2"));
+
+        assertThat(info.takePendingItems(), is(empty()));
+        assertTrue(info.addPendingItem("item1"));
+    }
+
+    @Test
+    public void closedSinksHaveNoPendingItems() {
+        info.addPendingItem("item1");
+        info.close();
+
+        assertThat(info.takePendingItems(), is(empty()));
+        assertFalse(info.addPendingItem("item2"));
+        assertThat(info.takePendingItems(), is(empty()));
+    }
+}
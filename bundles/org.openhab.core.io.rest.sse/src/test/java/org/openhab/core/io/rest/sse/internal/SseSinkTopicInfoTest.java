@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.rest.sse.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the topic filters of {@link SseSinkTopicInfo}, migrated from the regex based filter tests.
+ *
+ * @author Dennis Nobel - Initial contribution
+ * @author agent - Migrate to precompiled topic filters
+ */
+@NonNullByDefault
+public class SseSinkTopicInfoTest {
+
+    @Test
+    public void testFilterMatchers() {
+        SseSinkTopicInfo filter0 = new SseSinkTopicInfo("openhab/*/test/test/test/test");
+        SseSinkTopicInfo filter1 = new SseSinkTopicInfo("    openhab/test/*/test/test/test");
+        SseSinkTopicInfo filter2 = new SseSinkTopicInfo(" openhab/*");
+        SseSinkTopicInfo filter3 = new SseSinkTopicInfo("qivicon/*");
+
+        assertThat(filter0.matches("openhab/test/test/test/test/test"), is(true));
+        assertThat(filter0.matches("openhab/asdf/test/test/test/test"), is(true));
+        assertThat(filter0.matches("openhab/asdf/ASDF/test/test/test"), is(false));
+
+        assertThat(filter1.matches("openhab/test/test/test/test/test"), is(true));
+        assertThat(filter1.matches("openhab/asdf/test/test/test/test"), is(false));
+        assertThat(filter1.matches("openhab/asdf/ASDF/test/test/test"), is(false));
+
+        assertThat(filter2.matches("openhab/test/test/test/test/test"), is(true));
+        assertThat(filter2.matches("openhab/asdf/test/test/test/test"), is(true));
+        assertThat(filter2.matches("openhab/asdf/ASDF/test/test/test"), is(true));
+
+        assertThat(filter3.matches("openhab/test/test/test/test/test"), is(false));
+        assertThat(filter3.matches("openhab/asdf/test/test/test/test"), is(false));
+        assertThat(filter3.matches("qivicon/asdf/ASDF/test/test/test"), is(true));
+
+        SseSinkTopicInfo combined = new SseSinkTopicInfo(
+                "openhab/*/test/test/test/test,    openhab/test/*/test/test/test, openhab/*,qivicon/*");
+        assertThat(combined.matches("qivicon/asdf/ASDF/test/test/test"), is(true));
+        assertThat(combined.matches("other/asdf/ASDF/test/test/test"), is(false));
+    }
+
+    @Test
+    public void testMoreFilterMatchers() {
+        SseSinkTopicInfo filter0 = new SseSinkTopicInfo("    *");
+        SseSinkTopicInfo filter1 = new SseSinkTopicInfo(" openhab/items/*/added");
+        SseSinkTopicInfo filter2 = new SseSinkTopicInfo(" openhab/items/*/*");
+
+        assertThat(filter0.matches("openhab/test/test/test/test/test"), is(true));
+        assertThat(filter0.matches("openhab/asdf/test/test/test/test"), is(true));
+        assertThat(filter0.matches("openhab/asdf/ASDF/test/test/test"), is(true));
+
+        assertThat(filter1.matches("openhab/test/test/test/test/test"), is(false));
+        assertThat(filter1.matches("openhab/items/anyitem/added"), is(true));
+        assertThat(filter1.matches("openhab/items/anyitem/removed"), is(false));
+
+        assertThat(filter2.matches("openhab/items/anyitem/added"), is(true));
+        assertThat(filter2.matches("openhab/items/anyitem/removed"), is(true));
+        assertThat(filter2.matches("openhab/items/anyitem/updated"), is(true));
+        assertThat(filter2.matches("openhab/things/anything/updated"), is(false));
+    }
+
+    @Test
+    public void testEvenMoreFilterMatchers() {
+        SseSinkTopicInfo filter = new SseSinkTopicInfo("");
+        assertThat(filter.matches("openhab/test/test/test/test/test"), is(true));
+        assertThat(filter.matches("openhab/asdf/test/test/test/test"), is(true));
+        assertThat(filter.matches("openhab/asdf/ASDF/test/test/test"), is(true));
+
+        filter = new SseSinkTopicInfo("*/added");
+        assertThat(filter.matches("openhab/items/anyitem/added"), is(true));
+        assertThat(filter.matches("openhab/items/anyitem/removed"), is(false));
+
+        filter = new SseSinkTopicInfo("*added");
+        assertThat(filter.matches("openhab/items/anyitem/added"), is(true));
+        assertThat(filter.matches("openhab/items/anyitem/removed"), is(false));
+
+        filter = new SseSinkTopicInfo("openhab/items/*/state");
+        assertThat(filter.matches("openhab/items/anyitem/state"), is(true));
+        assertThat(filter.matches("openhab/items/anyitem/statechanged"), is(false));
+
+        filter = new SseSinkTopicInfo("openhab/items/anyitem/state");
+        assertThat(filter.matches("openhab/items/anyitem/state"), is(true));
+        assertThat(filter.matches("openhab/items/anyitem/statechanged"), is(false));
+    }
+}
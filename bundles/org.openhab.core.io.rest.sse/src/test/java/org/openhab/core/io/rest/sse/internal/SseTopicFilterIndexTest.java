@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.rest.sse.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+
+import javax.ws.rs.sse.SseEventSink;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link SseTopicFilterIndex} class
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SseTopicFilterIndexTest {
+
+    private final SseTopicFilterIndex index = new SseTopicFilterIndex();
+
+    @Test
+    public void sinksAreMatchedByTheirTopicFilters() {
+        SseSinkTopicInfo all = new SseSinkTopicInfo("");
+        SseSinkTopicInfo added = new SseSinkTopicInfo("*/added");
+        SseSinkTopicInfo items = new SseSinkTopicInfo("openhab/items/*/*, openhab/things/thing/updated");
+        SseSinkTopicInfo state = new SseSinkTopicInfo("openhab/items/item/state");
+        SseEventSink allSink = addSink(all);
+        SseEventSink addedSink = addSink(added);
+        SseEventSink itemsSink = addSink(items);
+        SseEventSink stateSink = addSink(state);
+
+        assertThat(index.getMatching("openhab/items/item/state"), containsInAnyOrder(allSink, itemsSink, stateSink));
+        assertThat(index.getMatching("openhab/items/item/added"), containsInAnyOrder(allSink, addedSink, itemsSink));
+        assertThat(index.getMatching("openhab/things/thing/updated"), containsInAnyOrder(allSink, itemsSink));
+        assertThat(index.getMatching("openhab/things/thing/added"), containsInAnyOrder(allSink, addedSink));
+        assertThat(index.getMatching("openhab/items/item"), containsInAnyOrder(allSink));
+
+        index.remove(all);
+        index.remove(items);
+        assertThat(index.getMatching("openhab/items/item/state"), contains(stateSink));
+        assertThat(index.getMatching("openhab/things/thing/updated"), is(empty()));
+    }
+
+    @Test
+    public void indexMatchesLikeTheTopicFilters() {
+        String topicFilter = "openhab/*/test/test/test/test,    openhab/test/*/test/test/test, openhab/*,qivicon/*,"
+                + " *added, openhab/items/*/state, openhab";
+        SseSinkTopicInfo info = new SseSinkTopicInfo(topicFilter);
+        SseEventSink sink = addSink(info);
+
+        Map<String, Boolean> expected = Map.of("openhab/test/test/test/test/test", true,
+                "openhab/asdf/ASDF/test/test/test", true, "qivicon/asdf/ASDF/test/test/test", true,
+                "openhab/items/anyitem/added", true, "openhab/items/anyitem/statechanged", true, "openhab", true,
+                "openhabian", false, "other/removed", false, "other/state", false);
+        expected.forEach((topic, matches) -> {
+            assertThat(topic, index.getMatching(topic).contains(sink), is(matches));
+            assertThat(topic, info.matches(topic), is(matches));
+        });
+    }
+
+    private SseEventSink addSink(SseSinkTopicInfo info) {
+        SseEventSink sink = mock(SseEventSink.class);
+        index.add(sink, info);
+        return sink;
+    }
+}
@@ -15,8 +15,6 @@ package org.openhab.core.io.rest.sse.internal.util;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
-import java.util.List;
-
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.junit.jupiter.api.Test;
 
@@ -56,65 +54,4 @@ public class SseUtilTest {
         assertThat(SseUtil.isValidTopicFilter("openhab/test/test:test:123/test"), is(true));
         assertThat(SseUtil.isValidTopicFilter("openhab/test/test-test-123-test:test:123/test"), is(true));
     }
-
-    @Test
-    public void testFilterMatchers() {
-        List<String> regexes = SseUtil
-                .convertToRegex("openhab/*/test/test/test/test,    openhab/test/*/test/test/test, openhab/*,qivicon/*");
-
-        assertThat("openhab/test/test/test/test/test".matches(regexes.get(0)), is(true));
-        assertThat("openhab/asdf/test/test/test/test".matches(regexes.get(0)), is(true));
-        assertThat("openhab/asdf/ASDF/test/test/test".matches(regexes.get(0)), is(false));
-
-        assertThat("openhab/test/test/test/test/test".matches(regexes.get(1)), is(true));
-        assertThat("openhab/asdf/test/test/test/test".matches(regexes.get(1)), is(false));
-        assertThat("openhab/asdf/ASDF/test/test/test".matches(regexes.get(1)), is(false));
-
-        assertThat("openhab/test/test/test/test/test".matches(regexes.get(2)), is(true));
-        assertThat("openhab/asdf/test/test/test/test".matches(regexes.get(2)), is(true));
-        assertThat("openhab/asdf/ASDF/test/test/test".matches(regexes.get(2)), is(true));
-
-        assertThat("openhab/test/test/test/test/test".matches(regexes.get(3)), is(false));
-        assertThat("openhab/asdf/test/test/test/test".matches(regexes.get(3)), is(false));
-        assertThat("qivicon/asdf/ASDF/test/test/test".matches(regexes.get(3)), is(true));
-    }
-
-    @Test
-    public void testMoreFilterMatchers() {
-        List<String> regexes = SseUtil.convertToRegex(",    *, openhab/items/*/added, openhab/items/*/*");
-
-        assertThat("openhab/test/test/test/test/test".matches(regexes.get(0)), is(true));
-        assertThat("openhab/asdf/test/test/test/test".matches(regexes.get(0)), is(true));
-        assertThat("openhab/asdf/ASDF/test/test/test".matches(regexes.get(0)), is(true));
-
-        assertThat("openhab/test/test/test/test/test".matches(regexes.get(1)), is(false));
-        assertThat("openhab/items/anyitem/added".matches(regexes.get(1)), is(true));
-        assertThat("openhab/items/anyitem/removed".matches(regexes.get(1)), is(false));
-
-        assertThat("openhab/items/anyitem/added".matches(regexes.get(2)), is(true));
-        assertThat("openhab/items/anyitem/removed".matches(regexes.get(2)), is(true));
-        assertThat("openhab/items/anyitem/updated".matches(regexes.get(2)), is(true));
-        assertThat("openhab/things/anything/updated".matches(regexes.get(2)), is(false));
-    }
-
-    @Test
-    public void testEvenMoreFilterMatchers() {
-        List<String> regexes = SseUtil.convertToRegex("");
-
-        assertThat("openhab/test/test/test/test/test".matches(regexes.get(0)), is(true));
-        assertThat("openhab/asdf/test/test/test/test".matches(regexes.get(0)), is(true));
-        assertThat("openhab/asdf/ASDF/test/test/test".matches(regexes.get(0)), is(true));
-
-        regexes = SseUtil.convertToRegex("*/added");
-        assertThat("openhab/items/anyitem/added".matches(regexes.get(0)), is(true));
-        assertThat("openhab/items/anyitem/removed".matches(regexes.get(0)), is(false));
-
-        regexes = SseUtil.convertToRegex("*added");
-        assertThat("openhab/items/anyitem/added".matches(regexes.get(0)), is(true));
-        assertThat("openhab/items/anyitem/removed".matches(regexes.get(0)), is(false));
-
-        regexes = SseUtil.convertToRegex("openhab/items/*/state");
-        assertThat("openhab/items/anyitem/state".matches(regexes.get(0)), is(true));
-        assertThat("openhab/items/anyitem/statechanged".matches(regexes.get(0)), is(false));
-    }
 }
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.rest;
+
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * A JSON string that has already been serialized and is written as is by the JSON message body writer.
+ * <p>
+ * This allows to serialize an entity once and send it to many clients, e.g. an event that is broadcast to SSE sinks.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public final class SerializedJSON {
+
+    private final byte[] bytes;
+
+    /**
+     * Constructor.
+     *
+     * @param json the serialized JSON
+     */
+    public SerializedJSON(final String json) {
+        this.bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the UTF-8 encoded JSON
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -36,6 +36,7 @@ import org.slf4j.LoggerFactory;
  * connection.
  *
  * @author Markus Rathgeb - Initial contribution
+ * @author agent - Send to indexed sinks
  *
  * @param <I> the type of the SSE event sink specific information
  */
@@ -98,24 +99,43 @@ public class SseBroadcaster<@NonNull I> implements Closeable {
                 return;
             }
 
-            if (sink.isClosed()) {
-                // We are using a concurrent collection, so we are allowed to modify the collection asynchronous (we
-                // don't know if there is currently an iteration in progress or not, but it does not matter).
-                handleRemoval(sink);
-                return;
+            send(sink, event);
+        });
+    }
+
+    /**
+     * Sends an event to the given sinks only, e.g. sinks looked up in an index, without testing all sinks. Sinks that
+     * have not been added to this broadcaster or have been removed meanwhile are skipped.
+     *
+     * @param event the event
+     * @param targets the sinks to send the event to
+     */
+    public void sendTo(final OutboundSseEvent event, final Iterable<SseEventSink> targets) {
+        targets.forEach(sink -> {
+            if (sinks.containsKey(sink)) {
+                send(sink, event);
             }
+        });
+    }
 
-            sink.send(event).exceptionally(throwable -> {
-                logger.debug("Sending event to sink failed", throwable);
+    private void send(final SseEventSink sink, final OutboundSseEvent event) {
+        if (sink.isClosed()) {
+            // We are using a concurrent collection, so we are allowed to modify the collection asynchronous (we
+            // don't know if there is currently an iteration in progress or not, but it does not matter).
+            handleRemoval(sink);
+            return;
+        }
 
-                close(sink);
+        sink.send(event).exceptionally(throwable -> {
+            logger.debug("Sending event to sink failed", throwable);
 
-                // We are using a concurrent collection, so we are allowed to modify the collection asynchronous (we
-                // don't know if there is currently an iteration in progress or not, but it does not matter).
-                handleRemoval(sink);
+            close(sink);
+
+            // We are using a concurrent collection, so we are allowed to modify the collection asynchronous (we
+            // don't know if there is currently an iteration in progress or not, but it does not matter).
+            handleRemoval(sink);
 
-                return null;
-            });
+            return null;
         });
     }
 
@@ -12,6 +12,7 @@
  */
 package org.openhab.core.io.transport.mqtt;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -30,7 +31,11 @@ import javax.net.ssl.TrustManagerFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.io.transport.mqtt.internal.PublishPipeline;
+import org.openhab.core.io.transport.mqtt.internal.RetainedMessageStore;
 import org.openhab.core.io.transport.mqtt.internal.Subscription;
+import org.openhab.core.io.transport.mqtt.internal.SubscriptionTrie;
 import org.openhab.core.io.transport.mqtt.internal.client.Mqtt3AsyncClientWrapper;
 import org.openhab.core.io.transport.mqtt.internal.client.Mqtt5AsyncClientWrapper;
 import org.openhab.core.io.transport.mqtt.internal.client.MqttAsyncClientWrapper;
@@ -58,6 +63,7 @@ import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
  * @author Markus Rathgeb - added connection state callback
  * @author Jan N. Klug - changed from PAHO to HiveMQ client
  * @author Mark Herwege - Added flag for hostname validation
+ * @author agent - Shared broker subscriptions, bounded retained messages and publish pipeline
  */
 @NonNullByDefault
 public class MqttBrokerConnection {
@@ -66,6 +72,9 @@ public class MqttBrokerConnection {
     public static final MqttVersion DEFAULT_MQTT_VERSION = MqttVersion.V3;
     public static final int DEFAULT_KEEPALIVE_INTERVAL = 60;
     public static final int DEFAULT_QOS = 0;
+    public static final long DEFAULT_RETAINED_MESSAGES_SIZE = 16 * 1024 * 1024;
+    public static final Path DEFAULT_RETAINED_MESSAGES_SPILL_DIRECTORY = Path.of(OpenHAB.getUserDataFolder(), "cache",
+            "org.openhab.core.io.transport.mqtt");
 
     /**
      * MQTT transport protocols
@@ -107,6 +116,9 @@ public class MqttBrokerConnection {
     protected boolean isConnecting = false;
     protected final List<MqttConnectionObserver> connectionObservers = new CopyOnWriteArrayList<>();
     protected final Map<String, Subscription> subscribers = new ConcurrentHashMap<>();
+    protected final SubscriptionTrie subscriptionTrie = new SubscriptionTrie();
+    protected final RetainedMessageStore retainedMessages;
+    protected final PublishPipeline publishPipeline = new PublishPipeline(this::publishRaw);
 
     // Connection timeout handling
     protected final AtomicReference<@Nullable ScheduledFuture<?>> timeoutFuture = new AtomicReference<>(null);
@@ -140,8 +152,12 @@ public class MqttBrokerConnection {
                 connection.reconnectStrategy.connectionEstablished();
             }
             List<CompletableFuture<Boolean>> futures = new ArrayList<>();
-            connection.subscribers.forEach((topic, subscription) -> {
-                futures.add(connection.subscribeRaw(topic, subscription));
+            connection.subscriptionTrie.getBrokerTopics().forEach(topic -> {
+                // covered topics that were served by a topic that is gone are served by this topic from now on
+                futures.add(connection.subscribeRaw(topic).thenApply(subscribed -> {
+                    connection.takeOver(topic);
+                    return subscribed;
+                }));
             });
 
             // As soon as all subscriptions are performed, turn the connection future complete.
@@ -273,6 +289,8 @@ public class MqttBrokerConnection {
         }
         this.port = port != null ? port : (secure ? 8883 : 1883);
         this.clientId = newClientID;
+        this.retainedMessages = new RetainedMessageStore(protocol + "://" + host + ":" + this.port + "/" + newClientID,
+                DEFAULT_RETAINED_MESSAGES_SIZE, DEFAULT_RETAINED_MESSAGES_SPILL_DIRECTORY);
         setReconnectStrategy(new PeriodicReconnectStrategy());
         connectionCallback = new ConnectionCallback(this);
     }
@@ -464,6 +482,71 @@ public class MqttBrokerConnection {
         this.unsubscribeOnStop = unsubscribeOnStop;
     }
 
+    /**
+     * Limit the memory used for retained messages, which are kept to replay them to new subscribers. If the limit is
+     * exceeded, the least recently used retained messages are written to the spill directory. Without a spill
+     * directory they are dropped, and new subscribers will only receive them when they are published again.
+     * By default {@value #DEFAULT_RETAINED_MESSAGES_SIZE} bytes are kept in memory and further messages are spilled
+     * to {@link #DEFAULT_RETAINED_MESSAGES_SPILL_DIRECTORY}. Connections can share a spill directory.
+     *
+     * @param maxSize maximum size of the retained messages kept in memory in bytes
+     * @param spillDirectory directory for retained messages exceeding the limit, or null to drop them
+     */
+    public void setRetainedMessagesLimit(long maxSize, @Nullable Path spillDirectory) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Retained messages size cannot be <0");
+        }
+        retainedMessages.setLimits(maxSize, spillDirectory);
+    }
+
+    /**
+     * Limit the number of messages that are published concurrently. Messages that are published while the limit is
+     * reached are queued and sent as soon as messages in flight complete. By default the number is not limited.
+     *
+     * @param maxInFlightMessages maximum number of messages that are not acknowledged by the broker or written to the
+     *            connection yet
+     */
+    public void setMaxInFlightMessages(int maxInFlightMessages) {
+        publishPipeline.setMaxInFlight(maxInFlightMessages);
+    }
+
+    /**
+     * Limit the number of published messages that wait for being sent. If the limit is reached, {@link #publish}
+     * completes exceptionally instead of queuing the message. By default at most
+     * {@value PublishPipeline#DEFAULT_MAX_QUEUED} messages are queued.
+     *
+     * @param maxQueuedMessages maximum number of messages that wait for being sent
+     */
+    public void setMaxQueuedMessages(int maxQueuedMessages) {
+        publishPipeline.setMaxQueued(maxQueuedMessages);
+    }
+
+    /**
+     * Enable / disable dropping queued messages that are superseded by a newer message for the same topic and with the
+     * same QoS and retain flag, before they have been sent. This only has an effect if the number of messages in flight
+     * is limited, see {@link #setMaxInFlightMessages(int)}. By default this behavior is set to false.
+     *
+     * @param dropSupersededMessages Enable or disable flag.
+     */
+    public void setDropSupersededMessages(boolean dropSupersededMessages) {
+        publishPipeline.setDropSuperseded(dropSupersededMessages);
+    }
+
+    /**
+     * Return the number of published messages that wait for being sent.
+     */
+    public int getQueuedMessageCount() {
+        return publishPipeline.getQueuedCount();
+    }
+
+    /**
+     * Return the number of published messages that are not acknowledged by the broker or written to the connection
+     * yet.
+     */
+    public int getInFlightMessageCount() {
+        return publishPipeline.getInFlightCount();
+    }
+
     /**
      * Get client id to use when connecting to the broker.
      *
@@ -521,6 +604,9 @@ public class MqttBrokerConnection {
      * If there is a retained message for the topic, you are guaranteed to receive a callback
      * for each new subscriber, even for the same topic.
      *
+     * A topic that is covered by the wildcards of another subscribed topic is not subscribed at the broker again.
+     * Its messages are delivered by the broker subscription of the covering topic instead.
+     *
      * @param topic The topic to subscribe to.
      * @param subscriber The callback listener for received messages for the given topic.
      * @return Completes with true if successful. Completes with false if not connected yet. Exceptionally otherwise.
@@ -529,17 +615,22 @@ public class MqttBrokerConnection {
         final Subscription subscription;
         final boolean needsSubscribe;
         synchronized (subscribers) {
-            subscription = subscribers.computeIfAbsent(topic, t -> new Subscription());
+            subscription = subscribers.computeIfAbsent(topic, t -> new Subscription(t, retainedMessages));
 
-            needsSubscribe = subscription.isEmpty();
+            needsSubscribe = subscription.isEmpty() && subscriptionTrie.add(topic, subscription);
 
-            subscription.add(subscriber);
+            // the broker sends the retained messages to a new broker subscription itself
+            subscription.add(subscriber, !needsSubscribe);
         }
 
         if (needsSubscribe) {
-            return subscribeRaw(topic, subscription);
+            return subscribeRaw(topic).thenApply(subscribed -> {
+                takeOver(topic);
+                return subscribed;
+            });
         }
-        return CompletableFuture.completedFuture(true);
+        final MqttAsyncClientWrapper mqttClient = this.client;
+        return CompletableFuture.completedFuture(mqttClient != null && mqttClient.getState().isConnected());
     }
 
     /**
@@ -548,12 +639,12 @@ public class MqttBrokerConnection {
      * @param topic The topic to subscribe to.
      * @return Completes with true if successful. Exceptionally otherwise.
      */
-    protected CompletableFuture<Boolean> subscribeRaw(String topic, Subscription subscription) {
+    protected CompletableFuture<Boolean> subscribeRaw(String topic) {
         logger.trace("subscribeRaw message consumer for topic '{}' from broker '{}'", topic, host);
         CompletableFuture<Boolean> future = new CompletableFuture<>();
         final MqttAsyncClientWrapper mqttClient = this.client;
         if (mqttClient != null && mqttClient.getState().isConnected()) {
-            mqttClient.subscribe(topic, qos, subscription).whenComplete((s, t) -> {
+            mqttClient.subscribe(topic, qos, subscriptionTrie).whenComplete((s, t) -> {
                 if (t == null) {
                     logger.trace("Successfully subscribed to topic {}", topic);
                     future.complete(true);
@@ -568,6 +659,23 @@ public class MqttBrokerConnection {
         return future;
     }
 
+    /**
+     * Lets a topic that has been subscribed at the broker deliver the messages of all topics it covers, and
+     * unsubscribes the topics that are not needed at the broker anymore.
+     *
+     * @param topic The topic that has been subscribed at the broker.
+     */
+    private void takeOver(String topic) {
+        final List<String> unneededTopics;
+        synchronized (subscribers) {
+            unneededTopics = subscriptionTrie.takeOver(topic);
+        }
+        MqttAsyncClientWrapper mqttClient = this.client;
+        if (mqttClient != null) {
+            unneededTopics.forEach(unneededTopic -> unsubscribeRaw(mqttClient, unneededTopic));
+        }
+    }
+
     /**
      * Remove a previously registered consumer from this connection.
      * If no more consumers are registered for a topic, the topic will be unsubscribed from.
@@ -578,7 +686,7 @@ public class MqttBrokerConnection {
      */
     @SuppressWarnings({ "null", "unused" })
     public CompletableFuture<Boolean> unsubscribe(String topic, MqttMessageSubscriber subscriber) {
-        final boolean needsUnsubscribe;
+        final @Nullable List<String> newBrokerTopics;
 
         synchronized (subscribers) {
             final @Nullable Subscription subscription = subscribers.get(topic);
@@ -589,19 +697,35 @@ public class MqttBrokerConnection {
             subscription.remove(subscriber);
 
             if (subscription.isEmpty()) {
-                needsUnsubscribe = true;
                 subscribers.remove(topic);
+                newBrokerTopics = subscriptionTrie.remove(topic);
+                if (newBrokerTopics != null) {
+                    // retained messages of topics not subscribed anymore will not be replayed to anyone
+                    retainedMessages.retainAll(subscriptionTrie::isSubscribed);
+                }
             } else {
-                needsUnsubscribe = false;
+                newBrokerTopics = null;
             }
         }
-        if (needsUnsubscribe) {
-            MqttAsyncClientWrapper mqttClient = this.client;
-            if (mqttClient != null) {
-                logger.trace("Subscriber list is empty after removing {}, unsubscribing topic {} from client",
-                        subscriber, topic);
-                return unsubscribeRaw(mqttClient, topic);
-            }
+        if (newBrokerTopics != null) {
+            // topics that were covered by the removed topic need to be subscribed before it can be unsubscribed. If
+            // subscribing fails, the removed topic keeps serving them and stays subscribed at the broker.
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            newBrokerTopics.forEach(newBrokerTopic -> {
+                futures.add(subscribeRaw(newBrokerTopic).thenApply(subscribed -> {
+                    takeOver(newBrokerTopic);
+                    return subscribed;
+                }));
+            });
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).thenCompose(v -> {
+                MqttAsyncClientWrapper mqttClient = this.client;
+                if (mqttClient != null) {
+                    logger.trace("Subscriber list is empty after removing {}, unsubscribing topic {} from client",
+                            subscriber, topic);
+                    return unsubscribeRaw(mqttClient, topic);
+                }
+                return CompletableFuture.completedFuture(true);
+            });
         }
         return CompletableFuture.completedFuture(true);
     }
@@ -748,10 +872,14 @@ public class MqttBrokerConnection {
         MqttAsyncClientWrapper client = this.client;
         List<CompletableFuture<Boolean>> futures = new ArrayList<>();
         if (client != null) {
-            subscribers.forEach((topic, subscription) -> {
-                futures.add(unsubscribeRaw(client, topic));
-            });
-            subscribers.clear();
+            synchronized (subscribers) {
+                subscriptionTrie.getBrokerTopics().forEach(topic -> {
+                    futures.add(unsubscribeRaw(client, topic));
+                });
+                subscribers.clear();
+                subscriptionTrie.clear();
+                retainedMessages.clear();
+            }
         }
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]));
     }
@@ -810,14 +938,28 @@ public class MqttBrokerConnection {
     /**
      * Publish a message to the broker with the given QoS and retained flag.
      *
+     * If the number of messages in flight is limited, the message is queued until it can be sent, see
+     * {@link #setMaxInFlightMessages(int)}.
+     *
      * @param topic The topic
      * @param payload The message payload
      * @param qos The quality of service for this message
      * @param retain Set to true to retain the message on the broker
      * @return Returns a future that completes with a result of true if the publishing succeeded and completes
-     *         exceptionally on an error or with a result of false if no broker connection is established.
+     *         exceptionally on an error or if too many messages are queued, see {@link #setMaxQueuedMessages(int)},
+     *         or with a result of false if no broker connection is established.
      */
     public CompletableFuture<Boolean> publish(String topic, byte[] payload, int qos, boolean retain) {
+        return publishPipeline.publish(topic, payload, qos, retain);
+    }
+
+    /**
+     * Publishes a message on the given connection, without passing the publish pipeline.
+     *
+     * @return Returns a future that completes with a result of true if the publishing succeeded and completes
+     *         exceptionally on an error or with a result of false if no broker connection is established.
+     */
+    protected CompletableFuture<Boolean> publishRaw(String topic, byte[] payload, int qos, boolean retain) {
         final MqttAsyncClientWrapper client = this.client;
         if (client == null) {
             return CompletableFuture.completedFuture(false);
@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.transport.mqtt.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.transport.mqtt.MqttException;
+
+/**
+ * This class limits the number of messages a connection publishes concurrently.
+ * <p>
+ * Messages are sent in the order they are published, as long as fewer than the maximum number of messages are in
+ * flight, i.e. not acknowledged by the broker (QoS 1 and 2) or not written to the connection (QoS 0). Other messages
+ * are queued and sent as a batch as soon as messages in flight complete. This way a burst of messages does not flood
+ * the client, and bursts of QoS 0 messages, which complete as soon as they are written, are sent in few passes.
+ * <p>
+ * The queue holds at most the configured number of messages. If it is full, further messages are rejected: their
+ * future completes exceptionally, so callers notice that they publish faster than the broker accepts messages.
+ * <p>
+ * Optionally, a queued message is dropped if a newer message with the same topic, QoS and retain flag is published
+ * before it has been sent. The future of the dropped message completes with the result of the newer message.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PublishPipeline {
+    public static final int DEFAULT_MAX_QUEUED = 10000;
+
+    /**
+     * Sends a message to the broker.
+     */
+    @FunctionalInterface
+    public interface Publisher {
+        /**
+         * Publish a message.
+         *
+         * @param topic the topic
+         * @param payload the message payload
+         * @param qos the quality of service for this message
+         * @param retain true to retain the message on the broker
+         * @return a future that completes with true if the message was published, with false if there is no broker
+         *         connection, and exceptionally on an error
+         */
+        CompletableFuture<Boolean> publish(String topic, byte[] payload, int qos, boolean retain);
+    }
+
+    private final Publisher publisher;
+    private final Queue<Message> queue = new ArrayDeque<>();
+    private final Map<String, Message> queuedByTopic = new HashMap<>();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private int maxInFlight = Integer.MAX_VALUE;
+    private int maxQueued = DEFAULT_MAX_QUEUED;
+    private boolean dropSuperseded = false;
+    private int queued = 0;
+    private int inFlight = 0;
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param publisher sends the messages to the broker
+     */
+    public PublishPipeline(Publisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * Set the maximum number of messages in flight. Messages that are already in flight are not affected.
+     *
+     * @param maxInFlight the maximum number of messages in flight
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Maximum number of messages in flight cannot be <=0");
+        }
+        synchronized (this) {
+            this.maxInFlight = maxInFlight;
+        }
+        drain();
+    }
+
+    /**
+     * Set the maximum number of messages waiting to be sent. Messages that are already queued are not affected.
+     *
+     * @param maxQueued the maximum number of queued messages
+     */
+    public synchronized void setMaxQueued(int maxQueued) {
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("Maximum number of queued messages cannot be <0");
+        }
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Enable / disable dropping queued messages that are superseded by a newer message for the same topic, QoS and
+     * retain flag.
+     *
+     * @param dropSuperseded true to drop superseded messages
+     */
+    public synchronized void setDropSuperseded(boolean dropSuperseded) {
+        this.dropSuperseded = dropSuperseded;
+        if (!dropSuperseded) {
+            queuedByTopic.clear();
+        }
+    }
+
+    /**
+     * Publish a message. The message is sent immediately or queued until fewer messages are in flight.
+     *
+     * @param topic the topic
+     * @param payload the message payload
+     * @param qos the quality of service for this message
+     * @param retain true to retain the message on the broker
+     * @return a future that completes with the result of the {@link Publisher}, or exceptionally if the queue is full
+     */
+    public CompletableFuture<Boolean> publish(String topic, byte[] payload, int qos, boolean retain) {
+        Message message = new Message(topic, payload, qos, retain);
+        synchronized (this) {
+            @Nullable
+            Message superseded = null;
+            if (dropSuperseded) {
+                superseded = queuedByTopic.get(topic);
+                if (superseded != null && (superseded.qos != qos || superseded.retain != retain)) {
+                    // do not downgrade the delivery of the queued message
+                    superseded = null;
+                }
+            }
+            if (superseded == null && queued >= maxQueued && inFlight >= maxInFlight) {
+                return CompletableFuture
+                        .failedFuture(new MqttException(new RejectedExecutionException("Publish queue is full")));
+            }
+            if (dropSuperseded) {
+                queuedByTopic.put(topic, message);
+            }
+            if (superseded != null) {
+                supersede(superseded, message);
+            }
+            queue.add(message);
+            queued++;
+        }
+        drain();
+        return message.future;
+    }
+
+    /**
+     * @return the number of messages waiting to be sent
+     */
+    public synchronized int getQueuedCount() {
+        return queued;
+    }
+
+    /**
+     * @return the number of messages sent, but not completed yet
+     */
+    public synchronized int getInFlightCount() {
+        return inFlight;
+    }
+
+    /**
+     * Sends queued messages while the maximum number of messages in flight is not reached. If messages complete
+     * while sending, the thread that is already sending continues, so completions do not cause recursion.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            List<Message> batch = new ArrayList<>();
+            synchronized (this) {
+                while (inFlight < maxInFlight && !queue.isEmpty()) {
+                    Message message = queue.remove();
+                    if (message.superseded) {
+                        continue;
+                    }
+                    if (queuedByTopic.get(message.topic) == message) {
+                        queuedByTopic.remove(message.topic);
+                    }
+                    batch.add(message);
+                    queued--;
+                    inFlight++;
+                }
+            }
+            batch.forEach(this::send);
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Drops a queued message. It stays in the queue, but is skipped when it is its turn.
+     */
+    private void supersede(Message superseded, Message message) {
+        superseded.superseded = true;
+        queued--;
+        message.future.whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                superseded.future.complete(result);
+            } else {
+                superseded.future.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    private void send(Message message) {
+        CompletableFuture<Boolean> future;
+        try {
+            future = publisher.publish(message.topic, message.payload, message.qos, message.retain);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, throwable) -> {
+            synchronized (this) {
+                inFlight--;
+            }
+            if (throwable == null) {
+                message.future.complete(result);
+            } else {
+                message.future.completeExceptionally(throwable);
+            }
+            drain();
+        });
+    }
+
+    private static class Message {
+        private final String topic;
+        private final byte[] payload;
+        private final int qos;
+        private final boolean retain;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private boolean superseded = false;
+
+        Message(String topic, byte[] payload, int qos, boolean retain) {
+            this.topic = topic;
+            this.payload = payload;
+            this.qos = qos;
+            this.retain = retain;
+        }
+    }
+}
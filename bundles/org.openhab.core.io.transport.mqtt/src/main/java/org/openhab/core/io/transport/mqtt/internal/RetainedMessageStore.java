@@ -0,0 +1,492 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.transport.mqtt.internal;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class stores the <b>retained</b> messages of a connection, so they can be replayed to new subscribers.
+ * <p>
+ * The messages are shared by all subscriptions of the connection and kept in memory up to a maximum size. If the
+ * maximum size is exceeded, the least recently used messages are written to a spill directory, or dropped if there is
+ * none. Spilled messages are read back when they are replayed. The topics of dropped messages are remembered, so the
+ * next message of such a topic is stored again.
+ * <p>
+ * The topics of the stored messages are kept in a trie of topic levels, so the messages matching a topic filter are
+ * found without comparing the filter to every topic. Spilled messages are written and deleted in the background, so
+ * receiving a message never waits for the disk, and they are read without holding the lock of the store.
+ * <p>
+ * The names of the spilled files start with a prefix that is unique for every store, so several stores, even of
+ * connections with the same parameters, can share a spill directory. Files written before the start of this process
+ * are deleted when the spill directory is set.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RetainedMessageStore {
+    private static final byte[] EMPTY_PAYLOAD = new byte[0];
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private final Logger logger = LoggerFactory.getLogger(RetainedMessageStore.class);
+
+    private final Map<String, byte[]> messages = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> spilledTopics = new HashSet<>();
+    private final Set<String> droppedTopics = new HashSet<>();
+    private final TopicNode topics = new TopicNode();
+    private final String filePrefix;
+    private long size = 0;
+
+    private long maxSize;
+    private @Nullable Path spillDirectory;
+
+    // spilled messages that have not been written yet, and spilled files that have not been deleted yet
+    private final Executor writer;
+    private final Map<String, byte[]> pendingWrites = new LinkedHashMap<>();
+    private final Map<String, Path> pendingDeletes = new LinkedHashMap<>();
+    private boolean writing = false;
+
+    /**
+     * Creates a store for retained messages.
+     *
+     * @param name the name of the store, which is part of the names of its files in the spill directory
+     * @param maxSize the maximum size of the messages kept in memory in bytes
+     * @param spillDirectory the directory to write messages exceeding the maximum size to, or null to drop them
+     */
+    public RetainedMessageStore(String name, long maxSize, @Nullable Path spillDirectory) {
+        this(name, maxSize, spillDirectory, ThreadPoolManager.getPool("mqtt"));
+    }
+
+    /**
+     * Creates a store for retained messages.
+     *
+     * @param name the name of the store, which is part of the names of its files in the spill directory
+     * @param maxSize the maximum size of the messages kept in memory in bytes
+     * @param spillDirectory the directory to write messages exceeding the maximum size to, or null to drop them
+     * @param writer the executor that writes and deletes the spilled files
+     */
+    RetainedMessageStore(String name, long maxSize, @Nullable Path spillDirectory, Executor writer) {
+        this.filePrefix = hash(name) + "-" + UUID.randomUUID() + "-";
+        this.maxSize = maxSize;
+        this.spillDirectory = spillDirectory;
+        this.writer = writer;
+        deleteLeftovers();
+    }
+
+    /**
+     * Changes the limits of the store. Messages exceeding the new maximum size are spilled or dropped immediately.
+     *
+     * @param maxSize the maximum size of the messages kept in memory in bytes
+     * @param spillDirectory the directory to write messages exceeding the maximum size to, or null to drop them
+     */
+    public synchronized void setLimits(long maxSize, @Nullable Path spillDirectory) {
+        boolean spillDirectoryChanged = !Objects.equals(spillDirectory, this.spillDirectory);
+        if (spillDirectoryChanged && !spilledTopics.isEmpty()) {
+            // spilled messages cannot be moved, they are replaced by the next retained message of their topic
+            for (String topic : spilledTopics) {
+                deleteSpilled(topic);
+                topics.remove(topic);
+            }
+            droppedTopics.addAll(spilledTopics);
+            spilledTopics.clear();
+        }
+        this.maxSize = maxSize;
+        this.spillDirectory = spillDirectory;
+        if (spillDirectoryChanged) {
+            deleteLeftovers();
+        }
+        evict();
+    }
+
+    /**
+     * Stores a message if it is retained.
+     * <p>
+     * http://docs.oasis-open.org/mqtt/mqtt/v3.1.1/os/mqtt-v3.1.1-os.html#_Toc385349265
+     * Only the first message delivered will have the retain flag; subsequent messages will not have the flag set. So
+     * see if we retained it in the past, and continue to retain it (even if it's now empty - we need to know to
+     * continue to retain it).
+     *
+     * @param topic the topic of the message
+     * @param payload the payload of the message
+     * @param retain the retain flag of the message
+     */
+    public synchronized void messageArrived(String topic, byte[] payload, boolean retain) {
+        if (!retain && !messages.containsKey(topic) && !spilledTopics.contains(topic)
+                && !droppedTopics.remove(topic)) {
+            return;
+        }
+        if (spilledTopics.remove(topic)) {
+            deleteSpilled(topic);
+        }
+        byte[] previous = messages.put(topic, payload.length > 0 ? payload : EMPTY_PAYLOAD);
+        if (previous != null) {
+            size -= cost(topic, previous);
+        } else {
+            topics.add(topic);
+        }
+        size += cost(topic, payload);
+        evict();
+    }
+
+    /**
+     * Returns the retained messages matching a topic filter. Messages with an empty payload are omitted.
+     *
+     * @param topicFilter the topic filter
+     * @return the payloads of the matching messages by topic
+     */
+    public Map<String, byte[]> get(String topicFilter) {
+        Map<String, byte[]> result = new LinkedHashMap<>();
+        List<String> spilled = new ArrayList<>();
+        Path spillDirectory;
+        synchronized (this) {
+            List<String> matching = new ArrayList<>();
+            topics.collect(topicFilter.split("/", -1), 0, matching);
+            for (String topic : matching) {
+                byte[] payload = messages.get(topic);
+                if (payload == null) {
+                    payload = pendingWrites.get(topic);
+                }
+                if (payload != null) {
+                    if (payload.length > 0) {
+                        result.put(topic, payload);
+                    }
+                } else if (spilledTopics.contains(topic)) {
+                    spilled.add(topic);
+                }
+            }
+            spillDirectory = this.spillDirectory;
+        }
+        if (spillDirectory == null) {
+            return result;
+        }
+
+        // the spilled files are read without blocking the messages arriving in the meantime
+        for (String topic : spilled) {
+            byte[] payload = readSpilled(spillDirectory, topic);
+            if (payload == null) {
+                synchronized (this) {
+                    // the message has been replaced or removed in the meantime
+                    payload = messages.get(topic);
+                    if (payload == null && spilledTopics.contains(topic)) {
+                        logger.warn("Failed to read retained message of topic '{}' from {}", topic, spillDirectory);
+                    }
+                }
+            }
+            if (payload != null && payload.length > 0) {
+                result.put(topic, payload);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the messages of all topics that do not match the given condition.
+     *
+     * @param condition the condition for the topics of the messages to keep
+     */
+    public synchronized void retainAll(Predicate<String> condition) {
+        for (Iterator<Entry<String, byte[]>> iterator = messages.entrySet().iterator(); iterator.hasNext();) {
+            Entry<String, byte[]> entry = iterator.next();
+            if (!condition.test(entry.getKey())) {
+                size -= cost(entry.getKey(), entry.getValue());
+                topics.remove(entry.getKey());
+                iterator.remove();
+            }
+        }
+        for (Iterator<String> iterator = spilledTopics.iterator(); iterator.hasNext();) {
+            String topic = iterator.next();
+            if (!condition.test(topic)) {
+                deleteSpilled(topic);
+                topics.remove(topic);
+                iterator.remove();
+            }
+        }
+        droppedTopics.removeIf(topic -> !condition.test(topic));
+    }
+
+    /**
+     * Removes all messages.
+     */
+    public synchronized void clear() {
+        messages.clear();
+        size = 0;
+        spilledTopics.forEach(this::deleteSpilled);
+        spilledTopics.clear();
+        droppedTopics.clear();
+        topics.children.clear();
+    }
+
+    /**
+     * @return the size of the messages kept in memory in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of topics with a retained message, in memory or spilled
+     */
+    public synchronized int getCount() {
+        return messages.size() + spilledTopics.size();
+    }
+
+    private void evict() {
+        Iterator<Entry<String, byte[]>> iterator = messages.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Entry<String, byte[]> eldest = iterator.next();
+            iterator.remove();
+            size -= cost(eldest.getKey(), eldest.getValue());
+            if (spillDirectory != null) {
+                spilledTopics.add(eldest.getKey());
+                pendingWrites.put(eldest.getKey(), eldest.getValue());
+                scheduleWriting();
+            } else {
+                droppedTopics.add(eldest.getKey());
+                topics.remove(eldest.getKey());
+            }
+        }
+    }
+
+    private static long cost(String topic, byte[] payload) {
+        return topic.length() + payload.length;
+    }
+
+    private void deleteSpilled(String topic) {
+        // the file may be written at the moment, so it is deleted by the writer afterwards in any case
+        pendingWrites.remove(topic);
+        Path spillDirectory = this.spillDirectory;
+        if (spillDirectory != null) {
+            pendingDeletes.put(topic, spillDirectory);
+            scheduleWriting();
+        }
+    }
+
+    private void scheduleWriting() {
+        if (!writing) {
+            writing = true;
+            writer.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Deletes and writes the spilled files in the background until nothing is pending anymore. Files are only
+     * handled by one thread at a time, so a file is never deleted before it has been written.
+     */
+    private void writePending() {
+        while (true) {
+            Map<String, Path> deletes;
+            Map<String, byte[]> writes;
+            Path spillDirectory;
+            synchronized (this) {
+                if (pendingDeletes.isEmpty() && pendingWrites.isEmpty()) {
+                    writing = false;
+                    return;
+                }
+                deletes = new HashMap<>(pendingDeletes);
+                pendingDeletes.clear();
+                writes = new LinkedHashMap<>(pendingWrites);
+                spillDirectory = this.spillDirectory;
+            }
+
+            deletes.forEach((topic, directory) -> {
+                try {
+                    Files.deleteIfExists(directory.resolve(fileName(topic)));
+                } catch (IOException e) {
+                    logger.debug("Failed to delete retained message of topic '{}' from {}: {}", topic, directory,
+                            e.getMessage());
+                }
+            });
+
+            List<String> failed = new ArrayList<>();
+            if (spillDirectory != null && !writes.isEmpty()) {
+                try {
+                    Files.createDirectories(spillDirectory);
+                    for (Entry<String, byte[]> write : writes.entrySet()) {
+                        try {
+                            Files.write(spillDirectory.resolve(fileName(write.getKey())), write.getValue());
+                        } catch (IOException e) {
+                            logger.warn("Failed to write retained message of topic '{}' to {}: {}", write.getKey(),
+                                    spillDirectory, e.getMessage());
+                            failed.add(write.getKey());
+                        }
+                    }
+                } catch (IOException e) {
+                    logger.warn("Failed to create spill directory {}: {}", spillDirectory, e.getMessage());
+                    failed.addAll(writes.keySet());
+                }
+            }
+
+            synchronized (this) {
+                writes.forEach((topic, payload) -> {
+                    // the message is only dropped if it has not been replaced or removed in the meantime
+                    if (pendingWrites.remove(topic, payload) && failed.contains(topic)) {
+                        spilledTopics.remove(topic);
+                        droppedTopics.add(topic);
+                        topics.remove(topic);
+                    }
+                });
+            }
+        }
+    }
+
+    private byte @Nullable [] readSpilled(Path spillDirectory, String topic) {
+        try {
+            return Files.readAllBytes(spillDirectory.resolve(fileName(topic)));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void deleteLeftovers() {
+        Path spillDirectory = this.spillDirectory;
+        if (spillDirectory == null || !Files.isDirectory(spillDirectory)) {
+            return;
+        }
+        // files of running stores are never older than the process
+        long processStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDirectory)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < processStart) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to delete retained messages of a previous run from {}: {}", spillDirectory,
+                    e.getMessage());
+        }
+    }
+
+    private String fileName(String topic) {
+        return filePrefix + hash(topic);
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A level of the topics of the stored messages.
+     */
+    private static class TopicNode {
+        private final Map<String, TopicNode> children = new HashMap<>();
+        private @Nullable String topic;
+
+        void add(String topic) {
+            TopicNode node = this;
+            for (String level : topic.split("/", -1)) {
+                node = node.children.computeIfAbsent(level, l -> new TopicNode());
+            }
+            node.topic = topic;
+        }
+
+        void remove(String topic) {
+            String[] levels = topic.split("/", -1);
+            List<TopicNode> path = new ArrayList<>();
+            TopicNode node = this;
+            for (String level : levels) {
+                path.add(node);
+                node = node.children.get(level);
+                if (node == null) {
+                    return;
+                }
+            }
+            node.topic = null;
+            for (int i = levels.length - 1; i >= 0 && node.topic == null && node.children.isEmpty(); i--) {
+                node = path.get(i);
+                node.children.remove(levels[i]);
+            }
+        }
+
+        /**
+         * Collects the topics below this node matching the levels of a topic filter from the given index on. Topics
+         * starting with '$' are not matched by a wildcard in the first level.
+         */
+        void collect(String[] levels, int i, List<String> result) {
+            if (i == levels.length) {
+                String topic = this.topic;
+                if (topic != null) {
+                    result.add(topic);
+                }
+                return;
+            }
+            String level = levels[i];
+            if (MULTI_LEVEL_WILDCARD.equals(level)) {
+                // "a/#" also matches "a"
+                String topic = this.topic;
+                if (topic != null && i > 0) {
+                    result.add(topic);
+                }
+                children.forEach((childLevel, child) -> {
+                    if (i > 0 || !childLevel.startsWith("$")) {
+                        child.collectAll(result);
+                    }
+                });
+            } else if (SINGLE_LEVEL_WILDCARD.equals(level)) {
+                children.forEach((childLevel, child) -> {
+                    if (i > 0 || !childLevel.startsWith("$")) {
+                        child.collect(levels, i + 1, result);
+                    }
+                });
+            } else {
+                TopicNode child = children.get(level);
+                if (child != null) {
+                    child.collect(levels, i + 1, result);
+                }
+            }
+        }
+
+        private void collectAll(List<String> result) {
+            String topic = this.topic;
+            if (topic != null) {
+                result.add(topic);
+            }
+            children.values().forEach(child -> child.collectAll(result));
+        }
+    }
+}
@@ -13,7 +13,6 @@
 package org.openhab.core.io.transport.mqtt.internal;
 
 import java.util.Collection;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -28,12 +27,25 @@ import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
  * <b>Retained</b> messages for the topic are stored so they can be replayed to new subscribers.
  *
  * @author Jochen Klein - Initial contribution
+ * @author agent - Retained messages are kept in a store shared by all subscriptions
  */
 @NonNullByDefault
 public class Subscription {
-    private final Map<String, byte[]> retainedMessages = new ConcurrentHashMap<>();
+    private final String topic;
+    private final RetainedMessageStore retainedMessages;
     private final Collection<MqttMessageSubscriber> subscribers = ConcurrentHashMap.newKeySet();
 
+    /**
+     * Create a subscription.
+     *
+     * @param topic the topic filter of the subscription
+     * @param retainedMessages the store of the retained messages of the connection
+     */
+    public Subscription(String topic, RetainedMessageStore retainedMessages) {
+        this.topic = topic;
+        this.retainedMessages = retainedMessages;
+    }
+
     /**
      * Add a new subscriber.
      * <p>
@@ -42,12 +54,23 @@ public class Subscription {
      * @param subscriber
      */
     public void add(MqttMessageSubscriber subscriber) {
-        if (subscribers.add(subscriber)) {
+        add(subscriber, true);
+    }
+
+    /**
+     * Add a new subscriber.
+     * <p>
+     * A subscription that is subscribed at the broker for this subscriber receives the retained messages from the
+     * broker, so they should only be replayed if the subscriber is served by an existing broker subscription.
+     *
+     * @param subscriber
+     * @param replayRetained true to deliver the known retained messages to the subscriber
+     */
+    public void add(MqttMessageSubscriber subscriber, boolean replayRetained) {
+        if (subscribers.add(subscriber) && replayRetained) {
             // new subscriber. deliver all known retained messages
-            retainedMessages.entrySet().stream().forEach(entry -> {
-                if (entry.getValue().length > 0) {
-                    processMessage(subscriber, entry.getKey(), entry.getValue());
-                }
+            retainedMessages.get(topic).forEach((retainedTopic, payload) -> {
+                processMessage(subscriber, retainedTopic, payload);
             });
         }
     }
@@ -74,13 +97,7 @@ public class Subscription {
     }
 
     public void messageArrived(String topic, byte[] payload, boolean retain) {
-        // http://docs.oasis-open.org/mqtt/mqtt/v3.1.1/os/mqtt-v3.1.1-os.html#_Toc385349265
-        // Only the first message delivered will have the retain flag; subsequent messages
-        // will not have the flag set. So see if we retained it in the past, and continue
-        // to retain it (even if it's now empty - we need to know to continue to retain it)
-        if (retain || retainedMessages.containsKey(topic)) {
-            retainedMessages.put(topic, payload);
-        }
+        retainedMessages.messageArrived(topic, payload, retain);
         subscribers.stream().forEach(subscriber -> processMessage(subscriber, topic, payload));
     }
 
@@ -0,0 +1,378 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.transport.mqtt.internal;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3Publish;
+import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
+
+/**
+ * This class keeps the {@link Subscription}s of a connection in a trie of topic levels, so the subscriptions matching
+ * the topic of a message can be found without comparing the topic to every topic filter.
+ * <p>
+ * Only topic filters that are not covered by another topic filter are subscribed at the broker. If, for example,
+ * <code>homie/#</code> is subscribed, a subscription for <code>homie/+/+/$state</code> does not need its own broker
+ * subscription. Every subscription is served by exactly one broker subscription, and a message arriving for a broker
+ * subscription is delivered to all matching subscriptions served by it. This way a message is never delivered twice,
+ * even if the topic filters of several broker subscriptions overlap.
+ * <p>
+ * Modifications are synchronized, messages can be dispatched concurrently.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SubscriptionTrie {
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private final Node root = new Node();
+    private final Set<String> brokerTopics = new HashSet<>();
+
+    /**
+     * Adds a subscription for a topic filter.
+     * <p>
+     * If the topic filter is covered by a topic filter subscribed at the broker, the subscription is served by that
+     * broker subscription.
+     *
+     * @param topic the topic filter
+     * @param subscription the subscription
+     * @return true if the topic filter needs to be subscribed at the broker, false otherwise
+     */
+    public synchronized boolean add(String topic, Subscription subscription) {
+        Node node = root;
+        for (String level : topic.split("/", -1)) {
+            node = node.children.computeIfAbsent(level, l -> new Node());
+        }
+        node.topic = topic;
+        node.subscription = subscription;
+
+        Node covering = findCovering(topic);
+        if (covering != null) {
+            node.brokerTopic = covering.topic;
+            return false;
+        }
+        node.brokerTopic = topic;
+        brokerTopics.add(topic);
+        return true;
+    }
+
+    /**
+     * Removes the subscription for a topic filter.
+     * <p>
+     * If the topic filter was subscribed at the broker, the subscriptions it served are handed over to other broker
+     * subscriptions. Subscriptions that are not covered by another broker subscription keep being served by the
+     * removed topic filter, until one of the returned topic filters {@link #takeOver(String) takes them over}.
+     *
+     * @param topic the topic filter
+     * @return the topic filters that need to be subscribed at the broker before the removed topic filter can be
+     *         unsubscribed, or null if the removed topic filter was not subscribed at the broker
+     */
+    public synchronized @Nullable List<String> remove(String topic) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        for (String level : topic.split("/", -1)) {
+            path.add(node);
+            node = node.children.get(level);
+            if (node == null) {
+                return null;
+            }
+        }
+        node.topic = null;
+        node.subscription = null;
+        node.brokerTopic = null;
+        String[] levels = topic.split("/", -1);
+        for (int i = levels.length - 1; i >= 0 && node.isEmpty(); i--) {
+            Node parent = path.get(i);
+            parent.children.remove(levels[i]);
+            node = parent;
+        }
+
+        if (!brokerTopics.remove(topic)) {
+            return null;
+        }
+
+        List<Node> orphans = new ArrayList<>();
+        for (Node covered : findCovered(topic)) {
+            if (!topic.equals(covered.brokerTopic)) {
+                continue;
+            }
+            Node covering = findCovering(covered.topic);
+            if (covering != null) {
+                covered.brokerTopic = covering.topic;
+            } else {
+                orphans.add(covered);
+            }
+        }
+        List<String> newBrokerTopics = new ArrayList<>();
+        for (Node orphan : orphans) {
+            String orphanTopic = orphan.topic;
+            if (orphanTopic != null && orphans.stream()
+                    .noneMatch(o -> o != orphan && o.topic != null && covers(o.topic, orphanTopic))) {
+                brokerTopics.add(orphanTopic);
+                newBrokerTopics.add(orphanTopic);
+            }
+        }
+        return newBrokerTopics;
+    }
+
+    /**
+     * Lets a topic filter that has been subscribed at the broker serve all subscriptions it covers.
+     *
+     * @param topic the topic filter subscribed at the broker
+     * @return the topic filters that are not needed at the broker anymore and can be unsubscribed
+     */
+    public synchronized List<String> takeOver(String topic) {
+        List<String> unneededBrokerTopics = new ArrayList<>();
+        if (!brokerTopics.contains(topic)) {
+            return unneededBrokerTopics;
+        }
+        for (Node covered : findCovered(topic)) {
+            String coveredTopic = covered.topic;
+            if (coveredTopic != null && brokerTopics.remove(coveredTopic)) {
+                unneededBrokerTopics.add(coveredTopic);
+            }
+            covered.brokerTopic = topic;
+        }
+        Node node = find(topic);
+        if (node != null) {
+            node.brokerTopic = topic;
+        }
+        return unneededBrokerTopics;
+    }
+
+    /**
+     * @return the topic filters that are subscribed at the broker
+     */
+    public synchronized List<String> getBrokerTopics() {
+        return new ArrayList<>(brokerTopics);
+    }
+
+    /**
+     * Removes all subscriptions.
+     */
+    public synchronized void clear() {
+        root.children.clear();
+        brokerTopics.clear();
+    }
+
+    public void messageArrived(String brokerTopic, Mqtt3Publish message) {
+        messageArrived(brokerTopic, message.getTopic().toString(), message.getPayloadAsBytes(), message.isRetain());
+    }
+
+    public void messageArrived(String brokerTopic, Mqtt5Publish message) {
+        messageArrived(brokerTopic, message.getTopic().toString(), message.getPayloadAsBytes(), message.isRetain());
+    }
+
+    /**
+     * Delivers a message that arrived for a broker subscription to all matching subscriptions served by it.
+     *
+     * @param brokerTopic the topic filter of the broker subscription
+     * @param topic the topic of the message
+     * @param payload the payload of the message
+     * @param retain whether the message is retained
+     */
+    public void messageArrived(String brokerTopic, String topic, byte[] payload, boolean retain) {
+        String[] levels = topic.split("/", -1);
+        List<Subscription> subscriptions = new ArrayList<>();
+        collectMatching(root, levels, 0, brokerTopic, subscriptions);
+        subscriptions.forEach(subscription -> subscription.messageArrived(topic, payload, retain));
+    }
+
+    /**
+     * Checks whether all topics matched by a topic filter are matched by another topic filter, too. A topic filter
+     * without wildcards is a topic, so this can also be used to check whether a topic filter matches a topic.
+     *
+     * @param topic the covering topic filter
+     * @param other the covered topic filter or topic
+     * @return true if the topic filter covers the other one
+     */
+    public static boolean covers(String topic, String other) {
+        String[] levels = topic.split("/", -1);
+        String[] otherLevels = other.split("/", -1);
+        for (int i = 0; i < levels.length; i++) {
+            if (MULTI_LEVEL_WILDCARD.equals(levels[i])) {
+                return i > 0 || !other.startsWith("$");
+            }
+            if (i == otherLevels.length || MULTI_LEVEL_WILDCARD.equals(otherLevels[i])) {
+                return false;
+            }
+            if (SINGLE_LEVEL_WILDCARD.equals(levels[i])) {
+                if (i == 0 && other.startsWith("$")) {
+                    return false;
+                }
+            } else if (!levels[i].equals(otherLevels[i])) {
+                return false;
+            }
+        }
+        return levels.length == otherLevels.length;
+    }
+
+    /**
+     * Checks whether a topic is covered by a topic filter subscribed at the broker, so messages of the topic are
+     * delivered to at least one subscription.
+     *
+     * @param topic the topic
+     * @return true if the topic is subscribed
+     */
+    public synchronized boolean isSubscribed(String topic) {
+        List<Node> result = new ArrayList<>();
+        collectCovering(root, topic.split("/", -1), 0, result);
+        return result.stream().anyMatch(node -> brokerTopics.contains(node.topic));
+    }
+
+    private @Nullable Node find(String topic) {
+        Node node = root;
+        for (String level : topic.split("/", -1)) {
+            node = node.children.get(level);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Finds a topic filter subscribed at the broker that covers a topic filter.
+     */
+    private @Nullable Node findCovering(@Nullable String topic) {
+        if (topic == null) {
+            return null;
+        }
+        List<Node> result = new ArrayList<>();
+        collectCovering(root, topic.split("/", -1), 0, result);
+        return result.stream().filter(node -> !topic.equals(node.topic) && brokerTopics.contains(node.topic))
+                .findFirst().orElse(null);
+    }
+
+    private void collectCovering(Node node, String[] levels, int i, List<Node> result) {
+        Node multiLevel = node.children.get(MULTI_LEVEL_WILDCARD);
+        if (multiLevel != null && multiLevel.topic != null && (i > 0 || !levels[0].startsWith("$"))) {
+            result.add(multiLevel);
+        }
+        if (i == levels.length) {
+            if (node.topic != null) {
+                result.add(node);
+            }
+            return;
+        }
+        String level = levels[i];
+        if (MULTI_LEVEL_WILDCARD.equals(level)) {
+            return;
+        }
+        Node singleLevel = node.children.get(SINGLE_LEVEL_WILDCARD);
+        if (singleLevel != null && (i > 0 || !level.startsWith("$"))) {
+            collectCovering(singleLevel, levels, i + 1, result);
+        }
+        if (!SINGLE_LEVEL_WILDCARD.equals(level)) {
+            Node child = node.children.get(level);
+            if (child != null) {
+                collectCovering(child, levels, i + 1, result);
+            }
+        }
+    }
+
+    /**
+     * Finds all topic filters covered by a topic filter, except the topic filter itself.
+     */
+    private List<Node> findCovered(String topic) {
+        List<Node> result = new ArrayList<>();
+        collectCovered(root, topic.split("/", -1), 0, result);
+        result.removeIf(node -> topic.equals(node.topic));
+        return result;
+    }
+
+    private void collectCovered(Node node, String[] levels, int i, List<Node> result) {
+        if (i == levels.length) {
+            if (node.topic != null) {
+                result.add(node);
+            }
+            return;
+        }
+        String level = levels[i];
+        if (MULTI_LEVEL_WILDCARD.equals(level)) {
+            if (node.topic != null) {
+                result.add(node);
+            }
+            node.children.forEach((childLevel, child) -> {
+                if (i > 0 || !childLevel.startsWith("$")) {
+                    collectSubtree(child, result);
+                }
+            });
+        } else if (SINGLE_LEVEL_WILDCARD.equals(level)) {
+            node.children.forEach((childLevel, child) -> {
+                if (!MULTI_LEVEL_WILDCARD.equals(childLevel) && (i > 0 || !childLevel.startsWith("$"))) {
+                    collectCovered(child, levels, i + 1, result);
+                }
+            });
+        } else {
+            Node child = node.children.get(level);
+            if (child != null) {
+                collectCovered(child, levels, i + 1, result);
+            }
+        }
+    }
+
+    private void collectSubtree(Node node, List<Node> result) {
+        if (node.topic != null) {
+            result.add(node);
+        }
+        node.children.values().forEach(child -> collectSubtree(child, result));
+    }
+
+    private void collectMatching(Node node, String[] levels, int i, String brokerTopic,
+            List<Subscription> result) {
+        Node multiLevel = node.children.get(MULTI_LEVEL_WILDCARD);
+        if (multiLevel != null && (i > 0 || !levels[0].startsWith("$"))) {
+            multiLevel.collectIfServedBy(brokerTopic, result);
+        }
+        if (i == levels.length) {
+            node.collectIfServedBy(brokerTopic, result);
+            return;
+        }
+        Node singleLevel = node.children.get(SINGLE_LEVEL_WILDCARD);
+        if (singleLevel != null && (i > 0 || !levels[0].startsWith("$"))) {
+            collectMatching(singleLevel, levels, i + 1, brokerTopic, result);
+        }
+        Node child = node.children.get(levels[i]);
+        if (child != null) {
+            collectMatching(child, levels, i + 1, brokerTopic, result);
+        }
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new ConcurrentHashMap<>();
+        private volatile @Nullable String topic;
+        private volatile @Nullable Subscription subscription;
+        private volatile @Nullable String brokerTopic;
+
+        boolean isEmpty() {
+            return topic == null && children.isEmpty();
+        }
+
+        void collectIfServedBy(String brokerTopic, List<Subscription> result) {
+            Subscription subscription = this.subscription;
+            if (subscription != null && brokerTopic.equals(this.brokerTopic)) {
+                result.add(subscription);
+            }
+        }
+    }
+}
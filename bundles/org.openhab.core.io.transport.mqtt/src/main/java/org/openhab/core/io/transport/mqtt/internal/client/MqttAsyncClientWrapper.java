@@ -20,7 +20,7 @@ import javax.net.ssl.SSLSession;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.io.transport.mqtt.MqttWillAndTestament;
-import org.openhab.core.io.transport.mqtt.internal.Subscription;
+import org.openhab.core.io.transport.mqtt.internal.SubscriptionTrie;
 
 import com.hivemq.client.mqtt.MqttClientState;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
@@ -75,10 +75,10 @@ public abstract class MqttAsyncClientWrapper implements HostnameVerifier {
      *
      * @param topic the topic
      * @param qos QoS for this subscription
-     * @param subscription the subscription which keeps track of subscribers and retained messages
+     * @param subscriptions the subscriptions to deliver the messages of the topic to
      * @return a CompletableFuture (exceptionally on fail)
      */
-    public abstract CompletableFuture<?> subscribe(String topic, int qos, Subscription subscription);
+    public abstract CompletableFuture<?> subscribe(String topic, int qos, SubscriptionTrie subscriptions);
 
     /**
      * unsubscribes from a topic
@@ -19,6 +19,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -43,6 +44,7 @@ import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3Publish;
  *
  * @author David Graeff - Initial contribution
  * @author Jan N. Klug - adjusted to HiveMQ client
+ * @author agent - Shared broker subscriptions
  */
 @NonNullByDefault
 public class MqttBrokerConnectionTests extends JavaTest {
@@ -109,6 +111,65 @@ public class MqttBrokerConnectionTests extends JavaTest {
         verify(subscriber3).processMessage(eq("homie/device123/$name"), eqHelloBytes());
     }
 
+    @SuppressWarnings("null")
+    @Test
+    public void coveredTopicsShareBrokerSubscription()
+            throws ConfigurationException, MqttException, InterruptedException, ExecutionException, TimeoutException {
+        MqttBrokerConnectionEx connection = new MqttBrokerConnectionEx("123.123.123.123", null, false, false,
+                "MqttBrokerConnectionTests");
+        assertTrue(connection.start().get(200, TimeUnit.MILLISECONDS));
+        MqttAsyncClientWrapper client = connection.client;
+
+        MqttMessageSubscriber subscriber = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber subscriber2 = mock(MqttMessageSubscriber.class);
+        assertTrue(connection.subscribe("homie/+/+/$state", subscriber).get(200, TimeUnit.MILLISECONDS));
+        assertTrue(connection.subscribe("homie/#", subscriber2).get(200, TimeUnit.MILLISECONDS));
+
+        // the covered topic is not needed at the broker anymore
+        verify(client).subscribe(eq("homie/+/+/$state"), anyInt(), any());
+        verify(client).subscribe(eq("homie/#"), anyInt(), any());
+        verify(client).unsubscribe("homie/+/+/$state");
+
+        // messages of the covering broker subscription are delivered to all matching subscriptions, once
+        connection.subscriptionTrie.messageArrived("homie/#", "homie/device123/node/$state", HELLO_BYTES, false);
+        connection.subscriptionTrie.messageArrived("homie/#", "homie/device123/$name", HELLO_BYTES, false);
+        verify(subscriber).processMessage(eq("homie/device123/node/$state"), eqHelloBytes());
+        verify(subscriber2).processMessage(eq("homie/device123/node/$state"), eqHelloBytes());
+        verify(subscriber2).processMessage(eq("homie/device123/$name"), eqHelloBytes());
+        verifyNoMoreInteractions(subscriber, subscriber2);
+
+        // the covered topic is subscribed again if the covering topic is unsubscribed
+        assertTrue(connection.unsubscribe("homie/#", subscriber2).get(200, TimeUnit.MILLISECONDS));
+        verify(client, times(2)).subscribe(eq("homie/+/+/$state"), anyInt(), any());
+        verify(client).unsubscribe("homie/#");
+        assertThat(connection.subscriptionTrie.getBrokerTopics(), is(List.of("homie/+/+/$state")));
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    public void coveringTopicIsKeptIfCoveredTopicCannotBeSubscribed()
+            throws ConfigurationException, MqttException, InterruptedException, ExecutionException, TimeoutException {
+        MqttBrokerConnectionEx connection = new MqttBrokerConnectionEx("123.123.123.123", null, false, false,
+                "MqttBrokerConnectionTests");
+        MqttMessageSubscriber subscriber = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber subscriber2 = mock(MqttMessageSubscriber.class);
+
+        // a covered topic is not subscribed before a connection is established
+        assertFalse(connection.subscribe("homie/#", subscriber2).get(200, TimeUnit.MILLISECONDS));
+        assertFalse(connection.subscribe("homie/+/+/$state", subscriber).get(200, TimeUnit.MILLISECONDS));
+
+        assertTrue(connection.start().get(200, TimeUnit.MILLISECONDS));
+        MqttAsyncClientWrapper client = connection.client;
+        connection.subscribeSuccess = false;
+        assertThrows(ExecutionException.class,
+                () -> connection.unsubscribe("homie/#", subscriber2).get(200, TimeUnit.MILLISECONDS));
+
+        // the covered topic is still served by the covering topic
+        verify(client, never()).unsubscribe("homie/#");
+        connection.subscriptionTrie.messageArrived("homie/#", "homie/device123/node/$state", HELLO_BYTES, false);
+        verify(subscriber).processMessage(eq("homie/device123/node/$state"), eqHelloBytes());
+    }
+
     @Test
     public void subscriber()
             throws ConfigurationException, MqttException, InterruptedException, ExecutionException, TimeoutException {
@@ -167,6 +228,23 @@ public class MqttBrokerConnectionTests extends JavaTest {
         verify(subscriber2).processMessage(eq("topic"), eqGoodbyeBytes());
     }
 
+    @Test
+    public void retainedMessagesAreNotReplayedToNewBrokerSubscriptions()
+            throws ConfigurationException, MqttException, InterruptedException, ExecutionException, TimeoutException {
+        MqttBrokerConnectionEx connection = new MqttBrokerConnectionEx("123.123.123.123", null, false, false,
+                "MqttBrokerConnectionTests");
+        assertTrue(connection.start().get(200, TimeUnit.MILLISECONDS));
+
+        MqttMessageSubscriber subscriber1 = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber subscriber2 = mock(MqttMessageSubscriber.class);
+        connection.subscribe("homie/#", subscriber1);
+        connection.subscriptionTrie.messageArrived("homie/#", "homie/device123/$name", HELLO_BYTES, true);
+
+        // the broker sends the retained message to the new broker subscription
+        connection.subscribe("+/device123/$name", subscriber2);
+        verify(subscriber2, never()).processMessage(any(), any());
+    }
+
     @Test
     public void reconnectPolicyDefault() throws ConfigurationException, MqttException, InterruptedException {
         MqttBrokerConnectionEx connection = new MqttBrokerConnectionEx("123.123.123.123", null, false, false,
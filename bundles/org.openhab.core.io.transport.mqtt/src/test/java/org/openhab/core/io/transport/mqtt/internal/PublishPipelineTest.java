@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.transport.mqtt.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link PublishPipeline} class
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PublishPipelineTest {
+    private static final byte[] PAYLOAD = "payload".getBytes();
+
+    private final List<String> sentTopics = new ArrayList<>();
+    private final List<CompletableFuture<Boolean>> sentFutures = new ArrayList<>();
+    private final PublishPipeline pipeline = new PublishPipeline((topic, payload, qos, retain) -> {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        sentTopics.add(topic);
+        sentFutures.add(future);
+        return future;
+    });
+
+    @Test
+    public void messagesAreSentImmediatelyByDefault() {
+        for (int i = 0; i < 5; i++) {
+            pipeline.publish("topic/" + i, PAYLOAD, 0, false);
+        }
+
+        assertThat(sentTopics, hasSize(5));
+        assertThat(pipeline.getInFlightCount(), is(5));
+        assertThat(pipeline.getQueuedCount(), is(0));
+    }
+
+    @Test
+    public void messagesAreQueuedWhileTheWindowIsFull() throws Exception {
+        pipeline.setMaxInFlight(2);
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(pipeline.publish("topic/" + i, PAYLOAD, 1, false));
+        }
+        assertThat(sentTopics, contains("topic/0", "topic/1"));
+        assertThat(pipeline.getInFlightCount(), is(2));
+        assertThat(pipeline.getQueuedCount(), is(3));
+
+        sentFutures.get(0).complete(true);
+        sentFutures.get(1).completeExceptionally(new Exception("failed"));
+        assertThat(sentTopics, contains("topic/0", "topic/1", "topic/2", "topic/3"));
+        assertThat(pipeline.getQueuedCount(), is(1));
+        assertTrue(futures.get(0).get());
+        assertTrue(futures.get(1).isCompletedExceptionally());
+        assertFalse(futures.get(2).isDone());
+    }
+
+    @Test
+    public void completedMessagesAreFollowedByTheNextBatch() {
+        PublishPipeline qos0Pipeline = new PublishPipeline((topic, payload, qos, retain) -> {
+            sentTopics.add(topic);
+            return CompletableFuture.completedFuture(true);
+        });
+        qos0Pipeline.setMaxInFlight(1);
+
+        for (int i = 0; i < 100; i++) {
+            qos0Pipeline.publish("topic/" + i, PAYLOAD, 0, false);
+        }
+
+        assertThat(sentTopics, hasSize(100));
+        assertThat(qos0Pipeline.getInFlightCount(), is(0));
+    }
+
+    @Test
+    public void supersededMessagesAreDropped() throws Exception {
+        pipeline.setMaxInFlight(1);
+        pipeline.setDropSuperseded(true);
+
+        pipeline.publish("topic/a", PAYLOAD, 1, true);
+        CompletableFuture<Boolean> superseded = pipeline.publish("topic/b", PAYLOAD, 1, true);
+        pipeline.publish("topic/c", PAYLOAD, 1, true);
+        CompletableFuture<Boolean> latest = pipeline.publish("topic/b", PAYLOAD, 1, true);
+        pipeline.publish("topic/c", PAYLOAD, 1, false);
+        assertThat(pipeline.getQueuedCount(), is(3));
+
+        for (int i = 0; i < 4; i++) {
+            sentFutures.get(i).complete(true);
+        }
+
+        // a message with a different retain flag does not supersede the queued one
+        assertThat(sentTopics, contains("topic/a", "topic/c", "topic/b", "topic/c"));
+        assertTrue(latest.get());
+        assertTrue(superseded.get());
+    }
+
+    @Test
+    public void messagesWithLowerQosDoNotSupersede() {
+        pipeline.setMaxInFlight(1);
+        pipeline.setDropSuperseded(true);
+
+        pipeline.publish("topic/a", PAYLOAD, 1, false);
+        pipeline.publish("topic/b", PAYLOAD, 2, false);
+        pipeline.publish("topic/b", PAYLOAD, 0, false);
+        assertThat(pipeline.getQueuedCount(), is(2));
+
+        for (int i = 0; i < 2; i++) {
+            sentFutures.get(i).complete(true);
+        }
+        assertThat(sentTopics, contains("topic/a", "topic/b", "topic/b"));
+    }
+
+    @Test
+    public void messagesAreRejectedIfTheQueueIsFull() {
+        pipeline.setMaxInFlight(1);
+        pipeline.setMaxQueued(2);
+        pipeline.setDropSuperseded(true);
+
+        pipeline.publish("topic/a", PAYLOAD, 1, false);
+        pipeline.publish("topic/b", PAYLOAD, 1, false);
+        pipeline.publish("topic/c", PAYLOAD, 1, false);
+        CompletableFuture<Boolean> rejected = pipeline.publish("topic/d", PAYLOAD, 1, false);
+        CompletableFuture<Boolean> superseding = pipeline.publish("topic/c", PAYLOAD, 1, false);
+
+        // a message that supersedes a queued one does not grow the queue
+        assertTrue(rejected.isCompletedExceptionally());
+        assertFalse(superseding.isDone());
+        assertThat(pipeline.getQueuedCount(), is(2));
+
+        sentFutures.get(0).complete(true);
+        assertFalse(pipeline.publish("topic/d", PAYLOAD, 1, false).isDone());
+        assertThat(pipeline.getQueuedCount(), is(2));
+    }
+}
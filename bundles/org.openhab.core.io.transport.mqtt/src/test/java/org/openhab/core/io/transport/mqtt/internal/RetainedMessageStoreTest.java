@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.transport.mqtt.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link RetainedMessageStore} class
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RetainedMessageStoreTest {
+    private static final byte[] PAYLOAD = "payload".getBytes();
+    private static final byte[] OTHER_PAYLOAD = "other".getBytes();
+
+    private @TempDir @NonNullByDefault({}) Path tempDir;
+
+    @Test
+    public void retainedMessagesAreStored() {
+        RetainedMessageStore store = new RetainedMessageStore("test", Long.MAX_VALUE, null);
+
+        store.messageArrived("homie/device/$name", PAYLOAD, true);
+        store.messageArrived("homie/device/$state", PAYLOAD, false);
+        assertThat(store.get("homie/device/$name").keySet(), contains("homie/device/$name"));
+        assertThat(store.get("homie/device/$state").keySet(), is(empty()));
+
+        // messages of a retained topic are retained even without the flag, but empty ones are not replayed
+        store.messageArrived("homie/device/$name", OTHER_PAYLOAD, false);
+        assertThat(store.get("homie/+/$name").get("homie/device/$name"), is(OTHER_PAYLOAD));
+        store.messageArrived("homie/device/$name", new byte[0], false);
+        assertThat(store.get("homie/#").keySet(), is(empty()));
+        assertThat(store.getCount(), is(1));
+    }
+
+    @Test
+    public void leastRecentlyUsedMessagesAreDropped() {
+        long messageSize = "topic/1".length() + PAYLOAD.length;
+        RetainedMessageStore store = new RetainedMessageStore("test", 2 * messageSize, null);
+
+        store.messageArrived("topic/1", PAYLOAD, true);
+        store.messageArrived("topic/2", PAYLOAD, true);
+        store.get("topic/1");
+        store.messageArrived("topic/3", PAYLOAD, true);
+
+        assertThat(store.get("topic/+").keySet(), containsInAnyOrder("topic/1", "topic/3"));
+        assertThat(store.getSize(), is(2 * messageSize));
+    }
+
+    @Test
+    public void messagesExceedingTheLimitAreSpilled() throws IOException {
+        RetainedMessageStore store = new RetainedMessageStore("test", 0, tempDir, Runnable::run);
+
+        store.messageArrived("topic/1", PAYLOAD, true);
+        store.messageArrived("topic/2", PAYLOAD, true);
+        assertThat(store.getSize(), is(0L));
+        assertThat(store.getCount(), is(2));
+        assertThat(store.get("topic/1").get("topic/1"), is(PAYLOAD));
+
+        // a spilled topic is still retained
+        store.messageArrived("topic/2", OTHER_PAYLOAD, false);
+        assertThat(store.get("topic/#").get("topic/2"), is(OTHER_PAYLOAD));
+
+        store.retainAll(topic -> !"topic/1".equals(topic));
+        assertThat(store.get("topic/#").keySet(), contains("topic/2"));
+        store.clear();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.count(), is(0L));
+        }
+    }
+
+    @Test
+    public void topicsOfDroppedMessagesAreStillRetained() {
+        RetainedMessageStore store = new RetainedMessageStore("test", 0, null);
+
+        store.messageArrived("topic/1", PAYLOAD, true);
+        assertThat(store.get("topic/1").keySet(), is(empty()));
+
+        // the next message of the topic has no retain flag, but is stored again
+        store.setLimits(Long.MAX_VALUE, null);
+        store.messageArrived("topic/1", OTHER_PAYLOAD, false);
+        assertThat(store.get("topic/1").get("topic/1"), is(OTHER_PAYLOAD));
+    }
+
+    @Test
+    public void wildcardsMatchTheRetainedTopics() {
+        RetainedMessageStore store = new RetainedMessageStore("test", Long.MAX_VALUE, null);
+
+        store.messageArrived("a", PAYLOAD, true);
+        store.messageArrived("a/b", PAYLOAD, true);
+        store.messageArrived("a/b/c", PAYLOAD, true);
+        store.messageArrived("a/d/c", PAYLOAD, true);
+        store.messageArrived("$SYS/a", PAYLOAD, true);
+
+        assertThat(store.get("a/#").keySet(), containsInAnyOrder("a", "a/b", "a/b/c", "a/d/c"));
+        assertThat(store.get("a/+/c").keySet(), containsInAnyOrder("a/b/c", "a/d/c"));
+        assertThat(store.get("a/+").keySet(), contains("a/b"));
+        assertThat(store.get("+/b").keySet(), contains("a/b"));
+        assertThat(store.get("#").keySet(), containsInAnyOrder("a", "a/b", "a/b/c", "a/d/c"));
+        assertThat(store.get("+/a").keySet(), is(empty()));
+        assertThat(store.get("$SYS/#").keySet(), contains("$SYS/a"));
+
+        store.retainAll(topic -> !topic.startsWith("a/b"));
+        assertThat(store.get("a/#").keySet(), containsInAnyOrder("a", "a/d/c"));
+    }
+
+    @Test
+    public void messagesAreSpilledInTheBackground() throws IOException {
+        List<Runnable> tasks = new ArrayList<>();
+        RetainedMessageStore store = new RetainedMessageStore("test", 0, tempDir, tasks::add);
+
+        store.messageArrived("topic/1", PAYLOAD, true);
+        store.messageArrived("topic/2", PAYLOAD, true);
+        assertThat(tasks, hasSize(1));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.count(), is(0L));
+        }
+        // messages that are not written yet are still replayed
+        assertThat(store.get("topic/+").keySet(), containsInAnyOrder("topic/1", "topic/2"));
+
+        tasks.remove(0).run();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.count(), is(2L));
+        }
+        assertThat(store.get("topic/1").get("topic/1"), is(PAYLOAD));
+
+        store.clear();
+        tasks.remove(0).run();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.count(), is(0L));
+        }
+        assertThat(tasks, is(empty()));
+    }
+
+    @Test
+    public void storesDoNotShareSpilledFiles() throws IOException {
+        RetainedMessageStore store = new RetainedMessageStore("test", 0, tempDir, Runnable::run);
+        RetainedMessageStore otherStore = new RetainedMessageStore("other", 0, tempDir, Runnable::run);
+
+        store.messageArrived("topic/1", PAYLOAD, true);
+        otherStore.messageArrived("topic/1", OTHER_PAYLOAD, true);
+        assertThat(store.get("topic/1").get("topic/1"), is(PAYLOAD));
+        assertThat(otherStore.get("topic/1").get("topic/1"), is(OTHER_PAYLOAD));
+
+        // a store with the same name, e.g. of a second connection to the same broker, does not delete the files
+        RetainedMessageStore sameNameStore = new RetainedMessageStore("test", 0, tempDir, Runnable::run);
+        sameNameStore.messageArrived("topic/1", OTHER_PAYLOAD, true);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.count(), is(3L));
+        }
+        assertThat(store.get("topic/1").get("topic/1"), is(PAYLOAD));
+        assertThat(sameNameStore.get("topic/1").get("topic/1"), is(OTHER_PAYLOAD));
+    }
+}
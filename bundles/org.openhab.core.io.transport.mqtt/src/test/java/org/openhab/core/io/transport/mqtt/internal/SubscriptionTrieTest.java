@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.transport.mqtt.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+
+/**
+ * Tests the {@link SubscriptionTrie} class
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SubscriptionTrieTest {
+    private static final byte[] PAYLOAD = "payload".getBytes();
+
+    private final RetainedMessageStore retainedMessages = new RetainedMessageStore("test", Long.MAX_VALUE, null);
+
+    @Test
+    public void topicFiltersCoverTopics() {
+        assertTrue(SubscriptionTrie.covers("#", "homie/device/$state"));
+        assertTrue(SubscriptionTrie.covers("homie/#", "homie"));
+        assertTrue(SubscriptionTrie.covers("homie/+/+/$state", "homie/device/node/$state"));
+        assertTrue(SubscriptionTrie.covers("homie/+/#", "homie/+/node"));
+        assertFalse(SubscriptionTrie.covers("homie/+", "homie/#"));
+        assertFalse(SubscriptionTrie.covers("homie/device", "homie/+"));
+        assertFalse(SubscriptionTrie.covers("homie/+/#", "homie"));
+
+        // wildcards at the first level do not match topics starting with $
+        assertFalse(SubscriptionTrie.covers("#", "$SYS/broker"));
+        assertFalse(SubscriptionTrie.covers("+/broker", "$SYS/broker"));
+    }
+
+    @Test
+    public void messagesAreDeliveredToMatchingSubscriptions() {
+        SubscriptionTrie trie = new SubscriptionTrie();
+        MqttMessageSubscriber stateSubscriber = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber deviceSubscriber = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber otherSubscriber = mock(MqttMessageSubscriber.class);
+        assertTrue(trie.add("homie/+/+/$state", subscription("homie/+/+/$state", stateSubscriber)));
+        assertTrue(trie.add("homie/device/#", subscription("homie/device/#", deviceSubscriber)));
+        assertTrue(trie.add("zigbee2mqtt/+", subscription("zigbee2mqtt/+", otherSubscriber)));
+
+        trie.messageArrived("homie/+/+/$state", "homie/device/node/$state", PAYLOAD, false);
+        trie.messageArrived("homie/device/#", "homie/device/node/$state", PAYLOAD, false);
+
+        // the topic filters overlap, but each subscription gets the message once
+        verify(stateSubscriber).processMessage(eq("homie/device/node/$state"), eq(PAYLOAD));
+        verify(deviceSubscriber).processMessage(eq("homie/device/node/$state"), eq(PAYLOAD));
+        verifyNoInteractions(otherSubscriber);
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    public void coveredTopicFiltersAreServedByTheCoveringBrokerSubscription() {
+        SubscriptionTrie trie = new SubscriptionTrie();
+        MqttMessageSubscriber stateSubscriber = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber allSubscriber = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber lateSubscriber = mock(MqttMessageSubscriber.class);
+        assertTrue(trie.add("homie/+/+/$state", subscription("homie/+/+/$state", stateSubscriber)));
+        assertTrue(trie.add("homie/#", subscription("homie/#", allSubscriber)));
+        assertThat(trie.takeOver("homie/#"), is(List.of("homie/+/+/$state")));
+        assertThat(trie.getBrokerTopics(), is(List.of("homie/#")));
+
+        trie.messageArrived("homie/#", "homie/device/node/$state", PAYLOAD, true);
+        verify(stateSubscriber).processMessage(eq("homie/device/node/$state"), eq(PAYLOAD));
+        verify(allSubscriber).processMessage(eq("homie/device/node/$state"), eq(PAYLOAD));
+
+        // a covered topic filter is not subscribed, but gets the retained messages
+        Subscription lateSubscription = new Subscription("homie/device/#", retainedMessages);
+        assertFalse(trie.add("homie/device/#", lateSubscription));
+        lateSubscription.add(lateSubscriber);
+        verify(lateSubscriber).processMessage(eq("homie/device/node/$state"), eq(PAYLOAD));
+
+        // removing the covering topic filter hands over to the topic filters it covered
+        List<String> newBrokerTopics = trie.remove("homie/#");
+        assertThat(newBrokerTopics, containsInAnyOrder("homie/+/+/$state", "homie/device/#"));
+        for (String newBrokerTopic : newBrokerTopics) {
+            assertThat(trie.takeOver(newBrokerTopic), is(empty()));
+        }
+        trie.messageArrived("homie/+/+/$state", "homie/device/node/$state", PAYLOAD, false);
+        trie.messageArrived("homie/device/#", "homie/device/node/$state", PAYLOAD, false);
+        verify(stateSubscriber, times(2)).processMessage(eq("homie/device/node/$state"), eq(PAYLOAD));
+        verify(lateSubscriber, times(2)).processMessage(eq("homie/device/node/$state"), eq(PAYLOAD));
+        verifyNoMoreInteractions(allSubscriber);
+    }
+
+    private Subscription subscription(String topic, MqttMessageSubscriber subscriber) {
+        Subscription subscription = new Subscription(topic, retainedMessages);
+        subscription.add(subscriber);
+        return subscription;
+    }
+}
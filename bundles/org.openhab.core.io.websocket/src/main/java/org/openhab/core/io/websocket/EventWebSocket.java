@@ -12,10 +12,11 @@
  */
 package org.openhab.core.io.websocket;
 
-import java.io.IOException;
 import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -29,6 +30,12 @@ import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
 import org.openhab.core.events.Event;
 import org.openhab.core.events.EventPublisher;
+import org.openhab.core.items.events.GroupItemStateChangedEvent;
+import org.openhab.core.items.events.GroupStateUpdatedEvent;
+import org.openhab.core.items.events.ItemStateChangedEvent;
+import org.openhab.core.items.events.ItemStateEvent;
+import org.openhab.core.items.events.ItemStatePredictedEvent;
+import org.openhab.core.items.events.ItemStateUpdatedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +47,7 @@ import com.google.gson.reflect.TypeToken;
  * The {@link EventWebSocket} is the WebSocket implementation that extends the event bus
  *
  * @author Jan N. Klug - Initial contribution
+ * @author agent - Serialize events once, asynchronous bounded send queue
  */
 @WebSocket
 @NonNullByDefault
@@ -49,6 +57,9 @@ public class EventWebSocket {
     public static final String WEBSOCKET_TOPIC_PREFIX = "openhab/websocket/";
 
     private static final Type STRING_LIST_TYPE = TypeToken.getParameterized(List.class, String.class).getType();
+    private static final Set<String> STATE_EVENT_TYPES = Set.of(ItemStateEvent.TYPE, ItemStateUpdatedEvent.TYPE,
+            ItemStateChangedEvent.TYPE, ItemStatePredictedEvent.TYPE, GroupStateUpdatedEvent.TYPE,
+            GroupItemStateChangedEvent.TYPE);
 
     private final Logger logger = LoggerFactory.getLogger(EventWebSocket.class);
 
@@ -56,9 +67,13 @@ public class EventWebSocket {
     private final Gson gson;
     private final EventPublisher eventPublisher;
     private final ItemEventUtility itemEventUtility;
+    private final int maxQueueSize;
+    private final Duration slowConsumerTimeout;
+    private final boolean conflateStateEvents;
 
     private @Nullable Session session;
     private @Nullable RemoteEndpoint remoteEndpoint;
+    private @Nullable WebSocketSendQueue sendQueue;
     private String remoteIdentifier = "<unknown>";
 
     private List<String> typeFilter = List.of();
@@ -66,18 +81,40 @@ public class EventWebSocket {
 
     public EventWebSocket(Gson gson, EventWebSocketAdapter wsAdapter, ItemEventUtility itemEventUtility,
             EventPublisher eventPublisher) {
+        this(gson, wsAdapter, itemEventUtility, eventPublisher, WebSocketSendQueue.DEFAULT_MAX_SIZE,
+                WebSocketSendQueue.DEFAULT_SLOW_CONSUMER_TIMEOUT, false);
+    }
+
+    /**
+     * Create a web socket with the given limits for its send queue.
+     *
+     * @param maxQueueSize the maximum number of messages waiting to be sent to the client
+     * @param slowConsumerTimeout the time after which a client whose queue stays full is disconnected
+     * @param conflateStateEvents true to replace queued state events of an item by newer ones
+     */
+    public EventWebSocket(Gson gson, EventWebSocketAdapter wsAdapter, ItemEventUtility itemEventUtility,
+            EventPublisher eventPublisher, int maxQueueSize, Duration slowConsumerTimeout,
+            boolean conflateStateEvents) {
         this.wsAdapter = wsAdapter;
         this.gson = gson;
         this.itemEventUtility = itemEventUtility;
         this.eventPublisher = eventPublisher;
+        this.maxQueueSize = maxQueueSize;
+        this.slowConsumerTimeout = slowConsumerTimeout;
+        this.conflateStateEvents = conflateStateEvents;
     }
 
     @OnWebSocketClose
     public void onClose(int statusCode, String reason) {
         this.wsAdapter.unregisterListener(this);
+        WebSocketSendQueue sendQueue = this.sendQueue;
+        if (sendQueue != null) {
+            sendQueue.close();
+        }
         remoteIdentifier = "<unknown>";
         this.session = null;
         this.remoteEndpoint = null;
+        this.sendQueue = null;
     }
 
     @OnWebSocketConnect
@@ -86,6 +123,8 @@ public class EventWebSocket {
         RemoteEndpoint remoteEndpoint = session.getRemote();
         this.remoteEndpoint = remoteEndpoint;
         this.remoteIdentifier = remoteEndpoint.getInetSocketAddress().toString();
+        this.sendQueue = new WebSocketSendQueue(remoteEndpoint::sendString, this::onSlowConsumer, this::onSendFailed,
+                maxQueueSize, slowConsumerTimeout, conflateStateEvents);
         this.wsAdapter.registerListener(this);
     }
 
@@ -166,11 +205,9 @@ public class EventWebSocket {
                     "Deserialization error: " + e.getMessage(), null, null);
         }
 
-        try {
-            sendMessage(gson.toJson(responseEvent));
-        } catch (IOException e) {
-            logger.debug("Failed to send WebSocketResponseEvent event {} to {}: {}", responseEvent, remoteIdentifier,
-                    e.getMessage());
+        WebSocketSendQueue sendQueue = this.sendQueue;
+        if (sendQueue != null) {
+            sendQueue.sendReply(gson.toJson(responseEvent));
         }
     }
 
@@ -186,23 +223,69 @@ public class EventWebSocket {
     }
 
     public void processEvent(Event event) {
-        try {
-            String source = event.getSource();
-            if ((source == null || !sourceFilter.contains(event.getSource()))
-                    && (typeFilter.isEmpty() || typeFilter.contains(event.getType()))) {
-                sendMessage(gson.toJson(new EventDTO(event)));
-            }
-        } catch (IOException e) {
-            logger.debug("Failed to send event {} to {}: {}", event, remoteIdentifier, e.getMessage());
+        processEvent(new SerializedEvent(gson, event));
+    }
+
+    /**
+     * Send an event to the client, if it passes the filters of this connection. The event is serialized only if it is
+     * sent and if no other connection has serialized it before.
+     *
+     * @param serializedEvent the event shared by all connections
+     */
+    public void processEvent(SerializedEvent serializedEvent) {
+        Event event = serializedEvent.getEvent();
+        String source = event.getSource();
+        if ((source == null || !sourceFilter.contains(event.getSource()))
+                && (typeFilter.isEmpty() || typeFilter.contains(event.getType()))) {
+            // a newer state of an item supersedes a queued one
+            String conflationKey = STATE_EVENT_TYPES.contains(event.getType()) ? event.getTopic() : null;
+            sendMessage(serializedEvent.getJson(), conflationKey);
         }
     }
 
-    private synchronized void sendMessage(String message) throws IOException {
-        RemoteEndpoint remoteEndpoint = this.remoteEndpoint;
-        if (remoteEndpoint == null) {
+    /**
+     * @return the address of the client
+     */
+    public String getRemoteIdentifier() {
+        return remoteIdentifier;
+    }
+
+    /**
+     * Get the send queue of this connection, e.g. to monitor the lag of the client.
+     *
+     * @return the send queue, or null if the client is not connected
+     */
+    public @Nullable WebSocketSendQueue getSendQueue() {
+        return sendQueue;
+    }
+
+    private void sendMessage(String message, @Nullable String conflationKey) {
+        WebSocketSendQueue sendQueue = this.sendQueue;
+        if (sendQueue == null) {
             logger.warn("Could not determine remote endpoint, failed to send '{}'.", message);
             return;
         }
-        remoteEndpoint.sendString(message);
+        sendQueue.send(message, conflationKey);
+    }
+
+    private void onSlowConsumer() {
+        WebSocketSendQueue sendQueue = this.sendQueue;
+        if (sendQueue != null) {
+            logger.warn("Disconnecting slow WebSocket client {}: lag {} ms, {} messages dropped", remoteIdentifier,
+                    sendQueue.getLag().toMillis(), sendQueue.getDroppedCount());
+        }
+        Session session = this.session;
+        if (session != null) {
+            session.close(StatusCode.POLICY_VIOLATION, "Client does not keep up with events");
+        }
+    }
+
+    private void onSendFailed() {
+        logger.debug("Disconnecting WebSocket client {} after a failed send", remoteIdentifier);
+        Session session = this.session;
+        if (session != null) {
+            session.close(StatusCode.SERVER_ERROR, "Failed to send event");
+        }
+        onClose(StatusCode.SERVER_ERROR, "Failed to send event");
     }
 }
@@ -12,19 +12,28 @@
  */
 package org.openhab.core.io.websocket;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jetty.websocket.servlet.ServletUpgradeRequest;
 import org.eclipse.jetty.websocket.servlet.ServletUpgradeResponse;
+import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.events.Event;
 import org.openhab.core.events.EventPublisher;
 import org.openhab.core.events.EventSubscriber;
 import org.openhab.core.items.ItemRegistry;
+import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 
@@ -32,21 +41,66 @@ import com.google.gson.Gson;
  * The {@link EventWebSocketAdapter} allows subscription to oh events over WebSocket
  *
  * @author Jan N. Klug - Initial contribution
+ * @author agent - Serialize events once, configurable send queues
  */
 @NonNullByDefault
-@Component(immediate = true, service = { EventSubscriber.class, WebSocketAdapter.class })
+@Component(immediate = true, service = { EventSubscriber.class,
+        WebSocketAdapter.class }, configurationPid = "org.openhab.websocket", //
+        property = Constants.SERVICE_PID + "=org.openhab.websocket")
+@ConfigurableService(category = "system", label = "WebSocket", description_uri = EventWebSocketAdapter.CONFIG_URI)
 public class EventWebSocketAdapter implements EventSubscriber, WebSocketAdapter {
     public static final String ADAPTER_ID = "event-subscriber";
+    protected static final String CONFIG_URI = "system:websocket";
+
+    private final Logger logger = LoggerFactory.getLogger(EventWebSocketAdapter.class);
     private final Gson gson = new Gson();
     private final EventPublisher eventPublisher;
 
     private final ItemEventUtility itemEventUtility;
     private final Set<EventWebSocket> webSockets = new CopyOnWriteArraySet<>();
 
+    /* Limits of the send queue of new connections */
+    private int maxQueueSize = WebSocketSendQueue.DEFAULT_MAX_SIZE;
+    private Duration slowConsumerTimeout = WebSocketSendQueue.DEFAULT_SLOW_CONSUMER_TIMEOUT;
+    private boolean conflateStateEvents = false;
+
     @Activate
-    public EventWebSocketAdapter(@Reference EventPublisher eventPublisher, @Reference ItemRegistry itemRegistry) {
+    public EventWebSocketAdapter(Map<String, Object> config, @Reference EventPublisher eventPublisher,
+            @Reference ItemRegistry itemRegistry) {
         this.eventPublisher = eventPublisher;
         itemEventUtility = new ItemEventUtility(gson, itemRegistry);
+        applyConfig(config);
+    }
+
+    @Modified
+    protected void modified(Map<String, Object> config) {
+        applyConfig(config);
+    }
+
+    private void applyConfig(Map<String, Object> config) {
+        final String maxQueueSize = Objects.toString(config.get("maxQueueSize"), null);
+        if (maxQueueSize != null) {
+            try {
+                int size = Integer.parseInt(maxQueueSize);
+                if (size > 0) {
+                    this.maxQueueSize = size;
+                } else {
+                    logger.debug("Setting 'maxQueueSize' must be positive; value '{}' ignored.", maxQueueSize);
+                }
+            } catch (NumberFormatException e) {
+                logger.debug("Setting 'maxQueueSize' must be a number; value '{}' ignored.", maxQueueSize);
+            }
+        }
+        final String slowConsumerTimeout = Objects.toString(config.get("slowConsumerTimeout"), null);
+        if (slowConsumerTimeout != null) {
+            try {
+                this.slowConsumerTimeout = Duration.ofSeconds(Long.parseLong(slowConsumerTimeout));
+            } catch (NumberFormatException e) {
+                logger.debug("Setting 'slowConsumerTimeout' must be a number; value '{}' ignored.",
+                        slowConsumerTimeout);
+            }
+        }
+        conflateStateEvents = Boolean.parseBoolean(Objects.toString(config.get("conflateStateEvents"), null));
     }
 
     @Override
@@ -56,7 +110,8 @@ public class EventWebSocketAdapter implements EventSubscriber, WebSocketAdapter
 
     @Override
     public void receive(Event event) {
-        webSockets.forEach(ws -> ws.processEvent(event));
+        SerializedEvent serializedEvent = new SerializedEvent(gson, event);
+        webSockets.forEach(ws -> ws.processEvent(serializedEvent));
     }
 
     public void registerListener(EventWebSocket eventWebSocket) {
@@ -67,6 +122,15 @@ public class EventWebSocketAdapter implements EventSubscriber, WebSocketAdapter
         webSockets.remove(eventWebSocket);
     }
 
+    /**
+     * Get the connected web sockets, e.g. to monitor the lag of their clients.
+     *
+     * @return an unmodifiable view of the connected web sockets
+     */
+    public Set<EventWebSocket> getWebSockets() {
+        return Collections.unmodifiableSet(webSockets);
+    }
+
     @Override
     public String getId() {
         return ADAPTER_ID;
@@ -75,6 +139,7 @@ public class EventWebSocketAdapter implements EventSubscriber, WebSocketAdapter
     @Override
     public Object createWebSocket(ServletUpgradeRequest servletUpgradeRequest,
             ServletUpgradeResponse servletUpgradeResponse) {
-        return new EventWebSocket(gson, EventWebSocketAdapter.this, itemEventUtility, eventPublisher);
+        return new EventWebSocket(gson, EventWebSocketAdapter.this, itemEventUtility, eventPublisher, maxQueueSize,
+                slowConsumerTimeout, conflateStateEvents);
     }
 }
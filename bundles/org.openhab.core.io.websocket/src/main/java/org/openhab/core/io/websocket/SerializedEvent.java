@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.websocket;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.events.Event;
+
+import com.google.gson.Gson;
+
+/**
+ * The {@link SerializedEvent} holds an {@link Event} and its JSON representation, which is created when it is needed
+ * for the first time. This way an event is serialized at most once, no matter how many web sockets it is sent to.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SerializedEvent {
+    private final Gson gson;
+    private final Event event;
+
+    private volatile @Nullable String json;
+
+    public SerializedEvent(Gson gson, Event event) {
+        this.gson = gson;
+        this.event = event;
+    }
+
+    public Event getEvent() {
+        return event;
+    }
+
+    /**
+     * Get the JSON representation of the event, serializing it on the first call.
+     *
+     * @return the serialized {@link EventDTO} of the event
+     */
+    public String getJson() {
+        String json = this.json;
+        if (json == null) {
+            synchronized (this) {
+                json = this.json;
+                if (json == null) {
+                    json = gson.toJson(new EventDTO(event));
+                    this.json = json;
+                }
+            }
+        }
+        return json;
+    }
+}
@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.websocket;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link WebSocketSendQueue} sends the outbound messages of a single WebSocket connection asynchronously.
+ * <p>
+ * Messages are queued and sent one at a time, so the thread that enqueues a message never waits for the client. The
+ * queue holds at most the configured number of events. If a client does not keep up, further events are dropped, and
+ * if the queue stays full for longer than the slow consumer timeout, the slow consumer handler is called to disconnect
+ * the client. Replies to requests of the client are never dropped. If sending fails, the queue is closed and the
+ * failure handler is called to disconnect the client.
+ * <p>
+ * Optionally, a queued message is replaced by a newer message with the same conflation key, e.g. a newer state of the
+ * same item, so a slow client receives the latest state instead of all intermediate ones.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class WebSocketSendQueue {
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    public static final Duration DEFAULT_SLOW_CONSUMER_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Sends a message to the client without blocking.
+     */
+    @FunctionalInterface
+    public interface Sender {
+        /**
+         * Send a message.
+         *
+         * @param message the message
+         * @param callback the callback to notify when the message is sent or sending failed
+         */
+        void send(String message, WriteCallback callback);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(WebSocketSendQueue.class);
+
+    private final Sender sender;
+    private final Runnable slowConsumerHandler;
+    private final Runnable failureHandler;
+    private final int maxSize;
+    private final long slowConsumerTimeoutNanos;
+    private final boolean conflate;
+
+    private final Queue<Message> queue = new ArrayDeque<>();
+    private final Map<String, Message> queuedByKey = new HashMap<>();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private @Nullable Message inFlight;
+    private long overLimitSince = 0;
+    private boolean closed = false;
+    private long sentCount = 0;
+    private long droppedCount = 0;
+    private long conflatedCount = 0;
+
+    /**
+     * Creates a send queue.
+     *
+     * @param sender sends the messages to the client
+     * @param slowConsumerHandler called once if the client stays over the limit for longer than the timeout
+     * @param failureHandler called once if sending a message fails
+     * @param maxSize the maximum number of queued messages
+     * @param slowConsumerTimeout the time the client may stay over the limit
+     * @param conflate true to replace queued messages by newer messages with the same conflation key
+     */
+    public WebSocketSendQueue(Sender sender, Runnable slowConsumerHandler, Runnable failureHandler, int maxSize,
+            Duration slowConsumerTimeout, boolean conflate) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Maximum queue size cannot be <=0");
+        }
+        this.sender = sender;
+        this.slowConsumerHandler = slowConsumerHandler;
+        this.failureHandler = failureHandler;
+        this.maxSize = maxSize;
+        this.slowConsumerTimeoutNanos = slowConsumerTimeout.toNanos();
+        this.conflate = conflate;
+    }
+
+    /**
+     * Queue an event for sending. The event is dropped if the queue is full.
+     *
+     * @param message the message
+     * @param conflationKey the key of messages this message supersedes, or null if it supersedes no message
+     */
+    public void send(String message, @Nullable String conflationKey) {
+        enqueue(message, conflationKey, false);
+    }
+
+    /**
+     * Queue a reply to a request of the client for sending. Replies are queued even if the queue is full.
+     *
+     * @param message the message
+     */
+    public void sendReply(String message) {
+        enqueue(message, null, true);
+    }
+
+    private void enqueue(String message, @Nullable String conflationKey, boolean reply) {
+        boolean slowConsumer = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (conflate && conflationKey != null) {
+                Message queued = queuedByKey.get(conflationKey);
+                if (queued != null) {
+                    // keep the position and the age of the queued message, but send the latest content
+                    queued.content = message;
+                    conflatedCount++;
+                    return;
+                }
+            }
+            if (!reply && queue.size() >= maxSize) {
+                droppedCount++;
+                long now = System.nanoTime();
+                if (overLimitSince == 0) {
+                    overLimitSince = now;
+                }
+                if (now - overLimitSince >= slowConsumerTimeoutNanos) {
+                    close();
+                    slowConsumer = true;
+                }
+            } else {
+                Message queued = new Message(message, conflate ? conflationKey : null);
+                queue.add(queued);
+                if (queued.key != null) {
+                    queuedByKey.put(queued.key, queued);
+                }
+            }
+        }
+        if (slowConsumer) {
+            slowConsumerHandler.run();
+        } else {
+            drain();
+        }
+    }
+
+    /**
+     * Discard all queued messages and stop sending.
+     */
+    public synchronized void close() {
+        closed = true;
+        queue.clear();
+        queuedByKey.clear();
+    }
+
+    /**
+     * @return the number of messages waiting to be sent, excluding the message being sent
+     */
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of messages sent to the client
+     */
+    public synchronized long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * @return the number of messages dropped because the queue was full
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * @return the number of queued messages that were replaced by a newer message
+     */
+    public synchronized long getConflatedCount() {
+        return conflatedCount;
+    }
+
+    /**
+     * Get the lag of the client, i.e. the time the oldest message that has not been sent yet is waiting.
+     *
+     * @return the lag, or {@link Duration#ZERO} if all messages have been sent
+     */
+    public synchronized Duration getLag() {
+        Message oldest = inFlight;
+        if (oldest == null) {
+            oldest = queue.peek();
+        }
+        return oldest == null ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - oldest.queuedAt);
+    }
+
+    /**
+     * Sends the next message if no message is in flight. If a message completes while sending, the thread that is
+     * already sending continues, so completions do not cause recursion.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Message message;
+            while ((message = next()) != null) {
+                send(message);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private synchronized @Nullable Message next() {
+        if (closed || inFlight != null) {
+            return null;
+        }
+        Message message = queue.poll();
+        if (message == null) {
+            return null;
+        }
+        if (message.key != null) {
+            queuedByKey.remove(message.key);
+        }
+        if (queue.size() < maxSize) {
+            overLimitSince = 0;
+        }
+        inFlight = message;
+        return message;
+    }
+
+    private void send(Message message) {
+        try {
+            sender.send(message.content, new WriteCallback() {
+                @Override
+                public void writeSuccess() {
+                    synchronized (WebSocketSendQueue.this) {
+                        inFlight = null;
+                        sentCount++;
+                    }
+                    drain();
+                }
+
+                @Override
+                public void writeFailed(@Nullable Throwable error) {
+                    failed(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            failed(e);
+        }
+    }
+
+    private void failed(@Nullable Throwable error) {
+        logger.debug("Failed to send message, discarding {} queued messages: {}", getQueuedCount(),
+                error == null ? "<null>" : error.getMessage());
+        boolean wasClosed;
+        synchronized (this) {
+            inFlight = null;
+            wasClosed = closed;
+        }
+        close();
+        if (!wasClosed) {
+            failureHandler.run();
+        }
+    }
+
+    private static class Message {
+        private final long queuedAt = System.nanoTime();
+        private final @Nullable String key;
+        private String content;
+
+        Message(String content, @Nullable String key) {
+            this.content = content;
+            this.key = key;
+        }
+    }
+}
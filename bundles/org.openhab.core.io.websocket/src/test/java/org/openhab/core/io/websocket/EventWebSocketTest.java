@@ -12,8 +12,11 @@
  */
 package org.openhab.core.io.websocket;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -30,6 +33,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -79,6 +83,7 @@ public class EventWebSocketTest {
 
         when(session.getRemote()).thenReturn(remoteEndpoint);
         when(remoteEndpoint.getInetSocketAddress()).thenReturn(new InetSocketAddress(47115));
+        completeWrites(remoteEndpoint);
 
         when(itemRegistry.getItem(eq(TEST_ITEM_NAME))).thenReturn(TEST_ITEM);
 
@@ -192,7 +197,31 @@ public class EventWebSocketTest {
         eventWebSocket.processEvent(event);
         EventDTO eventDTO = new EventDTO(event);
 
-        verify(remoteEndpoint).sendString(gson.toJson(eventDTO));
+        verify(remoteEndpoint).sendString(eq(gson.toJson(eventDTO)), any());
+    }
+
+    @Test
+    public void eventFromBusSerializedOnceForAllConnections() throws IOException {
+        Session otherSession = mock(Session.class);
+        RemoteEndpoint otherRemoteEndpoint = mock(RemoteEndpoint.class);
+        when(otherSession.getRemote()).thenReturn(otherRemoteEndpoint);
+        when(otherRemoteEndpoint.getInetSocketAddress()).thenReturn(new InetSocketAddress(47116));
+        completeWrites(otherRemoteEndpoint);
+        EventWebSocket otherEventWebSocket = new EventWebSocket(gson, servlet, itemEventUtility, eventPublisher);
+        otherEventWebSocket.onConnect(otherSession);
+
+        Event event = ItemEventFactory.createCommandEvent(TEST_ITEM_NAME, DecimalType.ZERO,
+                REMOTE_WEBSOCKET_IMPLEMENTATION);
+        SerializedEvent serializedEvent = new SerializedEvent(gson, event);
+        String json = serializedEvent.getJson();
+
+        eventWebSocket.processEvent(serializedEvent);
+        otherEventWebSocket.processEvent(serializedEvent);
+
+        assertSame(json, serializedEvent.getJson());
+        verify(remoteEndpoint).sendString(eq(json), any());
+        verify(otherRemoteEndpoint).sendString(eq(json), any());
+        verify(remoteEndpoint).sendString(eq(gson.toJson(new EventDTO(event))), any());
     }
 
     @Test
@@ -202,18 +231,18 @@ public class EventWebSocketTest {
         EventDTO responseEventDTO = new EventDTO(WEBSOCKET_EVENT_TYPE, WEBSOCKET_TOPIC_PREFIX + "filter/type",
                 eventDTO.payload, null, null);
         eventWebSocket.onText(gson.toJson(eventDTO));
-        verify(remoteEndpoint).sendString(gson.toJson(responseEventDTO));
+        verify(remoteEndpoint).sendString(eq(gson.toJson(responseEventDTO)), any());
 
         // subscribed type is sent
         Event event = ItemEventFactory.createCommandEvent(TEST_ITEM_NAME, DecimalType.ZERO,
                 REMOTE_WEBSOCKET_IMPLEMENTATION);
         eventWebSocket.processEvent(event);
-        verify(remoteEndpoint).sendString(gson.toJson(new EventDTO(event)));
+        verify(remoteEndpoint).sendString(eq(gson.toJson(new EventDTO(event))), any());
 
         // not subscribed event not sent
         event = ItemEventFactory.createStateEvent(TEST_ITEM_NAME, DecimalType.ZERO, REMOTE_WEBSOCKET_IMPLEMENTATION);
         eventWebSocket.processEvent(event);
-        verify(remoteEndpoint, times(2)).sendString(any());
+        verify(remoteEndpoint, times(2)).sendString(any(), any());
     }
 
     @Test
@@ -223,17 +252,24 @@ public class EventWebSocketTest {
         EventDTO responseEventDTO = new EventDTO(WEBSOCKET_EVENT_TYPE, WEBSOCKET_TOPIC_PREFIX + "filter/source",
                 eventDTO.payload, null, null);
         eventWebSocket.onText(gson.toJson(eventDTO));
-        verify(remoteEndpoint).sendString(gson.toJson(responseEventDTO));
+        verify(remoteEndpoint).sendString(eq(gson.toJson(responseEventDTO)), any());
 
         // non-matching is sent
         Event event = ItemEventFactory.createCommandEvent(TEST_ITEM_NAME, DecimalType.ZERO);
         eventWebSocket.processEvent(event);
-        verify(remoteEndpoint).sendString(gson.toJson(new EventDTO(event)));
+        verify(remoteEndpoint).sendString(eq(gson.toJson(new EventDTO(event))), any());
 
         // matching is not sent
         event = ItemEventFactory.createStateEvent(TEST_ITEM_NAME, DecimalType.ZERO, REMOTE_WEBSOCKET_IMPLEMENTATION);
         eventWebSocket.processEvent(event);
-        verify(remoteEndpoint, times(2)).sendString(any());
+        verify(remoteEndpoint, times(2)).sendString(any(), any());
+    }
+
+    private void completeWrites(RemoteEndpoint endpoint) {
+        doAnswer(invocation -> {
+            invocation.getArgument(1, WriteCallback.class).writeSuccess();
+            return null;
+        }).when(endpoint).sendString(any(), any());
     }
 
     private void assertEventProcessing(EventDTO incoming, @Nullable Event expectedEvent,
@@ -248,9 +284,9 @@ public class EventWebSocketTest {
 
         if (expectedResponse != null) {
             String expectedResponseString = gson.toJson(expectedResponse);
-            verify(remoteEndpoint).sendString(eq(expectedResponseString));
+            verify(remoteEndpoint).sendString(eq(expectedResponseString), any());
         } else {
-            verify(remoteEndpoint, never()).sendString(any());
+            verify(remoteEndpoint, never()).sendString(any(), any());
         }
     }
 }
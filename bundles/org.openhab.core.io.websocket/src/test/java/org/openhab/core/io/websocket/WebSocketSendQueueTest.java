@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.io.websocket;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The {@link WebSocketSendQueueTest} contains tests for the {@link WebSocketSendQueue}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class WebSocketSendQueueTest {
+    private final List<String> sentMessages = new ArrayList<>();
+    private final List<WriteCallback> callbacks = new ArrayList<>();
+    private int slowConsumerCount = 0;
+    private int failureCount = 0;
+
+    private WebSocketSendQueue createQueue(int maxSize, Duration slowConsumerTimeout, boolean conflate) {
+        return new WebSocketSendQueue((message, callback) -> {
+            sentMessages.add(message);
+            callbacks.add(callback);
+        }, () -> slowConsumerCount++, () -> failureCount++, maxSize, slowConsumerTimeout, conflate);
+    }
+
+    @Test
+    public void messagesAreSentOneAtATime() {
+        WebSocketSendQueue queue = createQueue(10, Duration.ofSeconds(30), false);
+
+        queue.send("a", null);
+        queue.send("b", null);
+        queue.send("c", null);
+        assertThat(sentMessages, contains("a"));
+        assertThat(queue.getQueuedCount(), is(2));
+
+        callbacks.get(0).writeSuccess();
+        callbacks.get(1).writeSuccess();
+        assertThat(sentMessages, contains("a", "b", "c"));
+        assertThat(queue.getQueuedCount(), is(0));
+        assertThat(queue.getSentCount(), is(2L));
+    }
+
+    @Test
+    public void messagesCompletedWhileSendingAreFollowedWithoutRecursion() {
+        WebSocketSendQueue queue = new WebSocketSendQueue((message, callback) -> {
+            sentMessages.add(message);
+            callback.writeSuccess();
+        }, () -> slowConsumerCount++, () -> failureCount++, 10, Duration.ofSeconds(30), false);
+
+        for (int i = 0; i < 10000; i++) {
+            queue.send("message", null);
+        }
+
+        assertThat(sentMessages, hasSize(10000));
+        assertThat(queue.getLag(), is(Duration.ZERO));
+    }
+
+    @Test
+    public void queuedStateEventsAreConflated() {
+        WebSocketSendQueue queue = createQueue(10, Duration.ofSeconds(30), true);
+
+        queue.send("item1=ON", "item1");
+        queue.send("item1=OFF", "item1");
+        queue.send("item2=ON", "item2");
+        queue.send("command", null);
+        queue.send("item2=OFF", "item2");
+        queue.send("item1=ON", "item1");
+
+        for (int i = 0; i < 3; i++) {
+            callbacks.get(i).writeSuccess();
+        }
+        assertThat(sentMessages, contains("item1=ON", "item1=ON", "item2=OFF", "command"));
+        assertThat(queue.getConflatedCount(), is(2L));
+    }
+
+    @Test
+    public void slowConsumerIsDisconnected() {
+        WebSocketSendQueue queue = createQueue(2, Duration.ZERO, false);
+
+        queue.send("a", null);
+        queue.send("b", null);
+        queue.send("c", null);
+        assertThat(slowConsumerCount, is(0));
+
+        queue.send("d", null);
+        assertThat(slowConsumerCount, is(1));
+        assertThat(queue.getDroppedCount(), is(1L));
+
+        // nothing is sent after the queue is closed
+        callbacks.get(0).writeSuccess();
+        queue.send("e", null);
+        assertThat(sentMessages, contains("a"));
+        assertThat(slowConsumerCount, is(1));
+    }
+
+    @Test
+    public void repliesAreNotDroppedIfQueueIsFull() {
+        WebSocketSendQueue queue = createQueue(1, Duration.ofSeconds(30), false);
+
+        queue.send("a", null);
+        queue.send("b", null);
+        queue.send("c", null);
+        queue.sendReply("reply");
+        assertThat(queue.getDroppedCount(), is(1L));
+
+        callbacks.get(0).writeSuccess();
+        callbacks.get(1).writeSuccess();
+        assertThat(sentMessages, contains("a", "b", "reply"));
+    }
+
+    @Test
+    public void failedWriteDiscardsQueuedMessages() {
+        WebSocketSendQueue queue = createQueue(10, Duration.ofSeconds(30), false);
+
+        queue.send("a", null);
+        queue.send("b", null);
+        callbacks.get(0).writeFailed(new Exception("closed"));
+
+        assertThat(queue.getQueuedCount(), is(0));
+        assertThat(sentMessages, contains("a"));
+        assertThat(failureCount, is(1));
+
+        queue.send("c", null);
+        assertThat(sentMessages, contains("a"));
+        assertThat(failureCount, is(1));
+    }
+}
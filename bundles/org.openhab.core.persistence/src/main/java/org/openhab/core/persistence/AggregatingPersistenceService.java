@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence;
+
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A queryable persistence service which can calculate aggregates of the persisted states itself, e.g. by a database
+ * query. The persistence extensions use it instead of querying and aggregating all states of a period.
+ * <p>
+ * Aggregates are calculated over the numeric states of the item given by the item name of the {@link FilterCriteria},
+ * between its begin date and its end date (or now, if no end date is set). Other properties of the filter are not
+ * set. If a service only supports some aggregates, the persistence extensions query the states for the others.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface AggregatingPersistenceService extends QueryablePersistenceService {
+
+    /**
+     * The aggregates a service can calculate. Some include the state that is valid at the begin date, i.e. the last
+     * state persisted at or before the begin date.
+     */
+    enum Aggregate {
+        /**
+         * The state with the lowest value of the states within the period and the state valid at the begin date. The
+         * result has the timestamp of the state, the timestamp of the state valid at the begin date is the begin date.
+         */
+        MINIMUM,
+        /**
+         * The state with the highest value of the states within the period and the state valid at the begin date. The
+         * result has the timestamp of the state, the timestamp of the state valid at the begin date is the begin date.
+         */
+        MAXIMUM,
+        /**
+         * The arithmetic mean of the states within the period.
+         */
+        AVERAGE,
+        /**
+         * The mean of the states within the period and the state valid at the begin date, each weighted by the time
+         * until the next state or the end of the period.
+         */
+        TIME_WEIGHTED_AVERAGE,
+        /**
+         * The sum of the states within the period.
+         */
+        SUM,
+        /**
+         * The number of states within the period, including non-numeric states.
+         */
+        COUNT,
+        /**
+         * The mean of the squared differences between the {@link #TIME_WEIGHTED_AVERAGE} and the states within the
+         * period and the state valid at the begin date.
+         */
+        VARIANCE
+    }
+
+    /**
+     * Returns the aggregates this service can calculate.
+     *
+     * @return the supported aggregates
+     */
+    Set<Aggregate> getSupportedAggregates();
+
+    /**
+     * Calculates an aggregate of the persisted states.
+     *
+     * @param filter the item name and the period
+     * @param aggregate the aggregate, one of the {@link #getSupportedAggregates()}
+     * @return the persisted state for {@link Aggregate#MINIMUM} and {@link Aggregate#MAXIMUM}, a historic item with
+     *         the calculated value as {@link org.openhab.core.library.types.DecimalType} for the other aggregates, or
+     *         <code>null</code> if there are no states to aggregate
+     */
+    @Nullable
+    HistoricItem aggregate(FilterCriteria filter, Aggregate aggregate);
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * A {@link PersistenceService} that can store several item states at once.
+ * <p>
+ * The persistence manager hands the states to be stored to a queue per service, which is processed by a separate
+ * thread. Services implementing this interface receive all states queued in the meantime in a single call, which
+ * allows them to write them e.g. in a single transaction or request. A {@link ModifiablePersistenceService} is called
+ * with the state and the timestamp of every single queued state. Other services store the current state of the item
+ * when it is persisted, so they are called directly.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface BatchPersistenceService extends PersistenceService {
+
+    /**
+     * Stores the given item states.
+     *
+     * @param entries the states to be stored, in the order of their creation
+     */
+    void store(List<PersistenceEntry> entries);
+}
@@ -12,6 +12,7 @@
  */
 package org.openhab.core.persistence;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -31,12 +32,19 @@ import org.openhab.core.types.State;
  * chunks of the result of a certain size (=pageSize) from a starting index (pageNumber*pageSize).
  *
  * <p>
+ * A resolution can be requested, if the caller does not need all states of the period (e.g. for a chart). Services
+ * supporting this return one {@link RollupHistoricItem} per interval instead, others ignore the resolution. Use
+ * {@link HistoricItemRollup#query(QueryablePersistenceService, FilterCriteria)} to get rolled up states from any
+ * service.
+ *
+ * <p>
  * All setter methods return the filter criteria instance, so that the methods can be easily chained in order to define
  * a filter.
  *
  * @author Kai Kreuzer - Initial contribution
  * @author Lyubomir Papazov - Deprecate methods using java.util and add methods
  *         that use Java8's ZonedDateTime
+ * @author agent - Added resolution
  */
 @NonNullByDefault
 public class FilterCriteria {
@@ -91,6 +99,9 @@ public class FilterCriteria {
     /** Filter result to only contain entries that evaluate to true with the given operator and state */
     private @Nullable State state;
 
+    /** roll up the result to one entry per interval of this length */
+    private @Nullable Duration resolution;
+
     public @Nullable String getItemName() {
         return itemName;
     }
@@ -123,6 +134,10 @@ public class FilterCriteria {
         return state;
     }
 
+    public @Nullable Duration getResolution() {
+        return resolution;
+    }
+
     public FilterCriteria setItemName(String itemName) {
         this.itemName = itemName;
         return this;
@@ -163,10 +178,15 @@ public class FilterCriteria {
         return this;
     }
 
+    public FilterCriteria setResolution(@Nullable Duration resolution) {
+        this.resolution = resolution;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "FilterCriteria [itemName=" + itemName + ", beginDate=" + beginDate + ", endDate=" + endDate
                 + ", pageNumber=" + pageNumber + ", pageSize=" + pageSize + ", operator=" + operator + ", ordering="
-                + ordering + ", state=" + state + "]";
+                + ordering + ", state=" + state + ", resolution=" + resolution + "]";
     }
 }
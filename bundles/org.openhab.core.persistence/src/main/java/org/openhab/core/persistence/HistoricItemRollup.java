@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.measure.Unit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link HistoricItemRollup} rolls up persisted states to one {@link RollupHistoricItem} per interval of the
+ * {@link FilterCriteria#getResolution() resolution} of a query.
+ * <p>
+ * Intervals start at the begin date of the query, or at multiples of the resolution since the epoch if no begin date
+ * is set. Only the rolled up items are kept in memory, so the states of a long period can be rolled up without
+ * creating a list of all of them.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public final class HistoricItemRollup {
+
+    private HistoricItemRollup() {
+        // prevent instantiation
+    }
+
+    /**
+     * Queries a persistence service and rolls up the result if the filter requests a resolution.
+     * <p>
+     * The service is queried for all pages with the resolution set. If it does not roll up the states itself, this is
+     * done while iterating its result. Paging of the filter is applied to the rolled up items.
+     *
+     * @param service the service to query
+     * @param filter the filter of the query
+     * @return the result of the query, rolled up if the filter requests a resolution
+     */
+    public static Iterable<HistoricItem> query(QueryablePersistenceService service, FilterCriteria filter) {
+        Duration resolution = filter.getResolution();
+        if (resolution == null || resolution.toMillis() <= 0) {
+            return service.query(filter);
+        }
+
+        FilterCriteria allPages = copy(filter).setPageNumber(0).setPageSize(Integer.MAX_VALUE);
+        List<HistoricItem> rolledUp = rollUp(service.query(allPages), filter.getBeginDate(), resolution);
+
+        long from = Math.min((long) filter.getPageNumber() * filter.getPageSize(), rolledUp.size());
+        long to = Math.min(from + filter.getPageSize(), rolledUp.size());
+        return from == 0 && to == rolledUp.size() ? rolledUp : rolledUp.subList((int) from, (int) to);
+    }
+
+    /**
+     * Rolls up states to one item per interval. The states must be ordered by time, ascending or descending, the
+     * result has the same order. Items that already are {@link RollupHistoricItem}s are returned as they are.
+     *
+     * @param historicItems the states to roll up
+     * @param begin the begin of the first interval, or null to align the intervals to the epoch
+     * @param resolution the length of the intervals
+     * @return the rolled up items
+     */
+    public static List<HistoricItem> rollUp(Iterable<HistoricItem> historicItems, @Nullable ZonedDateTime begin,
+            Duration resolution) {
+        long origin = begin != null ? begin.toInstant().toEpochMilli() : 0;
+        long length = Math.max(resolution.toMillis(), 1);
+        ZoneId zone = begin != null ? begin.getZone() : ZoneId.systemDefault();
+
+        List<HistoricItem> result = new ArrayList<>();
+        @Nullable
+        Interval interval = null;
+        for (HistoricItem historicItem : historicItems) {
+            if (historicItem instanceof RollupHistoricItem) {
+                result.add(historicItem);
+                continue;
+            }
+            long index = Math.floorDiv(historicItem.getTimestamp().toInstant().toEpochMilli() - origin, length);
+            if (interval == null || interval.index != index) {
+                if (interval != null) {
+                    result.add(interval.toHistoricItem());
+                }
+                ZonedDateTime timestamp = ZonedDateTime.ofInstant(Instant.ofEpochMilli(origin + index * length),
+                        zone);
+                interval = new Interval(index, timestamp, historicItem);
+            } else {
+                interval.add(historicItem.getState());
+            }
+        }
+        if (interval != null) {
+            result.add(interval.toHistoricItem());
+        }
+        return result;
+    }
+
+    private static FilterCriteria copy(FilterCriteria filter) {
+        FilterCriteria copy = new FilterCriteria().setPageNumber(filter.getPageNumber())
+                .setPageSize(filter.getPageSize()).setOperator(filter.getOperator()).setOrdering(filter.getOrdering())
+                .setResolution(filter.getResolution());
+        String itemName = filter.getItemName();
+        if (itemName != null) {
+            copy.setItemName(itemName);
+        }
+        ZonedDateTime beginDate = filter.getBeginDate();
+        if (beginDate != null) {
+            copy.setBeginDate(beginDate);
+        }
+        ZonedDateTime endDate = filter.getEndDate();
+        if (endDate != null) {
+            copy.setEndDate(endDate);
+        }
+        State state = filter.getState();
+        if (state != null) {
+            copy.setState(state);
+        }
+        return copy;
+    }
+
+    private static class Interval {
+        private final long index;
+        private final ZonedDateTime timestamp;
+        private final String name;
+        private final State first;
+        private final @Nullable Unit<?> unit;
+
+        private State minimum;
+        private State maximum;
+        private double minimumValue = Double.POSITIVE_INFINITY;
+        private double maximumValue = Double.NEGATIVE_INFINITY;
+        private double sum;
+        private int numericCount;
+        private int count;
+
+        Interval(long index, ZonedDateTime timestamp, HistoricItem first) {
+            this.index = index;
+            this.timestamp = timestamp;
+            this.name = first.getName();
+            this.first = first.getState();
+            this.unit = this.first instanceof QuantityType<?> quantity ? quantity.getUnit() : null;
+            this.minimum = this.first;
+            this.maximum = this.first;
+            add(this.first);
+        }
+
+        void add(State state) {
+            count++;
+            @Nullable
+            Double value = toDouble(state);
+            if (value == null) {
+                return;
+            }
+            numericCount++;
+            sum += value;
+            if (value < minimumValue) {
+                minimumValue = value;
+                minimum = state;
+            }
+            if (value > maximumValue) {
+                maximumValue = value;
+                maximum = state;
+            }
+        }
+
+        private @Nullable Double toDouble(State state) {
+            Unit<?> unit = this.unit;
+            if (unit != null) {
+                QuantityType<?> converted = state instanceof QuantityType<?> quantity ? quantity.toUnit(unit) : null;
+                return converted != null ? converted.doubleValue() : null;
+            }
+            if (state instanceof DecimalType decimal && !(state instanceof HSBType)) {
+                return decimal.doubleValue();
+            }
+            return null;
+        }
+
+        HistoricItem toHistoricItem() {
+            if (numericCount == 0) {
+                return new RollupHistoricItem(name, timestamp, first, first, first, count);
+            }
+            BigDecimal average = BigDecimal.valueOf(sum / numericCount);
+            Unit<?> unit = this.unit;
+            State state = unit != null ? new QuantityType<>(average, unit) : new DecimalType(average);
+            return new RollupHistoricItem(name, timestamp, state, minimum, maximum, count);
+        }
+    }
+}
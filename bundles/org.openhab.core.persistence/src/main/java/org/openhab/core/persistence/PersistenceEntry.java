@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence;
+
+import java.time.ZonedDateTime;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.items.Item;
+import org.openhab.core.types.State;
+
+/**
+ * A {@link PersistenceEntry} is a state of an item that is passed to a {@link BatchPersistenceService} to be stored.
+ *
+ * The state and the timestamp are taken when the entry is created, so they may differ from the current state of the
+ * item when the entry is stored.
+ *
+ * @param item the item
+ * @param alias the alias under which the item should be persisted, or null
+ * @param state the state to be stored
+ * @param timestamp the time of the state
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public record PersistenceEntry(Item item, @Nullable String alias, State state, ZonedDateTime timestamp) {
+}
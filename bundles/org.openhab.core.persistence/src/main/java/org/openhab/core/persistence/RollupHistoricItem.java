@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence;
+
+import java.time.ZonedDateTime;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.types.State;
+
+/**
+ * A {@link RollupHistoricItem} summarizes the states persisted within an interval, if a query requested a
+ * {@link FilterCriteria#getResolution() resolution}.
+ * <p>
+ * For numeric states, the state is the arithmetic mean of the states within the interval. For other states, the
+ * state, minimum and maximum are the first state of the interval.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RollupHistoricItem implements HistoricItem {
+
+    private final String name;
+    private final ZonedDateTime timestamp;
+    private final State state;
+    private final State minimum;
+    private final State maximum;
+    private final int count;
+
+    /**
+     * Creates a rolled up item.
+     *
+     * @param name the name of the item
+     * @param timestamp the begin of the interval
+     * @param state the average state of the interval
+     * @param minimum the lowest state of the interval
+     * @param maximum the highest state of the interval
+     * @param count the number of states within the interval
+     */
+    public RollupHistoricItem(String name, ZonedDateTime timestamp, State state, State minimum, State maximum,
+            int count) {
+        this.name = name;
+        this.timestamp = timestamp;
+        this.state = state;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.count = count;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the begin of the interval.
+     */
+    @Override
+    public ZonedDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the average state of the interval.
+     */
+    @Override
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return the lowest state of the interval
+     */
+    public State getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * @return the highest state of the interval
+     */
+    public State getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * @return the number of states within the interval
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "RollupHistoricItem [name=" + name + ", timestamp=" + timestamp + ", state=" + state + ", minimum="
+                + minimum + ", maximum=" + maximum + ", count=" + count + "]";
+    }
+}
@@ -22,12 +22,14 @@ import org.openhab.core.types.State;
  * This is a java bean that is used to serialize items to JSON.
  *
  * @author Chris Jackson - Initial contribution
+ * @author agent - Support for streaming and cursors
  */
 public class ItemHistoryDTO {
 
     public String name;
     public String totalrecords;
     public String datapoints;
+    public String nextCursor;
 
     public List<HistoryDataBean> data = new ArrayList<>();
 
@@ -41,8 +43,19 @@ public class ItemHistoryDTO {
      * @param time the time of the record
      * @param state the state at this time
      */
-    @SuppressWarnings("rawtypes")
     public void addData(Long time, State state) {
+        data.add(createData(time, state));
+    }
+
+    /**
+     * Create a record of the data history, e.g. to stream it without keeping the whole history.
+     *
+     * @param time the time of the record
+     * @param state the state at this time
+     * @return the record
+     */
+    @SuppressWarnings("rawtypes")
+    public static HistoryDataBean createData(Long time, State state) {
         HistoryDataBean newVal = new HistoryDataBean();
         newVal.time = time;
         if (state instanceof QuantityType quantityState) {
@@ -51,7 +64,7 @@ public class ItemHistoryDTO {
         } else {
             newVal.state = state.toString();
         }
-        data.add(newVal);
+        return newVal;
     }
 
     public static class HistoryDataBean {
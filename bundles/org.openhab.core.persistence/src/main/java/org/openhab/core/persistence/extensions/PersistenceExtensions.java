@@ -25,6 +25,8 @@ import java.util.stream.StreamSupport;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.items.Item;
 import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.AggregatingPersistenceService;
+import org.openhab.core.persistence.AggregatingPersistenceService.Aggregate;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
@@ -48,6 +50,8 @@ import org.slf4j.LoggerFactory;
  * @author Jan N. Klug - Added sumSince
  * @author John Cocula - Added sumSince
  * @author Jan N. Klug - Added interval methods and refactoring
+ * @author agent - Aggregates calculated by the persistence service
+ * @author agent - Added statistics methods
  */
 @Component(immediate = true)
 public class PersistenceExtensions {
@@ -448,7 +452,9 @@ public class PersistenceExtensions {
 
     private static @Nullable HistoricItem internalMaximum(final Item item, ZonedDateTime begin,
             @Nullable ZonedDateTime end, String serviceId) {
-        Iterable<HistoricItem> result = getAllStatesBetweenWithBoundaries(item, begin, end, serviceId);
+        AggregatingPersistenceService aService = getAggregatingService(serviceId, Aggregate.MAXIMUM);
+        Iterable<HistoricItem> result = aService != null ? aggregate(aService, item, begin, end, Aggregate.MAXIMUM)
+                : getAllStatesBetweenWithBoundaries(item, begin, end, serviceId);
         Iterator<HistoricItem> it = result.iterator();
         HistoricItem maximumHistoricItem = null;
         // include current state only if no end time is given
@@ -529,7 +535,9 @@ public class PersistenceExtensions {
 
     private static @Nullable HistoricItem internalMinimum(final Item item, ZonedDateTime begin,
             @Nullable ZonedDateTime end, String serviceId) {
-        Iterable<HistoricItem> result = getAllStatesBetweenWithBoundaries(item, begin, end, serviceId);
+        AggregatingPersistenceService aService = getAggregatingService(serviceId, Aggregate.MINIMUM);
+        Iterable<HistoricItem> result = aService != null ? aggregate(aService, item, begin, end, Aggregate.MINIMUM)
+                : getAllStatesBetweenWithBoundaries(item, begin, end, serviceId);
         Iterator<HistoricItem> it = result.iterator();
         HistoricItem minimumHistoricItem = null;
         DecimalType minimum = end == null ? item.getStateAs(DecimalType.class) : null;
@@ -609,6 +617,11 @@ public class PersistenceExtensions {
 
     private static @Nullable DecimalType internalVariance(Item item, ZonedDateTime begin, @Nullable ZonedDateTime end,
             String serviceId) {
+        AggregatingPersistenceService aService = getAggregatingService(serviceId, Aggregate.VARIANCE);
+        if (aService != null) {
+            return aggregateValue(aService, item, begin, end, Aggregate.VARIANCE);
+        }
+
         Iterable<HistoricItem> result = getAllStatesBetweenWithBoundaries(item, begin, end, serviceId);
         Iterator<HistoricItem> it = result.iterator();
         DecimalType averageSince = internalAverage(item, it, end);
@@ -783,6 +796,11 @@ public class PersistenceExtensions {
      */
     public static @Nullable DecimalType averageBetween(Item item, ZonedDateTime begin, ZonedDateTime end,
             String serviceId) {
+        AggregatingPersistenceService aService = getAggregatingService(serviceId, Aggregate.TIME_WEIGHTED_AVERAGE);
+        if (aService != null) {
+            return aggregateValue(aService, item, begin, end, Aggregate.TIME_WEIGHTED_AVERAGE);
+        }
+
         Iterable<HistoricItem> result = getAllStatesBetweenWithBoundaries(item, begin, end, serviceId);
         Iterator<HistoricItem> it = result.iterator();
         return internalAverage(item, it, end);
@@ -893,6 +911,12 @@ public class PersistenceExtensions {
 
     private static DecimalType internalSum(Item item, ZonedDateTime begin, @Nullable ZonedDateTime end,
             String serviceId) {
+        AggregatingPersistenceService aService = getAggregatingService(serviceId, Aggregate.SUM);
+        if (aService != null) {
+            DecimalType sum = aggregateValue(aService, item, begin, end, Aggregate.SUM);
+            return sum != null ? sum : DecimalType.ZERO;
+        }
+
         Iterable<HistoricItem> result = getAllStatesBetween(item, begin, end, serviceId);
         Iterator<HistoricItem> it = result.iterator();
 
@@ -1129,6 +1153,12 @@ public class PersistenceExtensions {
      * @return the number of values persisted for this item
      */
     public static long countBetween(Item item, ZonedDateTime begin, @Nullable ZonedDateTime end, String serviceId) {
+        AggregatingPersistenceService aService = getAggregatingService(serviceId, Aggregate.COUNT);
+        if (aService != null) {
+            DecimalType count = aggregateValue(aService, item, begin, end, Aggregate.COUNT);
+            return count != null ? count.longValue() : 0;
+        }
+
         Iterable<HistoricItem> historicItems = getAllStatesBetween(item, begin, end, serviceId);
         if (historicItems instanceof Collection<?> collection) {
             return collection.size();
@@ -1207,6 +1237,88 @@ public class PersistenceExtensions {
         return count;
     }
 
+    /**
+     * Gets several statistics of the state of a given {@link Item} since a certain point in time.
+     * The default {@link PersistenceService} is used.
+     *
+     * <b>Note:</b> The statistics are calculated in a single pass over the persisted states. If more than one of them
+     * is needed, this is cheaper than calling the single methods.
+     *
+     * @param item the {@link Item} to get the statistics for
+     * @param timestamp the point in time from which to compute the statistics
+     * @return the statistics since <code>timestamp</code>, or <code>null</code> if the default persistence service
+     *         is not available or does not refer to a {@link QueryablePersistenceService}. The current state is
+     *         included in the minimum and the maximum.
+     */
+    public static @Nullable PersistenceStatistics statisticsSince(Item item, ZonedDateTime timestamp) {
+        return statisticsSince(item, timestamp, getDefaultServiceId());
+    }
+
+    /**
+     * Gets several statistics of the state of a given {@link Item} between two points in time.
+     * The default {@link PersistenceService} is used.
+     *
+     * @param item the {@link Item} to get the statistics for
+     * @param begin the point in time from which to compute the statistics
+     * @param end the point in time to which to compute the statistics
+     * @return the statistics between the given points in time, or <code>null</code> if the default persistence
+     *         service is not available or does not refer to a {@link QueryablePersistenceService}
+     */
+    public static @Nullable PersistenceStatistics statisticsBetween(Item item, ZonedDateTime begin,
+            ZonedDateTime end) {
+        return statisticsBetween(item, begin, end, getDefaultServiceId());
+    }
+
+    /**
+     * Gets several statistics of the state of a given {@link Item} since a certain point in time.
+     * The {@link PersistenceService} identified by the <code>serviceId</code> is used.
+     *
+     * @param item the {@link Item} to get the statistics for
+     * @param timestamp the point in time from which to compute the statistics
+     * @param serviceId the name of the {@link PersistenceService} to use
+     * @return the statistics since <code>timestamp</code>, or <code>null</code> if the persistence service given by
+     *         <code>serviceId</code> is not available or does not refer to a {@link QueryablePersistenceService}. The
+     *         current state is included in the minimum and the maximum.
+     */
+    public static @Nullable PersistenceStatistics statisticsSince(Item item, ZonedDateTime timestamp,
+            String serviceId) {
+        return internalStatistics(item, timestamp, null, serviceId);
+    }
+
+    /**
+     * Gets several statistics of the state of a given {@link Item} between two points in time.
+     * The {@link PersistenceService} identified by the <code>serviceId</code> is used.
+     *
+     * @param item the {@link Item} to get the statistics for
+     * @param begin the point in time from which to compute the statistics
+     * @param end the point in time to which to compute the statistics
+     * @param serviceId the name of the {@link PersistenceService} to use
+     * @return the statistics between the given points in time, or <code>null</code> if the persistence service
+     *         given by <code>serviceId</code> is not available or does not refer to a
+     *         {@link QueryablePersistenceService}
+     */
+    public static @Nullable PersistenceStatistics statisticsBetween(Item item, ZonedDateTime begin,
+            ZonedDateTime end, String serviceId) {
+        return internalStatistics(item, begin, end, serviceId);
+    }
+
+    private static @Nullable PersistenceStatistics internalStatistics(Item item, ZonedDateTime begin,
+            @Nullable ZonedDateTime end, String serviceId) {
+        if (!(getService(serviceId) instanceof QueryablePersistenceService)) {
+            LoggerFactory.getLogger(PersistenceExtensions.class)
+                    .warn("There is no queryable persistence service registered with the id '{}'", serviceId);
+            return null;
+        }
+
+        HistoricItem beginState = !begin.isAfter(ZonedDateTime.now()) ? historicState(item, begin, serviceId) : null;
+        PersistenceStatistics.Accumulator accumulator = new PersistenceStatistics.Accumulator(item, begin, end,
+                beginState);
+        for (HistoricItem historicItem : getAllStatesBetween(item, begin, end, serviceId)) {
+            accumulator.add(historicItem);
+        }
+        return accumulator.finish();
+    }
+
     private static @Nullable PersistenceService getService(String serviceId) {
         if (registry != null) {
             return serviceId != null ? registry.get(serviceId) : registry.getDefault();
@@ -1214,6 +1326,38 @@ public class PersistenceExtensions {
         return null;
     }
 
+    /**
+     * Returns the persistence service if it can calculate the given aggregate itself.
+     *
+     * @param serviceId the name of the {@link PersistenceService} to use
+     * @param aggregate the aggregate to calculate
+     * @return the {@link AggregatingPersistenceService}, or <code>null</code> if the states have to be aggregated here
+     */
+    private static @Nullable AggregatingPersistenceService getAggregatingService(String serviceId,
+            Aggregate aggregate) {
+        if (getService(serviceId) instanceof AggregatingPersistenceService aService
+                && aService.getSupportedAggregates().contains(aggregate)) {
+            return aService;
+        }
+        return null;
+    }
+
+    private static List<HistoricItem> aggregate(AggregatingPersistenceService aService, Item item, ZonedDateTime begin,
+            @Nullable ZonedDateTime end, Aggregate aggregate) {
+        FilterCriteria filter = new FilterCriteria().setItemName(item.getName()).setBeginDate(begin);
+        if (end != null) {
+            filter.setEndDate(end);
+        }
+        HistoricItem result = aService.aggregate(filter, aggregate);
+        return result != null ? List.of(result) : List.of();
+    }
+
+    private static @Nullable DecimalType aggregateValue(AggregatingPersistenceService aService, Item item,
+            ZonedDateTime begin, @Nullable ZonedDateTime end, Aggregate aggregate) {
+        List<HistoricItem> result = aggregate(aService, item, begin, end, aggregate);
+        return result.isEmpty() ? null : result.get(0).getState().as(DecimalType.class);
+    }
+
     private static @Nullable String getDefaultServiceId() {
         if (registry != null) {
             String id = registry.getDefaultId();
@@ -1340,7 +1484,7 @@ public class PersistenceExtensions {
         return betweenItemsList;
     }
 
-    private static @Nullable HistoricItem historicItemOrCurrentState(Item item, HistoricItem historicItem,
+    static @Nullable HistoricItem historicItemOrCurrentState(Item item, HistoricItem historicItem,
             DecimalType value) {
         if (historicItem == null && value != null) {
             // there are no historic states we couldn't determine a value, construct a HistoricItem from the current
@@ -1366,7 +1510,7 @@ public class PersistenceExtensions {
         }
     }
 
-    private static class RetimedHistoricItem implements HistoricItem {
+    static class RetimedHistoricItem implements HistoricItem {
 
         private final HistoricItem originItem;
         private final ZonedDateTime timestamp;
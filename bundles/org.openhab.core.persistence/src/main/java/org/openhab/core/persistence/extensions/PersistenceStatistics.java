@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence.extensions;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.items.Item;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * The {@link PersistenceStatistics} contains several statistics of the persisted states of an item in a period,
+ * calculated in a single pass over the states (see {@link PersistenceExtensions#statisticsBetween}).
+ * <p>
+ * The count and the sum consider the states persisted within the period, like
+ * {@link PersistenceExtensions#countBetween} and {@link PersistenceExtensions#sumBetween}. Minimum, maximum, average,
+ * variance and deviation also consider the state valid at the begin of the period, like the corresponding methods of
+ * {@link PersistenceExtensions}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PersistenceStatistics {
+
+    private final long count;
+    private final DecimalType sum;
+    private final @Nullable DecimalType average;
+    private final @Nullable HistoricItem minimum;
+    private final @Nullable HistoricItem maximum;
+    private final @Nullable DecimalType variance;
+    private final @Nullable DecimalType deviation;
+
+    PersistenceStatistics(long count, DecimalType sum, @Nullable DecimalType average, @Nullable HistoricItem minimum,
+            @Nullable HistoricItem maximum, @Nullable DecimalType variance, @Nullable DecimalType deviation) {
+        this.count = count;
+        this.sum = sum;
+        this.average = average;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.variance = variance;
+        this.deviation = deviation;
+    }
+
+    /**
+     * @return the number of states persisted within the period
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the states persisted within the period
+     */
+    public DecimalType getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the time-weighted average, or <code>null</code> if there are no numeric states
+     */
+    public @Nullable DecimalType getAverage() {
+        return average;
+    }
+
+    /**
+     * @return the historic item with the minimum state, or <code>null</code> if there are no numeric states
+     */
+    public @Nullable HistoricItem getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * @return the historic item with the maximum state, or <code>null</code> if there are no numeric states
+     */
+    public @Nullable HistoricItem getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * @return the variance, or <code>null</code> if there is no average
+     */
+    public @Nullable DecimalType getVariance() {
+        return variance;
+    }
+
+    /**
+     * @return the standard deviation, or <code>null</code> if there is no average
+     */
+    public @Nullable DecimalType getDeviation() {
+        return deviation;
+    }
+
+    @Override
+    public String toString() {
+        return "PersistenceStatistics [count=" + count + ", sum=" + sum + ", average=" + average + ", minimum="
+                + minimum + ", maximum=" + maximum + ", variance=" + variance + ", deviation=" + deviation + "]";
+    }
+
+    /**
+     * Calculates the statistics from the states passed in ascending order, in constant memory.
+     */
+    static class Accumulator {
+
+        private final Item item;
+        private final ZonedDateTime begin;
+        private final @Nullable ZonedDateTime end;
+        private final ZonedDateTime endTime;
+
+        // the state valid at the begin, only used if no state has been persisted exactly at the begin
+        private @Nullable HistoricItem beginState;
+        private boolean started;
+
+        private long count;
+        private BigDecimal sum = BigDecimal.ZERO;
+
+        private @Nullable HistoricItem minimum;
+        private @Nullable HistoricItem maximum;
+        private @Nullable DecimalType minimumValue;
+        private @Nullable DecimalType maximumValue;
+
+        private @Nullable HistoricItem lastSample;
+        private @Nullable BigDecimal lastValue;
+        private @Nullable ZonedDateTime firstTimestamp;
+        private BigDecimal weightedSum = BigDecimal.ZERO;
+
+        // Welford's online algorithm for the mean and the sum of squared differences from the mean
+        private long samples;
+        private double mean;
+        private double m2;
+
+        /**
+         * @param item the item
+         * @param begin the begin of the period
+         * @param end the end of the period, or <code>null</code> to include the current state of the item
+         * @param beginState the state valid at the begin of the period, if any
+         */
+        Accumulator(Item item, ZonedDateTime begin, @Nullable ZonedDateTime end, @Nullable HistoricItem beginState) {
+            this.item = item;
+            this.begin = begin;
+            this.end = end;
+            this.endTime = end != null ? end : ZonedDateTime.now();
+            this.beginState = beginState;
+            if (end == null) {
+                // include current state only if no end time is given
+                minimumValue = item.getStateAs(DecimalType.class);
+                maximumValue = minimumValue;
+            }
+        }
+
+        /**
+         * Adds a state persisted within the period.
+         *
+         * @param historicItem the state, not earlier than the previously added one
+         */
+        void add(HistoricItem historicItem) {
+            if (!started) {
+                started = true;
+                HistoricItem beginState = this.beginState;
+                if (beginState != null && !historicItem.getTimestamp().equals(begin)) {
+                    sample(new PersistenceExtensions.RetimedHistoricItem(beginState, begin));
+                }
+            }
+            count++;
+            DecimalType value = historicItem.getState().as(DecimalType.class);
+            if (value != null) {
+                sum = sum.add(value.toBigDecimal());
+            }
+            sample(historicItem);
+        }
+
+        private void sample(HistoricItem historicItem) {
+            DecimalType value = historicItem.getState().as(DecimalType.class);
+            if (value == null) {
+                return;
+            }
+            BigDecimal decimal = value.toBigDecimal();
+
+            DecimalType minimumValue = this.minimumValue;
+            if (minimumValue == null || value.compareTo(minimumValue) < 0) {
+                this.minimumValue = value;
+                minimum = historicItem;
+            }
+            DecimalType maximumValue = this.maximumValue;
+            if (maximumValue == null || value.compareTo(maximumValue) > 0) {
+                this.maximumValue = value;
+                maximum = historicItem;
+            }
+
+            HistoricItem lastSample = this.lastSample;
+            BigDecimal lastValue = this.lastValue;
+            if (lastSample != null && lastValue != null) {
+                weightedSum = weightedSum.add(lastValue.multiply(BigDecimal
+                        .valueOf(Duration.between(lastSample.getTimestamp(), historicItem.getTimestamp()).toMillis())));
+            }
+            if (firstTimestamp == null) {
+                firstTimestamp = historicItem.getTimestamp();
+            }
+            this.lastSample = historicItem;
+            this.lastValue = decimal;
+
+            samples++;
+            double x = decimal.doubleValue();
+            double delta = x - mean;
+            mean += delta / samples;
+            m2 += delta * (x - mean);
+        }
+
+        /**
+         * @return the statistics of all added states
+         */
+        PersistenceStatistics finish() {
+            HistoricItem beginState = this.beginState;
+            if (!started && beginState != null) {
+                sample(new PersistenceExtensions.RetimedHistoricItem(beginState, begin));
+            }
+            ZonedDateTime end = this.end;
+            HistoricItem lastSample = this.lastSample;
+            if (end != null && !end.isAfter(ZonedDateTime.now()) && lastSample != null
+                    && !lastSample.getTimestamp().equals(end)) {
+                // the state valid at the end
+                sample(new PersistenceExtensions.RetimedHistoricItem(lastSample, end));
+            }
+
+            DecimalType average = null;
+            lastSample = this.lastSample;
+            BigDecimal lastValue = this.lastValue;
+            ZonedDateTime firstTimestamp = this.firstTimestamp;
+            if (lastSample != null && lastValue != null && firstTimestamp != null) {
+                BigDecimal total = weightedSum.add(lastValue
+                        .multiply(BigDecimal.valueOf(Duration.between(lastSample.getTimestamp(), endTime).toMillis())));
+                BigDecimal totalDuration = BigDecimal.valueOf(Duration.between(firstTimestamp, endTime).toMillis());
+                if (totalDuration.signum() != 0) {
+                    average = new DecimalType(total.divide(totalDuration, MathContext.DECIMAL64));
+                }
+            }
+
+            DecimalType variance = null;
+            DecimalType deviation = null;
+            if (average != null && samples > 0) {
+                // the squared differences from the average instead of the mean of the samples
+                double shift = mean - average.doubleValue();
+                double value = Math.max(0, m2 / samples + shift * shift);
+                variance = new DecimalType(new BigDecimal(value, MathContext.DECIMAL64));
+                deviation = new DecimalType(new BigDecimal(Math.sqrt(value), MathContext.DECIMAL64));
+            }
+
+            return new PersistenceStatistics(count, new DecimalType(sum), average,
+                    PersistenceExtensions.historicItemOrCurrentState(item, minimum, minimumValue),
+                    PersistenceExtensions.historicItemOrCurrentState(item, maximum, maximumValue), variance,
+                    deviation);
+        }
+    }
+}
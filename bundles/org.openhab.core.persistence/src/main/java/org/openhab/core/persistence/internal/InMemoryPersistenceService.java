@@ -0,0 +1,349 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence.internal;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.config.core.ConfigurableService;
+import org.openhab.core.items.Item;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.ModifiablePersistenceService;
+import org.openhab.core.persistence.PersistenceItemInfo;
+import org.openhab.core.persistence.PersistenceService;
+import org.openhab.core.persistence.strategy.PersistenceStrategy;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link InMemoryPersistenceService} keeps the recent states of items in memory, so that lookups of recent
+ * history do not need to access a database.
+ * <p>
+ * The states of each item are kept in an {@link InMemorySeries}. The number of samples per item, their age and the
+ * total number of samples are limited. If the total limit is exceeded, the oldest sample of all items is evicted.
+ * The series are kept in a priority queue by the timestamp of their oldest sample, so the oldest sample is found
+ * without looking at all series. The limits of the number of samples are applied when storing, so changing them does
+ * not immediately free memory. Expired samples are removed when storing and querying, and once a minute for all
+ * items, which also removes the items without samples.
+ * <p>
+ * The total limit is a number of samples, not of bytes. Numeric states take a fixed amount of memory per sample, but
+ * other states, e.g. strings, are kept as objects of any size, so the memory they take is not bounded by the limit.
+ *
+ * @author agent - Initial contribution
+ */
+@Component(immediate = true, service = PersistenceService.class, configurationPid = "org.openhab.inmemory", //
+        property = Constants.SERVICE_PID + "=org.openhab.inmemory")
+@ConfigurableService(category = "persistence", label = "In-Memory Persistence", //
+        description_uri = InMemoryPersistenceService.CONFIG_URI)
+@NonNullByDefault
+public class InMemoryPersistenceService implements ModifiablePersistenceService {
+
+    public static final String SERVICE_ID = "inmemory";
+
+    // constants for the configuration properties
+    protected static final String CONFIG_URI = "persistence:inmemory";
+    static final String CONFIG_MAX_SAMPLES_PER_ITEM = "maxSamplesPerItem";
+    static final String CONFIG_MAX_SAMPLES = "maxSamples";
+    static final String CONFIG_MAX_AGE = "maxAge";
+
+    static final int DEFAULT_MAX_SAMPLES_PER_ITEM = 1000;
+    static final int DEFAULT_MAX_SAMPLES = 100000;
+
+    private final Logger logger = LoggerFactory.getLogger(InMemoryPersistenceService.class);
+
+    private final Map<String, InMemorySeries> series = new ConcurrentHashMap<>();
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final Object evictionLock = new Object();
+    // candidates for eviction, with the timestamp of the oldest sample of a series or an earlier timestamp
+    private final PriorityQueue<EvictionCandidate> evictionCandidates = new PriorityQueue<>(
+            Comparator.comparingLong(EvictionCandidate::timestamp));
+
+    private volatile int maxSamplesPerItem = DEFAULT_MAX_SAMPLES_PER_ITEM;
+    private volatile long maxSamples = DEFAULT_MAX_SAMPLES;
+    private volatile Duration maxAge = Duration.ZERO;
+
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON);
+    private @Nullable ScheduledFuture<?> expiryJob;
+
+    @Activate
+    public InMemoryPersistenceService(Map<String, @Nullable Object> config) {
+        modified(config);
+    }
+
+    @Modified
+    protected synchronized void modified(Map<String, @Nullable Object> config) {
+        maxSamplesPerItem = Math.max(1, getInt(config, CONFIG_MAX_SAMPLES_PER_ITEM, DEFAULT_MAX_SAMPLES_PER_ITEM));
+        maxSamples = Math.max(1, getInt(config, CONFIG_MAX_SAMPLES, DEFAULT_MAX_SAMPLES));
+        maxAge = Duration.ofMinutes(Math.max(0, getInt(config, CONFIG_MAX_AGE, 0)));
+
+        stopExpiryJob();
+        if (!maxAge.isZero()) {
+            expiryJob = scheduler.scheduleWithFixedDelay(this::removeExpired, 1, 1, TimeUnit.MINUTES);
+        }
+    }
+
+    @Deactivate
+    protected synchronized void deactivate() {
+        stopExpiryJob();
+    }
+
+    private void stopExpiryJob() {
+        ScheduledFuture<?> expiryJob = this.expiryJob;
+        if (expiryJob != null) {
+            expiryJob.cancel(false);
+            this.expiryJob = null;
+        }
+    }
+
+    private int getInt(Map<String, @Nullable Object> config, String key, int defaultValue) {
+        Object value = config.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return value instanceof Number number ? number.intValue() : Integer.parseInt(value.toString());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring invalid value '{}' of configuration parameter '{}'.", value, key);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public String getId() {
+        return SERVICE_ID;
+    }
+
+    @Override
+    public String getLabel(@Nullable Locale locale) {
+        return "In-Memory";
+    }
+
+    @Override
+    public List<PersistenceStrategy> getDefaultStrategies() {
+        // items are only kept in memory if configured explicitly
+        return List.of();
+    }
+
+    @Override
+    public void store(Item item) {
+        store(item, null);
+    }
+
+    @Override
+    public void store(Item item, @Nullable String alias) {
+        State state = item.getState();
+        if (state instanceof UnDefType) {
+            return;
+        }
+        store(alias != null ? alias : item.getName(), ZonedDateTime.now(), state);
+    }
+
+    @Override
+    public void store(Item item, ZonedDateTime date, State state) {
+        if (state instanceof UnDefType) {
+            return;
+        }
+        store(item.getName(), date, state);
+    }
+
+    private void store(String name, ZonedDateTime date, State state) {
+        // the series of the item might have been removed concurrently, in that case it is created again
+        long timestamp = date.toInstant().toEpochMilli();
+        InMemorySeries itemSeries;
+        int added;
+        do {
+            itemSeries = series.computeIfAbsent(name, n -> new InMemorySeries(maxSamplesPerItem));
+            added = itemSeries.add(timestamp, state);
+        } while (series.get(name) != itemSeries);
+        if (timestamp < itemSeries.candidateTimestamp) {
+            synchronized (evictionLock) {
+                enqueue(itemSeries, timestamp);
+            }
+        }
+        sampleCount.addAndGet(added - removeExpired(itemSeries));
+        evict();
+    }
+
+    @Override
+    public Iterable<HistoricItem> query(FilterCriteria filter) {
+        String name = filter.getItemName();
+        InMemorySeries itemSeries = name != null ? series.get(name) : null;
+        if (name == null || itemSeries == null) {
+            return List.of();
+        }
+        sampleCount.addAndGet(-removeExpired(itemSeries));
+        return itemSeries.query(filter, name);
+    }
+
+    @Override
+    public boolean remove(FilterCriteria filter) throws IllegalArgumentException {
+        String name = filter.getItemName();
+        if (name == null) {
+            throw new IllegalArgumentException("Item name must not be null");
+        }
+        InMemorySeries itemSeries = series.get(name);
+        if (itemSeries != null) {
+            sampleCount.addAndGet(-itemSeries.remove(filter));
+            series.computeIfPresent(name, (n, s) -> s.size() == 0 ? null : s);
+        }
+        return true;
+    }
+
+    @Override
+    public Set<PersistenceItemInfo> getItemInfo() {
+        Set<PersistenceItemInfo> itemInfo = new HashSet<>();
+        series.forEach((name, itemSeries) -> {
+            int count = itemSeries.size();
+            if (count > 0) {
+                itemInfo.add(new InMemoryItemInfo(name, count, new Date(itemSeries.getEarliest()),
+                        new Date(itemSeries.getLatest())));
+            }
+        });
+        return itemInfo;
+    }
+
+    /**
+     * @return the total number of samples kept in memory
+     */
+    public long getSampleCount() {
+        return sampleCount.get();
+    }
+
+    /**
+     * Removes the expired samples of all items, and the items without samples afterwards.
+     */
+    void removeExpired() {
+        Set<InMemorySeries> removedSeries = new HashSet<>();
+        series.forEach((name, itemSeries) -> {
+            sampleCount.addAndGet(-removeExpired(itemSeries));
+            // a sample stored concurrently to a removed series is stored again to a new series
+            series.computeIfPresent(name, (n, s) -> {
+                if (s.size() == 0) {
+                    removedSeries.add(s);
+                    return null;
+                }
+                return s;
+            });
+        });
+        if (!removedSeries.isEmpty()) {
+            synchronized (evictionLock) {
+                evictionCandidates.removeIf(candidate -> removedSeries.contains(candidate.series()));
+            }
+        }
+    }
+
+    private int removeExpired(InMemorySeries itemSeries) {
+        Duration maxAge = this.maxAge;
+        if (maxAge.isZero()) {
+            return 0;
+        }
+        return itemSeries.removeOlderThan(Instant.now().minus(maxAge).toEpochMilli());
+    }
+
+    // evicts the oldest samples of all items until the total limit is met
+    private void evict() {
+        if (sampleCount.get() <= maxSamples) {
+            return;
+        }
+        synchronized (evictionLock) {
+            while (sampleCount.get() > maxSamples) {
+                EvictionCandidate candidate = evictionCandidates.poll();
+                if (candidate == null) {
+                    return;
+                }
+                InMemorySeries itemSeries = candidate.series();
+                if (candidate.timestamp() != itemSeries.candidateTimestamp) {
+                    // replaced by a candidate with an earlier timestamp
+                    continue;
+                }
+                // samples might have been removed since the candidate was queued, then it is queued again
+                if (itemSeries.getEarliest() <= candidate.timestamp()) {
+                    sampleCount.addAndGet(-itemSeries.removeOldest());
+                }
+                itemSeries.candidateTimestamp = Long.MAX_VALUE;
+                enqueue(itemSeries, itemSeries.getEarliest());
+            }
+        }
+    }
+
+    // must be called with the eviction lock held
+    private void enqueue(InMemorySeries itemSeries, long timestamp) {
+        if (timestamp != Long.MAX_VALUE && timestamp < itemSeries.candidateTimestamp) {
+            itemSeries.candidateTimestamp = timestamp;
+            evictionCandidates.add(new EvictionCandidate(timestamp, itemSeries));
+        }
+    }
+
+    private record EvictionCandidate(long timestamp, InMemorySeries series) {
+    }
+
+    private static class InMemoryItemInfo implements PersistenceItemInfo {
+        private final String name;
+        private final Integer count;
+        private final Date earliest;
+        private final Date latest;
+
+        public InMemoryItemInfo(String name, Integer count, Date earliest, Date latest) {
+            this.name = name;
+            this.count = count;
+            this.earliest = earliest;
+            this.latest = latest;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public @Nullable Integer getCount() {
+            return count;
+        }
+
+        @Override
+        public @Nullable Date getEarliest() {
+            return earliest;
+        }
+
+        @Override
+        public @Nullable Date getLatest() {
+            return latest;
+        }
+    }
+}
@@ -0,0 +1,577 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence.internal;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.measure.Unit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Operator;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.RollupHistoricItem;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link InMemorySeries} keeps the persisted states of a single item in a ring buffer, ordered by time.
+ * <p>
+ * Timestamps are kept as epoch milliseconds in a <code>long[]</code> and numeric states as <code>double</code> values
+ * together with a kind, so that the state can be restored. Only states that are not numeric are kept as objects, and
+ * numeric states that a <code>double</code> does not restore exactly, e.g. <code>1.50</code>, values with more than
+ * about 15 significant digits or quantities in another unit than the first one of the item. Their <code>double</code>
+ * value is kept as well, so they are rolled up like the other numeric states.
+ * The buffer grows up to its maximum size, afterwards adding a sample evicts the oldest one. Queries requesting a
+ * resolution are rolled up from the arrays, so only one object per interval is created.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class InMemorySeries {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final byte KIND_DECIMAL = 0;
+    private static final byte KIND_PERCENT = 1;
+    private static final byte KIND_QUANTITY = 2;
+    private static final byte KIND_ON_OFF = 3;
+    private static final byte KIND_OPEN_CLOSED = 4;
+    private static final byte KIND_OTHER = 5;
+
+    private final int maxSize;
+
+    private long[] timestamps;
+    private double[] values;
+    private byte[] kinds;
+    private @Nullable State @Nullable [] others;
+    private @Nullable Unit<?> unit;
+
+    private int head = 0;
+    private int size = 0;
+
+    // the timestamp of the eviction candidate of this series, guarded by the eviction lock of the persistence service
+    volatile long candidateTimestamp = Long.MAX_VALUE;
+
+    /**
+     * Creates an empty series.
+     *
+     * @param maxSize the maximum number of samples
+     */
+    InMemorySeries(int maxSize) {
+        this.maxSize = maxSize;
+        int capacity = Math.min(INITIAL_CAPACITY, maxSize);
+        timestamps = new long[capacity];
+        values = new double[capacity];
+        kinds = new byte[capacity];
+    }
+
+    /**
+     * Adds a sample. A sample with the same timestamp as an existing one replaces it.
+     *
+     * @param timestamp the timestamp in epoch milliseconds
+     * @param state the state
+     * @return the change of the number of samples
+     */
+    synchronized int add(long timestamp, State state) {
+        int position = upperBound(timestamp);
+        if (position > 0 && timestamps[index(position - 1)] == timestamp) {
+            set(index(position - 1), timestamp, state);
+            return 0;
+        }
+        int added = 1;
+        if (size == maxSize) {
+            if (position == 0) {
+                // older than all samples of a full series, it would be evicted first
+                return 0;
+            }
+            removeFirst();
+            position--;
+            added = 0;
+        } else if (size == timestamps.length) {
+            resize(Math.min(timestamps.length * 2, maxSize));
+        }
+        // shift the newer samples, which is a no-op when appending
+        for (int i = size; i > position; i--) {
+            move(index(i - 1), index(i));
+        }
+        size++;
+        set(index(position), timestamp, state);
+        return added;
+    }
+
+    /**
+     * Removes all samples older than the given timestamp.
+     *
+     * @param timestamp the timestamp in epoch milliseconds
+     * @return the number of removed samples
+     */
+    synchronized int removeOlderThan(long timestamp) {
+        int count = lowerBound(timestamp);
+        for (int i = 0; i < count; i++) {
+            removeFirst();
+        }
+        trim();
+        return count;
+    }
+
+    /**
+     * Removes the oldest sample.
+     *
+     * @return the number of removed samples
+     */
+    synchronized int removeOldest() {
+        if (size == 0) {
+            return 0;
+        }
+        removeFirst();
+        trim();
+        return 1;
+    }
+
+    /**
+     * Removes the samples matching a filter. Paging and ordering of the filter are ignored.
+     *
+     * @param filter the filter
+     * @return the number of removed samples
+     */
+    synchronized int remove(FilterCriteria filter) {
+        int from = lowerBound(toEpochMilli(filter.getBeginDate(), Long.MIN_VALUE));
+        int to = upperBound(toEpochMilli(filter.getEndDate(), Long.MAX_VALUE));
+        int kept = from;
+        for (int i = from; i < size; i++) {
+            int index = index(i);
+            if (i < to && matches(index, filter)) {
+                continue;
+            }
+            if (kept != i) {
+                move(index, index(kept));
+            }
+            kept++;
+        }
+        int removed = size - kept;
+        for (int i = kept; i < size; i++) {
+            clear(index(i));
+        }
+        size = kept;
+        trim();
+        return removed;
+    }
+
+    /**
+     * Queries the samples matching a filter. If the filter requests a resolution, the samples are rolled up to one
+     * {@link RollupHistoricItem} per interval.
+     *
+     * @param filter the filter
+     * @param name the name of the returned historic items
+     * @return the matching samples in the order requested by the filter
+     */
+    synchronized List<HistoricItem> query(FilterCriteria filter, String name) {
+        int from = lowerBound(toEpochMilli(filter.getBeginDate(), Long.MIN_VALUE));
+        int to = upperBound(toEpochMilli(filter.getEndDate(), Long.MAX_VALUE));
+        Duration resolution = filter.getResolution();
+        if (resolution != null && resolution.toMillis() > 0) {
+            return rollUp(filter, name, from, to, resolution.toMillis());
+        }
+
+        long skip = (long) filter.getPageNumber() * filter.getPageSize();
+        int limit = filter.getPageSize();
+        boolean ascending = filter.getOrdering() == Ordering.ASCENDING;
+
+        List<HistoricItem> result = new ArrayList<>(Math.min(limit, Math.max(to - from, 0)));
+        for (int i = from; i < to && result.size() < limit; i++) {
+            int index = index(ascending ? i : from + to - 1 - i);
+            if (!matches(index, filter)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            result.add(new InMemoryHistoricItem(name, get(index), toZonedDateTime(timestamps[index])));
+        }
+        return result;
+    }
+
+    private List<HistoricItem> rollUp(FilterCriteria filter, String name, int from, int to, long length) {
+        ZonedDateTime begin = filter.getBeginDate();
+        long origin = begin != null ? begin.toInstant().toEpochMilli() : 0;
+        ZoneId zone = begin != null ? begin.getZone() : ZoneId.systemDefault();
+        long skip = (long) filter.getPageNumber() * filter.getPageSize();
+        int limit = filter.getPageSize();
+        boolean ascending = filter.getOrdering() == Ordering.ASCENDING;
+
+        List<HistoricItem> result = new ArrayList<>();
+        long interval = 0;
+        int first = -1;
+        int minimum = -1;
+        int maximum = -1;
+        double sum = 0;
+        int numericCount = 0;
+        int count = 0;
+        for (int i = from; i <= to && result.size() < limit; i++) {
+            int index = -1;
+            long sampleInterval = 0;
+            if (i < to) {
+                index = index(ascending ? i : from + to - 1 - i);
+                if (!matches(index, filter)) {
+                    continue;
+                }
+                sampleInterval = Math.floorDiv(timestamps[index] - origin, length);
+            }
+            if (first >= 0 && (index < 0 || sampleInterval != interval)) {
+                // the interval is complete
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    ZonedDateTime timestamp = ZonedDateTime.ofInstant(Instant.ofEpochMilli(origin + interval * length),
+                            zone);
+                    result.add(numericCount == 0
+                            ? new RollupHistoricItem(name, timestamp, get(first), get(first), get(first), count)
+                            : new RollupHistoricItem(name, timestamp, average(first, sum / numericCount),
+                                    get(minimum), get(maximum), count));
+                }
+                first = -1;
+            }
+            if (index < 0) {
+                break;
+            }
+            if (first < 0) {
+                interval = sampleInterval;
+                first = index;
+                minimum = -1;
+                maximum = -1;
+                sum = 0;
+                numericCount = 0;
+                count = 0;
+            }
+            count++;
+            if (kinds[index] == KIND_DECIMAL || kinds[index] == KIND_PERCENT || kinds[index] == KIND_QUANTITY) {
+                double value = values[index];
+                sum += value;
+                numericCount++;
+                if (minimum < 0 || value < values[minimum]) {
+                    minimum = index;
+                }
+                if (maximum < 0 || value > values[maximum]) {
+                    maximum = index;
+                }
+            }
+        }
+        return result;
+    }
+
+    // the average of an interval, with the type of its first sample
+    private State average(int first, double average) {
+        Unit<?> unit = this.unit;
+        if (kinds[first] == KIND_QUANTITY && unit != null) {
+            return new QuantityType<>(BigDecimal.valueOf(average), unit);
+        }
+        return new DecimalType(BigDecimal.valueOf(average));
+    }
+
+    /**
+     * @return the number of samples
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the timestamp of the oldest sample in epoch milliseconds, or {@link Long#MAX_VALUE} if there is none
+     */
+    synchronized long getEarliest() {
+        return size == 0 ? Long.MAX_VALUE : timestamps[head];
+    }
+
+    /**
+     * @return the timestamp of the newest sample in epoch milliseconds, or {@link Long#MIN_VALUE} if there is none
+     */
+    synchronized long getLatest() {
+        return size == 0 ? Long.MIN_VALUE : timestamps[index(size - 1)];
+    }
+
+    private int index(int position) {
+        int index = head + position;
+        return index >= timestamps.length ? index - timestamps.length : index;
+    }
+
+    // the position of the first sample not older than the timestamp
+    private int lowerBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[index(middle)] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // the position of the first sample newer than the timestamp
+    private int upperBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[index(middle)] <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void removeFirst() {
+        clear(head);
+        head = index(1);
+        size--;
+    }
+
+    // shrinks the arrays if most of them is unused
+    private void trim() {
+        if (timestamps.length > INITIAL_CAPACITY && size < timestamps.length / 4) {
+            resize(Math.max(timestamps.length / 2, INITIAL_CAPACITY));
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] newTimestamps = new long[capacity];
+        double[] newValues = new double[capacity];
+        byte[] newKinds = new byte[capacity];
+        @Nullable
+        State[] oldOthers = others;
+        @Nullable
+        State @Nullable [] newOthers = oldOthers == null ? null : new State[capacity];
+        for (int i = 0; i < size; i++) {
+            int index = index(i);
+            newTimestamps[i] = timestamps[index];
+            newValues[i] = values[index];
+            newKinds[i] = kinds[index];
+            if (oldOthers != null && newOthers != null) {
+                newOthers[i] = oldOthers[index];
+            }
+        }
+        timestamps = newTimestamps;
+        values = newValues;
+        kinds = newKinds;
+        others = newOthers;
+        head = 0;
+    }
+
+    private void move(int from, int to) {
+        timestamps[to] = timestamps[from];
+        values[to] = values[from];
+        kinds[to] = kinds[from];
+        @Nullable
+        State[] others = this.others;
+        if (others != null) {
+            others[to] = others[from];
+            others[from] = null;
+        }
+    }
+
+    private void clear(int index) {
+        @Nullable
+        State[] others = this.others;
+        if (others != null) {
+            others[index] = null;
+        }
+    }
+
+    private void set(int index, long timestamp, State state) {
+        timestamps[index] = timestamp;
+        clear(index);
+        if (state instanceof HSBType) {
+            setOther(index, state);
+        } else if (state instanceof PercentType percent) {
+            setNumber(index, state, percent.toBigDecimal(), KIND_PERCENT);
+        } else if (state instanceof DecimalType decimal) {
+            setNumber(index, state, decimal.toBigDecimal(), KIND_DECIMAL);
+        } else if (state instanceof QuantityType<?> quantity) {
+            Unit<?> unit = this.unit;
+            if (unit == null) {
+                unit = quantity.getUnit();
+                this.unit = unit;
+            }
+            QuantityType<?> converted = quantity.toUnit(unit);
+            if (converted != null) {
+                setNumber(index, state, converted.toBigDecimal(), KIND_QUANTITY);
+                if (!unit.equals(quantity.getUnit())) {
+                    // the restored state would have the unit of the series
+                    setExact(index, state);
+                }
+            } else {
+                setOther(index, state);
+            }
+        } else if (state instanceof OnOffType) {
+            values[index] = state == OnOffType.ON ? 1 : 0;
+            kinds[index] = KIND_ON_OFF;
+        } else if (state instanceof OpenClosedType) {
+            values[index] = state == OpenClosedType.OPEN ? 1 : 0;
+            kinds[index] = KIND_OPEN_CLOSED;
+        } else {
+            setOther(index, state);
+        }
+    }
+
+    private void setNumber(int index, State state, BigDecimal value, byte kind) {
+        double doubleValue = value.doubleValue();
+        values[index] = doubleValue;
+        kinds[index] = kind;
+        if (!restore(doubleValue).equals(value)) {
+            setExact(index, state);
+        }
+    }
+
+    // the shortest decimal representation of a value without exponent
+    private static BigDecimal restore(double value) {
+        BigDecimal restored = BigDecimal.valueOf(value).stripTrailingZeros();
+        return restored.scale() < 0 ? restored.setScale(0) : restored;
+    }
+
+    private void setOther(int index, State state) {
+        setExact(index, state);
+        kinds[index] = KIND_OTHER;
+    }
+
+    // keeps the state as object, it is returned instead of the state restored from the value
+    private void setExact(int index, State state) {
+        @Nullable
+        State[] others = this.others;
+        if (others == null) {
+            others = new State[timestamps.length];
+            this.others = others;
+        }
+        others[index] = state;
+    }
+
+    private State get(int index) {
+        @Nullable
+        State[] others = this.others;
+        State exact = others != null ? others[index] : null;
+        if (exact != null) {
+            return exact;
+        }
+        double value = values[index];
+        switch (kinds[index]) {
+            case KIND_DECIMAL:
+                return new DecimalType(restore(value));
+            case KIND_PERCENT:
+                return new PercentType(restore(value));
+            case KIND_QUANTITY:
+                Unit<?> unit = this.unit;
+                if (unit != null) {
+                    return new QuantityType<>(restore(value), unit);
+                }
+                return new DecimalType(restore(value));
+            case KIND_ON_OFF:
+                return value != 0 ? OnOffType.ON : OnOffType.OFF;
+            case KIND_OPEN_CLOSED:
+                return value != 0 ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+            default:
+                throw new IllegalStateException("Missing state of sample " + index);
+        }
+    }
+
+    private boolean matches(int index, FilterCriteria filter) {
+        State filterState = filter.getState();
+        if (filterState == null) {
+            return true;
+        }
+        State state = get(index);
+        Operator operator = filter.getOperator();
+        if (operator == Operator.EQ) {
+            return state.equals(filterState);
+        } else if (operator == Operator.NEQ) {
+            return !state.equals(filterState);
+        }
+
+        int comparison;
+        if (state instanceof QuantityType<?> quantity && filterState instanceof QuantityType<?> filterQuantity) {
+            QuantityType<?> converted = filterQuantity.toUnit(quantity.getUnit());
+            if (converted == null) {
+                return false;
+            }
+            comparison = quantity.toBigDecimal().compareTo(converted.toBigDecimal());
+        } else if (state instanceof DecimalType decimal && filterState instanceof DecimalType filterDecimal) {
+            comparison = decimal.toBigDecimal().compareTo(filterDecimal.toBigDecimal());
+        } else {
+            return false;
+        }
+        return switch (operator) {
+            case GT -> comparison > 0;
+            case LT -> comparison < 0;
+            case GTE -> comparison >= 0;
+            case LTE -> comparison <= 0;
+            default -> false;
+        };
+    }
+
+    private static long toEpochMilli(@Nullable ZonedDateTime dateTime, long defaultValue) {
+        return dateTime == null ? defaultValue : dateTime.toInstant().toEpochMilli();
+    }
+
+    private static ZonedDateTime toZonedDateTime(long timestamp) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+
+    private static class InMemoryHistoricItem implements HistoricItem {
+        private final String name;
+        private final State state;
+        private final ZonedDateTime timestamp;
+
+        public InMemoryHistoricItem(String name, State state, ZonedDateTime timestamp) {
+            this.name = name;
+            this.state = state;
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public ZonedDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public State getState() {
+            return state;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return "InMemoryHistoricItem [name=" + name + ", state=" + state + ", timestamp=" + timestamp + "]";
+        }
+    }
+}
@@ -12,6 +12,7 @@
  */
 package org.openhab.core.persistence.internal;
 
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.HashSet;
@@ -40,6 +41,7 @@ import org.openhab.core.items.ItemRegistryChangeListener;
 import org.openhab.core.items.StateChangeListener;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.PersistenceEntry;
 import org.openhab.core.persistence.PersistenceItemConfiguration;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
@@ -76,6 +78,8 @@ import org.slf4j.LoggerFactory;
  * @author Kai Kreuzer - Initial contribution
  * @author Markus Rathgeb - Separation of persistence core and model, drop Quartz usage.
  * @author Jan N. Klug - Refactored to use service configuration registry
+ * @author agent - Asynchronous write queues
+ * @author agent - Routing table for state events
  */
 @Component(immediate = true)
 @NonNullByDefault
@@ -97,6 +101,11 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
 
     private final Map<String, PersistenceServiceContainer> persistenceServiceContainers = new ConcurrentHashMap<>();
 
+    // the routes of the items for state changes and updates, computed on the first event of an item and replaced
+    // whenever items, services or configurations change
+    private volatile Map<String, List<Route>> changeRoutes = new ConcurrentHashMap<>();
+    private volatile Map<String, List<Route>> updateRoutes = new ConcurrentHashMap<>();
+
     @Activate
     public PersistenceManager(final @Reference CronScheduler scheduler, final @Reference ItemRegistry itemRegistry,
             final @Reference SafeCaller safeCaller, final @Reference ReadyService readyService,
@@ -118,7 +127,7 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
         persistenceServiceConfigurationRegistry.removeRegistryChangeListener(this);
         started = false;
 
-        persistenceServiceContainers.values().forEach(PersistenceServiceContainer::cancelPersistJobs);
+        persistenceServiceContainers.values().forEach(PersistenceServiceContainer::dispose);
 
         // remove item state change listeners
         itemRegistry.stream().filter(GenericItem.class::isInstance)
@@ -133,10 +142,11 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
                 persistenceServiceConfigurationRegistry.get(serviceId));
 
         PersistenceServiceContainer oldContainer = persistenceServiceContainers.put(serviceId, container);
+        invalidateRoutes();
 
         if (oldContainer != null) { // cancel all jobs if the persistence service is set and an old configuration is
                                     // already present
-            oldContainer.cancelPersistJobs();
+            oldContainer.dispose();
         }
 
         if (started) {
@@ -146,29 +156,66 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
 
     protected void removePersistenceService(PersistenceService persistenceService) {
         PersistenceServiceContainer container = persistenceServiceContainers.remove(persistenceService.getId());
+        invalidateRoutes();
         if (container != null) {
-            container.cancelPersistJobs();
+            container.dispose();
         }
     }
 
+    /**
+     * Gets the statistics of the write queue of a persistence service.
+     *
+     * @param serviceId the id of the persistence service
+     * @return the statistics, or null if the service is not known or stores the states without queueing them
+     */
+    public PersistenceWriteQueue.@Nullable Statistics getWriteQueueStatistics(String serviceId) {
+        PersistenceServiceContainer container = persistenceServiceContainers.get(serviceId);
+        return container == null ? null : container.getWriteQueueStatistics();
+    }
+
     /**
      * Calls all persistence services which use change or update policy for the given item
      *
      * @param item the item to persist
+     * @param state the new state of the item
      * @param changed true, if it has the change strategy, false otherwise
      */
-    private void handleStateEvent(Item item, boolean changed) {
-        PersistenceStrategy changeStrategy = changed ? PersistenceStrategy.Globals.CHANGE
+    private void handleStateEvent(Item item, State state, boolean changed) {
+        for (Route route : getRoutes(item, changed)) {
+            PersistenceItemConfiguration itemConfig = route.itemConfig();
+            if (itemConfig.filters().stream().allMatch(filter -> filter.apply(item))) {
+                itemConfig.filters().forEach(filter -> filter.persisted(item));
+                route.container().store(item, itemConfig.alias(), state);
+            }
+        }
+    }
+
+    /**
+     * Returns the configurations of all persistence services that apply to an item for the change or update strategy
+     *
+     * @param item the item
+     * @param changed true for the change strategy, false for the update strategy
+     * @return the routes of the item
+     */
+    private List<Route> getRoutes(Item item, boolean changed) {
+        PersistenceStrategy strategy = changed ? PersistenceStrategy.Globals.CHANGE
                 : PersistenceStrategy.Globals.UPDATE;
+        Map<String, List<Route>> routes = changed ? changeRoutes : updateRoutes;
+        return routes.computeIfAbsent(item.getName(),
+                itemName -> persistenceServiceContainers.values().stream()
+                        .flatMap(container -> container.getMatchingConfigurations(strategy)
+                                .filter(itemConfig -> appliesToItem(itemConfig, item))
+                                .map(itemConfig -> new Route(container, itemConfig)))
+                        .toList());
+    }
 
-        persistenceServiceContainers.values()
-                .forEach(container -> container.getMatchingConfigurations(changeStrategy)
-                        .filter(itemConfig -> appliesToItem(itemConfig, item))
-                        .filter(itemConfig -> itemConfig.filters().stream().allMatch(filter -> filter.apply(item)))
-                        .forEach(itemConfig -> {
-                            itemConfig.filters().forEach(filter -> filter.persisted(item));
-                            container.getPersistenceService().store(item, itemConfig.alias());
-                        }));
+    /**
+     * Discards all routes, they are computed again on the next state event of an item
+     */
+    private void invalidateRoutes() {
+        // new maps, so that routes computed concurrently from the old state are not kept
+        changeRoutes = new ConcurrentHashMap<>();
+        updateRoutes = new ConcurrentHashMap<>();
     }
 
     /**
@@ -292,11 +339,13 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
 
     @Override
     public void allItemsChanged(Collection<String> oldItemNames) {
+        invalidateRoutes();
         itemRegistry.getItems().forEach(this::added);
     }
 
     @Override
     public void added(Item item) {
+        invalidateRoutes();
         restoreItemStateIfNeeded(item);
         if (item instanceof GenericItem genericItem) {
             genericItem.addStateChangeListener(this);
@@ -305,6 +354,7 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
 
     @Override
     public void removed(Item item) {
+        invalidateRoutes();
         if (item instanceof GenericItem genericItem) {
             genericItem.removeStateChangeListener(this);
         }
@@ -318,12 +368,12 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
 
     @Override
     public void stateChanged(Item item, State oldState, State newState) {
-        handleStateEvent(item, true);
+        handleStateEvent(item, newState, true);
     }
 
     @Override
     public void stateUpdated(Item item, State state) {
-        handleStateEvent(item, false);
+        handleStateEvent(item, state, false);
     }
 
     @Override
@@ -349,6 +399,7 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
         PersistenceServiceContainer container = persistenceServiceContainers.get(element.getUID());
         if (container != null) {
             container.setConfiguration(element);
+            invalidateRoutes();
             if (started) {
                 startEventHandling(container);
             }
@@ -360,6 +411,7 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
         PersistenceServiceContainer container = persistenceServiceContainers.get(element.getUID());
         if (container != null) {
             container.setConfiguration(null);
+            invalidateRoutes();
             if (started) {
                 startEventHandling(container);
             }
@@ -372,9 +424,16 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
         added(element);
     }
 
+    /**
+     * A configuration of a persistence service that applies to an item
+     */
+    private record Route(PersistenceServiceContainer container, PersistenceItemConfiguration itemConfig) {
+    }
+
     private class PersistenceServiceContainer {
         private final PersistenceService persistenceService;
         private final Set<ScheduledCompletableFuture<?>> jobs = new HashSet<>();
+        private final @Nullable PersistenceWriteQueue writeQueue;
 
         private PersistenceServiceConfiguration configuration;
 
@@ -382,12 +441,51 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
                 @Nullable PersistenceServiceConfiguration configuration) {
             this.persistenceService = persistenceService;
             this.configuration = Objects.requireNonNullElseGet(configuration, this::getDefaultConfig);
+            this.writeQueue = PersistenceWriteQueue.canQueue(persistenceService)
+                    ? new PersistenceWriteQueue(persistenceService, PersistenceWriteQueue.DEFAULT_CAPACITY)
+                    : null;
         }
 
         public PersistenceService getPersistenceService() {
             return persistenceService;
         }
 
+        public PersistenceWriteQueue.@Nullable Statistics getWriteQueueStatistics() {
+            PersistenceWriteQueue writeQueue = this.writeQueue;
+            return writeQueue == null ? null : writeQueue.getStatistics();
+        }
+
+        /**
+         * Queues a state of an item to be stored by this service, or stores the current state of the item directly if
+         * the service cannot store queued states
+         *
+         * @param item the item
+         * @param alias the alias under which the item should be persisted
+         * @param state the state to be stored
+         */
+        public void store(Item item, @Nullable String alias, State state) {
+            PersistenceWriteQueue writeQueue = this.writeQueue;
+            if (writeQueue != null && writeQueue.accepts(alias)) {
+                writeQueue.add(new PersistenceEntry(item, alias, state, ZonedDateTime.now()));
+            } else {
+                long startTime = System.nanoTime();
+                persistenceService.store(item, alias);
+                logger.trace("Storing item '{}' with persistence service '{}' took {}ms", item.getName(),
+                        configuration.getUID(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            }
+        }
+
+        /**
+         * Cancel all cron jobs and store all queued states, the container must not be used afterwards
+         */
+        public void dispose() {
+            cancelPersistJobs();
+            PersistenceWriteQueue writeQueue = this.writeQueue;
+            if (writeQueue != null) {
+                writeQueue.stop();
+            }
+        }
+
         /**
          * Set a new configuration for this persistence service (also cancels all cron jobs)
          *
@@ -452,11 +550,8 @@ public class PersistenceManager implements ItemRegistryChangeListener, StateChan
             itemConfigs.forEach(itemConfig -> {
                 for (Item item : getAllItems(itemConfig)) {
                     if (itemConfig.filters().stream().allMatch(filter -> filter.apply(item))) {
-                        long startTime = System.nanoTime();
                         itemConfig.filters().forEach(filter -> filter.persisted(item));
-                        persistenceService.store(item, itemConfig.alias());
-                        logger.trace("Storing item '{}' with persistence service '{}' took {}ms", item.getName(),
-                                configuration.getUID(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                        store(item, itemConfig.alias(), item.getState());
                     }
                 }
             });
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.core.persistence.BatchPersistenceService;
+import org.openhab.core.persistence.ModifiablePersistenceService;
+import org.openhab.core.persistence.PersistenceEntry;
+import org.openhab.core.persistence.PersistenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link PersistenceWriteQueue} decouples storing item states from the threads that deliver the state changes.
+ * <p>
+ * Entries are added to a bounded queue, which is processed by a separate thread per persistence service. All entries
+ * queued in the meantime are passed in one call to a {@link BatchPersistenceService}. A
+ * {@link ModifiablePersistenceService} is called once per entry with the state and timestamp of the entry. Other
+ * services store the current state of the item, so their states cannot be queued. If the queue is full, the caller
+ * waits for a short time (backpressure) and the entry is dropped if the queue is still full afterwards.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PersistenceWriteQueue {
+
+    static final int DEFAULT_CAPACITY = 10000;
+    static final int MAX_BATCH_SIZE = 500;
+
+    private static final long OFFER_TIMEOUT_MS = 100;
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final long STOP_TIMEOUT_MS = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(PersistenceWriteQueue.class);
+
+    private final PersistenceService persistenceService;
+    private final String serviceId;
+    private final BlockingQueue<PersistenceEntry> queue;
+    private final Thread worker;
+
+    private final AtomicLong storedCount = new AtomicLong();
+    private final AtomicLong backpressureCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private volatile boolean running = true;
+    private volatile boolean dropping = false;
+
+    /**
+     * Creates the queue and starts its thread.
+     *
+     * @param persistenceService the persistence service to store the entries with
+     * @param capacity the maximum number of queued entries
+     * @throws IllegalArgumentException if the service cannot store queued entries
+     */
+    public PersistenceWriteQueue(PersistenceService persistenceService, int capacity) {
+        if (!canQueue(persistenceService)) {
+            throw new IllegalArgumentException(
+                    "Persistence service '" + persistenceService.getId() + "' cannot store queued states");
+        }
+        this.persistenceService = persistenceService;
+        this.serviceId = persistenceService.getId();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.worker = new NamedThreadFactory("persistence-" + serviceId).newThread(this::run);
+        worker.start();
+    }
+
+    /**
+     * Checks if a persistence service can store queued entries.
+     *
+     * @param persistenceService the persistence service
+     * @return true if the service stores the state of an entry instead of the current state of the item
+     */
+    public static boolean canQueue(PersistenceService persistenceService) {
+        return persistenceService instanceof BatchPersistenceService
+                || persistenceService instanceof ModifiablePersistenceService;
+    }
+
+    /**
+     * Checks if an entry with the given alias can be queued. A {@link ModifiablePersistenceService} cannot store a
+     * state with an alias.
+     *
+     * @param alias the alias under which the item should be persisted, or null
+     * @return true if the entry can be queued
+     */
+    public boolean accepts(@Nullable String alias) {
+        return alias == null || persistenceService instanceof BatchPersistenceService;
+    }
+
+    /**
+     * Adds an entry to the queue.
+     *
+     * @param entry the entry to be stored
+     * @return true if the entry has been queued, false if it has been dropped
+     */
+    public boolean add(PersistenceEntry entry) {
+        if (!running) {
+            // the service is being removed
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        if (queue.offer(entry)) {
+            return true;
+        }
+        backpressureCount.incrementAndGet();
+        try {
+            if (queue.offer(entry, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return drop(entry);
+    }
+
+    private boolean drop(PersistenceEntry entry) {
+        droppedCount.incrementAndGet();
+        if (!dropping) {
+            dropping = true;
+            logger.warn("Write queue of persistence service '{}' is full, dropping state '{}' of item '{}'.",
+                    serviceId, entry.state(), entry.item().getName());
+        }
+        return false;
+    }
+
+    /**
+     * Stops the thread after all queued entries have been stored.
+     */
+    public void stop() {
+        running = false;
+        if (Thread.currentThread() == worker) {
+            return;
+        }
+        try {
+            worker.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            logger.warn("Persistence service '{}' did not store {} queued states in time.", serviceId, queue.size());
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Gets the current statistics of the queue.
+     *
+     * @return the statistics
+     */
+    public Statistics getStatistics() {
+        return new Statistics(queue.size(), storedCount.get(), backpressureCount.get(), droppedCount.get());
+    }
+
+    private void run() {
+        List<PersistenceEntry> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                @Nullable
+                PersistenceEntry entry = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (entry == null) {
+                    continue;
+                }
+                batch.add(entry);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                store(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void store(List<PersistenceEntry> batch) {
+        long startTime = System.nanoTime();
+        try {
+            if (persistenceService instanceof BatchPersistenceService batchPersistenceService) {
+                batchPersistenceService.store(List.copyOf(batch));
+            } else if (persistenceService instanceof ModifiablePersistenceService modifiablePersistenceService) {
+                for (PersistenceEntry entry : batch) {
+                    modifiablePersistenceService.store(entry.item(), entry.timestamp(), entry.state());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Persistence service '{}' failed to store {} states: {}", serviceId, batch.size(),
+                    e.getMessage(), e);
+        }
+        storedCount.addAndGet(batch.size());
+        if (dropping && queue.remainingCapacity() > 0) {
+            dropping = false;
+        }
+        logger.trace("Storing {} states with persistence service '{}' took {}ms", batch.size(), serviceId,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    /**
+     * The statistics of a {@link PersistenceWriteQueue}.
+     *
+     * @param queueDepth the number of entries waiting to be stored
+     * @param storedCount the number of entries that have been passed to the persistence service
+     * @param backpressureCount the number of times an entry could not be queued immediately because the queue was full
+     * @param droppedCount the number of entries that have been dropped because the queue was full
+     */
+    public record Statistics(int queueDepth, long storedCount, long backpressureCount, long droppedCount) {
+    }
+}
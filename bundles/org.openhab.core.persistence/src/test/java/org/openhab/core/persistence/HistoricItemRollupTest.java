@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link HistoricItemRollupTest} contains tests for {@link HistoricItemRollup}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class HistoricItemRollupTest {
+    private static final String ITEM_NAME = "itemName";
+    private static final ZonedDateTime BEGIN = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneId.systemDefault());
+
+    @Test
+    public void statesAreRolledUpPerInterval() {
+        List<HistoricItem> historicItems = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            historicItems.add(historicItem(BEGIN.plusMinutes(i), new DecimalType(i)));
+        }
+        historicItems.add(historicItem(BEGIN.plusMinutes(20), new StringType("text")));
+
+        List<HistoricItem> rolledUp = HistoricItemRollup.rollUp(historicItems, BEGIN, Duration.ofMinutes(4));
+
+        assertThat(rolledUp, hasSize(4));
+        assertRollup(rolledUp.get(0), BEGIN, new DecimalType(1.5), new DecimalType(0), new DecimalType(3), 4);
+        assertRollup(rolledUp.get(1), BEGIN.plusMinutes(4), new DecimalType(5.5), new DecimalType(4),
+                new DecimalType(7), 4);
+        assertRollup(rolledUp.get(2), BEGIN.plusMinutes(8), new DecimalType(8.5), new DecimalType(8),
+                new DecimalType(9), 2);
+        assertRollup(rolledUp.get(3), BEGIN.plusMinutes(20), new StringType("text"), new StringType("text"),
+                new StringType("text"), 1);
+    }
+
+    @Test
+    public void quantitiesKeepTheirUnit() {
+        List<HistoricItem> historicItems = List.of(
+                historicItem(BEGIN, new QuantityType<>(20, SIUnits.CELSIUS)),
+                historicItem(BEGIN.plusMinutes(1), new QuantityType<>(22, SIUnits.CELSIUS)));
+
+        List<HistoricItem> rolledUp = HistoricItemRollup.rollUp(historicItems, BEGIN, Duration.ofHours(1));
+
+        assertThat(rolledUp, hasSize(1));
+        assertThat(rolledUp.get(0).getState(), is(new QuantityType<>(21, SIUnits.CELSIUS)));
+    }
+
+    @Test
+    public void queryPagesRolledUpStates() {
+        List<HistoricItem> historicItems = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            historicItems.add(historicItem(BEGIN.plusMinutes(i), new DecimalType(i)));
+        }
+        QueryablePersistenceService service = mock(QueryablePersistenceService.class);
+        when(service.query(any())).thenReturn(historicItems);
+
+        FilterCriteria filter = new FilterCriteria().setItemName(ITEM_NAME).setBeginDate(BEGIN)
+                .setResolution(Duration.ofMinutes(2)).setPageSize(2).setPageNumber(1);
+        List<HistoricItem> result = new ArrayList<>();
+        HistoricItemRollup.query(service, filter).forEach(result::add);
+
+        ArgumentCaptor<FilterCriteria> captor = ArgumentCaptor.forClass(FilterCriteria.class);
+        verify(service).query(captor.capture());
+        assertThat(captor.getValue().getPageSize(), is(Integer.MAX_VALUE));
+        assertThat(captor.getValue().getResolution(), is(Duration.ofMinutes(2)));
+        assertThat(result, hasSize(2));
+        assertThat(result.get(0).getTimestamp(), is(BEGIN.plusMinutes(4)));
+        assertThat(result.get(1).getTimestamp(), is(BEGIN.plusMinutes(6)));
+    }
+
+    private void assertRollup(HistoricItem historicItem, ZonedDateTime timestamp, State state, State minimum,
+            State maximum, int count) {
+        assertThat(historicItem, is(instanceOf(RollupHistoricItem.class)));
+        RollupHistoricItem rollup = (RollupHistoricItem) historicItem;
+        assertThat(rollup.getName(), is(ITEM_NAME));
+        assertThat(rollup.getTimestamp().toInstant(), is(timestamp.toInstant()));
+        assertThat(rollup.getState(), is(state));
+        assertThat(rollup.getMinimum(), is(minimum));
+        assertThat(rollup.getMaximum(), is(maximum));
+        assertThat(rollup.getCount(), is(count));
+    }
+
+    private HistoricItem historicItem(ZonedDateTime timestamp, State state) {
+        return new HistoricItem() {
+            @Override
+            public ZonedDateTime getTimestamp() {
+                return timestamp;
+            }
+
+            @Override
+            public State getState() {
+                return state;
+            }
+
+            @Override
+            public String getName() {
+                return ITEM_NAME;
+            }
+        };
+    }
+}
@@ -24,12 +24,19 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
@@ -54,6 +61,9 @@ import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.QuantityType;
 import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.persistence.AggregatingPersistenceService;
+import org.openhab.core.persistence.AggregatingPersistenceService.Aggregate;
+import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.PersistenceServiceRegistry;
@@ -1072,4 +1082,99 @@ public class PersistenceExtensionsTest {
                 ZonedDateTime.of(2011, 1, 1, 0, 0, 0, 0, ZoneId.systemDefault()));
         assertEquals(0, counts);
     }
+
+    @Test
+    public void testStatisticsBetween() {
+        ZonedDateTime startStored = ZonedDateTime.of(2005, 1, 1, 0, 0, 0, 0, ZoneId.systemDefault());
+        ZonedDateTime endStored = ZonedDateTime.of(2011, 1, 1, 0, 0, 0, 0, ZoneId.systemDefault());
+
+        PersistenceStatistics statistics = PersistenceExtensions.statisticsBetween(numberItem, startStored, endStored,
+                TestPersistenceService.ID);
+        assertNotNull(statistics);
+        assertEquals(PersistenceExtensions.countBetween(numberItem, startStored, endStored, TestPersistenceService.ID),
+                statistics.getCount());
+        assertEquals(PersistenceExtensions.sumBetween(numberItem, startStored, endStored, TestPersistenceService.ID),
+                statistics.getSum());
+        HistoricItem minimum = PersistenceExtensions.minimumBetween(numberItem, startStored, endStored,
+                TestPersistenceService.ID);
+        assertNotNull(minimum);
+        HistoricItem statisticsMinimum = statistics.getMinimum();
+        assertNotNull(statisticsMinimum);
+        assertEquals(minimum.getState(), statisticsMinimum.getState());
+        HistoricItem maximum = PersistenceExtensions.maximumBetween(numberItem, startStored, endStored,
+                TestPersistenceService.ID);
+        assertNotNull(maximum);
+        HistoricItem statisticsMaximum = statistics.getMaximum();
+        assertNotNull(statisticsMaximum);
+        assertEquals(maximum.getState(), statisticsMaximum.getState());
+
+        DecimalType average = PersistenceExtensions.averageBetween(numberItem, startStored, endStored,
+                TestPersistenceService.ID);
+        DecimalType statisticsAverage = statistics.getAverage();
+        assertNotNull(average);
+        assertNotNull(statisticsAverage);
+        assertThat(statisticsAverage.doubleValue(), is(closeTo(average.doubleValue(), 0.01)));
+        DecimalType variance = PersistenceExtensions.varianceBetween(numberItem, startStored, endStored,
+                TestPersistenceService.ID);
+        DecimalType statisticsVariance = statistics.getVariance();
+        assertNotNull(variance);
+        assertNotNull(statisticsVariance);
+        assertThat(statisticsVariance.doubleValue(), is(closeTo(variance.doubleValue(), 0.01)));
+        DecimalType deviation = PersistenceExtensions.deviationBetween(numberItem, startStored, endStored,
+                TestPersistenceService.ID);
+        DecimalType statisticsDeviation = statistics.getDeviation();
+        assertNotNull(deviation);
+        assertNotNull(statisticsDeviation);
+        assertThat(statisticsDeviation.doubleValue(), is(closeTo(deviation.doubleValue(), 0.01)));
+
+        // default persistence service
+        assertNull(PersistenceExtensions.statisticsBetween(numberItem, startStored, endStored));
+    }
+
+    @Test
+    public void testAggregatesAreCalculatedByService() {
+        ZonedDateTime begin = ZonedDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneId.systemDefault());
+        ZonedDateTime end = ZonedDateTime.of(2010, 1, 1, 0, 0, 0, 0, ZoneId.systemDefault());
+        HistoricItem maximum = mock(HistoricItem.class);
+        when(maximum.getState()).thenReturn(new DecimalType(2008));
+        HistoricItem sum = mock(HistoricItem.class);
+        when(sum.getState()).thenReturn(new DecimalType(42));
+
+        AggregatingPersistenceService aggregatingService = mock(AggregatingPersistenceService.class);
+        when(aggregatingService.getId()).thenReturn("aggregating");
+        when(aggregatingService.getSupportedAggregates()).thenReturn(Set.of(Aggregate.MAXIMUM, Aggregate.SUM));
+        when(aggregatingService.aggregate(any(), eq(Aggregate.MAXIMUM))).thenReturn(maximum);
+        when(aggregatingService.aggregate(any(), eq(Aggregate.SUM))).thenReturn(sum);
+        when(aggregatingService.query(any())).thenReturn(List.of());
+        new PersistenceExtensions(new PersistenceServiceRegistry() {
+            @Override
+            public @Nullable String getDefaultId() {
+                return null;
+            }
+
+            @Override
+            public @Nullable PersistenceService getDefault() {
+                return null;
+            }
+
+            @Override
+            public Set<PersistenceService> getAll() {
+                return Set.of(aggregatingService);
+            }
+
+            @Override
+            public @Nullable PersistenceService get(@Nullable String serviceId) {
+                return "aggregating".equals(serviceId) ? aggregatingService : null;
+            }
+        });
+
+        assertEquals(maximum, PersistenceExtensions.maximumBetween(numberItem, begin, end, "aggregating"));
+        assertEquals(new DecimalType(42), PersistenceExtensions.sumBetween(numberItem, begin, end, "aggregating"));
+        verify(aggregatingService, never()).query(any(FilterCriteria.class));
+
+        // not supported by the service, the states are queried
+        assertNull(PersistenceExtensions.averageBetween(numberItem, begin, end, "aggregating"));
+        verify(aggregatingService, never()).aggregate(any(), eq(Aggregate.TIME_WEIGHTED_AVERAGE));
+        verify(aggregatingService, atLeastOnce()).query(any(FilterCriteria.class));
+    }
 }
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.core.items.Item;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Operator;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.HistoricItemRollup;
+import org.openhab.core.persistence.PersistenceItemInfo;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * The {@link InMemoryPersistenceServiceTest} contains tests for {@link InMemoryPersistenceService}
+ *
+ * @author agent - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class InMemoryPersistenceServiceTest {
+    private static final String ITEM_NAME_1 = "itemName1";
+    private static final String ITEM_NAME_2 = "itemName2";
+    private static final ZonedDateTime BEGIN = ZonedDateTime.now().minusDays(1).withNano(0);
+
+    private @Mock @NonNullByDefault({}) Item item1Mock;
+    private @Mock @NonNullByDefault({}) Item item2Mock;
+
+    @BeforeEach
+    public void setUp() {
+        when(item1Mock.getName()).thenReturn(ITEM_NAME_1);
+        when(item2Mock.getName()).thenReturn(ITEM_NAME_2);
+    }
+
+    @Test
+    public void storedStatesAreRestored() {
+        InMemoryPersistenceService service = new InMemoryPersistenceService(Map.of());
+
+        List<State> states = List.of(new DecimalType(1.5), new PercentType(50), OnOffType.ON,
+                new QuantityType<>(21.5, SIUnits.CELSIUS), new StringType("text"));
+        for (int i = 0; i < states.size(); i++) {
+            service.store(item1Mock, BEGIN.plusMinutes(i), states.get(i));
+        }
+        service.store(item1Mock, BEGIN.plusMinutes(10), UnDefType.UNDEF);
+
+        assertThat(getStates(service, new FilterCriteria().setOrdering(Ordering.ASCENDING)), is(states));
+        assertThat(service.getSampleCount(), is(5L));
+    }
+
+    @Test
+    public void numericStatesAreRestoredExactly() {
+        InMemoryPersistenceService service = new InMemoryPersistenceService(Map.of());
+
+        List<State> states = List.of(new DecimalType("1"), new DecimalType(new BigDecimal("1.50")),
+                new DecimalType(new BigDecimal("100")), new DecimalType(new BigDecimal("0.12345678901234567890")),
+                new PercentType(new BigDecimal("12.30")), new QuantityType<>("21.5 °C"),
+                new QuantityType<>("70.7 °F"));
+        for (int i = 0; i < states.size(); i++) {
+            service.store(item1Mock, BEGIN.plusMinutes(i), states.get(i));
+        }
+
+        List<String> expected = states.stream().map(State::toFullString).toList();
+        List<String> restored = getStates(service, new FilterCriteria().setOrdering(Ordering.ASCENDING)).stream()
+                .map(State::toFullString).toList();
+        assertThat(restored, is(expected));
+    }
+
+    @Test
+    public void statesAreQueriedInOrderAndTimeRange() {
+        InMemoryPersistenceService service = new InMemoryPersistenceService(Map.of());
+
+        // out of order and one replaced state
+        for (int i : new int[] { 0, 3, 1, 4, 2 }) {
+            service.store(item1Mock, BEGIN.plusMinutes(i), new DecimalType(i));
+        }
+        service.store(item1Mock, BEGIN.plusMinutes(4), new DecimalType(5));
+
+        FilterCriteria filter = new FilterCriteria().setBeginDate(BEGIN.plusMinutes(1))
+                .setEndDate(BEGIN.plusMinutes(4));
+        assertThat(getStates(service, filter),
+                contains(new DecimalType(5), new DecimalType(3), new DecimalType(2), new DecimalType(1)));
+
+        filter.setOrdering(Ordering.ASCENDING).setPageSize(2).setPageNumber(1);
+        assertThat(getStates(service, filter), contains(new DecimalType(3), new DecimalType(5)));
+
+        filter = new FilterCriteria().setState(new DecimalType(2)).setOperator(Operator.GT);
+        assertThat(getStates(service, filter), contains(new DecimalType(5), new DecimalType(3)));
+    }
+
+    @Test
+    public void statesAreRolledUpLikeByTheGenericRollup() {
+        InMemoryPersistenceService service = new InMemoryPersistenceService(Map.of());
+
+        for (int i = 0; i < 100; i++) {
+            service.store(item1Mock, BEGIN.plusSeconds(i * 10), new DecimalType(i % 7));
+        }
+        service.store(item1Mock, BEGIN.plusHours(1), OnOffType.ON);
+
+        for (Ordering ordering : Ordering.values()) {
+            FilterCriteria filter = new FilterCriteria().setItemName(ITEM_NAME_1).setBeginDate(BEGIN.plusSeconds(5))
+                    .setOrdering(ordering);
+            List<HistoricItem> expected = HistoricItemRollup.rollUp(service.query(filter), BEGIN.plusSeconds(5),
+                    Duration.ofMinutes(1));
+
+            filter.setResolution(Duration.ofMinutes(1));
+            List<HistoricItem> rolledUp = new ArrayList<>();
+            service.query(filter).forEach(rolledUp::add);
+            assertThat(rolledUp.toString(), is(expected.toString()));
+        }
+    }
+
+    @Test
+    public void oldestStatesOfAnItemAreEvicted() {
+        InMemoryPersistenceService service = new InMemoryPersistenceService(
+                Map.of(InMemoryPersistenceService.CONFIG_MAX_SAMPLES_PER_ITEM, 3));
+
+        for (int i = 0; i < 5; i++) {
+            service.store(item1Mock, BEGIN.plusMinutes(i), new DecimalType(i));
+        }
+
+        assertThat(getStates(service, new FilterCriteria()),
+                contains(new DecimalType(4), new DecimalType(3), new DecimalType(2)));
+        assertThat(service.getSampleCount(), is(3L));
+    }
+
+    @Test
+    public void oldestStatesOfAllItemsAreEvicted() {
+        InMemoryPersistenceService service = new InMemoryPersistenceService(
+                Map.of(InMemoryPersistenceService.CONFIG_MAX_SAMPLES, 3));
+
+        service.store(item1Mock, BEGIN, new DecimalType(0));
+        service.store(item2Mock, BEGIN.plusMinutes(1), new DecimalType(1));
+        service.store(item1Mock, BEGIN.plusMinutes(2), new DecimalType(2));
+        service.store(item2Mock, BEGIN.plusMinutes(3), new DecimalType(3));
+
+        assertThat(getStates(service, new FilterCriteria()), contains(new DecimalType(2)));
+        assertThat(getStates(service, new FilterCriteria().setItemName(ITEM_NAME_2)),
+                contains(new DecimalType(3), new DecimalType(1)));
+        assertThat(service.getSampleCount(), is(3L));
+    }
+
+    @Test
+    public void oldestStatesOfAllItemsAreEvictedIfStoredOutOfOrder() {
+        InMemoryPersistenceService service = new InMemoryPersistenceService(
+                Map.of(InMemoryPersistenceService.CONFIG_MAX_SAMPLES, 3));
+
+        service.store(item1Mock, BEGIN.plusMinutes(2), new DecimalType(2));
+        service.store(item2Mock, BEGIN.plusMinutes(1), new DecimalType(1));
+        service.store(item1Mock, BEGIN.plusMinutes(4), new DecimalType(4));
+        // older than the oldest sample of both items
+        service.store(item1Mock, BEGIN, new DecimalType(0));
+        assertThat(getStates(service, new FilterCriteria()), contains(new DecimalType(4), new DecimalType(2)));
+
+        service.store(item2Mock, BEGIN.plusMinutes(3), new DecimalType(3));
+        assertThat(getStates(service, new FilterCriteria()), contains(new DecimalType(4), new DecimalType(2)));
+        assertThat(getStates(service, new FilterCriteria().setItemName(ITEM_NAME_2)), contains(new DecimalType(3)));
+
+        // the oldest sample of the removed states is not evicted again
+        service.remove(new FilterCriteria().setItemName(ITEM_NAME_2).setEndDate(BEGIN.plusMinutes(3)));
+        service.store(item2Mock, BEGIN.plusMinutes(5), new DecimalType(5));
+        service.store(item1Mock, BEGIN.plusMinutes(6), new DecimalType(6));
+        service.store(item1Mock, BEGIN.plusMinutes(7), new DecimalType(7));
+        assertThat(getStates(service, new FilterCriteria()), contains(new DecimalType(7), new DecimalType(6)));
+        assertThat(getStates(service, new FilterCriteria().setItemName(ITEM_NAME_2)), contains(new DecimalType(5)));
+        assertThat(service.getSampleCount(), is(3L));
+    }
+
+    @Test
+    public void expiredStatesAreRemoved() {
+        InMemoryPersistenceService service = new InMemoryPersistenceService(
+                Map.of(InMemoryPersistenceService.CONFIG_MAX_AGE, 60));
+
+        service.store(item1Mock, ZonedDateTime.now().minusHours(2), new DecimalType(0));
+        service.store(item1Mock, ZonedDateTime.now().minusMinutes(30), new DecimalType(1));
+
+        assertThat(getStates(service, new FilterCriteria()), contains(new DecimalType(1)));
+        assertThat(service.getSampleCount(), is(1L));
+    }
+
+    @Test
+    public void expiredStatesOfAllItemsAreRemovedPeriodically() {
+        InMemoryPersistenceService service = new InMemoryPersistenceService(Map.of());
+        service.store(item1Mock, ZonedDateTime.now().minusHours(2), new DecimalType(0));
+        service.store(item2Mock, ZonedDateTime.now().minusHours(2), new DecimalType(1));
+        service.store(item2Mock, ZonedDateTime.now().minusMinutes(30), new DecimalType(2));
+
+        // the states expire without being stored or queried again
+        service.modified(Map.of(InMemoryPersistenceService.CONFIG_MAX_AGE, 60));
+        try {
+            service.removeExpired();
+            assertThat(service.getSampleCount(), is(1L));
+            assertThat(service.getItemInfo().stream().map(PersistenceItemInfo::getName).toList(),
+                    contains(ITEM_NAME_2));
+
+            // an item whose series has been removed is stored again
+            service.store(item1Mock, ZonedDateTime.now(), new DecimalType(3));
+            assertThat(getStates(service, new FilterCriteria()), contains(new DecimalType(3)));
+            assertThat(service.getSampleCount(), is(2L));
+        } finally {
+            service.deactivate();
+        }
+    }
+
+    @Test
+    public void removeDeletesMatchingStates() {
+        InMemoryPersistenceService service = new InMemoryPersistenceService(Map.of());
+
+        for (int i = 0; i < 5; i++) {
+            service.store(item1Mock, BEGIN.plusMinutes(i), new DecimalType(i));
+        }
+
+        service.remove(new FilterCriteria().setItemName(ITEM_NAME_1).setBeginDate(BEGIN.plusMinutes(1))
+                .setEndDate(BEGIN.plusMinutes(3)));
+        assertThat(getStates(service, new FilterCriteria()), contains(new DecimalType(4), new DecimalType(0)));
+
+        service.remove(new FilterCriteria().setItemName(ITEM_NAME_1));
+        assertThat(getStates(service, new FilterCriteria()), is(empty()));
+        assertThat(service.getItemInfo(), is(empty()));
+        assertThat(service.getSampleCount(), is(0L));
+    }
+
+    private List<State> getStates(InMemoryPersistenceService service, FilterCriteria filter) {
+        if (filter.getItemName() == null) {
+            filter.setItemName(ITEM_NAME_1);
+        }
+        List<State> states = new ArrayList<>();
+        for (HistoricItem historicItem : service.query(filter)) {
+            states.add(historicItem.getState());
+        }
+        return states;
+    }
+}
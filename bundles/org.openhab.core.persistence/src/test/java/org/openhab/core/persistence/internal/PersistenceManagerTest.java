@@ -14,8 +14,13 @@ package org.openhab.core.persistence.internal;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -45,7 +50,10 @@ import org.openhab.core.library.items.NumberItem;
 import org.openhab.core.library.items.StringItem;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.StringType;
+import org.openhab.core.persistence.BatchPersistenceService;
 import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.ModifiablePersistenceService;
+import org.openhab.core.persistence.PersistenceEntry;
 import org.openhab.core.persistence.PersistenceItemConfiguration;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
@@ -107,6 +115,8 @@ public class PersistenceManagerTest {
 
     private static final String TEST_PERSISTENCE_SERVICE_ID = "testPersistenceService";
     private static final String TEST_QUERYABLE_PERSISTENCE_SERVICE_ID = "testQueryablePersistenceService";
+    private static final String TEST_BATCH_PERSISTENCE_SERVICE_ID = "testBatchPersistenceService";
+    private static final String TEST_MODIFIABLE_PERSISTENCE_SERVICE_ID = "testModifiablePersistenceService";
 
     private @NonNullByDefault({}) @Mock CronScheduler cronSchedulerMock;
     private @NonNullByDefault({}) @Mock ScheduledCompletableFuture<Void> scheduledFutureMock;
@@ -202,6 +212,26 @@ public class PersistenceManagerTest {
         verifyNoMoreInteractions(persistenceServiceMock);
     }
 
+    @Test
+    public void groupConfigFollowsMembershipChanges() {
+        addConfiguration(TEST_PERSISTENCE_SERVICE_ID, new PersistenceGroupConfig(TEST_GROUP_ITEM_NAME),
+                PersistenceStrategy.Globals.UPDATE, null);
+
+        manager.stateUpdated(TEST_ITEM2, TEST_STATE);
+
+        try {
+            TEST_GROUP_ITEM.addMember(TEST_ITEM2);
+            manager.updated(TEST_ITEM2, TEST_ITEM2);
+            manager.stateUpdated(TEST_ITEM2, TEST_STATE);
+        } finally {
+            manager.removed(TEST_ITEM2);
+            TEST_GROUP_ITEM.removeMember(TEST_ITEM2);
+        }
+
+        verify(persistenceServiceMock).store(TEST_ITEM2, null);
+        verifyNoMoreInteractions(persistenceServiceMock);
+    }
+
     @Test
     public void appliesToItemWithAllConfig() {
         addConfiguration(TEST_PERSISTENCE_SERVICE_ID, new PersistenceAllConfig(), PersistenceStrategy.Globals.UPDATE,
@@ -362,6 +392,61 @@ public class PersistenceManagerTest {
         verifyNoMoreInteractions(persistenceServiceMock);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void batchPersistenceServiceStoresQueuedStates() {
+        BatchPersistenceService batchPersistenceServiceMock = mock(BatchPersistenceService.class);
+        when(batchPersistenceServiceMock.getId()).thenReturn(TEST_BATCH_PERSISTENCE_SERVICE_ID);
+        manager.addPersistenceService(batchPersistenceServiceMock);
+        addConfiguration(TEST_BATCH_PERSISTENCE_SERVICE_ID, new PersistenceAllConfig(),
+                PersistenceStrategy.Globals.UPDATE, null);
+
+        manager.stateUpdated(TEST_ITEM, TEST_STATE);
+        manager.stateUpdated(TEST_ITEM3, DecimalType.ZERO);
+
+        manager.deactivate();
+
+        ArgumentCaptor<List<PersistenceEntry>> entriesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(batchPersistenceServiceMock, atLeastOnce()).store(entriesCaptor.capture());
+        List<PersistenceEntry> entries = entriesCaptor.getAllValues().stream().flatMap(List::stream).toList();
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get(0).item(), is(TEST_ITEM));
+        assertThat(entries.get(0).state(), is(TEST_STATE));
+        assertThat(entries.get(1).item(), is(TEST_ITEM3));
+        assertThat(entries.get(1).state(), is(DecimalType.ZERO));
+        verify(batchPersistenceServiceMock, never()).store(any(), any());
+
+        assertThat(manager.getWriteQueueStatistics(TEST_BATCH_PERSISTENCE_SERVICE_ID),
+                is(new PersistenceWriteQueue.Statistics(0, 2, 0, 0)));
+    }
+
+    @Test
+    public void writeQueueStatisticsAreOnlyAvailableForQueueingServices() {
+        assertThat(manager.getWriteQueueStatistics(TEST_PERSISTENCE_SERVICE_ID), is(nullValue()));
+        assertThat(manager.getWriteQueueStatistics("unknown"), is(nullValue()));
+    }
+
+    @Test
+    public void modifiablePersistenceServiceStoresQueuedStates() {
+        ModifiablePersistenceService modifiablePersistenceServiceMock = mock(ModifiablePersistenceService.class);
+        when(modifiablePersistenceServiceMock.getId()).thenReturn(TEST_MODIFIABLE_PERSISTENCE_SERVICE_ID);
+        manager.addPersistenceService(modifiablePersistenceServiceMock);
+        addConfiguration(TEST_MODIFIABLE_PERSISTENCE_SERVICE_ID, new PersistenceItemConfig(TEST_ITEM3_NAME),
+                PersistenceStrategy.Globals.UPDATE, null);
+
+        // the queued state is stored, not the state of the item when the queue is processed
+        manager.stateUpdated(TEST_ITEM3, new DecimalType(1));
+        manager.stateUpdated(TEST_ITEM3, new DecimalType(2));
+
+        manager.deactivate();
+
+        verify(modifiablePersistenceServiceMock).store(eq(TEST_ITEM3), any(ZonedDateTime.class),
+                eq(new DecimalType(1)));
+        verify(modifiablePersistenceServiceMock).store(eq(TEST_ITEM3), any(ZonedDateTime.class),
+                eq(new DecimalType(2)));
+        verify(modifiablePersistenceServiceMock, never()).store(any(), any());
+    }
+
     /**
      * Add a configuration for restoring TEST_ITEM and mock the SafeCaller
      */
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.persistence.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.BatchPersistenceService;
+import org.openhab.core.persistence.PersistenceEntry;
+
+/**
+ * Tests for the {@link PersistenceWriteQueue}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PersistenceWriteQueueTest {
+
+    private static final NumberItem TEST_ITEM = new NumberItem("testItem");
+
+    @Test
+    public void statisticsCountBackpressureAndDroppedEntries() throws InterruptedException {
+        CountDownLatch storing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BatchPersistenceService serviceMock = mock(BatchPersistenceService.class);
+        when(serviceMock.getId()).thenReturn("test");
+        doAnswer(invocation -> {
+            storing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(serviceMock).store(any());
+
+        PersistenceWriteQueue queue = new PersistenceWriteQueue(serviceMock, 1);
+        assertThat(queue.add(createEntry(1)), is(true));
+        // the worker blocks while storing the first entry, so the second one fills the queue
+        assertThat(storing.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(queue.add(createEntry(2)), is(true));
+        assertThat(queue.add(createEntry(3)), is(false));
+        assertThat(queue.getStatistics(), is(new PersistenceWriteQueue.Statistics(1, 0, 1, 1)));
+
+        release.countDown();
+        queue.stop();
+        assertThat(queue.getStatistics(), is(new PersistenceWriteQueue.Statistics(0, 2, 1, 1)));
+    }
+
+    private PersistenceEntry createEntry(int value) {
+        return new PersistenceEntry(TEST_ITEM, null, new DecimalType(value), ZonedDateTime.now());
+    }
+}
@@ -17,6 +17,11 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -44,6 +49,9 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
 
 /**
@@ -53,6 +61,13 @@ import com.google.gson.JsonSyntaxException;
  * deferred write mechanism of WRITE_DELAY milliseconds is used to improve
  * performance. The service keeps backups in a /backup folder, and maintains a
  * maximum of MAX_FILES at any time
+ * <p>
+ * In journal mode, a deferred commit only appends the changed entries to a
+ * journal file next to the database file instead of rewriting the whole
+ * database. Once the journal exceeds the configured number of entries, it is
+ * compacted into the database file, which keeps its regular format. An
+ * existing journal is always replayed on load, so the mode can be switched on
+ * and off at any time.
  *
  * @author Chris Jackson - Initial contribution
  * @author Stefan Triller - Removed dependency to internal GSon packages
@@ -74,6 +89,8 @@ public class JsonStorage<T> implements Storage<T> {
     static final String VALUE = "value";
     private static final String BACKUP_EXTENSION = "backup";
     private static final String SEPARATOR = "--";
+    static final String KEY = "key";
+    static final String JOURNAL_EXTENSION = ".journal";
 
     private final Timer commitTimer;
     private @Nullable TimerTask commitTimerTask;
@@ -87,12 +104,27 @@ public class JsonStorage<T> implements Storage<T> {
 
     private final transient Gson internalMapper;
     private final transient Gson entityMapper;
+    private final transient Gson journalMapper = new Gson();
+
+    private final boolean journalMode;
+    private final int maxJournalEntries;
+    private final File journalFile;
+    private final List<String> pendingJournalRecords = new ArrayList<>();
+    private int journalEntries;
 
     private boolean dirty;
 
     public JsonStorage(File file, @Nullable ClassLoader classLoader, int maxBackupFiles, int writeDelay,
             int maxDeferredPeriod, List<TypeMigrator> typeMigrators) {
+        this(file, classLoader, maxBackupFiles, writeDelay, maxDeferredPeriod, typeMigrators, false, 0);
+    }
+
+    public JsonStorage(File file, @Nullable ClassLoader classLoader, int maxBackupFiles, int writeDelay,
+            int maxDeferredPeriod, List<TypeMigrator> typeMigrators, boolean journalMode, int maxJournalEntries) {
         this.file = file;
+        this.journalFile = new File(file.getPath() + JOURNAL_EXTENSION);
+        this.journalMode = journalMode;
+        this.maxJournalEntries = maxJournalEntries;
         this.classLoader = classLoader;
         this.maxBackupFiles = maxBackupFiles;
         this.writeDelay = writeDelay;
@@ -147,6 +179,15 @@ public class JsonStorage<T> implements Storage<T> {
             map.putAll(inputMap);
             logger.debug("Opened Json storage file at '{}'.", file.getAbsolutePath());
         }
+
+        // Apply the changes that have not been compacted into the database file yet
+        if (journalFile.exists()) {
+            journalEntries = replayJournal(journalFile);
+            if (!journalMode || journalEntries > maxJournalEntries) {
+                // compact the journal into the database file
+                deferredCommit();
+            }
+        }
     }
 
     @Override
@@ -156,7 +197,7 @@ public class JsonStorage<T> implements Storage<T> {
         }
 
         StorageEntry val = new StorageEntry(value.getClass().getName(), entityMapper.toJsonTree(value));
-        StorageEntry previousValue = map.put(key, val);
+        StorageEntry previousValue = putEntry(key, val);
         deferredCommit();
         if (previousValue == null) {
             return null;
@@ -166,7 +207,7 @@ public class JsonStorage<T> implements Storage<T> {
 
     @Override
     public @Nullable T remove(String key) {
-        StorageEntry removedElement = map.remove(key);
+        StorageEntry removedElement = removeEntry(key);
         deferredCommit();
         if (removedElement == null) {
             return null;
@@ -174,6 +215,37 @@ public class JsonStorage<T> implements Storage<T> {
         return deserialize(removedElement, null);
     }
 
+    private @Nullable StorageEntry putEntry(String key, StorageEntry entry) {
+        if (!journalMode) {
+            return map.put(key, entry);
+        }
+        // keep the order of the journal records in line with the order of the changes to the map
+        synchronized (this) {
+            StorageEntry previousEntry = map.put(key, entry);
+            JsonObject record = new JsonObject();
+            record.addProperty(KEY, key);
+            record.addProperty(CLASS, entry.getEntityClassName());
+            record.add(VALUE, (JsonElement) entry.getValue());
+            pendingJournalRecords.add(journalMapper.toJson(record));
+            return previousEntry;
+        }
+    }
+
+    private @Nullable StorageEntry removeEntry(String key) {
+        if (!journalMode) {
+            return map.remove(key);
+        }
+        synchronized (this) {
+            StorageEntry removedEntry = map.remove(key);
+            if (removedEntry != null) {
+                JsonObject record = new JsonObject();
+                record.addProperty(KEY, key);
+                pendingJournalRecords.add(journalMapper.toJson(record));
+            }
+            return removedEntry;
+        }
+    }
+
     @Override
     public boolean containsKey(final String key) {
         return map.containsKey(key);
@@ -230,7 +302,7 @@ public class JsonStorage<T> implements Storage<T> {
                 entityClassName = migrator.getNewType();
                 entityValue = migrator.migrate(entityValue);
                 if (key != null) {
-                    map.put(key, new StorageEntry(entityClassName, entityValue));
+                    putEntry(key, new StorageEntry(entityClassName, entityValue));
                     deferredCommit();
                 }
             }
@@ -281,6 +353,129 @@ public class JsonStorage<T> implements Storage<T> {
         }
     }
 
+    /**
+     * Applies the records of a journal file to the map.
+     *
+     * Every line of the journal holds one record: an object with {@link #KEY}, {@link #CLASS} and {@link #VALUE}
+     * for a stored entry, or only {@link #KEY} for a removed entry. Replaying stops at the first corrupt record or at
+     * a last line without line break, which usually is an incompletely written record. The journal is truncated
+     * after the last applied record, so that records appended later are not hidden behind the corrupt one. If it
+     * cannot be truncated, the journal is compacted into the database file immediately.
+     *
+     * @param inputFile the journal file
+     * @return the number of applied records
+     */
+    private int replayJournal(File inputFile) {
+        byte[] journal;
+        try {
+            journal = Files.readAllBytes(inputFile.toPath());
+        } catch (IOException e) {
+            logger.error("Error reading JsonDB journal from {}. Cause {}.", inputFile.getPath(), e.getMessage());
+            return 0;
+        }
+
+        int records = 0;
+        int end = 0;
+        for (int lineEnd = indexOf(journal, '\n', 0); lineEnd >= 0; lineEnd = indexOf(journal, '\n', end)) {
+            String line = new String(journal, end, lineEnd - end, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+                try {
+                    applyJournalRecord(line, map);
+                    records++;
+                } catch (JsonParseException e) {
+                    break;
+                }
+            }
+            end = lineEnd + 1;
+        }
+        logger.debug("Applied {} records from Json storage journal at '{}'.", records, inputFile.getAbsolutePath());
+
+        if (end < journal.length) {
+            logger.warn("Json storage journal at '{}' contains a corrupt record - ignoring remaining {} bytes.",
+                    inputFile.getAbsolutePath(), journal.length - end);
+            try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+            } catch (IOException e) {
+                logger.warn("Truncating Json storage journal at '{}' failed: {}", inputFile.getAbsolutePath(),
+                        e.getMessage());
+                writeDatabase();
+                return inputFile.exists() ? records : 0;
+            }
+        }
+        return records;
+    }
+
+    private static int indexOf(byte[] bytes, char c, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Applies a single record of a journal file to a map of entries.
+     *
+     * @param line the line of the journal that holds the record
+     * @param map the entries
+     * @throws JsonParseException if the record is corrupt
+     */
+    static void applyJournalRecord(String line, Map<String, StorageEntry> map) throws JsonParseException {
+        JsonElement parsed = JsonParser.parseString(line);
+        if (!parsed.isJsonObject()) {
+            throw new JsonParseException("Journal record is not an object: " + line);
+        }
+        JsonObject record = parsed.getAsJsonObject();
+        JsonElement key = record.get(KEY);
+        JsonElement entityClassName = record.get(CLASS);
+        JsonElement value = record.get(VALUE);
+        if (key == null || !key.isJsonPrimitive()) {
+            throw new JsonParseException("Journal record without key: " + line);
+        } else if (entityClassName == null) {
+            map.remove(key.getAsString());
+        } else if (value != null && entityClassName.isJsonPrimitive()) {
+            map.put(key.getAsString(), new StorageEntry(entityClassName.getAsString(), value));
+        } else {
+            throw new JsonParseException("Journal record without value: " + line);
+        }
+    }
+
+    /**
+     * Appends records to the journal file. If appending fails, the journal is truncated to its previous length, so
+     * no incomplete record is left in front of the records appended later.
+     *
+     * @param records the records to append
+     * @throws IOException if appending fails
+     */
+    private void appendJournal(List<String> records) throws IOException {
+        StringBuilder data = new StringBuilder();
+        for (String record : records) {
+            data.append(record).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            long length = channel.size();
+            try {
+                channel.position(length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                try {
+                    channel.truncate(length);
+                } catch (IOException truncateException) {
+                    e.addSuppressed(truncateException);
+                }
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new IOException(String.format("Error writing JsonDB journal to %s. Cause %s.", journalFile.getPath(),
+                    e.getMessage()), e);
+        }
+    }
+
     private @Nullable File getBackupFile(int age) {
         List<Long> fileTimes = calculateFileTimes();
         if (fileTimes.size() < age) {
@@ -331,6 +526,10 @@ public class JsonStorage<T> implements Storage<T> {
      * window for there to be no file if the system crashes during the write
      * process), or to copy the file when writing the backup copy (which would
      * require a read and write, and is thus slower).
+     * <p>
+     * In journal mode, only the pending changes are appended to the journal,
+     * unless the journal exceeds its maximum size and is compacted into the
+     * database file.
      */
     public synchronized void flush() {
         // Stop any existing timer
@@ -340,26 +539,51 @@ public class JsonStorage<T> implements Storage<T> {
             this.commitTimerTask = null;
         }
 
-        if (dirty) {
-            String json = internalMapper.toJson(map);
+        if (dirty && journalMode && journalEntries + pendingJournalRecords.size() <= maxJournalEntries) {
+            try {
+                appendJournal(pendingJournalRecords);
+                journalEntries += pendingJournalRecords.size();
+                pendingJournalRecords.clear();
+                dirty = false;
+                deferredSince = 0;
+            } catch (IOException e) {
+                // the pending records are part of the database file then, so they are never appended twice
+                logger.error("{}", e.getMessage());
+                writeDatabase();
+            }
+        } else if (dirty) {
+            writeDatabase();
+        }
+    }
 
-            synchronized (map) {
-                try {
-                    // Write the database file
-                    writeDatabaseFile(file, json);
+    /**
+     * Writes the map to the database file and a backup, and removes the journal whose changes are part of the
+     * database file then.
+     */
+    private synchronized void writeDatabase() {
+        String json = internalMapper.toJson(map);
 
-                    // And also write the backup
-                    writeDatabaseFile(new File(file.getParent() + File.separator + BACKUP_EXTENSION,
-                            System.currentTimeMillis() + SEPARATOR + file.getName()), json);
+        synchronized (map) {
+            try {
+                // Write the database file
+                writeDatabaseFile(file, json);
 
-                    cleanupBackups();
+                // And also write the backup
+                writeDatabaseFile(new File(file.getParent() + File.separator + BACKUP_EXTENSION,
+                        System.currentTimeMillis() + SEPARATOR + file.getName()), json);
 
-                    dirty = false;
-                } catch (IOException e) {
-                    logger.error("{}", e.getMessage());
-                }
-                deferredSince = 0;
+                cleanupBackups();
+
+                // All changes are part of the database file now
+                pendingJournalRecords.clear();
+                journalEntries = 0;
+                Files.deleteIfExists(journalFile.toPath());
+
+                dirty = false;
+            } catch (IOException e) {
+                logger.error("{}", e.getMessage());
             }
+            deferredSince = 0;
         }
     }
 
@@ -54,7 +54,7 @@ public class JsonStorageService implements StorageService {
     /**
      * Contains a map of needed migrations, key is the storage name
      */
-    private static final Map<String, List<TypeMigrator>> MIGRATORS = Map.of( //
+    static final Map<String, List<TypeMigrator>> MIGRATORS = Map.of( //
             "org.openhab.core.thing.Thing", List.of(new BridgeImplTypeMigrator(), new ThingImplTypeMigrator()), //
             "org.openhab.core.transform.TransformationConfiguration",
             List.of(new PersistedTransformationTypeMigrator()));
@@ -68,10 +68,14 @@ public class JsonStorageService implements StorageService {
     private static final String CFG_MAX_BACKUP_FILES = "backup_files";
     private static final String CFG_WRITE_DELAY = "write_delay";
     private static final String CFG_MAX_DEFER_DELAY = "max_defer_delay";
+    private static final String CFG_JOURNAL = "journal";
+    private static final String CFG_MAX_JOURNAL_ENTRIES = "journal_max_entries";
 
     private int maxBackupFiles = 5;
     private int writeDelay = 500;
     private int maxDeferredPeriod = 60000;
+    private boolean journalMode = false;
+    private int maxJournalEntries = 1000;
 
     private final Map<String, JsonStorage<Object>> storageList = new HashMap<>();
 
@@ -118,6 +122,20 @@ public class JsonStorageService implements StorageService {
         } catch (NumberFormatException nfe) {
             logger.error("Value {} for {} is invalid. Using {}.", value, CFG_MAX_DEFER_DELAY, maxDeferredPeriod);
         }
+
+        value = properties.get(CFG_JOURNAL);
+        if (value != null) {
+            journalMode = Boolean.parseBoolean(value.toString());
+        }
+
+        value = properties.get(CFG_MAX_JOURNAL_ENTRIES);
+        try {
+            if (value != null) {
+                maxJournalEntries = Integer.parseInt((String) value);
+            }
+        } catch (NumberFormatException nfe) {
+            logger.error("Value {} for {} is invalid. Using {}.", value, CFG_MAX_JOURNAL_ENTRIES, maxJournalEntries);
+        }
     }
 
     @Deactivate
@@ -145,7 +163,7 @@ public class JsonStorageService implements StorageService {
         }
 
         JsonStorage<T> newStorage = new JsonStorage<>(file, classLoader, maxBackupFiles, writeDelay, maxDeferredPeriod,
-                MIGRATORS.getOrDefault(name, List.of()));
+                MIGRATORS.getOrDefault(name, List.of()), journalMode, maxJournalEntries);
         storageList.put(name, (JsonStorage<Object>) newStorage);
 
         return newStorage;
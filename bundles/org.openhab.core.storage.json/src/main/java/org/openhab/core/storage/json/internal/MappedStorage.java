@@ -0,0 +1,611 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.storage.json.internal;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.config.core.ConfigurationDeserializer;
+import org.openhab.core.config.core.OrderingMapSerializer;
+import org.openhab.core.config.core.OrderingSetSerializer;
+import org.openhab.core.storage.DeletableStorage;
+import org.openhab.core.storage.json.internal.migration.TypeMigrationException;
+import org.openhab.core.storage.json.internal.migration.TypeMigrator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * The {@link MappedStorage} is an implementation of the {@link DeletableStorage} interface that keeps its entries in
+ * a memory-mapped file.
+ * <p>
+ * The file is an append-only log of binary records. Every record starts with its length and a CRC32 checksum,
+ * followed by the operation, the key, the class name and the compact JSON representation of the value. Only the
+ * offsets of the records are kept in the heap; the values are read from the mapped file and deserialized on access.
+ * Records appended after the file has been mapped are read through the file channel until the file has doubled in
+ * size and is mapped again.
+ * Records that have been superseded by later changes are dropped when the file is compacted on load.
+ * <p>
+ * An incompletely written last record (e.g. after a power loss) fails its checksum and is truncated on load.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MappedStorage<T> implements DeletableStorage<T> {
+
+    static final int MAGIC = 0x4F484D53; // "OHMS"
+    static final int VERSION = 1;
+    static final int FILE_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+
+    private static final byte OP_REMOVE = 0;
+    private static final byte OP_PUT = 1;
+
+    // compact on load if at least this many bytes are occupied by superseded records
+    private static final long MIN_COMPACTION_GARBAGE = 64 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(MappedStorage.class);
+
+    private final File file;
+    private volatile @Nullable ClassLoader classLoader;
+    private final Map<String, TypeMigrator> typeMigrators;
+    private final Gson entityMapper;
+
+    private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+    private long liveBytes;
+    private long garbageBytes;
+
+    private @Nullable FileChannel channel;
+    private @Nullable MappedByteBuffer buffer;
+    private long fileSize;
+
+    /**
+     * Opens (or creates) a mapped storage.
+     *
+     * @param file the storage file
+     * @param classLoader the class loader used to load the value classes
+     * @param typeMigrators the migrators for value classes that have been renamed
+     * @param importFile a {@link JsonStorage} file whose entries are imported if the storage file does not exist yet
+     * @throws IOException if the storage file cannot be opened
+     */
+    public MappedStorage(File file, @Nullable ClassLoader classLoader, List<TypeMigrator> typeMigrators,
+            @Nullable File importFile) throws IOException {
+        this.file = file;
+        this.classLoader = classLoader;
+        this.typeMigrators = typeMigrators.stream().collect(Collectors.toMap(e -> e.getOldType(), e -> e));
+        this.entityMapper = new GsonBuilder() //
+                .registerTypeHierarchyAdapter(Map.class, new OrderingMapSerializer())//
+                .registerTypeHierarchyAdapter(Set.class, new OrderingSetSerializer())//
+                .registerTypeAdapter(Configuration.class, new ConfigurationDeserializer()) //
+                .create();
+
+        boolean exists = file.exists();
+        open();
+        if (!exists) {
+            writeFileHeader();
+            if (importFile != null && importFile.exists()) {
+                importJsonStorage(importFile);
+            }
+        } else {
+            load();
+            if (garbageBytes >= MIN_COMPACTION_GARBAGE && garbageBytes > liveBytes) {
+                compact();
+            }
+        }
+        logger.debug("Opened mapped storage file at '{}' with {} entries.", file.getAbsolutePath(), offsets.size());
+    }
+
+    @Override
+    public @Nullable T put(String key, @Nullable T value) {
+        if (value == null) {
+            return remove(key);
+        }
+        return deserialize(putEntry(key, value.getClass().getName(), entityMapper.toJson(value)), null);
+    }
+
+    @Override
+    public @Nullable T remove(String key) {
+        return deserialize(removeEntry(key), null);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        return offsets.containsKey(key);
+    }
+
+    @Override
+    public @Nullable T get(String key) {
+        StorageEntry entry;
+        synchronized (this) {
+            Long offset = offsets.get(key);
+            if (offset == null) {
+                return null;
+            }
+            // the file must not be closed or deleted while the entry is read
+            entry = readEntry(readRecord(offset));
+        }
+        return deserialize(entry, key);
+    }
+
+    @Override
+    public Collection<String> getKeys() {
+        return offsets.keySet();
+    }
+
+    @Override
+    public Collection<@Nullable T> getValues() {
+        Collection<@Nullable T> values = new ArrayList<>();
+        for (String key : getKeys()) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
+    @Override
+    public synchronized void delete() {
+        close();
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            logger.warn("Deleting mapped storage file '{}' failed: {}", file.getAbsolutePath(), e.getMessage());
+        }
+        offsets.clear();
+    }
+
+    /**
+     * Sets the class loader used to load the value classes, e.g. when the storage is requested again by a bundle that
+     * has been updated.
+     *
+     * @param classLoader the class loader
+     */
+    void setClassLoader(@Nullable ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @return true if the storage has neither been closed nor deleted
+     */
+    public synchronized boolean isOpen() {
+        return channel != null;
+    }
+
+    /**
+     * Forces all written records to the storage device.
+     */
+    public synchronized void flush() {
+        FileChannel channel = this.channel;
+        if (channel != null) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                logger.warn("Flushing mapped storage file '{}' failed: {}", file.getAbsolutePath(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Flushes and closes the storage file. The storage must not be used afterwards.
+     */
+    public synchronized void close() {
+        flush();
+        FileChannel channel = this.channel;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Closing mapped storage file '{}' failed: {}", file.getAbsolutePath(), e.getMessage());
+            }
+        }
+        this.channel = null;
+        this.buffer = null;
+    }
+
+    private synchronized @Nullable StorageEntry putEntry(String key, String entityClassName, String value) {
+        StorageEntry previousEntry = removeEntry(key, false);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] classBytes = entityClassName.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 12 + keyBytes.length + classBytes.length + valueBytes.length);
+        payload.put(OP_PUT);
+        payload.putInt(keyBytes.length).put(keyBytes);
+        payload.putInt(classBytes.length).put(classBytes);
+        payload.putInt(valueBytes.length).put(valueBytes);
+        offsets.put(key, appendRecord(payload));
+        liveBytes += RECORD_HEADER_SIZE + payload.capacity();
+        return previousEntry;
+    }
+
+    private synchronized @Nullable StorageEntry removeEntry(String key) {
+        return removeEntry(key, true);
+    }
+
+    private @Nullable StorageEntry removeEntry(String key, boolean writeRecord) {
+        Long offset = offsets.get(key);
+        if (offset == null) {
+            return null;
+        }
+        ByteBuffer previousRecord = readRecord(offset);
+        StorageEntry previousEntry = readEntry(previousRecord);
+        long previousSize = previousRecord.capacity();
+        liveBytes -= previousSize;
+        garbageBytes += previousSize;
+        if (writeRecord) {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer payload = ByteBuffer.allocate(1 + 4 + keyBytes.length);
+            payload.put(OP_REMOVE);
+            payload.putInt(keyBytes.length).put(keyBytes);
+            appendRecord(payload);
+            garbageBytes += RECORD_HEADER_SIZE + payload.capacity();
+            offsets.remove(key);
+        }
+        return previousEntry;
+    }
+
+    private long appendRecord(ByteBuffer payload) {
+        FileChannel channel = this.channel;
+        if (channel == null) {
+            throw new IllegalStateException("Mapped storage '" + file.getAbsolutePath() + "' has been closed.");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload.array(), 0, payload.capacity());
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.capacity());
+        record.putInt(payload.capacity());
+        record.putInt((int) crc.getValue());
+        record.put(payload.array());
+        record.flip();
+
+        long offset = fileSize;
+        try {
+            long position = offset;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    String.format("Error writing mapped storage %s. Cause %s.", file.getPath(), e.getMessage()), e);
+        }
+        fileSize = offset + record.capacity();
+        return offset;
+    }
+
+    private StorageEntry readEntry(ByteBuffer record) {
+        int position = RECORD_HEADER_SIZE + 1;
+        String key = readString(record, position);
+        position += 4 + record.getInt(position);
+        String entityClassName = readString(record, position);
+        position += 4 + record.getInt(position);
+        String value = readString(record, position);
+        logger.trace("Read entry '{}' of type '{}'.", key, entityClassName);
+        return new StorageEntry(entityClassName, value);
+    }
+
+    private static String readString(ByteBuffer buffer, int position) {
+        byte[] bytes = new byte[buffer.getInt(position)];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the record at the given offset, including its header. Records appended after the last mapping are read
+     * through the channel, and the file is only mapped again once it has doubled in size since then, so appending
+     * records does not re-map the whole file on every read.
+     */
+    private synchronized ByteBuffer readRecord(long offset) {
+        MappedByteBuffer buffer = this.buffer;
+        if (buffer == null || fileSize - buffer.capacity() > buffer.capacity()) {
+            buffer = map();
+        }
+        if (offset + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int size = RECORD_HEADER_SIZE + buffer.getInt((int) offset);
+            if (offset + size <= buffer.capacity()) {
+                return buffer.slice((int) offset, size);
+            }
+        }
+        FileChannel channel = this.channel;
+        if (channel == null) {
+            throw new IllegalStateException("Mapped storage '" + file.getAbsolutePath() + "' has been closed.");
+        }
+        try {
+            return read(channel, offset, RECORD_HEADER_SIZE + read(channel, offset, 4).getInt(0));
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    String.format("Error reading mapped storage %s. Cause %s.", file.getPath(), e.getMessage()), e);
+        }
+    }
+
+    private MappedByteBuffer map() {
+        FileChannel channel = this.channel;
+        if (channel == null) {
+            throw new IllegalStateException("Mapped storage '" + file.getAbsolutePath() + "' has been closed.");
+        }
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Mapped storage '" + file.getAbsolutePath() + "' exceeds 2 GB.");
+        }
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    String.format("Error mapping mapped storage %s. Cause %s.", file.getPath(), e.getMessage()), e);
+        }
+        this.buffer = buffer;
+        return buffer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable T deserialize(@Nullable StorageEntry entry, @Nullable String key) {
+        if (entry == null) {
+            return null;
+        }
+
+        try {
+            String entityClassName = entry.getEntityClassName();
+            String entityValue = (String) entry.getValue();
+
+            TypeMigrator migrator = typeMigrators.get(entityClassName);
+            if (migrator != null) {
+                entityClassName = migrator.getNewType();
+                entityValue = entityMapper.toJson(migrator.migrate(JsonParser.parseString(entityValue)));
+                if (key != null) {
+                    putEntry(key, entityClassName, entityValue);
+                }
+            }
+
+            Class<T> loadedValueType;
+            ClassLoader classLoader = this.classLoader;
+            if (classLoader != null) {
+                loadedValueType = (Class<T>) classLoader.loadClass(entityClassName);
+            } else {
+                loadedValueType = (Class<T>) Class.forName(entityClassName);
+            }
+
+            T value = entityMapper.fromJson(entityValue, loadedValueType);
+            logger.trace("deserialized value '{}' from mapped storage", value);
+            return value;
+        } catch (JsonParseException | ClassNotFoundException e) {
+            logger.error("Couldn't deserialize value '{}'. Root cause is: {}", entry.getValue(), e.getMessage());
+            return null;
+        } catch (TypeMigrationException e) {
+            logger.error("Type '{}' needs migration but migration failed: '{}'", entry.getEntityClassName(),
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    private void open() throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.buffer = null;
+    }
+
+    private void writeFileHeader() throws IOException {
+        FileChannel channel = this.channel;
+        if (channel == null) {
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        channel.write(header, 0);
+        channel.truncate(FILE_HEADER_SIZE);
+        fileSize = FILE_HEADER_SIZE;
+    }
+
+    /**
+     * Scans all records of the file and builds the key index. The file is truncated after the last valid record.
+     * <p>
+     * The records are read from the channel instead of a mapping, as a mapped file cannot be truncated or replaced on
+     * all platforms and a mapping is only released by the garbage collector.
+     */
+    private void load() throws IOException {
+        FileChannel channel = this.channel;
+        if (channel == null) {
+            return;
+        }
+        if (fileSize < FILE_HEADER_SIZE) {
+            logger.warn("Mapped storage file at '{}' is empty - creating a new one.", file.getAbsolutePath());
+            writeFileHeader();
+            return;
+        }
+        ByteBuffer header = read(channel, 0, FILE_HEADER_SIZE);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Mapped storage file at '" + file.getAbsolutePath() + "' has an unknown format.");
+        }
+
+        Map<String, Integer> recordSizes = new HashMap<>();
+        long position = FILE_HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= fileSize) {
+            ByteBuffer recordHeader = read(channel, position, RECORD_HEADER_SIZE);
+            int length = recordHeader.getInt(0);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > fileSize) {
+                break;
+            }
+            ByteBuffer payload = read(channel, position + RECORD_HEADER_SIZE, length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != recordHeader.getInt(4)) {
+                break;
+            }
+            String key = readString(payload, 1);
+            int recordSize = RECORD_HEADER_SIZE + length;
+            Integer previousSize = recordSizes.remove(key);
+            if (offsets.remove(key) != null && previousSize != null) {
+                liveBytes -= previousSize;
+                garbageBytes += previousSize;
+            }
+            if (payload.get(0) == OP_PUT) {
+                offsets.put(key, position);
+                recordSizes.put(key, recordSize);
+                liveBytes += recordSize;
+            } else {
+                garbageBytes += recordSize;
+            }
+            position += recordSize;
+        }
+
+        if (position < fileSize) {
+            logger.warn("Mapped storage file at '{}' contains a corrupt record - ignoring remaining {} bytes.",
+                    file.getAbsolutePath(), fileSize - position);
+            fileSize = position;
+            channel.truncate(position);
+        }
+    }
+
+    private ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of mapped storage file at '" + file.getAbsolutePath() + "'.");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Rewrites the file with only the live records. Like {@link #load()}, this must be done before the file is
+     * mapped.
+     */
+    private void compact() {
+        FileChannel channel = this.channel;
+        if (channel == null) {
+            return;
+        }
+        File tmpFile = new File(file.getPath() + ".tmp");
+        Map<String, Long> compactedOffsets = new ConcurrentHashMap<>();
+        try (FileChannel out = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            long position = out.write(header);
+            for (Map.Entry<String, Long> entry : offsets.entrySet()) {
+                long offset = entry.getValue();
+                long size = RECORD_HEADER_SIZE + read(channel, offset, 4).getInt(0);
+                compactedOffsets.put(entry.getKey(), position);
+                long transferred = 0;
+                while (transferred < size) {
+                    transferred += channel.transferTo(offset + transferred, size - transferred, out);
+                }
+                position += size;
+            }
+            out.force(false);
+        } catch (IOException e) {
+            logger.warn("Compacting mapped storage file at '{}' failed: {}", file.getAbsolutePath(), e.getMessage());
+            tmpFile.delete();
+            return;
+        }
+
+        close();
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            offsets.clear();
+            offsets.putAll(compactedOffsets);
+            logger.debug("Compacted mapped storage file at '{}', removed {} bytes.", file.getAbsolutePath(),
+                    garbageBytes);
+            garbageBytes = 0;
+        } catch (IOException e) {
+            logger.warn("Replacing mapped storage file at '{}' by its compacted copy failed: {}",
+                    file.getAbsolutePath(), e.getMessage());
+            tmpFile.delete();
+        }
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Imports the entries of a {@link JsonStorage} database file, including the changes in its journal that have not
+     * been compacted into the database file yet.
+     */
+    private void importJsonStorage(File importFile) {
+        Map<String, StorageEntry> entries = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(importFile.toPath(), StandardCharsets.UTF_8)) {
+            JsonElement root = JsonParser.parseReader(reader);
+            if (root.isJsonObject()) {
+                for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject().entrySet()) {
+                    JsonObject storageEntry = entry.getValue().getAsJsonObject();
+                    JsonElement entityClassName = storageEntry.get(JsonStorage.CLASS);
+                    JsonElement value = storageEntry.get(JsonStorage.VALUE);
+                    if (entityClassName != null && value != null) {
+                        entries.put(entry.getKey(), new StorageEntry(entityClassName.getAsString(), value));
+                    }
+                }
+            }
+        } catch (IOException | JsonIOException | JsonSyntaxException | IllegalStateException e) {
+            logger.warn("Importing Json storage file at '{}' failed: {}", importFile.getAbsolutePath(),
+                    e.getMessage());
+            return;
+        }
+
+        File journalFile = new File(importFile.getPath() + JsonStorage.JOURNAL_EXTENSION);
+        if (journalFile.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        JsonStorage.applyJournalRecord(line, entries);
+                    }
+                }
+            } catch (JsonParseException e) {
+                logger.warn("Json storage journal at '{}' contains a corrupt record - ignoring remaining records.",
+                        journalFile.getAbsolutePath());
+            } catch (IOException e) {
+                logger.warn("Importing Json storage journal at '{}' failed: {}", journalFile.getAbsolutePath(),
+                        e.getMessage());
+                return;
+            }
+        }
+
+        for (Map.Entry<String, StorageEntry> entry : entries.entrySet()) {
+            putEntry(entry.getKey(), entry.getValue().getEntityClassName(),
+                    entityMapper.toJson(entry.getValue().getValue()));
+        }
+        logger.info("Imported {} entries from Json storage file at '{}' into mapped storage.", offsets.size(),
+                importFile.getAbsolutePath());
+    }
+}
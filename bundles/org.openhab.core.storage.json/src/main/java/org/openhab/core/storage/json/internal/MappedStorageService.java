@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.storage.json.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.storage.DeletableStorage;
+import org.openhab.core.storage.DeletableStorageService;
+import org.openhab.core.storage.StorageService;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This implementation of {@link StorageService} stores data in memory-mapped binary files (see {@link MappedStorage}).
+ * <p>
+ * The service is only activated if a configuration for the PID {@code org.openhab.storage.mapped} exists (e.g.
+ * {@code org.openhab.storage.mapped:enabled=true} in {@code services.cfg}). It is then ranked above the
+ * {@link JsonStorageService}. A storage that does not exist yet is initially filled with the entries of the
+ * corresponding Json storage file.
+ *
+ * @author agent - Initial contribution
+ */
+@Component(name = "org.openhab.core.storage.mapped", configurationPid = "org.openhab.storage.mapped", //
+        configurationPolicy = ConfigurationPolicy.REQUIRE, property = { //
+                Constants.SERVICE_PID + "=org.openhab.storage.mapped", //
+                Constants.SERVICE_RANKING + ":Integer=10", //
+                "storage.format=mapped" })
+@NonNullByDefault
+public class MappedStorageService implements DeletableStorageService {
+
+    private static final int MAX_FILENAME_LENGTH = 127;
+    private static final String FILE_EXTENSION = ".db";
+
+    private final Logger logger = LoggerFactory.getLogger(MappedStorageService.class);
+
+    private final File dbFolder = new File(OpenHAB.getUserDataFolder(), "mappeddb");
+    private final File jsonDbFolder = new File(OpenHAB.getUserDataFolder(), "jsondb");
+
+    private final Map<String, MappedStorage<Object>> storageList = new ConcurrentHashMap<>();
+
+    @Activate
+    protected void activate() {
+        if (!dbFolder.exists()) {
+            dbFolder.mkdirs();
+        }
+        logger.debug("Mapped Storage Service: Activated.");
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        for (MappedStorage<Object> storage : storageList.values()) {
+            storage.close();
+        }
+        storageList.clear();
+        logger.debug("Mapped Storage Service: Deactivated.");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public synchronized <T> DeletableStorage<T> getStorage(String name, @Nullable ClassLoader classLoader) {
+        String fileName = urlEscapeUnwantedChars(name);
+        File file = new File(dbFolder, fileName + FILE_EXTENSION);
+
+        // a second instance would append to the same file, so an open storage is shared with its previous users
+        MappedStorage<Object> oldStorage = storageList.get(name);
+        if (oldStorage != null && oldStorage.isOpen()) {
+            oldStorage.flush();
+            oldStorage.setClassLoader(classLoader);
+            return (MappedStorage<T>) oldStorage;
+        }
+
+        try {
+            MappedStorage<T> newStorage = new MappedStorage<>(file, classLoader,
+                    JsonStorageService.MIGRATORS.getOrDefault(name, List.of()),
+                    new File(jsonDbFolder, fileName + ".json"));
+            storageList.put(name, (MappedStorage<Object>) newStorage);
+            return newStorage;
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    String.format("Error opening mapped storage %s. Cause %s.", file.getPath(), e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public <T> DeletableStorage<T> getStorage(String name) {
+        return getStorage(name, null);
+    }
+
+    /**
+     * Escapes all invalid url characters and strips the maximum length to 127 to be used as a file name
+     *
+     * @param s the string to be escaped
+     * @return url-encoded string
+     */
+    protected String urlEscapeUnwantedChars(String s) {
+        String result = URLEncoder.encode(s, StandardCharsets.UTF_8);
+        int length = Math.min(result.length(), MAX_FILENAME_LENGTH);
+        return result.substring(0, length);
+    }
+}
@@ -20,6 +20,7 @@ import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -212,6 +213,80 @@ public class JsonStorageTest extends JavaTest {
                         .keySet().toArray());
     }
 
+    @Test
+    public void testJournalModeAppendsAndReplaysChanges() throws IOException {
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, List.of(), true, 10);
+        objectStorage.put("a", new DummyObject());
+        objectStorage.flush();
+        objectStorage.put("b", new DummyObject());
+        objectStorage.remove("a");
+        objectStorage.flush();
+
+        File journalFile = new File(tmpFile.getPath() + JsonStorage.JOURNAL_EXTENSION);
+        assertTrue(journalFile.exists());
+        assertEquals(3, Files.readAllLines(journalFile.toPath()).size());
+
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, List.of(), true, 10);
+        assertNull(objectStorage.get("a"));
+        DummyObject dummy = objectStorage.get("b");
+        assertNotNull(dummy);
+        assertTrue(dummy.configuration.get("testInt") instanceof BigDecimal);
+    }
+
+    @Test
+    public void testIncompleteJournalRecordIsTruncated() throws IOException {
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, List.of(), true, 10);
+        objectStorage.put("a", new DummyObject());
+        objectStorage.flush();
+
+        // the last record has been written without its line break
+        File journalFile = new File(tmpFile.getPath() + JsonStorage.JOURNAL_EXTENSION);
+        String completeRecord = Files.readString(journalFile.toPath());
+        Files.writeString(journalFile.toPath(), "{\"key\":\"a\"}", StandardOpenOption.APPEND);
+
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, List.of(), true, 10);
+        assertNotNull(objectStorage.get("a"));
+        assertEquals(completeRecord, Files.readString(journalFile.toPath()));
+
+        // records appended later are not hidden behind the incomplete one
+        objectStorage.put("b", new DummyObject());
+        objectStorage.flush();
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, List.of(), true, 10);
+        assertEquals(Set.of("a", "b"), Set.copyOf(objectStorage.getKeys()));
+    }
+
+    @Test
+    public void testFailedJournalAppendFallsBackToSnapshot() throws IOException {
+        // the journal cannot be opened for appending
+        File journalFile = new File(tmpFile.getPath() + JsonStorage.JOURNAL_EXTENSION);
+        assertTrue(journalFile.mkdir());
+
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, List.of(), true, 10);
+        objectStorage.put("a", new DummyObject());
+        objectStorage.flush();
+        assertFalse(journalFile.exists());
+
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, List.of());
+        assertEquals(Set.of("a"), Set.copyOf(objectStorage.getKeys()));
+    }
+
+    @Test
+    public void testJournalIsCompactedIntoSnapshot() throws IOException {
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, List.of(), true, 2);
+        objectStorage.put("a", new DummyObject());
+        objectStorage.put("b", new DummyObject());
+        objectStorage.flush();
+        objectStorage.put("c", new DummyObject());
+        objectStorage.flush();
+
+        File journalFile = new File(tmpFile.getPath() + JsonStorage.JOURNAL_EXTENSION);
+        assertFalse(journalFile.exists());
+
+        // the snapshot can be read without journal mode
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, List.of());
+        assertEquals(Set.of("a", "b", "c"), Set.copyOf(objectStorage.getKeys()));
+    }
+
     private static class DummyObject {
 
         // For the test here we use Linked variants of Map and Set which preserve the insertion order
@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.storage.json.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.config.core.Configuration;
+
+/**
+ * Tests for the {@link MappedStorage}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MappedStorageTest {
+
+    private @TempDir @NonNullByDefault({}) Path tmpDir;
+    private @NonNullByDefault({}) File file;
+    private @Nullable MappedStorage<DummyObject> storage;
+
+    @BeforeEach
+    public void setUp() {
+        file = tmpDir.resolve("storage.db").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MappedStorage<DummyObject> storage = this.storage;
+        if (storage != null) {
+            storage.close();
+        }
+    }
+
+    private MappedStorage<DummyObject> open(@Nullable File importFile) throws IOException {
+        MappedStorage<DummyObject> storage = this.storage;
+        if (storage != null) {
+            storage.close();
+        }
+        storage = new MappedStorage<>(file, this.getClass().getClassLoader(), List.of(), importFile);
+        this.storage = storage;
+        return storage;
+    }
+
+    @Test
+    public void testEntriesAreReadAgainAfterReopening() throws IOException {
+        MappedStorage<DummyObject> storage = open(null);
+        assertNull(storage.put("a", new DummyObject("a")));
+        storage.put("b", new DummyObject("b"));
+        DummyObject previous = storage.put("a", new DummyObject("a2"));
+        assertNotNull(previous);
+        assertEquals("a", previous.name);
+        storage.remove("b");
+
+        storage = open(null);
+        assertEquals(Set.of("a"), Set.copyOf(storage.getKeys()));
+        DummyObject dummy = storage.get("a");
+        assertNotNull(dummy);
+        assertEquals("a2", dummy.name);
+        assertTrue(dummy.configuration.get("testInt") instanceof BigDecimal);
+        assertNull(storage.get("b"));
+    }
+
+    @Test
+    public void testIncompleteRecordIsIgnored() throws IOException {
+        MappedStorage<DummyObject> storage = open(null);
+        storage.put("a", new DummyObject("a"));
+        storage.put("b", new DummyObject("b"));
+        storage.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        storage = open(null);
+        assertEquals(Set.of("a"), Set.copyOf(storage.getKeys()));
+        storage.put("c", new DummyObject("c"));
+
+        storage = open(null);
+        assertEquals(Set.of("a", "c"), Set.copyOf(storage.getKeys()));
+    }
+
+    @Test
+    public void testSupersededRecordsAreCompacted() throws IOException {
+        MappedStorage<DummyObject> storage = open(null);
+        for (int i = 0; i < 2000; i++) {
+            storage.put("a", new DummyObject("a" + i));
+        }
+        storage.close();
+        long size = file.length();
+
+        storage = open(null);
+        assertTrue(file.length() < size);
+        DummyObject dummy = storage.get("a");
+        assertNotNull(dummy);
+        assertEquals("a1999", dummy.name);
+    }
+
+    @Test
+    public void testAppendedRecordsAreReadBeforeTheFileIsMappedAgain() throws IOException {
+        MappedStorage<DummyObject> storage = open(null);
+        storage.put("a", new DummyObject("a"));
+        assertNotNull(storage.get("a"));
+
+        // every record is read right after it has been appended, both from the mapping and through the channel
+        for (int i = 0; i < 100; i++) {
+            storage.put("b" + i, new DummyObject("b" + i));
+            DummyObject dummy = storage.get("b" + i);
+            assertNotNull(dummy);
+            assertEquals("b" + i, dummy.name);
+        }
+        for (int i = 0; i < 100; i++) {
+            DummyObject previous = storage.remove("b" + i);
+            assertNotNull(previous);
+            assertEquals("b" + i, previous.name);
+        }
+        assertEquals(Set.of("a"), Set.copyOf(storage.getKeys()));
+    }
+
+    @Test
+    public void testJsonStorageIsImported() throws IOException {
+        File jsonFile = tmpDir.resolve("storage.json").toFile();
+        JsonStorage<DummyObject> jsonStorage = new JsonStorage<>(jsonFile, this.getClass().getClassLoader(), 0, 0, 0,
+                List.of());
+        jsonStorage.put("a", new DummyObject("a"));
+        jsonStorage.flush();
+
+        MappedStorage<DummyObject> storage = open(jsonFile);
+        DummyObject dummy = storage.get("a");
+        assertNotNull(dummy);
+        assertEquals("a", dummy.name);
+    }
+
+    @Test
+    public void testJsonStorageJournalIsImported() throws IOException {
+        File jsonFile = tmpDir.resolve("storage.json").toFile();
+        JsonStorage<DummyObject> jsonStorage = new JsonStorage<>(jsonFile, this.getClass().getClassLoader(), 0, 0, 0,
+                List.of());
+        jsonStorage.put("a", new DummyObject("a"));
+        jsonStorage.put("b", new DummyObject("b"));
+        jsonStorage.flush();
+        Files.writeString(Path.of(jsonFile.getPath() + JsonStorage.JOURNAL_EXTENSION),
+                "{\"key\":\"b\"}\n" + "{\"key\":\"c\",\"class\":\"" + DummyObject.class.getName()
+                        + "\",\"value\":{\"name\":\"c\"}}\n" + "{\"key\":\"a\",\"cla");
+
+        MappedStorage<DummyObject> storage = open(jsonFile);
+        assertEquals(Set.of("a", "c"), Set.copyOf(storage.getKeys()));
+        DummyObject dummy = storage.get("c");
+        assertNotNull(dummy);
+        assertEquals("c", dummy.name);
+    }
+
+    @Test
+    public void testStorageIsSharedWhileOpen() {
+        System.setProperty(OpenHAB.USERDATA_DIR_PROG_ARGUMENT, tmpDir.toString());
+        MappedStorageService service = new MappedStorageService();
+        service.activate();
+        ClassLoader classLoader = this.getClass().getClassLoader();
+        MappedStorage<DummyObject> storage = (MappedStorage<DummyObject>) service.<DummyObject> getStorage("shared",
+                classLoader);
+        this.storage = storage;
+        storage.put("a", new DummyObject("a"));
+
+        assertSame(storage, service.getStorage("shared", classLoader));
+        assertTrue(storage.isOpen());
+        assertNotNull(storage.get("a"));
+    }
+
+    @Test
+    public void testClosedStorageIsNotRead() throws IOException {
+        MappedStorage<DummyObject> storage = open(null);
+        storage.put("a", new DummyObject("a"));
+        storage.close();
+
+        assertFalse(storage.isOpen());
+        assertThrows(IllegalStateException.class, () -> storage.get("a"));
+    }
+
+    @Test
+    public void testDelete() throws IOException {
+        MappedStorage<DummyObject> storage = open(null);
+        storage.put("a", new DummyObject("a"));
+        storage.delete();
+        this.storage = null;
+
+        assertFalse(Files.exists(file.toPath()));
+    }
+
+    private static class DummyObject {
+        private final String name;
+        private final Configuration configuration = new Configuration();
+
+        public DummyObject(String name) {
+            this.name = name;
+            configuration.put("testInt", Integer.valueOf("12"));
+        }
+    }
+}
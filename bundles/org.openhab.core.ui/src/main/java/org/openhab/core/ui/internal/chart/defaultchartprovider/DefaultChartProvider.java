@@ -46,6 +46,7 @@ import org.openhab.core.library.types.QuantityType;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.HistoricItemRollup;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.PersistenceServiceRegistry;
 import org.openhab.core.persistence.QueryablePersistenceService;
@@ -68,6 +69,7 @@ import org.slf4j.LoggerFactory;
  * @author Holger Reichert - Support for themes, DPI, legend hiding
  * @author Christoph Weitkamp - Consider default persistence service
  * @author Jan N. Klug - Add y-axis label formatter
+ * @author agent - Query rolled up states
  */
 @NonNullByDefault
 @Component(immediate = true)
@@ -351,8 +353,14 @@ public class DefaultChartProvider implements ChartProvider {
         filter.setPageSize(Integer.MAX_VALUE);
         filter.setOrdering(Ordering.ASCENDING);
 
+        // There is no need for more than about one value per pixel
+        Duration resolution = Duration.between(timeBegin, timeEnd).dividedBy(Math.max(chart.getWidth(), 1));
+        if (resolution.toMillis() > 0) {
+            filter.setResolution(resolution);
+        }
+
         // Get the data from the persistence store
-        result = service.query(filter);
+        result = HistoricItemRollup.query(service, filter);
 
         // Iterate through the data
         for (HistoricItem historicItem : result) {
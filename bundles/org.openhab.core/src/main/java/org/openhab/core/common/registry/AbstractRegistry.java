@@ -12,9 +12,12 @@
  */
 package org.openhab.core.common.registry;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -51,6 +54,7 @@ import org.slf4j.LoggerFactory;
  * @author Hilbrand Bouwkamp - Made protected fields private and added new methods to give access.
  * @author Markus Rathgeb - Use separate collections to improve performance
  * @author Chris Jackson - Ensure managed provider is only unset by current provider
+ * @author agent - Lock-free reads from immutable snapshots
  *
  * @param <E> type of the element
  * @param <K> type of the key
@@ -76,9 +80,15 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
     private final ReentrantReadWriteLock.WriteLock elementWriteLock = elementLock.writeLock();
     private final Map<Provider<E>, Collection<E>> providerToElements = new HashMap<>();
     private final Map<E, Provider<E>> elementToProvider = new HashMap<>();
-    private final Map<K, E> identifierToElement = new HashMap<>();
+    private final Map<K, E> identifierToElement = new LinkedHashMap<>();
     private final Set<E> elements = new HashSet<>();
 
+    /**
+     * Immutable copy of the elements that readers use without locking or copying. It is discarded on every change and
+     * only copied again when it is read, so adding many elements one by one does not copy all elements every time.
+     */
+    private volatile @Nullable Snapshot<K, E> snapshot = new Snapshot<>(Map.of());
+
     private final Collection<RegistryChangeListener<E>> listeners = new CopyOnWriteArraySet<>();
 
     private Optional<ManagedProvider<E, K>> managedProvider = Optional.empty();
@@ -169,6 +179,7 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
             if (!added(provider, element, providerElements)) {
                 return;
             }
+            publishSnapshot();
         } finally {
             elementWriteLock.unlock();
         }
@@ -215,14 +226,22 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
         listeners.add(listener);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The returned collection is an unmodifiable snapshot that does not reflect later changes of the registry. Unlike
+     * in earlier versions, it is not a new modifiable set, so callers that want to modify it must copy it first.
+     * While a change is processed, e.g. in {@link #onAddElement(Identifiable)}, it already contains the elements
+     * changed so far.
+     */
     @Override
     public Collection<E> getAll() {
-        elementReadLock.lock();
-        try {
-            return new HashSet<>(elements);
-        } finally {
-            elementReadLock.unlock();
+        if (elementWriteLock.isHeldByCurrentThread()) {
+            // a writer must see its own changes, which are not published yet
+            return Collections.unmodifiableCollection(new ArrayList<>(identifierToElement.values()));
         }
+        return getSnapshot().elements;
     }
 
     @Override
@@ -266,6 +285,7 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
                 providerElements.remove(existingElement);
             }
             elements.remove(existingElement);
+            publishSnapshot();
         } finally {
             elementWriteLock.unlock();
         }
@@ -316,6 +336,7 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
             }
             elements.remove(existingElement);
             elements.add(element);
+            publishSnapshot();
         } finally {
             elementWriteLock.unlock();
         }
@@ -324,6 +345,15 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
 
     @Override
     public @Nullable E get(K key) {
+        if (elementWriteLock.isHeldByCurrentThread()) {
+            // a writer must see its own changes, which are not published yet
+            return identifierToElement.get(key);
+        }
+        Snapshot<K, E> snapshot = this.snapshot;
+        if (snapshot != null) {
+            return snapshot.identifierToElement.get(key);
+        }
+        // a single element is looked up without copying all elements
         elementReadLock.lock();
         try {
             return identifierToElement.get(key);
@@ -434,6 +464,7 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
                     elementsAdded.add(element);
                 }
             }
+            publishSnapshot();
         } finally {
             elementWriteLock.unlock();
         }
@@ -486,7 +517,7 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
      * collections.
      * You should also not call third party code that could e.g. access the registry itself again. This could lead to a
      * dead lock and hard finding bugs.
-     * The {@link #getAll()} and {@link #stream()} method will operate on a copy and so no lock is hold.
+     * The {@link #getAll()} and {@link #stream()} method will operate on a snapshot and so no lock is hold.
      *
      * @param provider provider to traverse elements of
      * @param consumer function to call with element
@@ -512,7 +543,7 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
      * collections.
      * You should also not call third party code that could e.g. access the registry itself again. This could lead to a
      * dead lock and hard finding bugs.
-     * The {@link #getAll()} and {@link #stream()} method will operate on a copy and so no lock is hold.
+     * The {@link #getAll()} and {@link #stream()} method will operate on a snapshot and so no lock is hold.
      *
      * @param consumer function to call with element
      */
@@ -535,7 +566,7 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
      * collections.
      * You should also not call third party code that could e.g. access the registry itself again. This could lead to a
      * dead lock and hard finding bugs.
-     * The {@link #getAll()} and {@link #stream()} method will operate on a copy and so no lock is hold.
+     * The {@link #getAll()} and {@link #stream()} method will operate on a snapshot and so no lock is hold.
      *
      * @param consumer function to call with the provider and element
      */
@@ -650,6 +681,7 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
                 elementToProvider.remove(element);
                 identifierToElement.remove(element.getUID());
             }
+            publishSnapshot();
         } finally {
             elementWriteLock.unlock();
         }
@@ -658,6 +690,45 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
         logger.debug("Provider \"{}\" has been removed.", provider.getClass().getSimpleName());
     }
 
+    /**
+     * Publishes the changed elements to readers by discarding the snapshot, which is copied again when it is read
+     * next.
+     *
+     * <p>
+     * This method must only be called if the write lock for elements has been locked!
+     */
+    private void publishSnapshot() {
+        snapshot = null;
+        onElementsPublished();
+    }
+
+    private Snapshot<K, E> getSnapshot() {
+        Snapshot<K, E> snapshot = this.snapshot;
+        if (snapshot == null) {
+            elementReadLock.lock();
+            try {
+                // no change can be made while the read lock is held, so the copy is only discarded by later changes
+                snapshot = this.snapshot;
+                if (snapshot == null) {
+                    snapshot = new Snapshot<>(identifierToElement);
+                    this.snapshot = snapshot;
+                }
+            } finally {
+                elementReadLock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * This method is called after added, removed or updated elements have been published to readers of the registry,
+     * while the write lock for elements is still held. The implementing class can override this method, e.g. to
+     * clean up data that had to be kept until readers no longer see the previous elements.
+     */
+    protected void onElementsPublished() {
+        // can be overridden by sub classes
+    }
+
     protected @Nullable EventPublisher getEventPublisher() {
         return this.eventPublisher;
     }
@@ -693,4 +764,18 @@ public abstract class AbstractRegistry<@NonNull E extends Identifiable<K>, @NonN
             }
         }
     }
+
+    /**
+     * An immutable copy of the elements of the registry, in the order they have been added.
+     */
+    private static final class Snapshot<K, E> {
+        private final Map<K, E> identifierToElement;
+        private final Collection<E> elements;
+
+        private Snapshot(Map<K, E> identifierToElement) {
+            Map<K, E> copy = new LinkedHashMap<>(identifierToElement);
+            this.identifierToElement = Collections.unmodifiableMap(copy);
+            this.elements = Collections.unmodifiableCollection(copy.values());
+        }
+    }
 }
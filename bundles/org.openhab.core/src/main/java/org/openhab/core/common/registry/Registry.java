@@ -41,6 +41,8 @@ public interface Registry<@NonNull E extends Identifiable<K>, @NonNull K> {
 
     /**
      * Returns a collection of all elements in the registry.
+     * <p>
+     * The returned collection may be unmodifiable, so callers that want to modify it must copy it first.
      *
      * @return collection of all elements in the registry
      */
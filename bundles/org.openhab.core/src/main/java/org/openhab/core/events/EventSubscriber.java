@@ -20,6 +20,10 @@ import org.eclipse.jdt.annotation.Nullable;
 /**
  * The {@link EventSubscriber} defines the callback interface for receiving events from
  * the openHAB event bus.
+ * <p>
+ * The subscribed event types and the event filter are read when the subscriber service is registered and the routing
+ * of events is built from them. If they change afterwards, the subscriber has to modify the properties of its service
+ * registration, so that they are read again.
  *
  * @author Stefan Bußweiler - Initial contribution
  */
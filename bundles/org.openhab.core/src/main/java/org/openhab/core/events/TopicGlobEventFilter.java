@@ -30,6 +30,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 @NonNullByDefault
 public class TopicGlobEventFilter implements EventFilter {
 
+    private final String topicGlob;
     private final PathMatcher topicMatcher;
 
     /**
@@ -41,9 +42,19 @@ public class TopicGlobEventFilter implements EventFilter {
      *      Glob</a>
      */
     public TopicGlobEventFilter(String topicGlob) {
+        this.topicGlob = topicGlob;
         this.topicMatcher = FileSystems.getDefault().getPathMatcher("glob:" + topicGlob);
     }
 
+    /**
+     * Gets the glob event topics are matched against.
+     *
+     * @return the topic glob
+     */
+    public String getTopicGlob() {
+        return topicGlob;
+    }
+
     @Override
     public boolean apply(Event event) {
         return topicMatcher.matches(Paths.get(event.getTopic()));
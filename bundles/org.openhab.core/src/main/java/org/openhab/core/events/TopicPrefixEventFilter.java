@@ -34,6 +34,15 @@ public class TopicPrefixEventFilter implements EventFilter {
         this.topicPrefix = topicPrefix;
     }
 
+    /**
+     * Gets the prefix event topics must start with.
+     *
+     * @return the topic prefix
+     */
+    public String getTopicPrefix() {
+        return topicPrefix;
+    }
+
     @Override
     public boolean apply(Event event) {
         return event.getTopic().startsWith(topicPrefix);
@@ -13,25 +13,24 @@
 package org.openhab.core.internal.events;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.common.NamedThreadFactory;
 import org.openhab.core.events.Event;
 import org.openhab.core.events.EventFactory;
-import org.openhab.core.events.EventFilter;
 import org.openhab.core.events.EventSubscriber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +38,8 @@ import org.slf4j.LoggerFactory;
 /**
  * Handle openHAB events encapsulated by OSGi events.
  *
+ * The handler is thread-safe and may be used by several threads concurrently.
+ *
  * @author Markus Rathgeb - Initial contribution
  */
 @NonNullByDefault
@@ -48,27 +49,28 @@ public class EventHandler implements AutoCloseable {
 
     private final Logger logger = LoggerFactory.getLogger(EventHandler.class);
 
-    private final Map<String, Set<EventSubscriber>> typedEventSubscribers;
+    private final Supplier<EventSubscriberIndex> subscriberIndex;
     private final Map<String, EventFactory> typedEventFactories;
 
-    private final Map<Class<? extends EventSubscriber>, ExecutorRecord> executors = new HashMap<>();
+    private final Map<Class<? extends EventSubscriber>, ExecutorRecord> executors = new ConcurrentHashMap<>();
+    private final AtomicInteger executorCount = new AtomicInteger();
 
     /**
      * Create a new event handler.
      *
-     * @param typedEventSubscribers the event subscribers indexed by the event type
+     * @param subscriberIndex the supplier of the current event subscriber routing index
      * @param typedEventFactories the event factories indexed by the event type
      */
-    public EventHandler(final Map<String, Set<EventSubscriber>> typedEventSubscribers,
+    public EventHandler(final Supplier<EventSubscriberIndex> subscriberIndex,
             final Map<String, EventFactory> typedEventFactories) {
-        this.typedEventSubscribers = typedEventSubscribers;
+        this.subscriberIndex = subscriberIndex;
         this.typedEventFactories = typedEventFactories;
     }
 
-    private synchronized ExecutorRecord createExecutorRecord(Class<? extends EventSubscriber> subscriber) {
-        return new ExecutorRecord(
-                Executors.newSingleThreadExecutor(new NamedThreadFactory("eventexecutor-" + executors.size())),
-                Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("eventwatcher-" + executors.size())),
+    private ExecutorRecord createExecutorRecord(Class<? extends EventSubscriber> subscriber) {
+        int index = executorCount.getAndIncrement();
+        return new ExecutorRecord(Executors.newSingleThreadExecutor(new NamedThreadFactory("eventexecutor-" + index)),
+                Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("eventwatcher-" + index)),
                 new AtomicInteger());
     }
 
@@ -81,6 +83,12 @@ public class EventHandler implements AutoCloseable {
     }
 
     public void handleEvent(org.osgi.service.event.Event osgiEvent) {
+        if (osgiEvent.getProperty(OSGiEventPublisher.PROPERTY_TYPED_EVENT) instanceof Event typedEvent) {
+            // the event has been posted inside this JVM, there is no need to parse the payload again
+            handleEvent(typedEvent);
+            return;
+        }
+
         Object typeObj = osgiEvent.getProperty("type");
         Object payloadObj = osgiEvent.getProperty("payload");
         Object topicObj = osgiEvent.getProperty("topic");
@@ -107,8 +115,8 @@ public class EventHandler implements AutoCloseable {
             return;
         }
 
-        final Set<EventSubscriber> eventSubscribers = getEventSubscribers(type);
-        if (eventSubscribers.isEmpty()) {
+        final EventSubscriberIndex index = subscriberIndex.get();
+        if (!index.hasSubscribers(type)) {
             return;
         }
 
@@ -117,21 +125,26 @@ public class EventHandler implements AutoCloseable {
             return;
         }
 
-        dispatchEvent(eventSubscribers, event);
+        dispatchEvent(index.getEventSubscribers(event), event);
     }
 
-    private Set<EventSubscriber> getEventSubscribers(String eventType) {
-        Set<EventSubscriber> eventTypeSubscribers = typedEventSubscribers.get(eventType);
-        Set<EventSubscriber> allEventTypeSubscribers = typedEventSubscribers.get(EventSubscriber.ALL_EVENT_TYPES);
-
-        Set<EventSubscriber> subscribers = new HashSet<>();
-        if (eventTypeSubscribers != null) {
-            subscribers.addAll(eventTypeSubscribers);
+    private void handleEvent(final Event event) {
+        final String type = event.getType();
+        if (type.isEmpty() || event.getPayload().isEmpty() || event.getTopic().isEmpty()) {
+            // such an event is not handled if it has been posted as string properties either
+            return;
+        }
+        if (!typedEventFactories.containsKey(type)) {
+            logger.debug("Could not find an Event Factory for the event type '{}'.", type);
+            return;
         }
-        if (allEventTypeSubscribers != null) {
-            subscribers.addAll(allEventTypeSubscribers);
+
+        final EventSubscriberIndex index = subscriberIndex.get();
+        if (!index.hasSubscribers(type)) {
+            return;
         }
-        return subscribers;
+
+        dispatchEvent(index.getEventSubscribers(event), event);
     }
 
     private @Nullable Event createEvent(final EventFactory eventFactory, final String type, final String payload,
@@ -146,35 +159,29 @@ public class EventHandler implements AutoCloseable {
         }
     }
 
-    private synchronized void dispatchEvent(final Set<EventSubscriber> eventSubscribers, final Event event) {
+    private void dispatchEvent(final List<EventSubscriber> eventSubscribers, final Event event) {
         for (final EventSubscriber eventSubscriber : eventSubscribers) {
-            EventFilter filter = eventSubscriber.getEventFilter();
-            if (filter == null || filter.apply(event)) {
-                logger.trace("Delegate event to subscriber ({}).", eventSubscriber.getClass());
-                ExecutorRecord executorRecord = Objects.requireNonNull(
-                        executors.computeIfAbsent(eventSubscriber.getClass(), this::createExecutorRecord));
-                int queueSize = executorRecord.count().incrementAndGet();
-                if (queueSize > 1000) {
-                    logger.warn(
-                            "The queue for a subscriber of type '{}' exceeds 1000 elements. System may be unstable.",
-                            eventSubscriber.getClass());
-                }
-                CompletableFuture.runAsync(() -> {
-                    ScheduledFuture<?> logTimeout = executorRecord.watcher().schedule(
-                            () -> logger.warn("Dispatching event to subscriber '{}' takes more than {}ms.",
-                                    eventSubscriber, EVENTSUBSCRIBER_EVENTHANDLING_MAX_MS),
-                            EVENTSUBSCRIBER_EVENTHANDLING_MAX_MS, TimeUnit.MILLISECONDS);
-                    try {
-                        eventSubscriber.receive(event);
-                    } catch (final Exception ex) {
-                        logger.warn("Dispatching/filtering event for subscriber '{}' failed: {}",
-                                EventSubscriber.class.getName(), ex.getMessage(), ex);
-                    }
-                    logTimeout.cancel(false);
-                }, executorRecord.executor()).thenRun(executorRecord.count::decrementAndGet);
-            } else {
-                logger.trace("Skip event subscriber ({}) because of its filter.", eventSubscriber.getClass());
+            logger.trace("Delegate event to subscriber ({}).", eventSubscriber.getClass());
+            ExecutorRecord executorRecord = Objects.requireNonNull(
+                    executors.computeIfAbsent(eventSubscriber.getClass(), this::createExecutorRecord));
+            int queueSize = executorRecord.count().incrementAndGet();
+            if (queueSize > 1000) {
+                logger.warn("The queue for a subscriber of type '{}' exceeds 1000 elements. System may be unstable.",
+                        eventSubscriber.getClass());
             }
+            CompletableFuture.runAsync(() -> {
+                ScheduledFuture<?> logTimeout = executorRecord.watcher().schedule(
+                        () -> logger.warn("Dispatching event to subscriber '{}' takes more than {}ms.",
+                                eventSubscriber, EVENTSUBSCRIBER_EVENTHANDLING_MAX_MS),
+                        EVENTSUBSCRIBER_EVENTHANDLING_MAX_MS, TimeUnit.MILLISECONDS);
+                try {
+                    eventSubscriber.receive(event);
+                } catch (final Exception ex) {
+                    logger.warn("Dispatching/filtering event for subscriber '{}' failed: {}",
+                            EventSubscriber.class.getName(), ex.getMessage(), ex);
+                }
+                logTimeout.cancel(false);
+            }, executorRecord.executor()).thenRun(executorRecord.count::decrementAndGet);
         }
     }
 
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.internal.events;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.events.Event;
+import org.openhab.core.events.EventFilter;
+import org.openhab.core.events.EventSubscriber;
+import org.openhab.core.events.TopicGlobEventFilter;
+import org.openhab.core.events.TopicPrefixEventFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link EventSubscriberIndex} is an immutable routing index for {@link EventSubscriber}s.
+ *
+ * The subscribers are indexed by the event type and, for every event type, by a trie of topic segments. Subscribers
+ * using a {@link TopicPrefixEventFilter} are stored at the node of their prefix and match without evaluating the
+ * filter. Subscribers using a {@link TopicGlobEventFilter} are stored at the node of the literal part of their glob
+ * and only have their filter evaluated if an event reaches that node. All other filters are evaluated for every event
+ * of the subscribed types.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+final class EventSubscriberIndex {
+
+    private static final String TOPIC_SEPARATOR = "/";
+    private static final String GLOB_SPECIAL_CHARS = "*?[]{}\\";
+
+    private final Logger logger = LoggerFactory.getLogger(EventSubscriberIndex.class);
+
+    private final Map<String, TopicNode> typedRoutes = new HashMap<>();
+    private final @Nullable TopicNode allTypesRoute;
+
+    /**
+     * Create a new index.
+     *
+     * @param typedEventSubscribers the event subscribers indexed by the event type
+     */
+    EventSubscriberIndex(Map<String, Set<EventSubscriber>> typedEventSubscribers) {
+        Set<EventSubscriber> allTypesSubscribers = typedEventSubscribers.getOrDefault(EventSubscriber.ALL_EVENT_TYPES,
+                Set.of());
+        allTypesRoute = allTypesSubscribers.isEmpty() ? null : buildRoute(allTypesSubscribers);
+
+        typedEventSubscribers.forEach((type, subscribers) -> {
+            if (!EventSubscriber.ALL_EVENT_TYPES.equals(type)) {
+                Set<EventSubscriber> routeSubscribers = new HashSet<>(subscribers);
+                routeSubscribers.addAll(allTypesSubscribers);
+                typedRoutes.put(type, buildRoute(routeSubscribers));
+            }
+        });
+    }
+
+    /**
+     * Check if there is any subscriber for an event type.
+     *
+     * @param eventType the event type
+     * @return true if at least one subscriber is subscribed to the event type
+     */
+    boolean hasSubscribers(String eventType) {
+        return typedRoutes.containsKey(eventType) || allTypesRoute != null;
+    }
+
+    /**
+     * Get the subscribers an event should be dispatched to.
+     *
+     * @param event the event
+     * @return the subscribers that are subscribed to the type of the event and whose filter applies
+     */
+    List<EventSubscriber> getEventSubscribers(Event event) {
+        @Nullable
+        TopicNode route = typedRoutes.get(event.getType());
+        if (route == null) {
+            route = allTypesRoute;
+            if (route == null) {
+                return List.of();
+            }
+        }
+
+        List<EventSubscriber> matches = new ArrayList<>();
+        String[] segments = event.getTopic().split(TOPIC_SEPARATOR, -1);
+        collect(route, 0, segments.length, event, matches);
+        @Nullable
+        TopicNode node = route;
+        for (int i = 0; i < segments.length && node != null; i++) {
+            node = node.children.get(segments[i]);
+            if (node != null) {
+                collect(node, i + 1, segments.length, event, matches);
+            }
+        }
+        return matches;
+    }
+
+    private void collect(TopicNode node, int depth, int segmentCount, Event event, List<EventSubscriber> matches) {
+        // a prefix "a/b/" only matches if the topic continues after the node's segments
+        if (depth < segmentCount) {
+            matches.addAll(node.subscribers);
+        }
+        for (EventSubscriber candidate : node.candidates) {
+            EventFilter filter = candidate.getEventFilter();
+            try {
+                if (filter == null || filter.apply(event)) {
+                    matches.add(candidate);
+                } else {
+                    logger.trace("Skip event subscriber ({}) because of its filter.", candidate.getClass());
+                }
+            } catch (final Exception ex) {
+                logger.warn("Filtering event for subscriber '{}' failed: {}", candidate.getClass().getName(),
+                        ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private static TopicNode buildRoute(Set<EventSubscriber> subscribers) {
+        TopicNode root = new TopicNode();
+        for (EventSubscriber subscriber : subscribers) {
+            EventFilter filter = subscriber.getEventFilter();
+            if (filter == null) {
+                root.subscribers.add(subscriber);
+            } else if (filter instanceof TopicPrefixEventFilter prefixFilter) {
+                String[] segments = prefixFilter.getTopicPrefix().split(TOPIC_SEPARATOR, -1);
+                int last = segments.length - 1;
+                if (segments[last].isEmpty()) {
+                    // the prefix ends at a segment boundary, all topics below the node match
+                    node(root, segments, last).subscribers.add(subscriber);
+                } else {
+                    // the prefix ends within a segment, the filter has to be checked
+                    node(root, segments, last).candidates.add(subscriber);
+                }
+            } else if (filter instanceof TopicGlobEventFilter globFilter) {
+                String[] segments = globFilter.getTopicGlob().split(TOPIC_SEPARATOR, -1);
+                int literalSegments = 0;
+                while (literalSegments < segments.length - 1 && isLiteral(segments[literalSegments])) {
+                    literalSegments++;
+                }
+                node(root, segments, literalSegments).candidates.add(subscriber);
+            } else {
+                root.candidates.add(subscriber);
+            }
+        }
+        return root;
+    }
+
+    private static TopicNode node(TopicNode root, String[] segments, int depth) {
+        TopicNode node = root;
+        for (int i = 0; i < depth; i++) {
+            node = node.children.computeIfAbsent(segments[i], segment -> new TopicNode());
+        }
+        return node;
+    }
+
+    private static boolean isLiteral(String globSegment) {
+        for (int i = 0; i < globSegment.length(); i++) {
+            if (GLOB_SPECIAL_CHARS.indexOf(globSegment.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class TopicNode {
+        private final Map<String, TopicNode> children = new HashMap<>();
+        // subscribers matching every topic that continues below this node
+        private final List<EventSubscriber> subscribers = new ArrayList<>();
+        // subscribers that have to check their filter for every topic reaching this node
+        private final List<EventSubscriber> candidates = new ArrayList<>();
+    }
+}
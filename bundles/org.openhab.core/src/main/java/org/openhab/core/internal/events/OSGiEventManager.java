@@ -17,6 +17,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.events.Event;
 import org.openhab.core.events.EventFactory;
 import org.openhab.core.events.EventSubscriber;
@@ -47,11 +48,15 @@ public class OSGiEventManager implements EventHandler {
     private final Map<String, Set<EventSubscriber>> typedEventSubscribers = new ConcurrentHashMap<>();
     private final Map<String, EventFactory> typedEventFactories = new ConcurrentHashMap<>();
 
-    private ThreadedEventHandler eventHandler;
+    /** The routing index built from the event subscribers, rebuilt lazily after the subscribers changed. */
+    private volatile @Nullable EventSubscriberIndex subscriberIndex;
+    private final Object subscriberLock = new Object();
+
+    private volatile ThreadedEventHandler eventHandler;
 
     @Activate
     protected void activate(ComponentContext componentContext) {
-        eventHandler = new ThreadedEventHandler(typedEventSubscribers, typedEventFactories);
+        eventHandler = new ThreadedEventHandler(this::getSubscriberIndex, typedEventFactories);
         eventHandler.open();
     }
 
@@ -63,31 +68,65 @@ public class OSGiEventManager implements EventHandler {
         }
     }
 
-    @Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
+    @Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC,
+            updated = "updatedEventSubscriber")
     protected void addEventSubscriber(final EventSubscriber eventSubscriber) {
         final Set<String> subscribedEventTypes = eventSubscriber.getSubscribedEventTypes();
-        for (final String subscribedEventType : subscribedEventTypes) {
-            final Set<EventSubscriber> entries = typedEventSubscribers.get(subscribedEventType);
-            if (entries == null) {
-                // Use a copy on write array set because the set is written and read by different threads!
-                typedEventSubscribers.put(subscribedEventType, new CopyOnWriteArraySet<>(Set.of(eventSubscriber)));
-            } else {
-                entries.add(eventSubscriber);
+        synchronized (subscriberLock) {
+            for (final String subscribedEventType : subscribedEventTypes) {
+                final Set<EventSubscriber> entries = typedEventSubscribers.get(subscribedEventType);
+                if (entries == null) {
+                    // Use a copy on write array set because the set is written and read by different threads!
+                    typedEventSubscribers.put(subscribedEventType,
+                            new CopyOnWriteArraySet<>(Set.of(eventSubscriber)));
+                } else {
+                    entries.add(eventSubscriber);
+                }
             }
+            subscriberIndex = null;
+        }
+    }
+
+    /**
+     * Reads the subscribed event types and the event filter of a subscriber again after its service properties have
+     * been modified.
+     *
+     * @param eventSubscriber the modified event subscriber
+     */
+    protected void updatedEventSubscriber(final EventSubscriber eventSubscriber) {
+        synchronized (subscriberLock) {
+            removeEventSubscriber(eventSubscriber);
+            addEventSubscriber(eventSubscriber);
         }
     }
 
     protected void removeEventSubscriber(EventSubscriber eventSubscriber) {
-        final Set<String> subscribedEventTypes = eventSubscriber.getSubscribedEventTypes();
-        for (final String subscribedEventType : subscribedEventTypes) {
-            final Set<EventSubscriber> entries = typedEventSubscribers.get(subscribedEventType);
-            if (entries != null) {
-                entries.remove(eventSubscriber);
-                if (entries.isEmpty()) {
-                    typedEventSubscribers.remove(subscribedEventType);
+        synchronized (subscriberLock) {
+            // the subscribed event types may have changed since the subscriber was added
+            typedEventSubscribers.values().removeIf(entries -> entries.remove(eventSubscriber) && entries.isEmpty());
+            subscriberIndex = null;
+        }
+    }
+
+    /**
+     * Get the routing index of the current event subscribers.
+     *
+     * The index is only rebuilt on the first request after the subscribers have changed.
+     *
+     * @return the event subscriber index
+     */
+    private EventSubscriberIndex getSubscriberIndex() {
+        EventSubscriberIndex index = subscriberIndex;
+        if (index == null) {
+            synchronized (subscriberLock) {
+                index = subscriberIndex;
+                if (index == null) {
+                    index = new EventSubscriberIndex(typedEventSubscribers);
+                    subscriberIndex = index;
                 }
             }
         }
+        return index;
     }
 
     @Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
@@ -111,6 +150,16 @@ public class OSGiEventManager implements EventHandler {
         }
     }
 
+    /**
+     * Get the number of events waiting to be handled, per dispatch shard.
+     *
+     * @return the current queue depth of every shard (empty if the manager is not active)
+     */
+    public int[] getShardQueueSizes() {
+        ThreadedEventHandler eventHandler = this.eventHandler;
+        return eventHandler == null ? new int[0] : eventHandler.getQueueSizes();
+    }
+
     @Override
     public void handleEvent(org.osgi.service.event.Event osgiEvent) {
         eventHandler.handleEvent(osgiEvent);
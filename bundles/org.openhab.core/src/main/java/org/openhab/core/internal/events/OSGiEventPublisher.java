@@ -26,7 +26,9 @@ import org.osgi.service.event.EventAdmin;
  * The {@link OSGiEventPublisher} provides an OSGi based default implementation of the openHAB event
  * publisher.
  *
- * Events are send in an asynchronous way via OSGi Event Admin mechanism.
+ * Events are send in an asynchronous way via OSGi Event Admin mechanism. Beside the serialized form (type, payload and
+ * topic) the original {@link Event} instance is attached to the OSGi event, so that the {@link OSGiEventManager} running
+ * in the same JVM can hand it to the subscribers without parsing the payload again.
  *
  * @author Stefan Bußweiler - Initial contribution
  * @author Simon Kaufmann - separated from OSGiEventManager
@@ -34,6 +36,11 @@ import org.osgi.service.event.EventAdmin;
 @Component
 public class OSGiEventPublisher implements EventPublisher {
 
+    /**
+     * The name of the OSGi event property that holds the original openHAB {@link Event} instance.
+     */
+    static final String PROPERTY_TYPED_EVENT = "typedEvent";
+
     private final EventAdmin osgiEventAdmin;
 
     @Activate
@@ -51,7 +58,7 @@ public class OSGiEventPublisher implements EventPublisher {
 
     private void postAsOSGiEvent(final EventAdmin eventAdmin, final Event event) throws IllegalStateException {
         try {
-            Dictionary<String, Object> properties = new Hashtable<>(3);
+            Dictionary<String, Object> properties = new Hashtable<>(5);
             properties.put("type", event.getType());
             properties.put("payload", event.getPayload());
             properties.put("topic", event.getTopic());
@@ -59,6 +66,7 @@ public class OSGiEventPublisher implements EventPublisher {
             if (source != null) {
                 properties.put("source", source);
             }
+            properties.put(PROPERTY_TYPED_EVENT, event);
             eventAdmin.postEvent(new org.osgi.service.event.Event("openhab", properties));
         } catch (Exception e) {
             throw new IllegalStateException("Cannot post the event via the event bus. Error message: " + e.getMessage(),
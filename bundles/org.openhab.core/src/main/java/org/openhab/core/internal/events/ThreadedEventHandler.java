@@ -15,84 +15,165 @@ package org.openhab.core.internal.events;
 import java.io.Closeable;
 import java.util.Collections;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.events.EventFactory;
-import org.openhab.core.events.EventSubscriber;
 import org.osgi.service.event.Event;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Handle openHAB events encapsulated by OSGi events in a separate thread.
+ * Handle openHAB events encapsulated by OSGi events in separate threads.
+ *
+ * The events are distributed to a number of shards, each processed by its own thread. The shard is selected by the
+ * entity part of the event topic (e.g. {@code openhab/items/<name>}), so all events of the same entity are handled in
+ * order, while events of different entities are handled in parallel.
  *
  * @author Markus Rathgeb - Initial contribution
  */
 @NonNullByDefault
 public class ThreadedEventHandler implements Closeable {
 
+    private static final int QUEUE_SIZE_WARNING_THRESHOLD = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(ThreadedEventHandler.class);
 
-    private final Thread thread;
+    private final EventHandler worker;
+    private final Shard[] shards;
 
     private final Event notifyEvent = new Event("notify", Collections.emptyMap());
-    private final BlockingQueue<Event> queue = new LinkedBlockingQueue<>();
     private final AtomicBoolean running = new AtomicBoolean(true);
 
     /**
-     * Create a new threaded event handler.
+     * Create a new threaded event handler using one shard per available processor.
      *
-     * @param typedEventSubscribers the event subscribers
+     * @param subscriberIndex the supplier of the current event subscriber routing index
      * @param typedEventFactories the event factories indexed by the event type
      */
-    ThreadedEventHandler(Map<String, Set<EventSubscriber>> typedEventSubscribers,
+    ThreadedEventHandler(Supplier<EventSubscriberIndex> subscriberIndex,
             final Map<String, EventFactory> typedEventFactories) {
-        thread = new Thread(() -> {
-            try (EventHandler worker = new EventHandler(typedEventSubscribers, typedEventFactories)) {
-                while (running.get()) {
-                    try {
-                        logger.trace("wait for event");
-                        final Event event = queue.poll(1, TimeUnit.HOURS);
-                        logger.trace("inspect event: {}", event);
-                        if (event == null) {
-                            logger.debug("Hey, you have really very few events.");
-                        } else if (event.equals(notifyEvent)) {
-                            // received an internal notification
-                        } else {
-                            worker.handleEvent(event);
-                        }
-                    } catch (InterruptedException ex) {
-                        Thread.currentThread().interrupt();
-                    } catch (RuntimeException ex) {
-                        logger.error("Error on event handling.", ex);
-                    }
-                }
-            }
-        }, "OH-OSGiEventManager");
+        this(subscriberIndex, typedEventFactories, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a new threaded event handler.
+     *
+     * @param subscriberIndex the supplier of the current event subscriber routing index
+     * @param typedEventFactories the event factories indexed by the event type
+     * @param shardCount the number of shards (and threads) used to handle the events
+     */
+    ThreadedEventHandler(Supplier<EventSubscriberIndex> subscriberIndex,
+            final Map<String, EventFactory> typedEventFactories, int shardCount) {
+        worker = new EventHandler(subscriberIndex, typedEventFactories);
+        shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(shards.length == 1 ? "OH-OSGiEventManager" : "OH-OSGiEventManager-" + i);
+        }
     }
 
     void open() {
-        thread.start();
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
     }
 
     @Override
     public void close() {
         running.set(false);
-        queue.add(notifyEvent);
-        thread.interrupt();
+        for (Shard shard : shards) {
+            shard.queue.add(notifyEvent);
+            shard.thread.interrupt();
+        }
         try {
-            thread.join();
+            for (Shard shard : shards) {
+                shard.thread.join();
+            }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+        } finally {
+            worker.close();
         }
     }
 
     void handleEvent(Event event) {
-        queue.add(event);
+        Shard shard = shards[shardIndex(event.getProperty("topic"))];
+        shard.queue.add(event);
+        int queueSize = shard.queue.size();
+        if (queueSize > QUEUE_SIZE_WARNING_THRESHOLD && queueSize % QUEUE_SIZE_WARNING_THRESHOLD == 1) {
+            logger.warn("The queue of event handler thread '{}' exceeds {} elements. System may be unstable.",
+                    shard.thread.getName(), QUEUE_SIZE_WARNING_THRESHOLD);
+        }
+    }
+
+    /**
+     * Get the number of events waiting to be handled, per shard.
+     *
+     * @return the current queue depth of every shard
+     */
+    int[] getQueueSizes() {
+        int[] sizes = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            sizes[i] = shards[i].queue.size();
+        }
+        return sizes;
+    }
+
+    /**
+     * Get the shard that handles the events of a topic.
+     *
+     * @param topicObj the topic property of an event
+     * @return the index of the shard
+     */
+    int shardIndex(@Nullable Object topicObj) {
+        if (shards.length == 1 || !(topicObj instanceof String topic)) {
+            return 0;
+        }
+        // use the entity part of the topic ("openhab/<entityType>/<entityId>") so that the events of a single
+        // entity (e.g. state, command and statechanged of an item) always end up in the same shard
+        int end = topic.length();
+        int separators = 0;
+        for (int i = 0; i < topic.length(); i++) {
+            if (topic.charAt(i) == '/' && ++separators == 3) {
+                end = i;
+                break;
+            }
+        }
+        return Math.floorMod(topic.substring(0, end).hashCode(), shards.length);
+    }
+
+    private class Shard {
+        private final BlockingQueue<Event> queue = new LinkedBlockingQueue<>();
+        private final Thread thread;
+
+        private Shard(String name) {
+            thread = new Thread(this::run, name);
+        }
+
+        private void run() {
+            while (running.get()) {
+                try {
+                    logger.trace("wait for event");
+                    final Event event = queue.poll(1, TimeUnit.HOURS);
+                    logger.trace("inspect event: {}", event);
+                    if (event == null) {
+                        logger.debug("Hey, you have really very few events.");
+                    } else if (event.equals(notifyEvent)) {
+                        // received an internal notification
+                    } else {
+                        worker.handleEvent(event);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException ex) {
+                    logger.error("Error on event handling.", ex);
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.internal.items;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.items.Item;
+
+/**
+ * The {@link ItemIndex} maps keys (e.g. item types) to the names of the items having this key.
+ *
+ * Lookups resolve the names with the registry and only return items that currently have the key, so the index may
+ * contain more names than needed. This is used to keep lookups consistent with the items published by the registry:
+ * names are added before a change is published, and names that no longer match are only removed by {@link #prune}
+ * after the change has been published. Lookups are thread-safe and return a copy, so their cost only depends on the
+ * number of matching items. Changes must not be done concurrently.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class ItemIndex {
+
+    private final Function<Item, Collection<String>> keysOf;
+    private final Map<String, Set<String>> namesByKey = new ConcurrentHashMap<>();
+    // the keys an item name has been added for and the names to prune, only accessed by the (single) writer
+    private final Map<String, Set<String>> keysByItemName = new HashMap<>();
+    private final Set<String> namesToPrune = new HashSet<>();
+
+    /**
+     * Creates an index.
+     *
+     * @param keysOf returns the keys of an item
+     */
+    ItemIndex(Function<Item, Collection<String>> keysOf) {
+        this.keysOf = keysOf;
+    }
+
+    /**
+     * Adds an item for its keys. If the item replaces an item with the same name, the keys of the replaced item are
+     * kept until the index is pruned.
+     *
+     * @param item the item
+     */
+    void add(Item item) {
+        String name = item.getName();
+        Set<String> keys = keysByItemName.computeIfAbsent(name, n -> new HashSet<>());
+        if (!keys.isEmpty()) {
+            namesToPrune.add(name);
+        }
+        for (String key : keysOf.apply(item)) {
+            if (keys.add(key)) {
+                Set<String> names = namesByKey.computeIfAbsent(key, k -> new LinkedHashSet<>());
+                synchronized (names) {
+                    names.add(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks an item to be removed when the index is pruned.
+     *
+     * @param item the item
+     */
+    void remove(Item item) {
+        if (keysByItemName.containsKey(item.getName())) {
+            namesToPrune.add(item.getName());
+        }
+    }
+
+    /**
+     * Removes the names of removed items and the keys that replaced items no longer have. Must be called after the
+     * changes have been published by the registry.
+     *
+     * @param lookup returns the current item with a name
+     */
+    void prune(Function<String, @Nullable Item> lookup) {
+        for (String name : namesToPrune) {
+            Item item = lookup.apply(name);
+            Collection<String> currentKeys = item == null ? Set.of() : keysOf.apply(item);
+            Set<String> keys = keysByItemName.getOrDefault(name, Set.of());
+            for (String key : List.copyOf(keys)) {
+                if (!currentKeys.contains(key)) {
+                    keys.remove(key);
+                    namesByKey.computeIfPresent(key, (k, names) -> {
+                        synchronized (names) {
+                            names.remove(name);
+                            return names.isEmpty() ? null : names;
+                        }
+                    });
+                }
+            }
+            if (keys.isEmpty()) {
+                keysByItemName.remove(name);
+            }
+        }
+        namesToPrune.clear();
+    }
+
+    /**
+     * Returns the items for a key.
+     *
+     * @param key the key
+     * @param lookup returns the current item with a name
+     * @return a new list of the items that currently have the key
+     */
+    List<Item> get(String key, Function<String, @Nullable Item> lookup) {
+        Set<String> names = namesByKey.get(key);
+        if (names == null) {
+            return new ArrayList<>();
+        }
+        List<String> candidates;
+        synchronized (names) {
+            candidates = new ArrayList<>(names);
+        }
+        List<Item> items = new ArrayList<>(candidates.size());
+        for (String name : candidates) {
+            Item item = lookup.apply(name);
+            if (item != null && keysOf.apply(item).contains(key)) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+}
@@ -17,7 +17,10 @@ import static java.util.stream.Collectors.toList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -43,10 +46,12 @@ import org.openhab.core.items.events.ItemEventFactory;
 import org.openhab.core.service.CommandDescriptionService;
 import org.openhab.core.service.ReadyService;
 import org.openhab.core.service.StateDescriptionService;
+import org.osgi.framework.Constants;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
@@ -61,12 +66,20 @@ import org.slf4j.LoggerFactory;
  *
  * @author Kai Kreuzer - Initial contribution
  * @author Stefan Bußweiler - Migration to new event mechanism
+ * @author agent - Indexes for types and group members
+ * @author agent - Default coalescing window of groups
  */
 @NonNullByDefault
-@Component(immediate = true)
+@Component(immediate = true, configurationPid = "org.openhab.items", property = {
+        Constants.SERVICE_PID + "=org.openhab.items", //
+        "service.config.label=Items", //
+        "service.config.category=system", //
+        "service.config.description.uri=system:items" })
 public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvider>
         implements ItemRegistry, RegistryChangeListener<Metadata> {
 
+    protected static final String CONFIG_GROUP_COALESCING_WINDOW = "groupCoalescingWindow";
+
     private final Logger logger = LoggerFactory.getLogger(ItemRegistryImpl.class);
 
     private final List<RegistryHook<Item>> registryHooks = new CopyOnWriteArrayList<>();
@@ -76,6 +89,14 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
 
     private @Nullable ItemStateConverter itemStateConverter;
 
+    // the coalescing window in milliseconds for groups without own coalescing metadata
+    private volatile long groupCoalescingWindow;
+
+    // indexes of the registered items, updated while the registry holds its write lock
+    private final ItemIndex typeIndex = new ItemIndex(item -> List.of(item.getType()));
+    private final ItemIndex groupIndex = new ItemIndex(
+            item -> item.getGroupNames().stream().filter(Objects::nonNull).toList());
+
     @Activate
     public ItemRegistryImpl(final @Reference MetadataRegistry metadataRegistry) {
         super(ItemProvider.class);
@@ -83,11 +104,32 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
     }
 
     @Activate
-    protected void activate(final ComponentContext componentContext) {
+    protected void activate(final ComponentContext componentContext, Map<String, @Nullable Object> configuration) {
+        modified(configuration);
         super.activate(componentContext.getBundleContext());
         metadataRegistry.addRegistryChangeListener(this);
     }
 
+    @Modified
+    protected void modified(Map<String, @Nullable Object> configuration) {
+        long window = 0;
+        Object value = configuration.get(CONFIG_GROUP_COALESCING_WINDOW);
+        if (value != null) {
+            try {
+                window = Math.max(0, Long.parseLong(value.toString().trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Configuration value '{}' for '{}' is not a number of milliseconds, using 0.", value,
+                        CONFIG_GROUP_COALESCING_WINDOW);
+            }
+        }
+        groupCoalescingWindow = window;
+        for (Item item : getItems()) {
+            if (item instanceof GroupItem groupItem) {
+                groupItem.setDefaultCoalescingWindow(window);
+            }
+        }
+    }
+
     @Override
     @Deactivate
     protected void deactivate() {
@@ -127,24 +169,25 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
 
     @Override
     public Collection<Item> getItemsOfType(String type) {
-        Collection<Item> matchedItems = new ArrayList<>();
-
-        for (Item item : getItems()) {
-            if (item.getType().equals(type)) {
-                matchedItems.add(item);
-            }
-        }
-
-        return matchedItems;
+        return typeIndex.get(type, this::get);
     }
 
     @Override
     public Collection<Item> getItems(String pattern) {
-        String regex = pattern.replace("?", ".?").replace("*", ".*?");
         Collection<Item> matchedItems = new ArrayList<>();
 
+        if (ItemUtil.isValidItemName(pattern)) {
+            // a pattern without wildcards can only match the item with exactly this name
+            Item item = get(pattern);
+            if (item != null) {
+                matchedItems.add(item);
+            }
+            return matchedItems;
+        }
+
+        Pattern regex = Pattern.compile(pattern.replace("?", ".?").replace("*", ".*?"));
         for (Item item : getItems()) {
-            if (item.getName().matches(regex)) {
+            if (regex.matcher(item.getName()).matches()) {
                 matchedItems.add(item);
             }
         }
@@ -209,6 +252,9 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
             genericItem.setCommandDescriptionService(commandDescriptionService);
             genericItem.setItemStateConverter(itemStateConverter);
         }
+        if (item instanceof GroupItem groupItem) {
+            groupItem.setDefaultCoalescingWindow(groupCoalescingWindow);
+        }
         if (item instanceof MetadataAwareItem metadataAwareItem) {
             metadataRegistry.stream().filter(m -> m.getUID().getItemName().equals(item.getName()))
                     .forEach(metadataAwareItem::addedMetadata);
@@ -216,13 +262,21 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
     }
 
     private void addMembersToGroupItem(GroupItem groupItem) {
-        for (Item i : getItems()) {
-            if (i.getGroupNames().contains(groupItem.getName())) {
-                groupItem.addMember(i);
-            }
+        for (Item i : groupIndex.get(groupItem.getName(), this::get)) {
+            groupItem.addMember(i);
         }
     }
 
+    private void addToIndexes(Item item) {
+        typeIndex.add(item);
+        groupIndex.add(item);
+    }
+
+    private void removeFromIndexes(Item item) {
+        typeIndex.remove(item);
+        groupIndex.remove(item);
+    }
+
     private void removeFromGroupItems(Item item, List<String> groupItemNames) {
         for (String groupName : groupItemNames) {
             if (groupName != null) {
@@ -240,6 +294,7 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
     @Override
     protected void onAddElement(Item element) throws IllegalArgumentException {
         initializeItem(element);
+        addToIndexes(element);
     }
 
     @Override
@@ -248,6 +303,7 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
             genericItem.dispose();
         }
         removeFromGroupItems(element, element.getGroupNames());
+        removeFromIndexes(element);
     }
 
     @Override
@@ -259,6 +315,8 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
 
     @Override
     protected void onUpdateElement(Item oldItem, Item item) {
+        addToIndexes(item);
+
         // don't use #initialize and retain order of items in groups:
         List<String> oldNames = oldItem.getGroupNames();
         List<String> newNames = item.getGroupNames();
@@ -273,6 +331,12 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
         injectServices(item);
     }
 
+    @Override
+    protected void onElementsPublished() {
+        typeIndex.prune(this::get);
+        groupIndex.prune(this::get);
+    }
+
     @Override
     @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
     protected void setEventPublisher(EventPublisher eventPublisher) {
@@ -318,6 +382,7 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
 
     @Override
     public Collection<Item> getItemsByTag(String... tags) {
+        // tags can be changed on registered items, so they are not indexed
         List<Item> filteredItems = new ArrayList<>();
         for (Item item : getItems()) {
             if (itemHasTags(item, tags)) {
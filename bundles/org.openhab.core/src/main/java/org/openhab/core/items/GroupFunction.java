@@ -54,6 +54,15 @@ public interface GroupFunction {
      */
     State[] getParameters();
 
+    /**
+     * Creates an accumulator that calculates this function incrementally from the states of the members.
+     *
+     * @return a new accumulator or null, if this function can only be calculated over all members at once
+     */
+    default @Nullable GroupStateAccumulator createAccumulator() {
+        return null;
+    }
+
     /**
      * This is the default group function that does nothing else than to check if all member items
      * have the same state. If this is the case, this state is returned, otherwise UNDEF is returned.
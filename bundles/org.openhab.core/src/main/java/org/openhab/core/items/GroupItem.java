@@ -20,11 +20,14 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.events.EventPublisher;
 import org.openhab.core.items.events.ItemEventFactory;
 import org.openhab.core.service.CommandDescriptionService;
@@ -37,18 +40,37 @@ import org.slf4j.LoggerFactory;
 /**
  *
  * @author Kai Kreuzer - Initial contribution
+ * @author agent - Incremental calculation of the group state
+ * @author agent - Coalescing of member state updates
  */
 @NonNullByDefault
 public class GroupItem extends GenericItem implements StateChangeListener, MetadataAwareItem {
 
     public static final String TYPE = "Group";
 
+    /**
+     * The metadata namespace for the coalescing window of a group in milliseconds (e.g. {@code coalesce="200"}).
+     */
+    public static final String COALESCING_METADATA_NAMESPACE = "coalesce";
+
     private final Logger logger = LoggerFactory.getLogger(GroupItem.class);
 
     protected @Nullable final Item baseItem;
     protected @Nullable GroupFunction function;
     protected final CopyOnWriteArrayList<Item> members;
 
+    private final Object accumulatorLock = new Object();
+    // maintains the group state for state updates of members, discarded whenever the members change
+    private @Nullable GroupStateAccumulator accumulator;
+    private boolean accumulatorSupported = true;
+
+    // the coalescing window from the metadata of this group (-1 if not set) and the default window, in milliseconds
+    private volatile long coalescingWindow = -1;
+    private volatile long defaultCoalescingWindow;
+    // members updated within the current coalescing window, guarded by accumulatorLock
+    private final Set<Item> pendingMembers = new LinkedHashSet<>();
+    private @Nullable ScheduledFuture<?> coalescingJob;
+
     /**
      * Creates a plain GroupItem
      *
@@ -89,6 +111,14 @@ public class GroupItem extends GenericItem implements StateChangeListener, Metad
     public void dispose() {
         super.dispose();
         removeAllMembers();
+        synchronized (accumulatorLock) {
+            ScheduledFuture<?> coalescingJob = this.coalescingJob;
+            if (coalescingJob != null) {
+                coalescingJob.cancel(false);
+                this.coalescingJob = null;
+            }
+            pendingMembers.clear();
+        }
     }
 
     /**
@@ -111,6 +141,18 @@ public class GroupItem extends GenericItem implements StateChangeListener, Metad
         return function;
     }
 
+    /**
+     * Sets the coalescing window that is used if the group has no {@value #COALESCING_METADATA_NAMESPACE} metadata.
+     *
+     * If the window is positive, all member state updates within the window after a first update are combined into a
+     * single calculation of the group state, which is posted as a single group state event.
+     *
+     * @param milliseconds the window in milliseconds, 0 to calculate the group state on every member update
+     */
+    public void setDefaultCoalescingWindow(long milliseconds) {
+        this.defaultCoalescingWindow = milliseconds;
+    }
+
     /**
      * Returns the direct members of this {@link GroupItem} regardless if these
      * members are {@link GroupItem}s as well.
@@ -175,6 +217,7 @@ public class GroupItem extends GenericItem implements StateChangeListener, Metad
             genericItem.addGroupName(getName());
         }
         registerStateListener(item);
+        resetAccumulator();
     }
 
     private void registerStateListener(Item item) {
@@ -199,6 +242,7 @@ public class GroupItem extends GenericItem implements StateChangeListener, Metad
             unregisterStateListener(old);
         }
         registerStateListener(newItem);
+        resetAccumulator();
     }
 
     /**
@@ -213,6 +257,7 @@ public class GroupItem extends GenericItem implements StateChangeListener, Metad
         }
         members.remove(item);
         unregisterStateListener(item);
+        resetAccumulator();
     }
 
     /**
@@ -223,6 +268,7 @@ public class GroupItem extends GenericItem implements StateChangeListener, Metad
             unregisterStateListener(member);
         }
         members.clear();
+        resetAccumulator();
     }
 
     /**
@@ -363,16 +409,46 @@ public class GroupItem extends GenericItem implements StateChangeListener, Metad
 
     @Override
     public void stateUpdated(Item item, State state) {
+        long window = coalescingWindow >= 0 ? coalescingWindow : defaultCoalescingWindow;
+        if (window > 0 && function != null) {
+            synchronized (accumulatorLock) {
+                // keep the most recently updated member last, it is reported as the cause of the group update
+                pendingMembers.remove(item);
+                pendingMembers.add(item);
+                if (coalescingJob == null) {
+                    coalescingJob = ThreadPoolManager.getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON)
+                            .schedule(this::applyPendingUpdates, window, TimeUnit.MILLISECONDS);
+                }
+            }
+        } else {
+            applyUpdates(List.of(item));
+        }
+    }
+
+    private void applyPendingUpdates() {
+        List<Item> updatedMembers;
+        synchronized (accumulatorLock) {
+            updatedMembers = new ArrayList<>(pendingMembers);
+            pendingMembers.clear();
+            coalescingJob = null;
+        }
+        if (!updatedMembers.isEmpty()) {
+            applyUpdates(updatedMembers);
+        }
+    }
+
+    private void applyUpdates(List<Item> updatedMembers) {
+        String memberName = updatedMembers.get(updatedMembers.size() - 1).getName();
         State oldState = this.state;
         State newState = oldState;
         if (function != null && baseItem != null && itemStateConverter != null) {
-            State calculatedState = function.calculate(getStateMembers(getMembers()));
+            State calculatedState = calculateState(function, updatedMembers);
             newState = itemStateConverter.convertToAcceptedState(calculatedState, baseItem);
             setState(newState);
-            sendGroupStateUpdatedEvent(item.getName(), newState);
+            sendGroupStateUpdatedEvent(memberName, newState);
         }
         if (!oldState.equals(newState)) {
-            sendGroupStateChangedEvent(item.getName(), newState, oldState);
+            sendGroupStateChangedEvent(memberName, newState, oldState);
         }
     }
 
@@ -419,6 +495,58 @@ public class GroupItem extends GenericItem implements StateChangeListener, Metad
         }
     }
 
+    /**
+     * Calculates the group state after state updates of members.
+     *
+     * If the function supports it and all state members are direct members, the state is maintained by an accumulator,
+     * which only has to take the new states of the updated members into account. The accumulator is built from all
+     * members on the first update after a change of the members.
+     *
+     * @param function the group function
+     * @param updatedMembers the members whose states have been updated
+     * @return the group state
+     */
+    private State calculateState(GroupFunction function, List<Item> updatedMembers) {
+        synchronized (accumulatorLock) {
+            GroupStateAccumulator accumulator = this.accumulator;
+            if (accumulator != null) {
+                updatedMembers.forEach(accumulator::update);
+                return accumulator.getState();
+            }
+            if (accumulatorSupported) {
+                accumulator = createAccumulator(function);
+                if (accumulator != null) {
+                    this.accumulator = accumulator;
+                    return accumulator.getState();
+                }
+                accumulatorSupported = false;
+            }
+        }
+        return function.calculate(getStateMembers(getMembers()));
+    }
+
+    private @Nullable GroupStateAccumulator createAccumulator(GroupFunction function) {
+        GroupStateAccumulator accumulator = function.createAccumulator();
+        if (accumulator == null) {
+            return null;
+        }
+        for (Item member : members) {
+            // members of nested groups without own state are state members as well, but do not notify this group
+            if (member == this || (member instanceof GroupItem groupItem && !hasOwnState(groupItem))) {
+                return null;
+            }
+            accumulator.add(member);
+        }
+        return accumulator;
+    }
+
+    private void resetAccumulator() {
+        synchronized (accumulatorLock) {
+            accumulator = null;
+            accumulatorSupported = true;
+        }
+    }
+
     private Set<Item> getStateMembers(Set<Item> items) {
         Set<Item> result = new HashSet<>();
         collectStateMembers(result, items);
@@ -451,6 +579,7 @@ public class GroupItem extends GenericItem implements StateChangeListener, Metad
 
     @Override
     public void addedMetadata(Metadata metadata) {
+        applyCoalescingMetadata(metadata);
         if (baseItem instanceof MetadataAwareItem metadataAwareItem) {
             metadataAwareItem.addedMetadata(metadata);
         }
@@ -458,6 +587,7 @@ public class GroupItem extends GenericItem implements StateChangeListener, Metad
 
     @Override
     public void updatedMetadata(Metadata oldMetadata, Metadata newMetadata) {
+        applyCoalescingMetadata(newMetadata);
         if (baseItem instanceof MetadataAwareItem metadataAwareItem) {
             metadataAwareItem.updatedMetadata(oldMetadata, newMetadata);
         }
@@ -465,8 +595,22 @@ public class GroupItem extends GenericItem implements StateChangeListener, Metad
 
     @Override
     public void removedMetadata(Metadata metadata) {
+        if (COALESCING_METADATA_NAMESPACE.equals(metadata.getUID().getNamespace())) {
+            coalescingWindow = -1;
+        }
         if (baseItem instanceof MetadataAwareItem metadataAwareItem) {
             metadataAwareItem.removedMetadata(metadata);
         }
     }
+
+    private void applyCoalescingMetadata(Metadata metadata) {
+        if (COALESCING_METADATA_NAMESPACE.equals(metadata.getUID().getNamespace())) {
+            try {
+                coalescingWindow = Math.max(0, Long.parseLong(metadata.getValue().trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Coalescing window '{}' of group '{}' is not a number of milliseconds, ignoring it.",
+                        metadata.getValue(), name);
+            }
+        }
+    }
 }
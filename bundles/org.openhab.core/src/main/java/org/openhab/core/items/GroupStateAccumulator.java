@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.items;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.types.State;
+
+/**
+ * A {@link GroupStateAccumulator} maintains the result of a {@link GroupFunction} incrementally.
+ *
+ * It remembers the contribution of every member, so a state update of a single member only has to replace this
+ * member's contribution instead of calculating the function over all members again. Accumulators are not thread-safe.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface GroupStateAccumulator {
+
+    /**
+     * Adds a member, or replaces its contribution if it has been added before.
+     *
+     * @param item the member
+     */
+    void add(Item item);
+
+    /**
+     * Replaces the contribution of a member by its current state. Items that have not been added are ignored.
+     *
+     * @param item the member
+     */
+    void update(Item item);
+
+    /**
+     * Removes a member.
+     *
+     * @param item the member
+     */
+    void remove(Item item);
+
+    /**
+     * Returns the result of the group function over the current contributions of all members.
+     *
+     * @return the group state
+     */
+    State getState();
+}
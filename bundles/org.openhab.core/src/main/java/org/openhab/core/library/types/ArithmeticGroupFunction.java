@@ -21,6 +21,7 @@ import java.util.regex.Pattern;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.items.GroupFunction;
+import org.openhab.core.items.GroupStateAccumulator;
 import org.openhab.core.items.Item;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
@@ -32,6 +33,7 @@ import org.openhab.core.types.UnDefType;
  * @author Kai Kreuzer - Initial contribution
  * @author Thomas Eichstädt-Engelen - Added "N" functions
  * @author Gaël L'hopital - Added count function
+ * @author agent - Added incremental accumulators
  */
 @NonNullByDefault
 public interface ArithmeticGroupFunction extends GroupFunction {
@@ -99,6 +101,12 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return count;
         }
 
+        @Override
+        public @Nullable GroupStateAccumulator createAccumulator() {
+            return new GroupStateAccumulators.ActiveCount(activeState,
+                    (active, total) -> total > 0 && active.equals(total) ? activeState : passiveState);
+        }
+
         @Override
         public State[] getParameters() {
             return new State[] { activeState, passiveState };
@@ -165,6 +173,12 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return count;
         }
 
+        @Override
+        public @Nullable GroupStateAccumulator createAccumulator() {
+            return new GroupStateAccumulators.ActiveCount(activeState,
+                    (active, total) -> active > 0 ? activeState : passiveState);
+        }
+
         @Override
         public State[] getParameters() {
             return new State[] { activeState, passiveState };
@@ -188,6 +202,12 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             State result = super.calculate(items);
             return activeState.equals(result) ? passiveState : activeState;
         }
+
+        @Override
+        public @Nullable GroupStateAccumulator createAccumulator() {
+            return new GroupStateAccumulators.ActiveCount(activeState,
+                    (active, total) -> total > 0 && active.equals(total) ? passiveState : activeState);
+        }
     }
 
     /**
@@ -207,6 +227,12 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             State result = super.calculate(items);
             return activeState.equals(result) ? passiveState : activeState;
         }
+
+        @Override
+        public @Nullable GroupStateAccumulator createAccumulator() {
+            return new GroupStateAccumulators.ActiveCount(activeState,
+                    (active, total) -> active > 0 ? passiveState : activeState);
+        }
     }
 
     /**
@@ -247,6 +273,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        @Override
+        public @Nullable GroupStateAccumulator createAccumulator() {
+            return new GroupStateAccumulators.DecimalSum(true);
+        }
+
         @Override
         public State[] getParameters() {
             return new State[0];
@@ -285,6 +316,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        @Override
+        public @Nullable GroupStateAccumulator createAccumulator() {
+            return new GroupStateAccumulators.DecimalSum(false);
+        }
+
         @Override
         public State[] getParameters() {
             return new State[0];
@@ -328,6 +364,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        @Override
+        public @Nullable GroupStateAccumulator createAccumulator() {
+            return new GroupStateAccumulators.DecimalExtremum(false);
+        }
+
         @Override
         public State[] getParameters() {
             return new State[0];
@@ -371,6 +412,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        @Override
+        public @Nullable GroupStateAccumulator createAccumulator() {
+            return new GroupStateAccumulators.DecimalExtremum(true);
+        }
+
         @Override
         public State[] getParameters() {
             return new State[0];
@@ -419,6 +465,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        @Override
+        public @Nullable GroupStateAccumulator createAccumulator() {
+            return new GroupStateAccumulators.PatternCount(pattern);
+        }
+
         @Override
         public State[] getParameters() {
             return new State[] { new StringType(pattern.pattern()) };
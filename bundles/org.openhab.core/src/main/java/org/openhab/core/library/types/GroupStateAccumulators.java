@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.library.types;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.items.GroupStateAccumulator;
+import org.openhab.core.items.Item;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * The {@link GroupStateAccumulators} contains the {@link GroupStateAccumulator}s of the
+ * {@link ArithmeticGroupFunction}s. Every accumulator produces the same state as the {@code calculate} method of its
+ * function.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+final class GroupStateAccumulators {
+
+    private GroupStateAccumulators() {
+        // prevent instantiation
+    }
+
+    /**
+     * Base class that remembers the contribution of every member. A member without contribution (e.g. a member with
+     * a non-numeric state for a numeric function) is tracked with a {@code null} contribution.
+     *
+     * @param <C> the type of the contributions
+     */
+    abstract static class MemberAccumulator<C> implements GroupStateAccumulator {
+
+        private final Map<String, @Nullable C> contributions = new HashMap<>();
+
+        @Override
+        public void add(Item item) {
+            remove(item);
+            C contribution = contributionOf(item);
+            contributions.put(item.getName(), contribution);
+            if (contribution != null) {
+                added(contribution);
+            }
+        }
+
+        @Override
+        public void update(Item item) {
+            if (contributions.containsKey(item.getName())) {
+                add(item);
+            }
+        }
+
+        @Override
+        public void remove(Item item) {
+            if (contributions.containsKey(item.getName())) {
+                C contribution = contributions.remove(item.getName());
+                if (contribution != null) {
+                    removed(contribution);
+                }
+            }
+        }
+
+        /**
+         * @return the number of members
+         */
+        protected int size() {
+            return contributions.size();
+        }
+
+        protected abstract @Nullable C contributionOf(Item item);
+
+        protected abstract void added(C contribution);
+
+        protected abstract void removed(C contribution);
+    }
+
+    /**
+     * Counts the members that are in an active state, for the logical functions.
+     */
+    static class ActiveCount extends MemberAccumulator<Boolean> {
+
+        private final State activeState;
+        private final BiFunction<Integer, Integer, State> result;
+        private int activeCount;
+
+        /**
+         * @param activeState the active state
+         * @param result calculates the state from the number of active members and the number of all members
+         */
+        ActiveCount(State activeState, BiFunction<Integer, Integer, State> result) {
+            this.activeState = activeState;
+            this.result = result;
+        }
+
+        @Override
+        protected Boolean contributionOf(Item item) {
+            return activeState.equals(item.getStateAs(activeState.getClass()));
+        }
+
+        @Override
+        protected void added(Boolean active) {
+            if (active) {
+                activeCount++;
+            }
+        }
+
+        @Override
+        protected void removed(Boolean active) {
+            if (active) {
+                activeCount--;
+            }
+        }
+
+        @Override
+        public State getState() {
+            return result.apply(activeCount, size());
+        }
+    }
+
+    /**
+     * Counts the members whose state matches a pattern.
+     */
+    static class PatternCount extends MemberAccumulator<Boolean> {
+
+        private final Pattern pattern;
+        private int count;
+
+        PatternCount(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        protected Boolean contributionOf(Item item) {
+            return pattern.matcher(item.getState().toString()).matches();
+        }
+
+        @Override
+        protected void added(Boolean matches) {
+            if (matches) {
+                count++;
+            }
+        }
+
+        @Override
+        protected void removed(Boolean matches) {
+            if (matches) {
+                count--;
+            }
+        }
+
+        @Override
+        public State getState() {
+            return new DecimalType(count);
+        }
+    }
+
+    /**
+     * Sums up the decimal states of the members, for the sum and the average.
+     * <p>
+     * The sum of the calculation has the largest scale of the member states, so the scales of the members are counted
+     * as well. Otherwise the running sum would keep the scale of a member state that has already been replaced.
+     */
+    static class DecimalSum extends MemberAccumulator<BigDecimal> {
+
+        private final boolean average;
+        private BigDecimal sum = BigDecimal.ZERO;
+        private int count;
+        // scale -> number of members with this scale
+        private final TreeMap<Integer, Integer> scales = new TreeMap<>();
+
+        DecimalSum(boolean average) {
+            this.average = average;
+        }
+
+        @Override
+        protected @Nullable BigDecimal contributionOf(Item item) {
+            DecimalType itemState = item.getStateAs(DecimalType.class);
+            return itemState == null ? null : itemState.toBigDecimal();
+        }
+
+        @Override
+        protected void added(BigDecimal value) {
+            sum = sum.add(value);
+            count++;
+            scales.merge(value.scale(), 1, Integer::sum);
+        }
+
+        @Override
+        protected void removed(BigDecimal value) {
+            sum = sum.subtract(value);
+            count--;
+            scales.computeIfPresent(value.scale(), (s, scaleCount) -> scaleCount > 1 ? scaleCount - 1 : null);
+        }
+
+        @Override
+        public State getState() {
+            // the sum of the remaining members has at most their largest scale, so no rounding is needed
+            int scale = scales.isEmpty() ? 0 : Math.max(0, scales.lastKey());
+            BigDecimal sum = this.sum.setScale(scale, RoundingMode.UNNECESSARY);
+            if (!average) {
+                return new DecimalType(sum);
+            } else if (count > 0) {
+                return new DecimalType(sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128));
+            } else {
+                return UnDefType.UNDEF;
+            }
+        }
+    }
+
+    /**
+     * Keeps the decimal states of the members sorted, for the minimum and the maximum.
+     */
+    static class DecimalExtremum extends MemberAccumulator<BigDecimal> {
+
+        private final boolean maximum;
+        // value -> number of members with this value
+        private final TreeMap<BigDecimal, Integer> values = new TreeMap<>();
+
+        DecimalExtremum(boolean maximum) {
+            this.maximum = maximum;
+        }
+
+        @Override
+        protected @Nullable BigDecimal contributionOf(Item item) {
+            DecimalType itemState = item.getStateAs(DecimalType.class);
+            return itemState == null ? null : itemState.toBigDecimal();
+        }
+
+        @Override
+        protected void added(BigDecimal value) {
+            values.merge(value, 1, Integer::sum);
+        }
+
+        @Override
+        protected void removed(BigDecimal value) {
+            values.computeIfPresent(value, (v, count) -> count > 1 ? count - 1 : null);
+        }
+
+        @Override
+        public State getState() {
+            if (values.isEmpty()) {
+                return UnDefType.UNDEF;
+            }
+            return new DecimalType(maximum ? values.lastKey() : values.firstKey());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.common.registry;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the {@link AbstractRegistry}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class AbstractRegistryTest {
+
+    private @NonNullByDefault({}) TestProvider provider;
+    private @NonNullByDefault({}) TestRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        provider = new TestProvider();
+        provider.elements.add(new TestElement("a", "1"));
+        registry = new TestRegistry();
+        registry.addProvider(provider);
+    }
+
+    @Test
+    public void testElementsAreVisibleAfterChanges() {
+        assertThat(registry.getAll(), contains(new TestElement("a", "1")));
+
+        provider.add(new TestElement("b", "1"));
+        provider.update(new TestElement("a", "1"), new TestElement("a", "2"));
+
+        TestElement a = registry.get("a");
+        assertNotNull(a);
+        assertEquals("2", a.value);
+        assertThat(registry.getAll(), containsInAnyOrder(new TestElement("a", "2"), new TestElement("b", "1")));
+        assertEquals(2, registry.stream().count());
+
+        provider.remove(new TestElement("b", "1"));
+        assertNull(registry.get("b"));
+        assertThat(registry.getAll(), contains(new TestElement("a", "2")));
+
+        registry.removeProvider(provider);
+        assertThat(registry.getAll(), is(empty()));
+    }
+
+    @Test
+    public void testGetAllIsAnUnmodifiableSnapshot() {
+        Collection<TestElement> all = registry.getAll();
+
+        provider.add(new TestElement("b", "1"));
+
+        assertThat(all, contains(new TestElement("a", "1")));
+        assertThrows(UnsupportedOperationException.class, () -> all.add(new TestElement("c", "1")));
+    }
+
+    @Test
+    public void testSnapshotIsOnlyCopiedWhenReadAfterChanges() {
+        Collection<TestElement> all = registry.getAll();
+        assertSame(all, registry.getAll());
+
+        for (int i = 0; i < 100; i++) {
+            provider.add(new TestElement("b" + i, "1"));
+            assertEquals(new TestElement("b" + i, "1"), registry.get("b" + i));
+        }
+
+        Collection<TestElement> changed = registry.getAll();
+        assertNotSame(all, changed);
+        assertThat(changed, hasSize(101));
+        assertSame(changed, registry.getAll());
+    }
+
+    @Test
+    public void testElementsOfAProviderAreVisibleWhileTheProviderIsAdded() {
+        TestProvider otherProvider = new TestProvider();
+        otherProvider.elements.add(new TestElement("b", "1"));
+        otherProvider.elements.add(new TestElement("c", "b"));
+
+        registry.addProvider(otherProvider);
+
+        // "c" refers to "b", which has been added by the same provider but is not published yet
+        assertEquals(new TestElement("b", "1"), registry.referencedElements.get("c"));
+        assertThat(registry.getAll(), hasSize(3));
+    }
+
+    private static class TestElement implements Identifiable<String> {
+        private final String uid;
+        private final String value;
+
+        public TestElement(String uid, String value) {
+            this.uid = uid;
+            this.value = value;
+        }
+
+        @Override
+        public String getUID() {
+            return uid;
+        }
+
+        @Override
+        public int hashCode() {
+            return uid.hashCode() * 31 + value.hashCode();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            return obj instanceof TestElement other && uid.equals(other.uid) && value.equals(other.value);
+        }
+    }
+
+    private static class TestProvider extends AbstractProvider<TestElement> {
+        private final List<TestElement> elements = new ArrayList<>();
+
+        @Override
+        public Collection<TestElement> getAll() {
+            return elements;
+        }
+
+        public void add(TestElement element) {
+            elements.add(element);
+            notifyListenersAboutAddedElement(element);
+        }
+
+        public void update(TestElement oldElement, TestElement element) {
+            elements.remove(oldElement);
+            elements.add(element);
+            notifyListenersAboutUpdatedElement(oldElement, element);
+        }
+
+        public void remove(TestElement element) {
+            elements.remove(element);
+            notifyListenersAboutRemovedElement(element);
+        }
+    }
+
+    private static class TestRegistry extends AbstractRegistry<TestElement, String, TestProvider> {
+        // the element each added element refers to with its value, as seen while adding the element
+        private final Map<String, @Nullable TestElement> referencedElements = new HashMap<>();
+
+        public TestRegistry() {
+            super(null);
+        }
+
+        @Override
+        protected void onAddElement(TestElement element) {
+            referencedElements.put(element.getUID(), get(element.value));
+        }
+    }
+}
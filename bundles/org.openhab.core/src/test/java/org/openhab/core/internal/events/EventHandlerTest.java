@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.internal.events;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.events.Event;
+import org.openhab.core.events.EventFactory;
+import org.openhab.core.events.EventSubscriber;
+
+/**
+ * {@link EventHandlerTest} tests the {@link EventHandler}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class EventHandlerTest {
+
+    private static final String TYPE = "TestEvent";
+    private static final String TOPIC = "openhab/test";
+    private static final String PAYLOAD = "{}";
+
+    private final EventFactory eventFactoryMock = mock(EventFactory.class);
+    private final BlockingQueue<Event> receivedEvents = new LinkedBlockingQueue<>();
+    private @NonNullByDefault({}) EventHandler eventHandler;
+
+    @BeforeEach
+    public void setUp() {
+        EventSubscriber subscriber = new EventSubscriber() {
+            @Override
+            public Set<String> getSubscribedEventTypes() {
+                return Set.of(TYPE);
+            }
+
+            @Override
+            public void receive(Event event) {
+                receivedEvents.add(event);
+            }
+        };
+        EventSubscriberIndex index = new EventSubscriberIndex(Map.of(TYPE, Set.of(subscriber)));
+        eventHandler = new EventHandler(() -> index, Map.of(TYPE, eventFactoryMock));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventHandler.close();
+    }
+
+    private Event createEvent(String payload) {
+        Event event = mock(Event.class);
+        when(event.getType()).thenReturn(TYPE);
+        when(event.getTopic()).thenReturn(TOPIC);
+        when(event.getPayload()).thenReturn(payload);
+        return event;
+    }
+
+    private org.osgi.service.event.Event createOSGiEvent(String payload, @Nullable Event typedEvent) {
+        Map<String, Object> properties = typedEvent != null
+                ? Map.of("type", TYPE, "payload", payload, "topic", TOPIC, OSGiEventPublisher.PROPERTY_TYPED_EVENT,
+                        typedEvent)
+                : Map.of("type", TYPE, "payload", payload, "topic", TOPIC);
+        return new org.osgi.service.event.Event(TOPIC, properties);
+    }
+
+    @Test
+    public void testTypedEventIsDispatchedWithoutBeingCreatedAgain() throws Exception {
+        Event event = createEvent(PAYLOAD);
+
+        eventHandler.handleEvent(createOSGiEvent(PAYLOAD, event));
+
+        assertThat(receivedEvents.poll(5, TimeUnit.SECONDS), is(sameInstance(event)));
+        verify(eventFactoryMock, never()).createEvent(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    public void testEventWithoutTypedEventIsCreatedByTheEventFactory() throws Exception {
+        Event event = createEvent(PAYLOAD);
+        when(eventFactoryMock.createEvent(TYPE, TOPIC, PAYLOAD, null)).thenReturn(event);
+
+        eventHandler.handleEvent(createOSGiEvent(PAYLOAD, null));
+
+        assertThat(receivedEvents.poll(5, TimeUnit.SECONDS), is(sameInstance(event)));
+        verify(eventFactoryMock).createEvent(TYPE, TOPIC, PAYLOAD, null);
+    }
+
+    @Test
+    public void testTypedEventWithEmptyPayloadIsIgnored() throws Exception {
+        Event emptyEvent = createEvent("");
+        Event event = createEvent(PAYLOAD);
+
+        eventHandler.handleEvent(createOSGiEvent("", emptyEvent));
+        eventHandler.handleEvent(createOSGiEvent(PAYLOAD, event));
+
+        // events are dispatched to a subscriber in order, so the empty event would have been received first
+        assertThat(receivedEvents.poll(5, TimeUnit.SECONDS), is(sameInstance(event)));
+        assertThat(receivedEvents, is(empty()));
+    }
+}
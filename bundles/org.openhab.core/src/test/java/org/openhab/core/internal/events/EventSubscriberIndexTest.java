@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.internal.events;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.events.Event;
+import org.openhab.core.events.EventFilter;
+import org.openhab.core.events.EventSubscriber;
+import org.openhab.core.events.TopicEventFilter;
+import org.openhab.core.events.TopicGlobEventFilter;
+import org.openhab.core.events.TopicPrefixEventFilter;
+
+/**
+ * {@link EventSubscriberIndexTest} tests the {@link EventSubscriberIndex}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class EventSubscriberIndexTest {
+
+    private static final String TYPE_A = "TypeA";
+    private static final String TYPE_B = "TypeB";
+
+    private final Map<String, Set<EventSubscriber>> typedEventSubscribers = new HashMap<>();
+
+    private EventSubscriber subscriber(@Nullable EventFilter filter, String... types) {
+        EventSubscriber subscriber = mock(EventSubscriber.class);
+        when(subscriber.getSubscribedEventTypes()).thenReturn(Set.of(types));
+        when(subscriber.getEventFilter()).thenReturn(filter);
+        for (String type : types) {
+            typedEventSubscribers.computeIfAbsent(type, t -> new HashSet<>()).add(subscriber);
+        }
+        return subscriber;
+    }
+
+    private Event createEvent(String type, String topic) {
+        Event event = mock(Event.class);
+        when(event.getType()).thenReturn(type);
+        when(event.getTopic()).thenReturn(topic);
+        return event;
+    }
+
+    @Test
+    public void testTypeRouting() {
+        EventSubscriber typeA = subscriber(null, TYPE_A);
+        EventSubscriber all = subscriber(null, EventSubscriber.ALL_EVENT_TYPES);
+        EventSubscriber both = subscriber(null, TYPE_A, EventSubscriber.ALL_EVENT_TYPES);
+
+        EventSubscriberIndex index = new EventSubscriberIndex(typedEventSubscribers);
+
+        assertTrue(index.hasSubscribers(TYPE_A));
+        assertTrue(index.hasSubscribers(TYPE_B));
+        assertThat(index.getEventSubscribers(createEvent(TYPE_A, "openhab/items/a/state")),
+                containsInAnyOrder(typeA, all, both));
+        assertThat(index.getEventSubscribers(createEvent(TYPE_B, "openhab/items/a/state")),
+                containsInAnyOrder(all, both));
+    }
+
+    @Test
+    public void testNoSubscribers() {
+        subscriber(null, TYPE_A);
+
+        EventSubscriberIndex index = new EventSubscriberIndex(typedEventSubscribers);
+
+        assertFalse(index.hasSubscribers(TYPE_B));
+        assertThat(index.getEventSubscribers(createEvent(TYPE_B, "openhab/items/a/state")), is(empty()));
+    }
+
+    @Test
+    public void testPrefixRouting() {
+        EventSubscriber itemA = subscriber(new TopicPrefixEventFilter("openhab/items/a/"), TYPE_A);
+        EventSubscriber itemAb = subscriber(new TopicPrefixEventFilter("openhab/items/ab/"), TYPE_A);
+        EventSubscriber partial = subscriber(new TopicPrefixEventFilter("openhab/items/a"), TYPE_A);
+        EventSubscriber items = subscriber(new TopicPrefixEventFilter("openhab/items/"), TYPE_A);
+
+        EventSubscriberIndex index = new EventSubscriberIndex(typedEventSubscribers);
+
+        assertThat(index.getEventSubscribers(createEvent(TYPE_A, "openhab/items/a/state")),
+                containsInAnyOrder(itemA, partial, items));
+        assertThat(index.getEventSubscribers(createEvent(TYPE_A, "openhab/items/ab/state")),
+                containsInAnyOrder(itemAb, partial, items));
+        assertThat(index.getEventSubscribers(createEvent(TYPE_A, "openhab/items/b/state")), contains(items));
+        assertThat(index.getEventSubscribers(createEvent(TYPE_A, "openhab/items/a")),
+                containsInAnyOrder(partial, items));
+        assertThat(index.getEventSubscribers(createEvent(TYPE_A, "openhab/things/a/status")), is(empty()));
+    }
+
+    @Test
+    public void testGlobAndOtherFilters() {
+        EventSubscriber glob = subscriber(new TopicGlobEventFilter("openhab/items/*/command"), TYPE_A);
+        EventSubscriber deepGlob = subscriber(new TopicGlobEventFilter("openhab/**"), TYPE_A);
+        EventSubscriber regex = subscriber(new TopicEventFilter("openhab/things/.*"), TYPE_A);
+
+        EventSubscriberIndex index = new EventSubscriberIndex(typedEventSubscribers);
+
+        assertThat(index.getEventSubscribers(createEvent(TYPE_A, "openhab/items/a/command")),
+                containsInAnyOrder(glob, deepGlob));
+        assertThat(index.getEventSubscribers(createEvent(TYPE_A, "openhab/items/a/state")), contains(deepGlob));
+        assertThat(index.getEventSubscribers(createEvent(TYPE_A, "openhab/things/a/status")),
+                containsInAnyOrder(deepGlob, regex));
+        assertThat(index.getEventSubscribers(createEvent(TYPE_A, "other/items/a/command")), is(empty()));
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.internal.events;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.events.AbstractEvent;
+import org.openhab.core.events.Event;
+import org.openhab.core.events.EventFactory;
+import org.openhab.core.events.EventSubscriber;
+
+/**
+ * {@link ThreadedEventHandlerTest} tests the {@link ThreadedEventHandler}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ThreadedEventHandlerTest {
+
+    private static final String TYPE = "TestEvent";
+    private static final int SHARD_COUNT = 4;
+
+    private final EventFactory eventFactoryMock = mock(EventFactory.class);
+    private final BlockingQueue<Event> receivedEvents = new LinkedBlockingQueue<>();
+    private final EventSubscriberIndex index = new EventSubscriberIndex(Map.of(TYPE, Set.of(new EventSubscriber() {
+        @Override
+        public Set<String> getSubscribedEventTypes() {
+            return Set.of(TYPE);
+        }
+
+        @Override
+        public void receive(Event event) {
+            receivedEvents.add(event);
+        }
+    })));
+    private final ThreadedEventHandler eventHandler = new ThreadedEventHandler(() -> index,
+            Map.of(TYPE, eventFactoryMock), SHARD_COUNT);
+
+    @AfterEach
+    public void tearDown() {
+        eventHandler.close();
+    }
+
+    private static Event createEvent(String topic, String payload) {
+        return new AbstractEvent(topic, payload, null) {
+            @Override
+            public String getType() {
+                return TYPE;
+            }
+        };
+    }
+
+    private static org.osgi.service.event.Event createOSGiEvent(String topic, String payload,
+            @Nullable Event typedEvent) {
+        Map<String, Object> properties = typedEvent != null
+                ? Map.of("type", TYPE, "payload", payload, "topic", topic, OSGiEventPublisher.PROPERTY_TYPED_EVENT,
+                        typedEvent)
+                : Map.of("type", TYPE, "payload", payload, "topic", topic);
+        return new org.osgi.service.event.Event("openhab", properties);
+    }
+
+    private static String itemTopic(String itemName, String suffix) {
+        return "openhab/items/" + itemName + "/" + suffix;
+    }
+
+    // finds an item whose events are handled by another shard than the events of the given item
+    private String itemOfOtherShard(String itemName) {
+        int shard = eventHandler.shardIndex(itemTopic(itemName, "state"));
+        return IntStream.range(0, 100).mapToObj(i -> "item" + i)
+                .filter(name -> eventHandler.shardIndex(itemTopic(name, "state")) != shard).findFirst().orElseThrow();
+    }
+
+    @Test
+    public void testEventsOfAnItemAreHandledInOrder() throws InterruptedException {
+        List<Event> itemEvents = new ArrayList<>();
+        eventHandler.open();
+        for (int i = 0; i < 100; i++) {
+            // the events of one item have different topics, but are handled by the same shard
+            Event event = createEvent(itemTopic("item", i % 2 == 0 ? "state" : "command"), "{\"value\":" + i + "}");
+            itemEvents.add(event);
+            eventHandler.handleEvent(createOSGiEvent(event.getTopic(), event.getPayload(), event));
+            Event otherEvent = createEvent(itemTopic("other" + i, "state"), "{}");
+            eventHandler.handleEvent(createOSGiEvent(otherEvent.getTopic(), otherEvent.getPayload(), otherEvent));
+        }
+
+        List<Event> receivedItemEvents = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Event event = receivedEvents.poll(5, TimeUnit.SECONDS);
+            assertThat(event, is(notNullValue()));
+            if (event.getTopic().startsWith("openhab/items/item/")) {
+                receivedItemEvents.add(event);
+            }
+        }
+        assertThat(receivedItemEvents, is(itemEvents));
+    }
+
+    @Test
+    public void testQueueSizesAreReportedPerShard() {
+        // the shards are not started, so the events stay queued
+        String itemName = "item";
+        String otherItemName = itemOfOtherShard(itemName);
+        for (int i = 0; i < 3; i++) {
+            eventHandler.handleEvent(createOSGiEvent(itemTopic(itemName, "state"), "{}", null));
+        }
+        eventHandler.handleEvent(createOSGiEvent(itemTopic(otherItemName, "state"), "{}", null));
+
+        int[] queueSizes = eventHandler.getQueueSizes();
+        assertThat(queueSizes.length, is(SHARD_COUNT));
+        assertThat(queueSizes[eventHandler.shardIndex(itemTopic(itemName, "state"))], is(3));
+        assertThat(queueSizes[eventHandler.shardIndex(itemTopic(otherItemName, "state"))], is(1));
+        assertThat(IntStream.of(queueSizes).sum(), is(4));
+    }
+
+    @Test
+    public void testSlowEventDoesNotBlockOtherShards() throws Exception {
+        String slowItemName = "item";
+        String otherItemName = itemOfOtherShard(slowItemName);
+        String slowTopic = itemTopic(slowItemName, "state");
+        String otherTopic = itemTopic(otherItemName, "state");
+        Event otherEvent = createEvent(otherTopic, "{}");
+        CountDownLatch release = new CountDownLatch(1);
+        when(eventFactoryMock.createEvent(eq(TYPE), eq(slowTopic), anyString(), any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return createEvent(slowTopic, "{}");
+        });
+        when(eventFactoryMock.createEvent(eq(TYPE), eq(otherTopic), anyString(), any())).thenReturn(otherEvent);
+        eventHandler.open();
+
+        try {
+            // the shard of the slow item is blocked, while the events of the other item are still handled
+            eventHandler.handleEvent(createOSGiEvent(slowTopic, "{}", null));
+            eventHandler.handleEvent(createOSGiEvent(otherTopic, "{}", null));
+            assertThat(receivedEvents.poll(5, TimeUnit.SECONDS), is(sameInstance(otherEvent)));
+        } finally {
+            release.countDown();
+        }
+        Event slowEvent = receivedEvents.poll(5, TimeUnit.SECONDS);
+        assertThat(slowEvent, is(notNullValue()));
+        assertThat(slowEvent.getTopic(), is(slowTopic));
+    }
+}
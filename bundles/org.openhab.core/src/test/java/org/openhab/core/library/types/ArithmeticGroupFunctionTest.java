@@ -15,7 +15,7 @@ package org.openhab.core.library.types;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.number.IsCloseTo.closeTo;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.Collections;
 import java.util.HashSet;
@@ -26,6 +26,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.junit.jupiter.api.Test;
 import org.openhab.core.items.GenericItem;
 import org.openhab.core.items.GroupFunction;
+import org.openhab.core.items.GroupStateAccumulator;
 import org.openhab.core.items.Item;
 import org.openhab.core.library.items.DimmerItem;
 import org.openhab.core.library.items.SwitchItem;
@@ -274,6 +275,76 @@ public class ArithmeticGroupFunctionTest {
         assertEquals(new DecimalType("2"), state);
     }
 
+    @Test
+    public void testAccumulatorsMatchCalculation() {
+        List<GroupFunction> functions = List.of(new ArithmeticGroupFunction.And(OnOffType.ON, OnOffType.OFF),
+                new ArithmeticGroupFunction.Or(OnOffType.ON, OnOffType.OFF),
+                new ArithmeticGroupFunction.NAnd(OnOffType.ON, OnOffType.OFF),
+                new ArithmeticGroupFunction.NOr(OnOffType.ON, OnOffType.OFF), new ArithmeticGroupFunction.Sum(),
+                new ArithmeticGroupFunction.Avg(), new ArithmeticGroupFunction.Min(),
+                new ArithmeticGroupFunction.Max(), new ArithmeticGroupFunction.Count(new StringType("[0-9]")));
+
+        for (GroupFunction function : functions) {
+            TestItem item1 = new TestItem("TestItem1", new DecimalType("1"));
+            TestItem item2 = new TestItem("TestItem2", new DecimalType("5"));
+            TestItem item3 = new TestItem("TestItem3", UnDefType.UNDEF);
+            Set<Item> items = new HashSet<>(List.of(item1, item2, item3));
+
+            GroupStateAccumulator accumulator = function.createAccumulator();
+            assertNotNull(accumulator);
+            items.forEach(accumulator::add);
+            assertEquals(function.calculate(items), accumulator.getState(), function.getClass().getSimpleName());
+
+            item3.setState(new DecimalType("7"));
+            accumulator.update(item3);
+            assertEquals(function.calculate(items), accumulator.getState(), function.getClass().getSimpleName());
+
+            item1.setState(OnOffType.ON);
+            item2.setState(OnOffType.ON);
+            item3.setState(OnOffType.ON);
+            items.forEach(accumulator::update);
+            assertEquals(function.calculate(items), accumulator.getState(), function.getClass().getSimpleName());
+
+            item2.setState(new DecimalType("12.5"));
+            accumulator.update(item2);
+            items.remove(item1);
+            accumulator.remove(item1);
+            assertEquals(function.calculate(items), accumulator.getState(), function.getClass().getSimpleName());
+
+            items.forEach(accumulator::remove);
+            accumulator.update(item1);
+            assertEquals(function.calculate(Set.of()), accumulator.getState(), function.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    public void testSumAccumulatorsMatchCalculationWithMixedScales() {
+        for (GroupFunction function : List.of(new ArithmeticGroupFunction.Sum(), new ArithmeticGroupFunction.Avg())) {
+            TestItem item1 = new TestItem("TestItem1", new DecimalType("1.50"));
+            TestItem item2 = new TestItem("TestItem2", new DecimalType("2"));
+            TestItem item3 = new TestItem("TestItem3", new DecimalType("1E+2"));
+            Set<Item> items = new HashSet<>(List.of(item1, item2, item3));
+
+            GroupStateAccumulator accumulator = function.createAccumulator();
+            assertNotNull(accumulator);
+            items.forEach(accumulator::add);
+            assertEquals(function.calculate(items).toFullString(), accumulator.getState().toFullString());
+
+            // the scale of the replaced state must not remain in the result
+            item1.setState(new DecimalType("1"));
+            accumulator.update(item1);
+            assertEquals(function.calculate(items).toFullString(), accumulator.getState().toFullString());
+
+            item2.setState(new DecimalType("0.125"));
+            accumulator.update(item2);
+            assertEquals(function.calculate(items).toFullString(), accumulator.getState().toFullString());
+
+            items.remove(item2);
+            accumulator.remove(item2);
+            assertEquals(function.calculate(items).toFullString(), accumulator.getState().toFullString());
+        }
+    }
+
     private class TestItem extends GenericItem {
 
         public TestItem(String name, State state) {
@@ -516,6 +516,44 @@ public class GroupItemOSGiTest extends JavaOSGiTest {
         waitForAssert(() -> assertThat(events, hasSize(1)));
     }
 
+    @Test
+    public void assertThatMemberUpdatesWithinCoalescingWindowPostOneEvent() throws InterruptedException {
+        events.clear();
+        GroupItem groupItem = new GroupItem("root", new NumberItem("number"), new ArithmeticGroupFunction.Sum());
+        groupItem.setItemStateConverter(itemStateConverter);
+        groupItem.addedMetadata(
+                new Metadata(new MetadataKey(GroupItem.COALESCING_METADATA_NAMESPACE, "root"), "500", null));
+
+        NumberItem member1 = new NumberItem("member1");
+        NumberItem member2 = new NumberItem("member2");
+        groupItem.addMember(member1);
+        groupItem.addMember(member2);
+
+        groupItem.setEventPublisher(publisher);
+
+        member1.setState(new DecimalType(1));
+        member2.setState(new DecimalType(2));
+        member1.setState(new DecimalType(3));
+
+        waitForAssert(() -> assertThat(events, hasSize(2)));
+        Thread.sleep(WAIT_EVENT_TO_BE_HANDLED);
+        assertThat(events, hasSize(2));
+
+        List<Event> groupStateUpdatedEvents = events.stream().filter(GroupStateUpdatedEvent.class::isInstance)
+                .collect(Collectors.toList());
+        assertThat(groupStateUpdatedEvents, hasSize(1));
+        assertThat(((GroupStateUpdatedEvent) groupStateUpdatedEvents.get(0)).getItemState(), is(new DecimalType(5)));
+        assertThat(groupItem.getState(), is(new DecimalType(5)));
+
+        // without coalescing window every update is calculated on its own
+        events.clear();
+        groupItem.removedMetadata(
+                new Metadata(new MetadataKey(GroupItem.COALESCING_METADATA_NAMESPACE, "root"), "500", null));
+        member2.setState(new DecimalType(4));
+
+        waitForAssert(() -> assertThat(groupItem.getState(), is(new DecimalType(7))));
+    }
+
     @Test
     public void assertThatItemCommandEventsAreEmittedFromCommand() {
         events.clear();
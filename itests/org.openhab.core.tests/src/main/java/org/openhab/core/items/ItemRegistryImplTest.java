@@ -16,12 +16,14 @@ import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
 import static org.hamcrest.core.IsIterableContaining.hasItem;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -33,6 +35,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.openhab.core.common.registry.ProviderChangeListener;
 import org.openhab.core.common.registry.RegistryChangeListener;
 import org.openhab.core.events.EventPublisher;
 import org.openhab.core.i18n.UnitProvider;
@@ -188,6 +191,32 @@ public class ItemRegistryImplTest extends JavaTest {
         assertThat(itemRegistry.getItemsByTag(GenericItem.class, CAMERA_TAG).size(), is(4));
     }
 
+    @Test
+    public void assertTagAndTypeLookupsFollowItemChanges() {
+        SwitchItem updatedCameraItem = new SwitchItem(CAMERA_ITEM_NAME1);
+        updatedCameraItem.addTag(SENSOR_TAG);
+        itemProvider.update(updatedCameraItem);
+        itemProvider.remove(CAMERA_ITEM_NAME3);
+
+        List<String> cameraItemNames = itemRegistry.getItemsByTag(CAMERA_TAG).stream().map(Item::getName)
+                .collect(toList());
+        assertThat(cameraItemNames, containsInAnyOrder(CAMERA_ITEM_NAME2, CAMERA_ITEM_NAME4));
+        List<String> sensorItemNames = itemRegistry.getItemsByTag(SENSOR_TAG.toUpperCase()).stream()
+                .map(Item::getName).collect(toList());
+        assertThat(sensorItemNames, containsInAnyOrder(CAMERA_ITEM_NAME1, CAMERA_ITEM_NAME2));
+        assertThat(itemRegistry.getItemsOfType(CoreItemFactory.NUMBER), hasSize(1));
+        assertThat(itemRegistry.getItemsByTagAndType(CoreItemFactory.SWITCH, SENSOR_TAG), hasSize(2));
+        assertThat(itemRegistry.getItems(CAMERA_ITEM_NAME1), hasSize(1));
+        assertThat(itemRegistry.getItems("camera*"), hasSize(3));
+
+        // tags added to a registered item are found without an update of the item
+        Item registeredItem = itemRegistry.get(CAMERA_ITEM_NAME4);
+        assertNotNull(registeredItem);
+        ((GenericItem) registeredItem).addTag(SENSOR_TAG);
+        assertThat(itemRegistry.getItemsByTag(SENSOR_TAG), hasSize(3));
+        assertThat(itemRegistry.getItemsByTagAndType(CoreItemFactory.NUMBER, SENSOR_TAG), hasSize(1));
+    }
+
     @Test
     public void assertItemRegistrySetsAndRemovesMembersOfGroupItems() throws ItemNotFoundException {
         // test added item with group name is added as member to group
@@ -227,6 +256,39 @@ public class ItemRegistryImplTest extends JavaTest {
         assertThat(groupItem3.getMembers().contains(updatedSwitchItem), is(true));
     }
 
+    @Test
+    public void assertMembersAreSetIfAProviderProvidesGroupsAndMembers() throws ItemNotFoundException {
+        SwitchItem memberBefore = new SwitchItem("memberBefore");
+        memberBefore.addGroupName("group");
+        SwitchItem memberAfter = new SwitchItem("memberAfter");
+        memberAfter.addGroupName("group");
+        List<Item> items = List.of(memberBefore, new GroupItem("group"), memberAfter);
+        ItemProvider provider = new ItemProvider() {
+            @Override
+            public Collection<Item> getAll() {
+                return items;
+            }
+
+            @Override
+            public void addProviderChangeListener(ProviderChangeListener<Item> listener) {
+            }
+
+            @Override
+            public void removeProviderChangeListener(ProviderChangeListener<Item> listener) {
+            }
+        };
+
+        // all items of the provider are published at once, after they have been added
+        ItemRegistry registry = new ItemRegistryImpl(mock(MetadataRegistry.class)) {
+            {
+                addProvider(provider);
+            }
+        };
+
+        GroupItem groupItem = (GroupItem) registry.getItem("group");
+        assertThat(groupItem.getMembers(), containsInAnyOrder(memberBefore, memberAfter));
+    }
+
     @Test
     public void testGroupUpdateWithModificationOfLiveInstance() {
         itemRegistry.add(new StringItem("item"));